@@ -14,6 +14,15 @@ package com.zipwhip.api;
  * test : Connection to test
  * </p>
  * The default is prod-https.
+ * <p/>
+ * The HTTP connection pool defaults can be set the same way, see {@link HttpClientSettings}:
+ * </p>
+ * {@code -Dzw_http_max_connections_per_host=}, {@code -Dzw_http_max_connections=},
+ * {@code -Dzw_http_connect_timeout_ms=}, {@code -Dzw_http_request_timeout_ms=},
+ * {@code -Dzw_http_idle_timeout_ms=} and {@code -Dzw_http_keep_alive=}
+ * </p>
+ * Left unset they are Ning's own defaults, so there is no limit on the number of connections. The connect timeout
+ * is the 10 seconds it has always been.
  */
 public class ApiConnectionConfiguration {
 
@@ -51,4 +60,11 @@ public class ApiConnectionConfiguration {
     public static String SIGNALS_HOST;
     public static int    SIGNALS_PORT;
 
+    public static int     HTTP_MAX_CONNECTIONS_PER_HOST = Integer.getInteger("zw_http_max_connections_per_host", HttpClientSettings.NO_LIMIT);
+    public static int     HTTP_MAX_CONNECTIONS = Integer.getInteger("zw_http_max_connections", HttpClientSettings.NO_LIMIT);
+    public static int     HTTP_CONNECT_TIMEOUT_MS = Integer.getInteger("zw_http_connect_timeout_ms", 10000);
+    public static int     HTTP_REQUEST_TIMEOUT_MS = Integer.getInteger("zw_http_request_timeout_ms", 60000);
+    public static int     HTTP_IDLE_TIMEOUT_MS = Integer.getInteger("zw_http_idle_timeout_ms", 60000);
+    public static boolean HTTP_KEEP_ALIVE = Boolean.parseBoolean(System.getProperty("zw_http_keep_alive", "true"));
+
 }
@@ -1,11 +1,16 @@
 package com.zipwhip.api;
 
 import com.zipwhip.api.dto.*;
+import com.zipwhip.api.json.StreamingJsonReader;
 import com.zipwhip.api.response.BooleanServerResponse;
+import com.zipwhip.api.response.JsonDtoBinder;
+import com.zipwhip.api.response.JsonDtoBinders;
+import com.zipwhip.api.response.JsonListIterator;
 import com.zipwhip.api.response.ServerResponse;
 import com.zipwhip.api.response.StringServerResponse;
 import com.zipwhip.api.settings.SettingsStore;
 import com.zipwhip.api.signals.Signal;
+import com.zipwhip.api.signals.SignalFilter;
 import com.zipwhip.api.signals.SignalProvider;
 import com.zipwhip.concurrent.ObservableFuture;
 import com.zipwhip.events.Observer;
@@ -15,6 +20,7 @@ import com.zipwhip.signals.presence.PresenceCategory;
 import com.zipwhip.util.CollectionUtil;
 import com.zipwhip.util.StringUtil;
 import com.zipwhip.util.UrlUtil;
+import org.json.JSONException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +40,8 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultZipwhipClient.class);
 
+    private volatile int pagesToPrefetch = 1;
+
     /**
      * Create a new DefaultZipwhipClient with out a {@code SignalProvider}
      *
@@ -171,6 +179,11 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
         return responseParser.parseConversations(executeSync(CONVERSATION_LIST, params));
     }
 
+    @Override
+    public Iterable<Conversation> iterateConversations(int pageSize) {
+        return pages(CONVERSATION_LIST, new HashMap<String, Object>(), pageSize, JsonDtoBinders.CONVERSATION, "response");
+    }
+
     @Override
     public List<Contact> listContacts() throws Exception {
         return responseParser.parseContacts(executeSync(CONTACT_LIST, new HashMap<String, Object>()));
@@ -184,6 +197,11 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
         return responseParser.parseContacts(executeSync(CONTACT_LIST, params));
     }
 
+    @Override
+    public Iterable<Contact> iterateContacts(int pageSize) {
+        return pages(CONTACT_LIST, new HashMap<String, Object>(), pageSize, JsonDtoBinders.CONTACT, "response");
+    }
+
     @Override
     public boolean readConversation(String fingerprint) throws Exception {
         if (StringUtil.isNullOrEmpty(fingerprint)) {
@@ -267,6 +285,18 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
         return responseParser.parseMessagesFromConversation(executeSync(CONVERSATION_GET, params));
     }
 
+    @Override
+    public Iterable<Message> iterateMessagesByFingerprint(String fingerprint, int pageSize) {
+        if (StringUtil.isNullOrEmpty(fingerprint)) {
+            throw new IllegalArgumentException("Attempting to call iterateMessagesByFingerprint with a null or empty fingerprint.");
+        }
+
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("fingerprint", fingerprint);
+
+        return pages(CONVERSATION_GET, params, pageSize, JsonDtoBinders.MESSAGE, "response", "messages");
+    }
+
     @Override
     public List<Message> listMessages() throws Exception {
         return responseParser.parseMessages(executeSync(MESSAGE_LIST, new HashMap<String, Object>()));
@@ -289,6 +319,81 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
         return responseParser.parseMessages(executeSync(MESSAGE_LIST, params));
     }
 
+    @Override
+    public Iterable<Message> iterateMessages(int pageSize) {
+        return pages(MESSAGE_LIST, new HashMap<String, Object>(), pageSize, JsonDtoBinders.MESSAGE, "response");
+    }
+
+    /**
+     * @param method   A list call that takes a start and a limit.
+     * @param params   The other parameters of the call.
+     * @param pageSize The limit.
+     * @param binder   Binds the elements.
+     * @param path     The keys that lead to the list in the response.
+     * @return The whole list, a page at a time. The pages are read straight from the response body.
+     */
+    protected <T> Iterable<T> pages(final String method, final Map<String, Object> params, final int pageSize, final JsonDtoBinder<T> binder, final String... path) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+
+        return new Iterable<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new PageIterator<T>(pageSize, pagesToPrefetch) {
+                    @Override
+                    protected ObservableFuture<String> request(int start, int limit) throws Exception {
+                        if (!connection.isAuthenticated()) {
+                            throw new Exception("The connection is not authenticated, can't continue.");
+                        }
+
+                        Map<String, Object> page = new HashMap<String, Object>(params);
+                        page.put("start", Integer.toString(start));
+                        page.put("limit", Integer.toString(limit));
+
+                        return getConnection().send(method, page);
+                    }
+
+                    @Override
+                    protected Iterator<T> read(String page) throws Exception {
+                        try {
+                            return new JsonListIterator<T>(new StreamingJsonReader(page), binder, path);
+                        } catch (JSONException e) {
+                            // probably an error, which the parser knows how to read
+                            checkAndThrowError(responseParser.parse(page));
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    protected int total(Iterator<T> page) {
+                        String total = ((JsonListIterator<T>) page).getSibling("total");
+
+                        try {
+                            return total == null ? -1 : Integer.parseInt(total);
+                        } catch (NumberFormatException e) {
+                            return -1;
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @return How many pages the iterate methods ask for ahead of the one being read.
+     */
+    public int getPagesToPrefetch() {
+        return pagesToPrefetch;
+    }
+
+    public void setPagesToPrefetch(int pagesToPrefetch) {
+        if (pagesToPrefetch < 0) {
+            throw new IllegalArgumentException("Can't prefetch a negative number of pages");
+        }
+        this.pagesToPrefetch = pagesToPrefetch;
+    }
+
     @Deprecated
     @Override
     public boolean messageRead(List<String> uuids) throws Exception {
@@ -602,6 +707,16 @@ public class DefaultZipwhipClient extends ClientZipwhipNetworkSupport implements
         getSignalProvider().getSignalReceivedEvent().addObserver(observer);
     }
 
+    @Override
+    public void addSignalObserver(SignalFilter filter, Observer<List<Signal>> observer) {
+        getSignalProvider().addSignalObserver(filter, observer);
+    }
+
+    @Override
+    public void removeSignalObserver(Observer<List<Signal>> observer) {
+        getSignalProvider().removeSignalObserver(observer);
+    }
+
     @Override
     public void addSignalsConnectionObserver(Observer<Boolean> observer) {
         getSignalProvider().getConnectionChangedEvent().addObserver(observer);
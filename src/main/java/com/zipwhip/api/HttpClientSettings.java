@@ -0,0 +1,118 @@
+package com.zipwhip.api;
+
+/**
+ * The connection pool and timeouts of an HTTP {@code ApiConnection}.
+ * <p/>
+ * A new instance starts with the defaults in {@link ApiConnectionConfiguration}, which are Ning's own unless they are
+ * set: no limit on connections, and so no requests waiting for one. Changing it after it has been given to a
+ * connection has no effect on that connection.
+ */
+public class HttpClientSettings {
+
+    /**
+     * A connection limit that is not set.
+     */
+    public static final int NO_LIMIT = -1;
+
+    private int maxConnectionsPerHost = ApiConnectionConfiguration.HTTP_MAX_CONNECTIONS_PER_HOST;
+    private int maxConnections = ApiConnectionConfiguration.HTTP_MAX_CONNECTIONS;
+    private int connectTimeoutMillis = ApiConnectionConfiguration.HTTP_CONNECT_TIMEOUT_MS;
+    private int requestTimeoutMillis = ApiConnectionConfiguration.HTTP_REQUEST_TIMEOUT_MS;
+    private int idleTimeoutMillis = ApiConnectionConfiguration.HTTP_IDLE_TIMEOUT_MS;
+    private boolean keepAlive = ApiConnectionConfiguration.HTTP_KEEP_ALIVE;
+
+    public HttpClientSettings() {
+    }
+
+    public HttpClientSettings(HttpClientSettings settings) {
+        this.maxConnectionsPerHost = settings.maxConnectionsPerHost;
+        this.maxConnections = settings.maxConnections;
+        this.connectTimeoutMillis = settings.connectTimeoutMillis;
+        this.requestTimeoutMillis = settings.requestTimeoutMillis;
+        this.idleTimeoutMillis = settings.idleTimeoutMillis;
+        this.keepAlive = settings.keepAlive;
+    }
+
+    /**
+     * @return How many requests can be on the wire to one host at once. More than that wait their turn, they are
+     *         counted as pending. {@link #NO_LIMIT} by default.
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public HttpClientSettings setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost < 1 && maxConnectionsPerHost != NO_LIMIT) throw new IllegalArgumentException("maxConnectionsPerHost must be at least 1, or NO_LIMIT");
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        return this;
+    }
+
+    /**
+     * @return How many connections can be open, to all hosts, at once. {@link #NO_LIMIT} by default.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public HttpClientSettings setMaxConnections(int maxConnections) {
+        if (maxConnections < 1 && maxConnections != NO_LIMIT) throw new IllegalArgumentException("maxConnections must be at least 1, or NO_LIMIT");
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public HttpClientSettings setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return How long a request can take, from being sent to the end of the response. -1 for no limit.
+     */
+    public int getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    public HttpClientSettings setRequestTimeoutMillis(int requestTimeoutMillis) {
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return How long a kept alive connection can sit idle in the pool before it is closed.
+     */
+    public int getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public HttpClientSettings setIdleTimeoutMillis(int idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if connections are kept alive and reused, otherwise every request opens a new one.
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public HttpClientSettings setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientSettings{maxConnectionsPerHost=" + maxConnectionsPerHost
+                + ", maxConnections=" + maxConnections
+                + ", connectTimeoutMillis=" + connectTimeoutMillis
+                + ", requestTimeoutMillis=" + requestTimeoutMillis
+                + ", idleTimeoutMillis=" + idleTimeoutMillis
+                + ", keepAlive=" + keepAlive + '}';
+    }
+
+}
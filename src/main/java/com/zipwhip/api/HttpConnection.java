@@ -1,6 +1,6 @@
 package com.zipwhip.api;
 
-import com.zipwhip.api.request.RequestBuilder;
+import com.zipwhip.api.request.SignedRequestBuilder;
 import com.zipwhip.concurrent.DefaultObservableFuture;
 import com.zipwhip.concurrent.ExecutorFactory;
 import com.zipwhip.concurrent.ObservableFuture;
@@ -10,7 +10,6 @@ import com.zipwhip.lifecycle.DestroyableBase;
 import com.zipwhip.util.DownloadURL;
 import com.zipwhip.util.SignTool;
 import com.zipwhip.util.StringUtil;
-import com.zipwhip.util.UrlUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -138,17 +137,7 @@ public class HttpConnection extends CascadingDestroyableBase implements ApiConne
     }
 
     @Override
-    public ObservableFuture<String> send(String method, Map<String, Object> params) {
-
-        RequestBuilder rb = new RequestBuilder();
-
-        // convert the map into a key/value HTTP params string
-        rb.params(params, true);
-
-        return send(method, rb.build());
-    }
-
-    private ObservableFuture<String> send(final String method, final String params) {
+    public ObservableFuture<String> send(final String method, final Map<String, Object> params) {
 
         // NOTE: if this is a SimpleExecutor (single threaded) then this will be a deadlock.
         final ObservableFuture<String> future = new DefaultObservableFuture<String>(this, workerExecutor);
@@ -160,7 +149,7 @@ public class HttpConnection extends CascadingDestroyableBase implements ApiConne
                 String result;
 
                 try {
-                    result = DownloadURL.get(UrlUtil.getSignedUrl(host, apiVersion, method, params, sessionKey, authenticator));
+                    result = DownloadURL.get(SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, true, sessionKey, authenticator));
                 } catch (Exception e) {
 
                     LOGGER.error("problem with DownloadUrl", e);
@@ -0,0 +1,65 @@
+package com.zipwhip.api;
+
+/**
+ * A snapshot of what an HTTP {@code ApiConnection} is doing with its connections.
+ * <p/>
+ * The counts are read one after another without a lock, so under load they may not add up exactly.
+ */
+public class HttpPoolStats {
+
+    private final int active;
+    private final int idle;
+    private final int pending;
+    private final long requests;
+    private final long reused;
+
+    public HttpPoolStats(int active, int idle, int pending, long requests, long reused) {
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.requests = requests;
+        this.reused = reused;
+    }
+
+    /**
+     * @return Requests that are on the wire.
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return Kept alive connections that are in the pool waiting for a request.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return Requests that are waiting for one of the active ones to finish.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return Requests that have been put on the wire since the connection was created.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return How many of those went out on a connection from the pool rather than a new one.
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpPoolStats{active=" + active + ", idle=" + idle + ", pending=" + pending
+                + ", requests=" + requests + ", reused=" + reused + '}';
+    }
+
+}
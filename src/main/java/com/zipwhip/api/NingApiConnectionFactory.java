@@ -1,6 +1,7 @@
 package com.zipwhip.api;
 
 import com.ning.http.client.ProxyServer;
+import com.zipwhip.api.request.RequestBodyPolicy;
 import com.zipwhip.concurrent.ConfiguredFactory;
 import com.zipwhip.lifecycle.CascadingDestroyableBase;
 import com.zipwhip.lifecycle.DestroyableBase;
@@ -22,6 +23,8 @@ public class NingApiConnectionFactory extends ApiConnectionFactory {
 
     private ConfiguredFactory<String, ExecutorService> workerExecutorFactory;
     private Proxy proxy;
+    private RequestBodyPolicy requestBodyPolicy = RequestBodyPolicy.FORM_BODY;
+    private HttpClientSettings httpClientSettings = new HttpClientSettings();
 
     /**
      * NingApiConnectionFactory constructor
@@ -54,7 +57,8 @@ public class NingApiConnectionFactory extends ApiConnectionFactory {
         if (workerExecutor == null) workerExecutor = Executors.newFixedThreadPool(10);
 
         // Create the connection
-        final ApiConnection connection = new NingHttpConnection(workerExecutor, getProxyServer());
+        final NingHttpConnection connection = new NingHttpConnection(workerExecutor, getProxyServer(), null, httpClientSettings);
+        connection.setRequestBodyPolicy(requestBodyPolicy);
 
         // Make sure we cleanup the executor
         final Executor finalWorkerExecutor = workerExecutor;
@@ -75,6 +79,34 @@ public class NingApiConnectionFactory extends ApiConnectionFactory {
         return this;
     }
 
+    /**
+     * Set when the params of a request go in a POST body instead of the URL.
+     *
+     * @param requestBodyPolicy The policy, the default is {@link RequestBodyPolicy#FORM_BODY}.
+     * @return This factory.
+     */
+    public NingApiConnectionFactory requestBodyPolicy(RequestBodyPolicy requestBodyPolicy) {
+        if (requestBodyPolicy == null) throw new NullPointerException("requestBodyPolicy cannot be null");
+        this.requestBodyPolicy = requestBodyPolicy;
+        return this;
+    }
+
+    /**
+     * Set the connection pool and timeouts of the connections this creates.
+     *
+     * @param httpClientSettings The settings, the default is a {@code new HttpClientSettings()}.
+     * @return This factory.
+     */
+    public NingApiConnectionFactory httpClientSettings(HttpClientSettings httpClientSettings) {
+        if (httpClientSettings == null) throw new NullPointerException("httpClientSettings cannot be null");
+        this.httpClientSettings = httpClientSettings;
+        return this;
+    }
+
+    public HttpClientSettings getHttpClientSettings() {
+        return httpClientSettings;
+    }
+
     /**
      * Call this method before creating and instance of the factory if you want to use a proxy
      *
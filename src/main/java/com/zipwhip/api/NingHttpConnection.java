@@ -2,14 +2,15 @@ package com.zipwhip.api;
 
 import com.ning.http.client.*;
 import com.ning.http.multipart.FilePart;
-import com.zipwhip.api.request.RequestBuilder;
+import com.zipwhip.api.request.RequestBodyPolicy;
+import com.zipwhip.api.request.SignedRequest;
+import com.zipwhip.api.request.SignedRequestBuilder;
 import com.zipwhip.concurrent.DefaultObservableFuture;
 import com.zipwhip.concurrent.ObservableFuture;
 import com.zipwhip.lifecycle.CascadingDestroyableBase;
 import com.zipwhip.util.CollectionUtil;
 import com.zipwhip.util.SignTool;
 import com.zipwhip.util.StringUtil;
-import com.zipwhip.util.UrlUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +20,8 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides a persistent connection to a User on Zipwhip.
@@ -35,6 +38,7 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
 
     private String apiVersion = DEFAULT_API_VERSION;
     private String host = ApiConnectionConfiguration.API_HOST;
+    private String sendHost = getSendHost(host);
 
     private String sessionKey;
     private SignTool authenticator;
@@ -42,6 +46,12 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
     private AsyncHttpClient asyncHttpClient = null;
     private Executor workerExecutor = null;
     private ProxyServer proxyServer = null;
+    private volatile RequestBodyPolicy requestBodyPolicy = RequestBodyPolicy.FORM_BODY;
+
+    private final HttpClientSettings settings;
+    private TrackingConnectionsPool connectionsPool;
+    private RequestLimiter limiter;
+    private final AtomicLong requests = new AtomicLong();
 
     /**
      * Create a new {@code NingHttpConnection}
@@ -97,11 +107,26 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
      * @throws IllegalArgumentException if workerExecutor is null
      */
     public NingHttpConnection(final Executor workerExecutor, final ProxyServer proxyServer, final SignTool authenticator) {
+        this(workerExecutor, proxyServer, authenticator, new HttpClientSettings());
+    }
+
+    /**
+     * Create a new {@code NingHttpConnection}
+     *
+     * @param workerExecutor This importantTaskExecutor is what your code will execute in. Our recommendation is that it's large
+     *                       because we have no idea how slow your code will be.
+     * @param authenticator  A {@code SignTool} to use for signing request URLs.
+     * @param settings       The connection pool and timeouts, they are copied.
+     * @throws IllegalArgumentException if workerExecutor or settings is null
+     */
+    public NingHttpConnection(final Executor workerExecutor, final ProxyServer proxyServer, final SignTool authenticator, final HttpClientSettings settings) {
         if (workerExecutor == null) throw new IllegalArgumentException("workerExecutor cannot be null");
+        if (settings == null) throw new IllegalArgumentException("settings cannot be null");
 
         this.workerExecutor = workerExecutor;
         this.proxyServer = proxyServer;
         this.authenticator = authenticator;
+        this.settings = new HttpClientSettings(settings);
 
         // init the http client
         init();
@@ -109,10 +134,48 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
 
     private void init() {
         final AsyncHttpClientConfig.Builder builder = new AsyncHttpClientConfig.Builder();
-        builder.setConnectionTimeoutInMs(10000);
+        builder.setConnectionTimeoutInMs(settings.getConnectTimeoutMillis());
+        builder.setRequestTimeoutInMs(settings.getRequestTimeoutMillis());
+        builder.setIdleConnectionInPoolTimeoutInMs(settings.getIdleTimeoutMillis());
+        builder.setMaximumConnectionsPerHost(settings.getMaxConnectionsPerHost());
+        builder.setMaximumConnectionsTotal(settings.getMaxConnections());
+        builder.setAllowPoolingConnection(settings.isKeepAlive());
+
+        if (settings.isKeepAlive()) {
+            connectionsPool = new TrackingConnectionsPool(settings.getMaxConnectionsPerHost(), settings.getMaxConnections(), settings.getIdleTimeoutMillis());
+            builder.setConnectionsPool(connectionsPool);
+        }
+
+        // We talk to 1 host, so the per host limit is the one that matters. Requests past it wait here rather than
+        // have Ning fail them for want of a connection. With no limit they all go straight out, as they do in Ning.
+        limiter = new RequestLimiter(Math.min(limit(settings.getMaxConnectionsPerHost()), limit(settings.getMaxConnections())));
+
         asyncHttpClient = new AsyncHttpClient(builder.build());
     }
 
+    private static int limit(int maxConnections) {
+        return maxConnections == HttpClientSettings.NO_LIMIT ? Integer.MAX_VALUE : maxConnections;
+    }
+
+    /**
+     * @return A copy of the settings this connection was created with.
+     */
+    public HttpClientSettings getSettings() {
+        return new HttpClientSettings(settings);
+    }
+
+    /**
+     * @return What the connection pool is doing right now.
+     */
+    public HttpPoolStats getPoolStats() {
+        return new HttpPoolStats(
+                limiter.getActive(),
+                connectionsPool == null ? 0 : connectionsPool.getIdle(),
+                limiter.getPending(),
+                requests.get(),
+                connectionsPool == null ? 0 : connectionsPool.getReused());
+    }
+
     @Override
     public void setAuthenticator(SignTool authenticator) {
         this.authenticator = authenticator;
@@ -126,6 +189,7 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
     @Override
     public void setHost(String host) {
         this.host = host;
+        this.sendHost = getSendHost(host);
     }
 
     @Override
@@ -184,33 +248,15 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
     @Override
     public ObservableFuture<String> send(String method, Map<String, Object> params, List<File> files) throws Exception {
 
-        final RequestBuilder rb = new RequestBuilder();
-
-        // convert the map into a key/value HTTP params string
-        rb.params(params);
-
         final ObservableFuture<String> responseFuture = new DefaultObservableFuture<String>(this, workerExecutor);
 
         try {
             com.ning.http.client.RequestBuilder builder = new com.ning.http.client.RequestBuilder();
 
-            /**
-             * The next 4 lines are needed because of a bug in Ning in NettyAsyncHttpProvider.java.
-             * Ning has not implemented multipart upload over SSH. If we are using HTTPS some files
-             * will result in a loop which can crash the JVM with an out of memory exception.
-             *
-             * https://issues.sonatype.org/browse/AHC-78
-             */
-            String toUseHost = host;
-
-            if (toUseHost.startsWith("https")) {
-                toUseHost = toUseHost.replaceFirst("https", "http");
-            }
-
-            builder.setUrl(UrlUtil.getSignedUrl(toUseHost, apiVersion, method, rb.build(), sessionKey, authenticator));
-
             if (CollectionUtil.exists(files)) {
 
+                builder.setUrl(SignedRequestBuilder.getSignedUrl(sendHost, apiVersion, method, params, false, sessionKey, authenticator));
+
                 builder.setMethod("POST");
 
                 for (File file : files) {
@@ -223,16 +269,34 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
                     Part part = new FilePart("data", file, "multipart/form-data", null);
                     builder.addBodyPart(part);
                 }
+
+            } else {
+
+                // long params go in a body, see RequestBodyPolicy
+                SignedRequest signedRequest = SignedRequestBuilder.getSignedRequest(sendHost, apiVersion, method, params, false, sessionKey, authenticator, requestBodyPolicy);
+
+                builder.setUrl(signedRequest.getUrl());
+
+                if (signedRequest.isPost()) {
+                    builder.setMethod("POST");
+                    builder.setHeader("Content-Type", signedRequest.getContentType());
+                    if (signedRequest.getContentEncoding() != null) {
+                        builder.setHeader("Content-Encoding", signedRequest.getContentEncoding());
+                    }
+                    builder.setBody(signedRequest.getBody());
+                }
             }
 
             final Request request = builder.build();
-            LOGGER.debug("==> Cloud Request: " + request.getUrl());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("==> Cloud Request: " + request.getUrl());
+            }
             final AsyncHttpClient.BoundRequestBuilder requestBuilder = asyncHttpClient.prepareRequest(request);
             if (proxyServer != null) {
                 requestBuilder.setProxyServer(proxyServer);
             }
 
-            requestBuilder.execute(new AsyncCompletionHandler<Object>() {
+            execute(requestBuilder, responseFuture, new AsyncCompletionHandler<Object>() {
 
                 @Override
                 public Object onCompleted(Response response) throws Exception {
@@ -269,19 +333,14 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
     @Override
     public ObservableFuture<InputStream> sendBinaryResponse(String method, Map<String, Object> params) throws Exception {
 
-        final RequestBuilder rb = new RequestBuilder();
-
-        // convert the map into a key/value HTTP params string
-        rb.params(params);
-
         final ObservableFuture<InputStream> responseFuture = new DefaultObservableFuture<InputStream>(this, workerExecutor);
 
         try {
-            final AsyncHttpClient.BoundRequestBuilder requestBuilder = asyncHttpClient.prepareGet(UrlUtil.getSignedUrl(host, apiVersion, method, rb.build(), sessionKey, authenticator));
+            final AsyncHttpClient.BoundRequestBuilder requestBuilder = asyncHttpClient.prepareGet(SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, false, sessionKey, authenticator));
             if (proxyServer != null) {
                 requestBuilder.setProxyServer(proxyServer);
             }
-            requestBuilder.execute(new AsyncCompletionHandler<Object>() {
+            execute(requestBuilder, responseFuture, new AsyncCompletionHandler<Object>() {
 
                 @Override
                 public Object onCompleted(Response response) throws Exception {
@@ -326,11 +385,95 @@ public class NingHttpConnection extends CascadingDestroyableBase implements ApiC
         return responseFuture;
     }
 
+    /**
+     * Put a request on the wire once the {@link RequestLimiter} lets it. A request that is cancelled while it waits
+     * is never sent.
+     */
+    private void execute(final AsyncHttpClient.BoundRequestBuilder requestBuilder, final ObservableFuture<?> responseFuture, final AsyncCompletionHandler<Object> handler) {
+        limiter.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (responseFuture.isCancelled()) {
+                    limiter.release();
+                    return;
+                }
+
+                final AtomicBoolean released = new AtomicBoolean();
+
+                try {
+                    requests.incrementAndGet();
+
+                    requestBuilder.execute(new AsyncCompletionHandler<Object>() {
+
+                        // release before the future is completed, so anyone who has seen it finish sees the
+                        // request off the wire in getPoolStats()
+                        @Override
+                        public Object onCompleted(Response response) throws Exception {
+                            if (released.compareAndSet(false, true)) {
+                                limiter.release();
+                            }
+                            return handler.onCompleted(response);
+                        }
+
+                        @Override
+                        public void onThrowable(Throwable t) {
+                            if (released.compareAndSet(false, true)) {
+                                limiter.release();
+                            }
+                            handler.onThrowable(t);
+                        }
+                    });
+
+                } catch (Exception e) {
+
+                    LOGGER.error("Exception while hitting the web", e);
+
+                    responseFuture.setFailure(e);
+
+                    if (released.compareAndSet(false, true)) {
+                        limiter.release();
+                    }
+                }
+            }
+        });
+    }
+
     @Override
     protected void onDestroy() {
         asyncHttpClient.close();
     }
 
+    /**
+     * This is needed because of a bug in Ning in NettyAsyncHttpProvider.java.
+     * Ning has not implemented multipart upload over SSH. If we are using HTTPS some files
+     * will result in a loop which can crash the JVM with an out of memory exception.
+     *
+     * https://issues.sonatype.org/browse/AHC-78
+     *
+     * It is worked out once per host, so every request is signed with the same host String.
+     */
+    private static String getSendHost(String host) {
+        if (host != null && host.startsWith("https")) {
+            return host.replaceFirst("https", "http");
+        }
+
+        return host;
+    }
+
+    public RequestBodyPolicy getRequestBodyPolicy() {
+        return requestBodyPolicy;
+    }
+
+    /**
+     * Set when the params of {@link #send} go in a POST body instead of the URL. Uploads always keep them in the URL.
+     *
+     * @param requestBodyPolicy The policy to use, {@link RequestBodyPolicy#NEVER} to always put them in the URL.
+     */
+    public void setRequestBodyPolicy(RequestBodyPolicy requestBodyPolicy) {
+        if (requestBodyPolicy == null) throw new NullPointerException("requestBodyPolicy cannot be null");
+        this.requestBodyPolicy = requestBodyPolicy;
+    }
+
     public ProxyServer getProxyServer() {
         return proxyServer;
     }
@@ -0,0 +1,106 @@
+package com.zipwhip.api;
+
+import com.zipwhip.api.http.NioHttpClient;
+import com.zipwhip.api.request.RequestBodyPolicy;
+import com.zipwhip.concurrent.ConfiguredFactory;
+import com.zipwhip.lifecycle.DestroyableBase;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates {@link NioHttpConnection}s, for when Ning can't be used.
+ * <p/>
+ * By default every connection has a client of its own. Give the factory a {@link NioHttpClient} to have them all
+ * share its selector thread and connection pool instead.
+ */
+public class NioApiConnectionFactory extends ApiConnectionFactory {
+
+    private ConfiguredFactory<String, ExecutorService> workerExecutorFactory;
+    private RequestBodyPolicy requestBodyPolicy = RequestBodyPolicy.FORM_BODY;
+    private HttpClientSettings httpClientSettings = new HttpClientSettings();
+    private NioHttpClient client;
+
+    public NioApiConnectionFactory() {
+        super();
+    }
+
+    @Override
+    protected ApiConnection createInstance() {
+        Executor workerExecutor = null;
+        if (workerExecutorFactory != null) {
+            workerExecutor = workerExecutorFactory.create("ApiConnection-worker");
+        }
+
+        // fallback to a default one
+        if (workerExecutor == null) workerExecutor = Executors.newFixedThreadPool(10);
+
+        // Create the connection
+        final NioHttpConnection connection;
+        if (client != null) {
+            connection = new NioHttpConnection(workerExecutor, null, client);
+        } else {
+            connection = new NioHttpConnection(workerExecutor, null, httpClientSettings);
+        }
+        connection.setRequestBodyPolicy(requestBodyPolicy);
+
+        // Make sure we cleanup the executor
+        final Executor finalWorkerExecutor = workerExecutor;
+        connection.link(new DestroyableBase() {
+            @Override
+            protected void onDestroy() {
+                ((ExecutorService) finalWorkerExecutor).shutdownNow();
+            }
+        });
+
+        return connection;
+    }
+
+    public NioApiConnectionFactory workerExecutorFactory(ConfiguredFactory<String, ExecutorService> workerExecutorFactory) {
+        this.workerExecutorFactory = workerExecutorFactory;
+        return this;
+    }
+
+    /**
+     * Set when the params of a request go in a POST body instead of the URL.
+     *
+     * @param requestBodyPolicy The policy, the default is {@link RequestBodyPolicy#FORM_BODY}.
+     * @return This factory.
+     */
+    public NioApiConnectionFactory requestBodyPolicy(RequestBodyPolicy requestBodyPolicy) {
+        if (requestBodyPolicy == null) throw new NullPointerException("requestBodyPolicy cannot be null");
+        this.requestBodyPolicy = requestBodyPolicy;
+        return this;
+    }
+
+    /**
+     * Set the connection pool and timeouts of the connections this creates. They are not used if there is a shared
+     * client, which has its own.
+     *
+     * @param httpClientSettings The settings, the default is a {@code new HttpClientSettings()}.
+     * @return This factory.
+     */
+    public NioApiConnectionFactory httpClientSettings(HttpClientSettings httpClientSettings) {
+        if (httpClientSettings == null) throw new NullPointerException("httpClientSettings cannot be null");
+        this.httpClientSettings = httpClientSettings;
+        return this;
+    }
+
+    public HttpClientSettings getHttpClientSettings() {
+        return httpClientSettings;
+    }
+
+    /**
+     * Have every connection this creates share one client. Destroying a connection leaves the client running, it is
+     * up to the caller to destroy it.
+     *
+     * @param client The client to share, null for a client per connection.
+     * @return This factory.
+     */
+    public NioApiConnectionFactory client(NioHttpClient client) {
+        this.client = client;
+        return this;
+    }
+
+}
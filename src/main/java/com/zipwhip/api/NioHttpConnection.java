@@ -0,0 +1,321 @@
+package com.zipwhip.api;
+
+import com.zipwhip.api.http.NioHttpClient;
+import com.zipwhip.api.http.NioHttpRequest;
+import com.zipwhip.api.http.NioHttpResponse;
+import com.zipwhip.api.request.RequestBodyPolicy;
+import com.zipwhip.api.request.SignedRequest;
+import com.zipwhip.api.request.SignedRequestBuilder;
+import com.zipwhip.concurrent.DefaultObservableFuture;
+import com.zipwhip.concurrent.ObservableFuture;
+import com.zipwhip.events.Observer;
+import com.zipwhip.lifecycle.CascadingDestroyableBase;
+import com.zipwhip.util.CollectionUtil;
+import com.zipwhip.util.SignTool;
+import com.zipwhip.util.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Provides a persistent connection to a User on Zipwhip, using nothing but the JDK.
+ * <p/>
+ * This does what {@link NingHttpConnection} does, for places where Ning isn't welcome. Requests go through a
+ * {@link NioHttpClient}, so no thread waits on a request and connections are kept alive between them. Futures are
+ * completed in the workerExecutor.
+ * <p/>
+ * There is no proxy support.
+ * <p/>
+ * This class is thread safe.
+ */
+public class NioHttpConnection extends CascadingDestroyableBase implements ApiConnection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioHttpConnection.class);
+
+    private String apiVersion = DEFAULT_API_VERSION;
+    private String host = ApiConnectionConfiguration.API_HOST;
+
+    private String sessionKey;
+    private SignTool authenticator;
+
+    private final Executor workerExecutor;
+    private final NioHttpClient client;
+    private volatile RequestBodyPolicy requestBodyPolicy = RequestBodyPolicy.FORM_BODY;
+
+    /**
+     * Create a new {@code NioHttpConnection}
+     *
+     * @param workerExecutor This importantTaskExecutor is what your code will execute in. Our recommendation is that it's large
+     *                       because we have no idea how slow your code will be.
+     * @throws IllegalArgumentException if workerExecutor is null
+     */
+    public NioHttpConnection(final Executor workerExecutor) {
+        this(workerExecutor, (SignTool) null);
+    }
+
+    /**
+     * Create a new {@code NioHttpConnection}
+     *
+     * @param workerExecutor This importantTaskExecutor is what your code will execute in. Our recommendation is that it's large
+     *                       because we have no idea how slow your code will be.
+     * @param authenticator  A {@code SignTool} to use for signing request URLs.
+     * @throws IllegalArgumentException if workerExecutor is null
+     */
+    public NioHttpConnection(final Executor workerExecutor, final SignTool authenticator) {
+        this(workerExecutor, authenticator, new HttpClientSettings());
+    }
+
+    /**
+     * Create a new {@code NioHttpConnection} with a client of its own, which is destroyed with it.
+     *
+     * @param workerExecutor This importantTaskExecutor is what your code will execute in. Our recommendation is that it's large
+     *                       because we have no idea how slow your code will be.
+     * @param authenticator  A {@code SignTool} to use for signing request URLs.
+     * @param settings       The connection pool and timeouts, they are copied.
+     * @throws IllegalArgumentException if workerExecutor or settings is null
+     */
+    public NioHttpConnection(final Executor workerExecutor, final SignTool authenticator, final HttpClientSettings settings) {
+        this(workerExecutor, authenticator, new NioHttpClient(settings));
+        this.link(client);
+    }
+
+    /**
+     * Create a new {@code NioHttpConnection} that shares a client, which is left running when this is destroyed.
+     *
+     * @param workerExecutor This importantTaskExecutor is what your code will execute in. Our recommendation is that it's large
+     *                       because we have no idea how slow your code will be.
+     * @param authenticator  A {@code SignTool} to use for signing request URLs.
+     * @param client         The client to send requests with.
+     * @throws IllegalArgumentException if workerExecutor or client is null
+     */
+    public NioHttpConnection(final Executor workerExecutor, final SignTool authenticator, final NioHttpClient client) {
+        if (workerExecutor == null) throw new IllegalArgumentException("workerExecutor cannot be null");
+        if (client == null) throw new IllegalArgumentException("client cannot be null");
+
+        this.workerExecutor = workerExecutor;
+        this.authenticator = authenticator;
+        this.client = client;
+    }
+
+    /**
+     * @return What the connection pool is doing right now.
+     */
+    public HttpPoolStats getPoolStats() {
+        return client.getPoolStats();
+    }
+
+    @Override
+    public void setAuthenticator(SignTool authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public SignTool getAuthenticator() {
+        return this.authenticator;
+    }
+
+    @Override
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    @Override
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public void setApiVersion(String apiVersion) {
+        this.apiVersion = apiVersion;
+    }
+
+    @Override
+    public String getApiVersion() {
+        return apiVersion;
+    }
+
+    @Override
+    public void setSessionKey(String sessionKey) {
+        LOGGER.debug("Setting sessionKey to " + sessionKey);
+        this.sessionKey = sessionKey;
+    }
+
+    @Override
+    public String getSessionKey() {
+        LOGGER.debug("Getting sessionKey " + sessionKey);
+        return sessionKey;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return StringUtil.exists(sessionKey) || (authenticator != null && authenticator.prepared());
+    }
+
+    @Override
+    public boolean isConnected() {
+        return isAuthenticated();
+    }
+
+    /**
+     * @param method Each method has a name, example: user/get. See {@link ZipwhipNetworkSupport} for fields.
+     * @param params Map of query params to append to the method
+     * @return NetworkFuture<String>  where the String result is the raw serer response.
+     */
+    @Override
+    public ObservableFuture<String> send(final String method, Map<String, Object> params) throws Exception {
+        return send(method, params, null);
+    }
+
+    /**
+     * @param method Each method has a name, example: user/get. See {@link ZipwhipNetworkSupport} for fields.
+     * @param params Map of query params to append to the method
+     * @param files  A list of Files to be added as parts for a multi part upload.
+     * @return NetworkFuture<String>  where the String result is the raw serer response.
+     */
+    @Override
+    public ObservableFuture<String> send(String method, Map<String, Object> params, List<File> files) throws Exception {
+
+        final ObservableFuture<String> responseFuture = new DefaultObservableFuture<String>(this, workerExecutor);
+
+        try {
+            final NioHttpRequest request;
+
+            if (CollectionUtil.exists(files)) {
+
+                /**
+                 * TODO The name "data" is required for the TinyUrlController to work.
+                 * Unfortunately this breaks the HostedContentController if more than one file
+                 * is being uploaded. TinyUrlController needs to be fixed to get the file names
+                 * from the fileMap as HostedContentController does.
+                 */
+                request = NioHttpRequest.multipart(SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, true, sessionKey, authenticator), "data", files);
+
+            } else {
+
+                // long params go in a body, see RequestBodyPolicy
+                SignedRequest signedRequest = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, true, sessionKey, authenticator, requestBodyPolicy);
+
+                if (signedRequest.isPost()) {
+                    request = NioHttpRequest.post(signedRequest.getUrl(), signedRequest.getBody(), signedRequest.getContentType(), signedRequest.getContentEncoding());
+                } else {
+                    request = NioHttpRequest.get(signedRequest.getUrl());
+                }
+            }
+
+            execute(request, responseFuture, new NioHttpClient.Callback() {
+
+                @Override
+                public void onResponse(NioHttpResponse response) {
+                    // this will call the callbacks in the "workerExecutor" because of the constructor arg above.
+                    responseFuture.setSuccess(response.getBody());
+                }
+
+                @Override
+                public void onFailure(Throwable cause) {
+                    responseFuture.setFailure(cause);
+                }
+
+            });
+
+        } catch (Exception e) {
+
+            LOGGER.error("Exception while hitting the web", e);
+
+            // this will call the callbacks in the "workerExecutor" because of the constructor arg above.
+            responseFuture.setFailure(e);
+        }
+
+        return responseFuture;
+    }
+
+    @Override
+    public ObservableFuture<InputStream> sendBinaryResponse(String method, Map<String, Object> params) throws Exception {
+
+        final ObservableFuture<InputStream> responseFuture = new DefaultObservableFuture<InputStream>(this, workerExecutor);
+
+        try {
+            NioHttpRequest request = NioHttpRequest.get(SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, true, sessionKey, authenticator));
+
+            execute(request, responseFuture, new NioHttpClient.Callback() {
+
+                @Override
+                public void onResponse(NioHttpResponse response) {
+
+                    // TODO Remove this once zipwhip uses real HTTP codes
+                    if (response.getContentType() != null && response.getContentType().contains("json")) {
+                        responseFuture.setFailure(new Exception("404 - Resource not found"));
+                        return;
+                    }
+
+                    if (response.getStatusCode() >= 400) {
+                        responseFuture.setFailure(new Exception(response.getStatusText()));
+                        return;
+                    }
+
+                    // this will call the callbacks in the "workerExecutor" because of the constructor arg above.
+                    responseFuture.setSuccess(response.getBodyAsStream());
+                }
+
+                @Override
+                public void onFailure(Throwable cause) {
+                    responseFuture.setFailure(cause);
+                }
+
+            });
+
+        } catch (Exception e) {
+
+            LOGGER.error("Exception while hitting the web", e);
+
+            // this will call the callbacks in the "workerExecutor" because of the constructor arg above.
+            responseFuture.setFailure(e);
+        }
+
+        return responseFuture;
+    }
+
+    /**
+     * Hand a request to the client, and stop it if the future is cancelled before it ends.
+     */
+    private <T> void execute(NioHttpRequest request, ObservableFuture<T> responseFuture, NioHttpClient.Callback callback) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("==> Cloud Request: " + request);
+        }
+
+        final NioHttpClient.Call call = client.execute(request, callback);
+
+        responseFuture.addObserver(new Observer<ObservableFuture<T>>() {
+            @Override
+            public void notify(Object sender, ObservableFuture<T> item) {
+                if (item.isCancelled()) {
+                    call.cancel();
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        // an owned client is linked, so it is destroyed along with us
+    }
+
+    public RequestBodyPolicy getRequestBodyPolicy() {
+        return requestBodyPolicy;
+    }
+
+    /**
+     * Set when the params of {@link #send} go in a POST body instead of the URL. Uploads always keep them in the URL.
+     *
+     * @param requestBodyPolicy The policy to use, {@link RequestBodyPolicy#NEVER} to always put them in the URL.
+     */
+    public void setRequestBodyPolicy(RequestBodyPolicy requestBodyPolicy) {
+        if (requestBodyPolicy == null) throw new NullPointerException("requestBodyPolicy cannot be null");
+        this.requestBodyPolicy = requestBodyPolicy;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.zipwhip.api;
+
+import com.zipwhip.concurrent.ObservableFuture;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a list that the server hands out a page at a time. While one page is read the next pages are already being
+ * requested, but never more than {@code prefetch} of them. The list is over at an empty page, or once the total that
+ * a page gave has been read.
+ * <p/>
+ * A server may send fewer than it was asked for. Each page starts where the last one really ended, and from then on
+ * only as many as the server sent are asked for at a time.
+ * <p/>
+ * The body of a page is kept as it came and its elements are only parsed as the iterator gets to them.
+ * <p/>
+ * The iterator can't throw checked exceptions, so a page that can't be loaded is an IllegalStateException. This class
+ * is not thread safe.
+ *
+ * @param <T> What the list is of.
+ */
+public abstract class PageIterator<T> implements Iterator<T> {
+
+    private final int prefetch;
+    private final long timeoutSeconds;
+
+    // how many are asked for at a time, less than the page size if the server sends less
+    private int limit;
+
+    // the pages that have been asked for and not read yet, in order
+    private final LinkedList<ObservableFuture<String>> requests = new LinkedList<ObservableFuture<String>>();
+    private int nextStart;
+
+    private Iterator<T> page;
+    private int pageStart;
+    private int read;
+    private boolean finished;
+
+    /**
+     * @param pageSize How many to ask for at a time.
+     * @param prefetch How many pages to ask for ahead of the one being read. 0 asks for each page when it's needed.
+     */
+    public PageIterator(int pageSize, int prefetch) {
+        this(pageSize, prefetch, ZipwhipNetworkSupport.DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    public PageIterator(int pageSize, int prefetch, long timeoutSeconds) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        } else if (prefetch < 0) {
+            throw new IllegalArgumentException("Can't prefetch a negative number of pages");
+        }
+
+        this.limit = pageSize;
+        this.prefetch = prefetch;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * @param start Where the page starts in the whole list.
+     * @param limit The page size.
+     * @return The body of the page.
+     * @throws Exception If it can't be asked for.
+     */
+    protected abstract ObservableFuture<String> request(int start, int limit) throws Exception;
+
+    /**
+     * @param page The body of a page.
+     * @return The elements, parsed as they are iterated.
+     * @throws Exception If the page is an error or not a list.
+     */
+    protected abstract Iterator<T> read(String page) throws Exception;
+
+    /**
+     * @param page What {@link #read(String)} made of a page, once it has been iterated to the end.
+     * @return How long the whole list is, or -1 if the page doesn't say.
+     */
+    protected int total(Iterator<T> page) {
+        return -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!finished) {
+            if (page != null) {
+                if (page.hasNext()) {
+                    return true;
+                }
+
+                int end = pageStart + read;
+                int total = total(page);
+
+                if (read == 0 || (total >= 0 && end >= total)) {
+                    // that was the last page
+                    cancel();
+                    return false;
+                } else if (read < limit) {
+                    // the server sends less than was asked for, so the pages asked for ahead start in the wrong place
+                    cancelRequests();
+                    limit = read;
+                    nextStart = end;
+                }
+            }
+
+            nextPage();
+        }
+
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        read++;
+        return page.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops reading and cancels the pages that were asked for ahead.
+     */
+    public void cancel() {
+        finished = true;
+        page = null;
+
+        cancelRequests();
+    }
+
+    private void cancelRequests() {
+        for (ObservableFuture<String> request : requests) {
+            request.cancel();
+        }
+        requests.clear();
+    }
+
+    private void nextPage() {
+        int start = nextStart - requests.size() * limit;
+
+        try {
+            // the page to read and the ones to prefetch
+            while (requests.size() <= prefetch) {
+                requests.add(request(nextStart, limit));
+                nextStart += limit;
+            }
+
+            ObservableFuture<String> request = requests.removeFirst();
+
+            if (!request.await(timeoutSeconds, TimeUnit.SECONDS)) {
+                request.cancel();
+                throw new Exception("Timed out waiting for the page");
+            } else if (!request.isSuccess()) {
+                throw new Exception("Could not get the page", request.getCause());
+            }
+
+            page = read(request.getResult());
+            pageStart = start;
+            read = 0;
+        } catch (Exception e) {
+            cancel();
+            throw new IllegalStateException("Could not read the page at " + start, e);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.zipwhip.api;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets at most {@code limit} requests be on the wire at once and queues the rest, in order.
+ * <p/>
+ * Ning fails a request outright when there are no connections left, this makes it wait instead. It's lock free, a
+ * request is started on the thread that submitted it or on the thread that finished the one before it.
+ * <p/>
+ * This class is thread safe.
+ */
+class RequestLimiter {
+
+    private final int limit;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+
+    /**
+     * Set while a thread is in {@link #drain()}, so a request that fails on the thread that started it doesn't
+     * start the next one a frame deeper. The loop that is already running picks it up instead.
+     */
+    private final ThreadLocal<Boolean> draining = new ThreadLocal<Boolean>();
+
+    RequestLimiter(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be at least 1");
+        this.limit = limit;
+    }
+
+    /**
+     * Start the request now if there is room, otherwise when there is. The request must call {@link #release()}
+     * exactly once when it is done, however it ends.
+     *
+     * @param request Puts the request on the wire.
+     */
+    void submit(Runnable request) {
+        pending.offer(request);
+        pendingCount.incrementAndGet();
+
+        drain();
+    }
+
+    /**
+     * A request that was started has finished, let the next one go.
+     */
+    void release() {
+        active.decrementAndGet();
+
+        drain();
+    }
+
+    int getActive() {
+        return active.get();
+    }
+
+    int getPending() {
+        return pendingCount.get();
+    }
+
+    private void drain() {
+        if (draining.get() != null) {
+            return;
+        }
+
+        draining.set(Boolean.TRUE);
+        try {
+            drainLoop();
+        } finally {
+            draining.remove();
+        }
+    }
+
+    private void drainLoop() {
+        while (!pending.isEmpty()) {
+            int current = active.get();
+
+            if (current >= limit) {
+                // whoever releases next will start it
+                return;
+            }
+
+            if (!active.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Runnable request = pending.poll();
+
+            if (request == null) {
+                // another thread took it, give the slot back and look again
+                active.decrementAndGet();
+                continue;
+            }
+
+            pendingCount.decrementAndGet();
+            request.run();
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.zipwhip.api;
+
+import com.ning.http.client.ConnectionsPool;
+import org.jboss.netty.channel.Channel;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The keep-alive pool that {@code NingHttpConnection} gives its {@code AsyncHttpClient}, in place of Ning's own, so
+ * that it can count the idle connections and how often one is reused.
+ * <p/>
+ * Idle connections are closed once they have been in the pool for {@code idleTimeoutMillis}. There is no timer, the
+ * pool is swept at most every half timeout while it is being used, and an expired connection is never handed out.
+ * <p/>
+ * This class is thread safe.
+ */
+class TrackingConnectionsPool implements ConnectionsPool<String, Channel> {
+
+    private final int maxIdlePerHost;
+    private final int maxIdle;
+    private final long idleTimeoutMillis;
+
+    private final ConcurrentHashMap<String, ConcurrentLinkedQueue<IdleChannel>> pools = new ConcurrentHashMap<String, ConcurrentLinkedQueue<IdleChannel>>();
+    private final AtomicInteger idle = new AtomicInteger();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    private volatile boolean destroyed;
+
+    /**
+     * @param maxIdlePerHost    How many idle connections to keep per host, {@link HttpClientSettings#NO_LIMIT} for any.
+     * @param maxIdle           How many idle connections to keep in all, {@link HttpClientSettings#NO_LIMIT} for any.
+     * @param idleTimeoutMillis How long a connection can sit in the pool before it is closed.
+     */
+    TrackingConnectionsPool(int maxIdlePerHost, int maxIdle, long idleTimeoutMillis) {
+        this.maxIdlePerHost = maxIdlePerHost == HttpClientSettings.NO_LIMIT ? Integer.MAX_VALUE : maxIdlePerHost;
+        this.maxIdle = maxIdle == HttpClientSettings.NO_LIMIT ? Integer.MAX_VALUE : maxIdle;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public boolean offer(String uri, Channel connection) {
+        if (destroyed || !connection.isOpen()) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+
+        if (idle.get() >= maxIdle) {
+            return false;
+        }
+
+        ConcurrentLinkedQueue<IdleChannel> pool = pools.get(uri);
+        if (pool == null) {
+            ConcurrentLinkedQueue<IdleChannel> created = new ConcurrentLinkedQueue<IdleChannel>();
+            pool = pools.putIfAbsent(uri, created);
+            if (pool == null) {
+                pool = created;
+            }
+        }
+
+        // the size is O(n), so only ask for it if there is a limit
+        if (maxIdlePerHost != Integer.MAX_VALUE && pool.size() >= maxIdlePerHost) {
+            return false;
+        }
+
+        pool.offer(new IdleChannel(connection, now));
+        idle.incrementAndGet();
+
+        return true;
+    }
+
+    @Override
+    public Channel poll(String uri) {
+        ConcurrentLinkedQueue<IdleChannel> pool = pools.get(uri);
+
+        if (pool == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+
+        IdleChannel entry;
+        while ((entry = pool.poll()) != null) {
+            idle.decrementAndGet();
+
+            if (entry.isExpired(now) || !entry.channel.isOpen()) {
+                entry.channel.close();
+                continue;
+            }
+
+            reused.incrementAndGet();
+            return entry.channel;
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean removeAll(Channel connection) {
+        boolean removed = false;
+
+        for (ConcurrentLinkedQueue<IdleChannel> pool : pools.values()) {
+            for (IdleChannel entry : pool) {
+                if (entry.channel == connection && pool.remove(entry)) {
+                    idle.decrementAndGet();
+                    removed = true;
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean canCacheConnection() {
+        return !destroyed && idle.get() < maxIdle;
+    }
+
+    @Override
+    public void destroy() {
+        destroyed = true;
+
+        for (ConcurrentLinkedQueue<IdleChannel> pool : pools.values()) {
+            IdleChannel entry;
+            while ((entry = pool.poll()) != null) {
+                idle.decrementAndGet();
+                entry.channel.close();
+            }
+        }
+
+        pools.clear();
+    }
+
+    int getIdle() {
+        return idle.get();
+    }
+
+    long getReused() {
+        return reused.get();
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+
+        if (now - last < idleTimeoutMillis / 2 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (ConcurrentLinkedQueue<IdleChannel> pool : pools.values()) {
+            for (IdleChannel entry : pool) {
+                if (entry.isExpired(now) && pool.remove(entry)) {
+                    idle.decrementAndGet();
+                    entry.channel.close();
+                }
+            }
+        }
+    }
+
+    private class IdleChannel {
+
+        private final Channel channel;
+        private final long since;
+
+        private IdleChannel(Channel channel, long since) {
+            this.channel = channel;
+            this.since = since;
+        }
+
+        private boolean isExpired(long now) {
+            return now - since >= idleTimeoutMillis;
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package com.zipwhip.api;
 import com.zipwhip.api.dto.*;
 import com.zipwhip.api.settings.SettingsStore;
 import com.zipwhip.api.signals.Signal;
+import com.zipwhip.api.signals.SignalFilter;
 import com.zipwhip.api.signals.SignalProvider;
 import com.zipwhip.api.signals.sockets.ConnectionHandle;
 import com.zipwhip.concurrent.ObservableFuture;
@@ -239,6 +240,15 @@ public interface ZipwhipClient extends Destroyable {
      */
     List<Conversation> listConversations(int start, int limit) throws Exception;
 
+    /**
+     * Pages through all the conversations. The next page is fetched while this one is read, and each conversation is
+     * parsed as the iterator gets to it.
+     *
+     * @param pageSize How many conversations to ask for at a time.
+     * @return The conversations. Every iterator starts from the first page.
+     */
+    Iterable<Conversation> iterateConversations(int pageSize);
+
     /**
      * @return A list of all {@link Contact}s associated with the supplied user.
      * @throws Exception if an error occurs communicating with Zipwhip or parsing the response, or the server returns a failure message.
@@ -253,6 +263,15 @@ public interface ZipwhipClient extends Destroyable {
      */
     List<Contact> listContacts(int start, int limit) throws Exception;
 
+    /**
+     * Pages through all the contacts. The next page is fetched while this one is read, and each contact is parsed as
+     * the iterator gets to it.
+     *
+     * @param pageSize How many contacts to ask for at a time.
+     * @return The contacts. Every iterator starts from the first page.
+     */
+    Iterable<Contact> iterateContacts(int pageSize);
+
     /**
      * @param fingerprint The fingerprint of the conversation that you wish to mark as read.
      * @return A boolean which represents whether or not the operation completed successfully.
@@ -306,6 +325,16 @@ public interface ZipwhipClient extends Destroyable {
      */
     List<Message> listMessagesByFingerprint(String fingerprint, int start, int limit) throws Exception;
 
+    /**
+     * Pages through all the messages in a conversation. The next page is fetched while this one is read, and each
+     * message is parsed as the iterator gets to it.
+     *
+     * @param fingerprint The fingerprint of the conversation.
+     * @param pageSize    How many messages to ask for at a time.
+     * @return The messages. Every iterator starts from the first page.
+     */
+    Iterable<Message> iterateMessagesByFingerprint(String fingerprint, int pageSize);
+
     /**
      * @return A list consisting of the most recent messages associated with the user.
      * @throws Exception if an error occurs communicating with Zipwhip or parsing the response.
@@ -331,6 +360,15 @@ public interface ZipwhipClient extends Destroyable {
      */
     List<Message> listMessages(int start, int limit) throws Exception;
 
+    /**
+     * Pages through all the messages. The next page is fetched while this one is read, and each message is parsed as
+     * the iterator gets to it.
+     *
+     * @param pageSize How many messages to ask for at a time.
+     * @return The messages. Every iterator starts from the first page.
+     */
+    Iterable<Message> iterateMessages(int pageSize);
+
     /**
      * Delete messages by their corresponding UUIDs.
      *
@@ -730,6 +768,22 @@ public interface ZipwhipClient extends Destroyable {
      */
     void addSignalObserver(Observer<List<Signal>> observer);
 
+    /**
+     * Listen for just the signals that match a filter, such as {@code new SignalFilter("message", "send")}.
+     * This is a convenience method
+     *
+     * @param filter   The signals to listen for.
+     * @param observer An observer object to receive callbacks on
+     */
+    void addSignalObserver(SignalFilter filter, Observer<List<Signal>> observer);
+
+    /**
+     * Stop listening with an observer that was added with a filter. This is a convenience method
+     *
+     * @param observer The observer that was passed to {@code addSignalObserver(SignalFilter, Observer)}
+     */
+    void removeSignalObserver(Observer<List<Signal>> observer);
+
     /**
      * Listen for connection changes. This is a convenience method
      * <p/>
@@ -5,6 +5,7 @@ import com.zipwhip.api.signals.SignalProvider;
 import com.zipwhip.api.signals.SocketSignalProviderFactory;
 import com.zipwhip.executors.CommonExecutorFactory;
 import com.zipwhip.important.ImportantTaskExecutor;
+import com.zipwhip.important.schedulers.TimerScheduler;
 import com.zipwhip.util.Factory;
 
 /**
@@ -38,6 +39,37 @@ public class ZipwhipClientFactory implements Factory<ZipwhipClient> {
         }
     }
 
+    /**
+     * Every client that this factory creates will share the runtime's threads and timer, so they cost no
+     * threads of their own. The caller owns the runtime and must destroy it after the clients.
+     *
+     * @param connectionFactory     If it's an {@code HttpApiConnectionFactory} without an executorFactory, it will use the runtime.
+     * @param signalProviderFactory This factory will be set to use the runtime.
+     * @param settingsStore         Can be null.
+     * @param runtime               The shared runtime, not null.
+     */
+    public ZipwhipClientFactory(ApiConnectionFactory connectionFactory, SocketSignalProviderFactory signalProviderFactory, SettingsStore settingsStore, ZipwhipRuntime runtime) {
+        this(connectionFactory,
+                useRuntime(signalProviderFactory, runtime),
+                new ImportantTaskExecutor(new TimerScheduler(runtime.getTimer())),
+                settingsStore,
+                runtime);
+
+        if (connectionFactory instanceof HttpApiConnectionFactory) {
+            HttpApiConnectionFactory httpApiConnectionFactory = (HttpApiConnectionFactory) connectionFactory;
+            if (httpApiConnectionFactory.getExecutorFactory() == null) {
+                httpApiConnectionFactory.setExecutorFactory(runtime);
+            }
+        }
+    }
+
+    // checks the runtime before this() hands it to anything else
+    private static SocketSignalProviderFactory useRuntime(SocketSignalProviderFactory signalProviderFactory, ZipwhipRuntime runtime) {
+        if (runtime == null) throw new IllegalArgumentException("runtime cannot be null");
+
+        return signalProviderFactory == null ? null : signalProviderFactory.runtime(runtime);
+    }
+
     /**
      * Create a new ZipwhipClient which has been authenticated via a username and password.
      *
@@ -0,0 +1,221 @@
+package com.zipwhip.api;
+
+import com.zipwhip.api.signals.sockets.netty.SharedNioClientSocketChannelFactory;
+import com.zipwhip.executors.CommonExecutorFactory;
+import com.zipwhip.executors.CommonExecutorTypes;
+import com.zipwhip.executors.NamedThreadFactory;
+import com.zipwhip.executors.SerialExecutor;
+import com.zipwhip.executors.SharedExecutorView;
+import com.zipwhip.lifecycle.CascadingDestroyableBase;
+import com.zipwhip.timers.Timeout;
+import com.zipwhip.timers.Timer;
+import com.zipwhip.timers.TimerTask;
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.util.HashedWheelTimer;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The threads and timers that every {@code ZipwhipClient} in the JVM can share.
+ * <p/>
+ * On its own every client stack creates its own timers, a single thread executor per component and a
+ * thread per socket, which is dozens of threads per account. Hand one runtime to the
+ * {@code ZipwhipClientFactory} and {@code SocketSignalProviderFactory} instead and the clients they create
+ * cost no threads at all:
+ * <ul>
+ * <li>EVENTS executors are {@code SerialExecutor} lanes on a bounded pool, so each component still sees its
+ * events one at a time and in order.</li>
+ * <li>WORKER executors are views of a bounded pool.</li>
+ * <li>BOSS executors are lanes on a pool for blocking work (such as a blocking HTTP call), which only
+ * holds threads while they are in use.</li>
+ * <li>There is 1 timer wheel, and 1 NIO transport for all of the signal sockets.</li>
+ * </ul>
+ * The runtime owns all of it. Destroy it after the clients that use it.
+ */
+public class ZipwhipRuntime extends CascadingDestroyableBase implements CommonExecutorFactory {
+
+    public static final int DEFAULT_EVENTS_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_WORKER_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    private final HashedWheelTimer wheel;
+    private final Timer timer;
+    private final ExecutorService eventsPool;
+    private final ExecutorService workerPool;
+    private final ExecutorService blockingPool;
+    private final SharedNioClientSocketChannelFactory channelFactory;
+
+    public ZipwhipRuntime() {
+        this(DEFAULT_EVENTS_THREADS, DEFAULT_WORKER_THREADS, SharedNioClientSocketChannelFactory.DEFAULT_WORKER_COUNT);
+    }
+
+    /**
+     * @param eventsThreads The threads that all of the EVENTS lanes share.
+     * @param workerThreads The threads that all of the WORKER executors share.
+     * @param ioThreads     The selector threads that all of the signal sockets share.
+     */
+    public ZipwhipRuntime(int eventsThreads, int workerThreads, int ioThreads) {
+        this.wheel = new HashedWheelTimer(new NamedThreadFactory("ZipwhipRuntime-timer-"), DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        this.timer = new SharedTimer();
+
+        this.eventsPool = Executors.newFixedThreadPool(eventsThreads, new NamedThreadFactory("ZipwhipRuntime-events-"));
+        this.workerPool = Executors.newFixedThreadPool(workerThreads, new NamedThreadFactory("ZipwhipRuntime-worker-"));
+        this.blockingPool = Executors.newCachedThreadPool(new NamedThreadFactory("ZipwhipRuntime-boss-"));
+
+        this.channelFactory = new SharedNioClientSocketChannelFactory(null, ioThreads);
+        this.link(channelFactory);
+    }
+
+    /**
+     * @param type The kind of executor the caller would normally create for itself.
+     * @param name A name for debugging.
+     * @return A new lane or view on the shared pools. Shutting it down does not affect the shared pools.
+     */
+    @Override
+    public ExecutorService create(CommonExecutorTypes type, String name) {
+        switch (type) {
+            case EVENTS:
+                return new SerialExecutor(eventsPool, name);
+            case WORKER:
+                return new SharedExecutorView(workerPool, name);
+            case BOSS:
+                return new SerialExecutor(blockingPool, name);
+        }
+
+        throw new IllegalStateException("Not sure! " + type);
+    }
+
+    @Override
+    public ExecutorService create() {
+        return create(CommonExecutorTypes.EVENTS, "ZipwhipRuntime");
+    }
+
+    /**
+     * @return The shared timer wheel. Calling {@code stop()} on it does nothing, destroy the runtime instead.
+     */
+    public Timer getTimer() {
+        return timer;
+    }
+
+    /**
+     * @return The same timer wheel, for netty handlers such as the IdleStateHandler.
+     */
+    public org.jboss.netty.util.Timer getNettyTimer() {
+        return new org.jboss.netty.util.Timer() {
+            @Override
+            public org.jboss.netty.util.Timeout newTimeout(org.jboss.netty.util.TimerTask task, long delay, TimeUnit unit) {
+                return wheel.newTimeout(task, delay, unit);
+            }
+
+            @Override
+            public Set<org.jboss.netty.util.Timeout> stop() {
+                return Collections.emptySet();
+            }
+        };
+    }
+
+    /**
+     * @return The NIO transport that all of the signal sockets share.
+     */
+    public ChannelFactory getChannelFactory() {
+        return channelFactory;
+    }
+
+    @Override
+    protected void onDestroy() {
+        wheel.stop();
+
+        eventsPool.shutdownNow();
+        workerPool.shutdownNow();
+        blockingPool.shutdownNow();
+    }
+
+    /**
+     * Our timers are a copy of the netty ones, so this just forwards to the wheel.
+     */
+    private class SharedTimer implements Timer {
+
+        @Override
+        public Timeout newTimeout(final TimerTask task, long delay, TimeUnit unit) {
+            final SharedTimeout timeout = new SharedTimeout(task);
+
+            timeout.timeout = wheel.newTimeout(new org.jboss.netty.util.TimerTask() {
+                @Override
+                public void run(org.jboss.netty.util.Timeout ignored) throws Exception {
+                    timeout.run();
+                }
+            }, delay, unit);
+
+            // it may have been cancelled before there was a wheel timeout to cancel
+            if (timeout.cancelled) {
+                timeout.timeout.cancel();
+            }
+
+            return timeout;
+        }
+
+        @Override
+        public Set<Timeout> stop() {
+            return Collections.emptySet();
+        }
+    }
+
+    private class SharedTimeout implements Timeout {
+
+        private final TimerTask task;
+        // null until the wheel has it, the task may run (or be cancelled) before then
+        private volatile org.jboss.netty.util.Timeout timeout;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+
+        private SharedTimeout(TimerTask task) {
+            this.task = task;
+        }
+
+        private void run() throws Exception {
+            if (cancelled) {
+                return;
+            }
+
+            expired = true;
+            task.run(this);
+        }
+
+        @Override
+        public Timer getTimer() {
+            return timer;
+        }
+
+        @Override
+        public TimerTask getTask() {
+            return task;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            if (expired) {
+                return;
+            }
+            cancelled = true;
+
+            org.jboss.netty.util.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
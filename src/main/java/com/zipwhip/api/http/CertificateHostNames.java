@@ -0,0 +1,139 @@
+package com.zipwhip.api.http;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Checks that the certificate a server presented is for the host we connected to, the way {@code HttpsURLConnection}
+ * does (RFC 2818).
+ * <p/>
+ * An SSLEngine only does this itself from Java 7, when it is given an endpoint identification algorithm. Before that
+ * it trusts any certificate that the trust store does, whoever it was issued to.
+ */
+final class CertificateHostNames {
+
+    private static final int DNS_NAME = 2;
+    private static final int IP_ADDRESS = 7;
+
+    private CertificateHostNames() {
+
+    }
+
+    /**
+     * Check the names in the certificate first, then ask the default HostnameVerifier (which an application may
+     * have replaced to allow other names), just like {@code HttpsURLConnection}.
+     *
+     * @param hostName The host that we connected to.
+     * @param session  The session after the handshake.
+     * @throws SSLPeerUnverifiedException If the certificate is not for the host.
+     */
+    static void verify(String hostName, SSLSession session) throws SSLPeerUnverifiedException {
+        Certificate[] certificates = session.getPeerCertificates();
+
+        if (certificates.length > 0 && certificates[0] instanceof X509Certificate && matches(hostName, (X509Certificate) certificates[0])) {
+            return;
+        }
+
+        if (HttpsURLConnection.getDefaultHostnameVerifier().verify(hostName, session)) {
+            return;
+        }
+
+        throw new SSLPeerUnverifiedException("The certificate is not for " + hostName);
+    }
+
+    /**
+     * @return True if the subject alternative names of the certificate include the host, or if it has no DNS names
+     *         and its most specific common name is the host.
+     */
+    static boolean matches(String hostName, X509Certificate certificate) {
+        boolean ipAddress = isIpAddress(hostName);
+        boolean hasDnsNames = false;
+
+        Collection<List<?>> names;
+        try {
+            names = certificate.getSubjectAlternativeNames();
+        } catch (CertificateParsingException e) {
+            return false;
+        }
+
+        if (names != null) {
+            for (List<?> name : names) {
+                int type = (Integer) name.get(0);
+
+                if (ipAddress && type == IP_ADDRESS && hostName.equalsIgnoreCase((String) name.get(1))) {
+                    return true;
+                } else if (!ipAddress && type == DNS_NAME) {
+                    hasDnsNames = true;
+
+                    if (matches(hostName, (String) name.get(1))) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        if (ipAddress || hasDnsNames) {
+            return false;
+        }
+
+        String commonName = getCommonName(certificate);
+        return commonName != null && matches(hostName, commonName);
+    }
+
+    /**
+     * @param pattern A name from a certificate, "*." in front matches exactly 1 label.
+     */
+    static boolean matches(String hostName, String pattern) {
+        hostName = withoutTrailingDot(hostName.toLowerCase(Locale.ENGLISH));
+        pattern = withoutTrailingDot(pattern.toLowerCase(Locale.ENGLISH));
+
+        if (!pattern.startsWith("*.")) {
+            return hostName.equals(pattern);
+        }
+
+        // ".example.com", and never a wildcard for a whole top level domain
+        String suffix = pattern.substring(1);
+        if (suffix.indexOf('.', 1) < 0) {
+            return false;
+        }
+
+        int label = hostName.length() - suffix.length();
+        return label > 0 && hostName.endsWith(suffix) && hostName.indexOf('.') == label;
+    }
+
+    private static String getCommonName(X509Certificate certificate) {
+        String commonName = null;
+
+        try {
+            // least specific first, so the last one wins
+            for (Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+                if ("CN".equalsIgnoreCase(rdn.getType())) {
+                    commonName = String.valueOf(rdn.getValue());
+                }
+            }
+        } catch (InvalidNameException e) {
+            return null;
+        }
+
+        return commonName;
+    }
+
+    private static boolean isIpAddress(String hostName) {
+        return hostName.indexOf(':') >= 0 || hostName.matches("[0-9.]+");
+    }
+
+    private static String withoutTrailingDot(String name) {
+        return name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.zipwhip.api.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parses an HTTP/1.x response as its bytes arrive, in whatever pieces the socket hands them over.
+ * <p/>
+ * It understands Content-Length, chunked and read-until-close bodies, and skips 1xx responses. One parser is used for
+ * one response.
+ * <p/>
+ * This class is not thread safe, it belongs to the IO thread.
+ */
+class HttpResponseParser {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private enum State {
+        STATUS_LINE,
+        HEADERS,
+        FIXED_BODY,
+        CHUNK_SIZE,
+        CHUNK_DATA,
+        CHUNK_END,
+        TRAILERS,
+        BODY_UNTIL_CLOSE,
+        DONE
+    }
+
+    private final boolean head;
+
+    private State state = State.STATUS_LINE;
+
+    private final StringBuilder line = new StringBuilder(128);
+    private boolean lineComplete;
+
+    private String version;
+    private int statusCode;
+    private String statusText;
+    private Map<String, String> headers = new HashMap<String, String>();
+
+    private long remaining;
+    private byte[] body = new byte[1024];
+    private int bodyLength;
+
+    /**
+     * @param head {@code true} if the request was a HEAD, so the response has no body whatever its headers say.
+     */
+    HttpResponseParser(boolean head) {
+        this.head = head;
+    }
+
+    /**
+     * Consume bytes of the response. Once the response is complete nothing more is consumed, anything left in
+     * {@code in} came after it.
+     *
+     * @param in The bytes that have arrived, in read mode.
+     * @return {@code true} once the response is complete.
+     * @throws IOException If the response is malformed.
+     */
+    boolean parse(ByteBuffer in) throws IOException {
+        while (state != State.DONE && in.hasRemaining()) {
+            switch (state) {
+                case STATUS_LINE:
+                    if (readLine(in)) {
+                        parseStatusLine();
+                    }
+                    break;
+
+                case HEADERS:
+                    if (readLine(in)) {
+                        parseHeaderLine();
+                    }
+                    break;
+
+                case FIXED_BODY:
+                case CHUNK_DATA:
+                    int length = (int) Math.min(remaining, in.remaining());
+                    appendBody(in, length);
+                    remaining -= length;
+
+                    if (remaining == 0) {
+                        state = state == State.FIXED_BODY ? State.DONE : State.CHUNK_END;
+                    }
+                    break;
+
+                case CHUNK_SIZE:
+                    if (readLine(in)) {
+                        parseChunkSize();
+                    }
+                    break;
+
+                case CHUNK_END:
+                    if (readLine(in)) {
+                        if (line.length() != 0) {
+                            throw new IOException("Expected CRLF after a chunk");
+                        }
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+
+                case TRAILERS:
+                    if (readLine(in) && line.length() == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+
+                case BODY_UNTIL_CLOSE:
+                    appendBody(in, in.remaining());
+                    break;
+            }
+        }
+
+        return state == State.DONE;
+    }
+
+    /**
+     * The connection was closed.
+     *
+     * @return {@code true} if that completed the response, because its body runs until the connection closes.
+     */
+    boolean onClosed() {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+        }
+
+        return state == State.DONE;
+    }
+
+    /**
+     * @return {@code true} if the connection can carry another request after this response.
+     */
+    boolean isKeepAlive() {
+        if (state != State.DONE) {
+            return false;
+        }
+
+        String connection = headers.get("connection");
+
+        if ("HTTP/1.0".equals(version)) {
+            return connection != null && connection.toLowerCase().contains("keep-alive");
+        }
+
+        return connection == null || !connection.toLowerCase().contains("close");
+    }
+
+    /**
+     * @return {@code true} if any of the status line has been read.
+     */
+    boolean isStarted() {
+        return state != State.STATUS_LINE || line.length() > 0;
+    }
+
+    /**
+     * @return The response, with a gzipped body inflated.
+     * @throws IOException If the gzipped body is corrupt.
+     */
+    NioHttpResponse toResponse() throws IOException {
+        String encoding = headers.get("content-encoding");
+
+        if (encoding != null && encoding.trim().equalsIgnoreCase("gzip") && bodyLength > 0) {
+            InputStream in = new GZIPInputStream(new ByteArrayInputStream(body, 0, bodyLength));
+            try {
+                byte[] inflated = new byte[Math.max(1024, bodyLength * 4)];
+                int length = 0;
+                int read;
+
+                while ((read = in.read(inflated, length, inflated.length - length)) != -1) {
+                    length += read;
+                    if (length == inflated.length) {
+                        inflated = grow(inflated, inflated.length * 2);
+                    }
+                }
+
+                return new NioHttpResponse(statusCode, statusText, headers, inflated, length);
+            } finally {
+                in.close();
+            }
+        }
+
+        return new NioHttpResponse(statusCode, statusText, headers, body, bodyLength);
+    }
+
+    private void parseStatusLine() throws IOException {
+        if (line.length() == 0) {
+            // tolerate blank lines before the status line
+            return;
+        }
+
+        String status = line.toString();
+
+        int firstSpace = status.indexOf(' ');
+        if (firstSpace < 0 || !status.startsWith("HTTP/")) {
+            throw new IOException("Bad status line: " + status);
+        }
+
+        int secondSpace = status.indexOf(' ', firstSpace + 1);
+
+        version = status.substring(0, firstSpace);
+        try {
+            statusCode = Integer.parseInt(secondSpace < 0 ? status.substring(firstSpace + 1) : status.substring(firstSpace + 1, secondSpace));
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad status line: " + status);
+        }
+        statusText = secondSpace < 0 ? "" : status.substring(secondSpace + 1);
+
+        state = State.HEADERS;
+    }
+
+    private void parseHeaderLine() throws IOException {
+        if (line.length() != 0) {
+            int colon = line.indexOf(":");
+            if (colon <= 0) {
+                throw new IOException("Bad header: " + line);
+            }
+
+            String name = line.substring(0, colon).trim().toLowerCase();
+            String value = line.substring(colon + 1).trim();
+            String existing = headers.get(name);
+
+            headers.put(name, existing == null ? value : existing + ", " + value);
+            return;
+        }
+
+        // the end of the headers
+        if (statusCode >= 100 && statusCode < 200) {
+            // 100 Continue and friends come before the real response
+            headers = new HashMap<String, String>();
+            state = State.STATUS_LINE;
+            return;
+        }
+
+        if (head || statusCode == 204 || statusCode == 304) {
+            state = State.DONE;
+            return;
+        }
+
+        String transferEncoding = headers.get("transfer-encoding");
+        String contentLength = headers.get("content-length");
+
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                remaining = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad Content-Length: " + contentLength);
+            }
+
+            if (remaining < 0 || remaining > Integer.MAX_VALUE) {
+                throw new IOException("Bad Content-Length: " + contentLength);
+            }
+
+            state = remaining == 0 ? State.DONE : State.FIXED_BODY;
+        } else {
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    private void parseChunkSize() throws IOException {
+        int end = line.indexOf(";");
+        String size = (end < 0 ? line.toString() : line.substring(0, end)).trim();
+
+        try {
+            remaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad chunk size: " + line);
+        }
+
+        if (remaining < 0 || bodyLength + remaining > Integer.MAX_VALUE) {
+            throw new IOException("Bad chunk size: " + line);
+        }
+
+        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+    }
+
+    /**
+     * Read up to the end of a line, which may take more than one call.
+     *
+     * @return {@code true} if {@link #line} now holds a whole line, without its CRLF.
+     */
+    private boolean readLine(ByteBuffer in) throws IOException {
+        if (lineComplete) {
+            // the line completed last time has been used, start again
+            line.setLength(0);
+            lineComplete = false;
+        }
+
+        while (in.hasRemaining()) {
+            char c = (char) (in.get() & 0xff);
+
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                lineComplete = true;
+                return true;
+            }
+
+            if (line.length() >= MAX_LINE_LENGTH) {
+                throw new IOException("Line too long");
+            }
+
+            line.append(c);
+        }
+
+        return false;
+    }
+
+    private void appendBody(ByteBuffer in, int length) {
+        if (bodyLength + length > body.length) {
+            body = grow(body, Math.max(body.length * 2, bodyLength + length));
+        }
+
+        in.get(body, bodyLength, length);
+        bodyLength += length;
+    }
+
+    private static byte[] grow(byte[] bytes, int length) {
+        byte[] grown = new byte[length];
+        System.arraycopy(bytes, 0, grown, 0, bytes.length);
+        return grown;
+    }
+
+}
@@ -0,0 +1,1195 @@
+package com.zipwhip.api.http;
+
+import com.zipwhip.api.HttpClientSettings;
+import com.zipwhip.api.HttpPoolStats;
+import com.zipwhip.lifecycle.CascadingDestroyableBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An HTTP/1.1 client built on JDK NIO alone. Every connection is served by one selector thread, so there is no
+ * thread per request and a request waiting on the network costs nothing but its buffers.
+ * <p/>
+ * Connections are kept alive and pooled by host, within the limits of {@link HttpClientSettings}. Requests past the
+ * limits wait in order for a connection. A GET that fails on a pooled connection before any of its response arrives
+ * is sent once more on a new connection, because the server may have closed the connection while it sat in the pool.
+ * <p/>
+ * Callbacks are run on the selector thread. They must be quick and must not block, hand anything slow to an
+ * executor.
+ * <p/>
+ * There is no proxy support. Host names are resolved on the thread that calls {@link #execute} and cached for a
+ * minute.
+ * <p/>
+ * This class is thread safe.
+ */
+public class NioHttpClient extends CascadingDestroyableBase {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioHttpClient.class);
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private static final long SWEEP_MILLIS = 250;
+    private static final long DNS_TTL_MILLIS = 60 * 1000;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    // Java 7 checks the host name of the certificate during the handshake, before that we check it after.
+    private static final Method SET_ENDPOINT_IDENTIFICATION_ALGORITHM = getSetEndpointIdentificationAlgorithm();
+
+    /**
+     * Told how a request ended. Exactly one method is called once, unless the request is cancelled first, in which
+     * case neither is.
+     */
+    public interface Callback {
+
+        /**
+         * @param response The whole response, whatever its status code.
+         */
+        void onResponse(NioHttpResponse response);
+
+        /**
+         * @param cause Why there is no response, a {@link TimeoutException} if it took too long.
+         */
+        void onFailure(Throwable cause);
+
+    }
+
+    /**
+     * A request that has been handed to {@link #execute}.
+     */
+    public interface Call {
+
+        /**
+         * Stop the request. If it is waiting for a connection it is never sent, if it is on the wire its connection is
+         * closed.
+         *
+         * @return {@code true} if it was cancelled, {@code false} if it had already ended.
+         */
+        boolean cancel();
+
+        /**
+         * @return {@code true} once the request has ended, one way or another.
+         */
+        boolean isDone();
+
+    }
+
+    private final HttpClientSettings settings;
+    private final SSLContext sslContext;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private final ConcurrentHashMap<String, Resolved> addresses = new ConcurrentHashMap<String, Resolved>();
+
+    private volatile boolean closed;
+    private volatile boolean stopped;
+
+    // Only touched by the selector thread
+    private final Map<String, Host> hosts = new HashMap<String, Host>();
+    private final Set<Connection> connections = new HashSet<Connection>();
+    private long nextSweep;
+
+    // Published by the selector thread for getPoolStats()
+    private volatile int active;
+    private volatile int idle;
+    private volatile int pending;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * Create a client with the default settings and the default {@code SSLContext}.
+     */
+    public NioHttpClient() {
+        this(new HttpClientSettings());
+    }
+
+    /**
+     * @param settings The connection pool and timeouts, they are copied.
+     */
+    public NioHttpClient(HttpClientSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * @param settings   The connection pool and timeouts, they are copied.
+     * @param sslContext What https connections are made with, null for {@code SSLContext.getDefault()}.
+     * @throws IllegalArgumentException If settings is null.
+     * @throws IllegalStateException    If a selector can't be opened.
+     */
+    public NioHttpClient(HttpClientSettings settings, SSLContext sslContext) {
+        if (settings == null) throw new IllegalArgumentException("settings cannot be null");
+
+        this.settings = new HttpClientSettings(settings);
+        this.sslContext = sslContext;
+
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open a selector", e);
+        }
+
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "NioHttpClient-" + THREADS.incrementAndGet());
+
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Send a request.
+     *
+     * @param request  What to send.
+     * @param callback Told how it ends, on the selector thread. If the request can't even start, because the client
+     *                 has been destroyed or the host can't be resolved, it is told before this returns.
+     * @return The request, which can be cancelled.
+     * @throws IllegalArgumentException If request or callback is null.
+     */
+    public Call execute(NioHttpRequest request, Callback callback) {
+        if (request == null) throw new IllegalArgumentException("request cannot be null");
+        if (callback == null) throw new IllegalArgumentException("callback cannot be null");
+
+        final Exchange exchange = new Exchange(request, callback);
+
+        if (closed) {
+            exchange.fail(new IOException("The client has been destroyed"));
+            return exchange;
+        }
+
+        try {
+            exchange.address = resolve(request.getUrl());
+        } catch (UnknownHostException e) {
+            exchange.fail(e);
+            return exchange;
+        }
+
+        requests.incrementAndGet();
+
+        submit(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    exchange.fail(new IOException("The client has been destroyed"));
+                    return;
+                }
+
+                String origin = exchange.request.getUrl().getOrigin();
+
+                Host host = hosts.get(origin);
+                if (host == null) {
+                    host = new Host(origin);
+                    hosts.put(origin, host);
+                }
+
+                host.waiting.addLast(exchange);
+            }
+        });
+
+        return exchange;
+    }
+
+    /**
+     * @return A copy of the settings this client was created with.
+     */
+    public HttpClientSettings getSettings() {
+        return new HttpClientSettings(settings);
+    }
+
+    /**
+     * @return What the connection pool is doing, as of the last turn of the selector thread.
+     */
+    public HttpPoolStats getPoolStats() {
+        return new HttpPoolStats(active, idle, pending, requests.get(), reused.get());
+    }
+
+    @Override
+    protected void onDestroy() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+
+        if (stopped) {
+            // the selector thread is gone, the task will see closed and fail its request
+            runTasks();
+        } else {
+            selector.wakeup();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception running a task", e);
+            }
+        }
+    }
+
+    private InetSocketAddress resolve(NioHttpUrl url) throws UnknownHostException {
+        String name = url.getHost();
+        long now = System.currentTimeMillis();
+
+        Resolved resolved = addresses.get(name);
+        if (resolved == null || resolved.expires < now) {
+            resolved = new Resolved(InetAddress.getByName(name), now + DNS_TTL_MILLIS);
+            addresses.put(name, resolved);
+        }
+
+        return new InetSocketAddress(resolved.address, url.getPort());
+    }
+
+    private void loop() {
+        try {
+            while (!closed) {
+                selector.select(SWEEP_MILLIS);
+
+                runTasks();
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        connection.onReady(key);
+                    } catch (IOException e) {
+                        close(connection, e);
+                    } catch (RuntimeException e) {
+                        // CancelledKeyException, or an SSLEngine having a bad day
+                        close(connection, new IOException(e.toString()));
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextSweep) {
+                    sweep(now);
+                    nextSweep = now + SWEEP_MILLIS;
+                }
+
+                dispatch();
+                publishStats();
+            }
+        } catch (Throwable e) {
+            LOGGER.error("The selector thread died", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void shutdown() {
+        closed = true;
+
+        IOException cause = new IOException("The client has been destroyed");
+
+        for (Connection connection : new ArrayList<Connection>(connections)) {
+            close(connection, cause);
+        }
+
+        for (Host host : hosts.values()) {
+            for (Exchange exchange : host.waiting) {
+                exchange.fail(cause);
+            }
+            host.waiting.clear();
+        }
+
+        hosts.clear();
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close the selector", e);
+        }
+
+        stopped = true;
+        runTasks();
+        publishStats();
+    }
+
+    /**
+     * Give waiting requests the connections that are free, or open new ones where the limits allow.
+     */
+    private void dispatch() {
+        for (Host host : hosts.values()) {
+            while (!host.waiting.isEmpty()) {
+                Exchange exchange = host.waiting.peekFirst();
+
+                if (exchange.isDone()) {
+                    host.waiting.pollFirst();
+                    continue;
+                }
+
+                Connection connection = host.idle.pollLast();
+                if (connection != null) {
+                    host.waiting.pollFirst();
+                    reused.incrementAndGet();
+                    start(connection, exchange);
+                    continue;
+                }
+
+                if (settings.getMaxConnectionsPerHost() != HttpClientSettings.NO_LIMIT && host.open >= settings.getMaxConnectionsPerHost()) {
+                    break;
+                }
+
+                if (settings.getMaxConnections() != HttpClientSettings.NO_LIMIT && connections.size() >= settings.getMaxConnections() && !closeIdle()) {
+                    break;
+                }
+
+                host.waiting.pollFirst();
+                open(host, exchange);
+            }
+        }
+    }
+
+    /**
+     * Make room under the total limit by closing the oldest idle connection there is.
+     *
+     * @return {@code false} if there were no idle connections to close.
+     */
+    private boolean closeIdle() {
+        Connection oldest = null;
+
+        for (Host host : hosts.values()) {
+            Connection connection = host.idle.peekFirst();
+            if (connection != null && (oldest == null || connection.idleSince < oldest.idleSince)) {
+                oldest = connection;
+            }
+        }
+
+        if (oldest == null) {
+            return false;
+        }
+
+        close(oldest, null);
+        return true;
+    }
+
+    private void open(Host host, Exchange exchange) {
+        Connection connection;
+
+        try {
+            connection = new Connection(host, exchange.address, exchange.request.getUrl());
+        } catch (IOException e) {
+            exchange.fail(e);
+            return;
+        }
+
+        connection.exchange = exchange;
+        exchange.connection = connection;
+
+        try {
+            connection.connect();
+        } catch (IOException e) {
+            close(connection, e);
+        }
+    }
+
+    private void start(Connection connection, Exchange exchange) {
+        connection.exchange = exchange;
+        exchange.connection = connection;
+
+        try {
+            connection.startRequest();
+        } catch (IOException e) {
+            close(connection, e);
+        }
+    }
+
+    private void onResponse(Connection connection, boolean reusable) {
+        Exchange exchange = connection.exchange;
+        NioHttpResponse response;
+
+        try {
+            response = connection.parser.toResponse();
+        } catch (IOException e) {
+            close(connection, e);
+            return;
+        }
+
+        reusable &= settings.isKeepAlive() && !closed && connection.requestWritten && connection.parser.isKeepAlive();
+
+        connection.exchange = null;
+        connection.parser = null;
+        connection.served++;
+        exchange.connection = null;
+
+        if (reusable) {
+            connection.idleSince = System.currentTimeMillis();
+            connection.host.idle.addLast(connection);
+        } else {
+            close(connection, null);
+        }
+
+        exchange.complete(response);
+    }
+
+    /**
+     * Close a connection. If it had a request on the wire, that request fails with {@code cause} or is sent again.
+     */
+    private void close(Connection connection, IOException cause) {
+        if (connection.closed) {
+            return;
+        }
+
+        connection.closed = true;
+        connection.release();
+
+        connections.remove(connection);
+        connection.host.open--;
+        connection.host.idle.remove(connection);
+
+        Exchange exchange = connection.exchange;
+        if (exchange == null) {
+            return;
+        }
+
+        connection.exchange = null;
+        exchange.connection = null;
+
+        if (exchange.isDone()) {
+            return;
+        }
+
+        if (cause == null) {
+            cause = new IOException("Connection closed");
+        }
+
+        if (!closed && !exchange.retried && exchange.request.isIdempotent()
+                && connection.served > 0 && (connection.parser == null || !connection.parser.isStarted())) {
+            // The server closed a pooled connection as we used it, try once more on a new one
+            LOGGER.debug("Retrying " + exchange.request + " after " + cause);
+
+            exchange.retried = true;
+            connection.host.waiting.addFirst(exchange);
+            return;
+        }
+
+        exchange.fail(cause);
+    }
+
+    /**
+     * Time out requests and connects that have taken too long, and close connections that have been idle too long.
+     */
+    private void sweep(long now) {
+        int idleTimeout = settings.getIdleTimeoutMillis();
+
+        Iterator<Host> hostIterator = hosts.values().iterator();
+        while (hostIterator.hasNext()) {
+            Host host = hostIterator.next();
+
+            Iterator<Exchange> waiting = host.waiting.iterator();
+            while (waiting.hasNext()) {
+                Exchange exchange = waiting.next();
+                if (exchange.isDone()) {
+                    waiting.remove();
+                } else if (exchange.isExpired(now)) {
+                    waiting.remove();
+                    exchange.fail(new TimeoutException("No connection to " + host.origin + " within " + settings.getRequestTimeoutMillis() + "ms"));
+                }
+            }
+
+            if (idleTimeout >= 0) {
+                for (Connection connection : new ArrayList<Connection>(host.idle)) {
+                    if (now - connection.idleSince >= idleTimeout) {
+                        close(connection, null);
+                    }
+                }
+            }
+
+            if (host.open == 0 && host.waiting.isEmpty()) {
+                hostIterator.remove();
+            }
+        }
+
+        for (Connection connection : new ArrayList<Connection>(connections)) {
+            if (!connection.connected && connection.connectDeadline > 0 && now >= connection.connectDeadline) {
+                close(connection, new SocketTimeoutException("Connect to " + connection.host.origin + " timed out"));
+                continue;
+            }
+
+            Exchange exchange = connection.exchange;
+            if (exchange != null && exchange.isExpired(now)) {
+                exchange.fail(new TimeoutException(exchange.request + " timed out after " + settings.getRequestTimeoutMillis() + "ms"));
+                close(connection, null);
+            }
+        }
+    }
+
+    private void publishStats() {
+        int active = 0;
+        int idle = 0;
+        int pending = 0;
+
+        for (Host host : hosts.values()) {
+            idle += host.idle.size();
+            pending += host.waiting.size();
+        }
+
+        for (Connection connection : connections) {
+            if (connection.exchange != null) {
+                active++;
+            }
+        }
+
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+    }
+
+    private static class Resolved {
+
+        final InetAddress address;
+        final long expires;
+
+        Resolved(InetAddress address, long expires) {
+            this.address = address;
+            this.expires = expires;
+        }
+
+    }
+
+    /**
+     * The requests and connections of one scheme, host and port.
+     */
+    private static class Host {
+
+        final String origin;
+        final ArrayDeque<Exchange> waiting = new ArrayDeque<Exchange>();
+        final ArrayDeque<Connection> idle = new ArrayDeque<Connection>();
+        int open;
+
+        Host(String origin) {
+            this.origin = origin;
+        }
+
+    }
+
+    /**
+     * A request and what becomes of it.
+     */
+    private final class Exchange implements Call {
+
+        final NioHttpRequest request;
+        final Callback callback;
+        final long deadline;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        InetSocketAddress address;
+
+        // Only touched by the selector thread
+        Connection connection;
+        boolean retried;
+
+        Exchange(NioHttpRequest request, Callback callback) {
+            this.request = request;
+            this.callback = callback;
+
+            int timeout = settings.getRequestTimeoutMillis();
+            this.deadline = timeout < 0 ? 0 : System.currentTimeMillis() + timeout;
+        }
+
+        boolean isExpired(long now) {
+            return deadline > 0 && now >= deadline;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.get();
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+
+            submit(new Runnable() {
+                @Override
+                public void run() {
+                    // a waiting request is dropped by dispatch(), one on the wire takes its connection with it
+                    if (connection != null) {
+                        close(connection, null);
+                    }
+                }
+            });
+
+            return true;
+        }
+
+        void complete(NioHttpResponse response) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                callback.onResponse(response);
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception in the callback of " + request, e);
+            }
+        }
+
+        void fail(Throwable cause) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                callback.onFailure(cause);
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception in the callback of " + request, e);
+            }
+        }
+
+    }
+
+    /**
+     * One socket, plain or wrapped in an {@code SSLEngine}, that carries one request at a time.
+     * <p/>
+     * The network buffers are kept in read mode between calls, so {@code hasRemaining()} means bytes are waiting.
+     */
+    private final class Connection {
+
+        final Host host;
+        final InetSocketAddress address;
+        final String hostName;
+        final SocketChannel channel;
+        final SSLEngine engine;
+
+        final ByteBuffer netIn;
+        final ByteBuffer netOut;
+        ByteBuffer appIn;
+
+        SelectionKey key;
+        boolean connected;
+        boolean handshaking;
+        boolean closed;
+        long connectDeadline;
+        long idleSince;
+        int served;
+
+        Exchange exchange;
+        HttpResponseParser parser;
+
+        // The request being written
+        List<Object> parts;
+        int partIndex;
+        ByteBuffer current;
+        FileChannel file;
+        ByteBuffer fileBuffer;
+        boolean requestWritten;
+
+        Connection(Host host, InetSocketAddress address, NioHttpUrl url) throws IOException {
+            this.host = host;
+            this.address = address;
+            this.hostName = url.getHost();
+
+            if (url.isSecure()) {
+                engine = createEngine(url);
+                netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+                netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+                appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+            } else {
+                engine = null;
+                netIn = ByteBuffer.allocate(BUFFER_SIZE);
+                netOut = ByteBuffer.allocate(0);
+            }
+
+            netIn.flip();
+            netOut.flip();
+
+            channel = SocketChannel.open();
+            connections.add(this);
+            host.open++;
+
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.socket().setKeepAlive(true);
+            } catch (IOException e) {
+                close(this, e);
+                throw e;
+            }
+        }
+
+        void connect() throws IOException {
+            int timeout = settings.getConnectTimeoutMillis();
+            connectDeadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+
+            if (channel.connect(address)) {
+                key = channel.register(selector, 0, this);
+                onConnected();
+            } else {
+                key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+            }
+        }
+
+        void onReady(SelectionKey key) throws IOException {
+            if (closed) {
+                return;
+            }
+
+            if (key.isConnectable()) {
+                if (!channel.finishConnect()) {
+                    return;
+                }
+                onConnected();
+            }
+
+            if (!closed && key.isValid() && key.isWritable()) {
+                if (handshaking) {
+                    handshake();
+                } else {
+                    write();
+                }
+            }
+
+            if (!closed && key.isValid() && key.isReadable()) {
+                if (handshaking) {
+                    handshake();
+                } else {
+                    read();
+                }
+            }
+
+            updateInterest();
+        }
+
+        private void onConnected() throws IOException {
+            connected = true;
+
+            if (engine != null) {
+                engine.beginHandshake();
+                handshaking = true;
+                handshake();
+            } else {
+                startRequest();
+            }
+
+            updateInterest();
+        }
+
+        void startRequest() throws IOException {
+            List<Object> body = exchange.request.getBody();
+
+            parts = new ArrayList<Object>(body.size() + 1);
+            parts.add(exchange.request.getHead());
+            parts.addAll(body);
+            partIndex = 0;
+            current = null;
+            requestWritten = false;
+            parser = new HttpResponseParser("HEAD".equals(exchange.request.getMethod()));
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("==> " + exchange.request + (served > 0 ? " on a pooled connection" : ""));
+            }
+
+            write();
+            updateInterest();
+        }
+
+        private void updateInterest() {
+            if (closed || key == null || !key.isValid()) {
+                return;
+            }
+
+            int ops;
+            if (!connected) {
+                ops = SelectionKey.OP_CONNECT;
+            } else {
+                ops = SelectionKey.OP_READ;
+
+                if (netOut.hasRemaining() || (!handshaking && exchange != null && !requestWritten)) {
+                    ops |= SelectionKey.OP_WRITE;
+                }
+            }
+
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        private void handshake() throws IOException {
+            while (handshaking) {
+                if (!flush()) {
+                    return;
+                }
+
+                SSLEngineResult result;
+
+                switch (engine.getHandshakeStatus()) {
+                    case NEED_TASK:
+                        runDelegatedTasks();
+                        break;
+
+                    case NEED_WRAP:
+                        netOut.compact();
+                        try {
+                            result = engine.wrap(EMPTY, netOut);
+                        } finally {
+                            netOut.flip();
+                        }
+
+                        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                            throw new SSLException("The connection was closed during the handshake");
+                        }
+                        break;
+
+                    case NEED_UNWRAP:
+                        result = engine.unwrap(netIn, appIn);
+
+                        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                            throw new SSLException("The connection was closed during the handshake");
+                        }
+
+                        if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                            if (fill() == 0) {
+                                return;
+                            }
+                        }
+                        break;
+
+                    default:
+                        // FINISHED or NOT_HANDSHAKING
+                        handshaking = false;
+
+                        if (SET_ENDPOINT_IDENTIFICATION_ALGORITHM == null) {
+                            // the engine didn't check it, so before anything is sent.
+                            CertificateHostNames.verify(hostName, engine.getSession());
+                        }
+
+                        if (exchange != null && parser == null) {
+                            startRequest();
+                        } else {
+                            write();
+                        }
+                        return;
+                }
+            }
+        }
+
+        private void runDelegatedTasks() {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        }
+
+        /**
+         * Read what the socket has onto the end of {@link #netIn}.
+         *
+         * @return The number of bytes read.
+         * @throws EOFException If the socket has been closed.
+         */
+        private int fill() throws IOException {
+            netIn.compact();
+
+            int read;
+            try {
+                read = channel.read(netIn);
+            } finally {
+                netIn.flip();
+            }
+
+            if (read < 0) {
+                throw new EOFException("Connection closed by " + host.origin);
+            }
+
+            return read;
+        }
+
+        /**
+         * @return {@code true} if {@link #netOut} is empty.
+         */
+        private boolean flush() throws IOException {
+            if (netOut.hasRemaining()) {
+                channel.write(netOut);
+            }
+
+            return !netOut.hasRemaining();
+        }
+
+        private void write() throws IOException {
+            while (exchange != null && !requestWritten) {
+                if (!flush()) {
+                    return;
+                }
+
+                if (current == null || !current.hasRemaining()) {
+                    if (!nextPart()) {
+                        requestWritten = true;
+                        return;
+                    }
+                    continue;
+                }
+
+                if (engine == null) {
+                    if (channel.write(current) == 0) {
+                        return;
+                    }
+                } else {
+                    netOut.compact();
+                    SSLEngineResult result;
+                    try {
+                        result = engine.wrap(current, netOut);
+                    } finally {
+                        netOut.flip();
+                    }
+
+                    if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                        throw new SSLException("Connection closed by " + host.origin);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Move on to the next piece of the request.
+         *
+         * @return {@code false} if the request has all been written.
+         */
+        private boolean nextPart() throws IOException {
+            if (file != null) {
+                fileBuffer.clear();
+                if (file.read(fileBuffer) >= 0) {
+                    fileBuffer.flip();
+                    current = fileBuffer;
+                    return true;
+                }
+
+                file.close();
+                file = null;
+            }
+
+            if (partIndex >= parts.size()) {
+                current = null;
+                parts = null;
+                return false;
+            }
+
+            Object part = parts.get(partIndex++);
+
+            if (part instanceof byte[]) {
+                current = ByteBuffer.wrap((byte[]) part);
+            } else {
+                if (fileBuffer == null) {
+                    fileBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+
+                file = new FileInputStream((File) part).getChannel();
+                current = null;
+            }
+
+            return true;
+        }
+
+        private void read() throws IOException {
+            netIn.compact();
+
+            int read;
+            try {
+                read = channel.read(netIn);
+            } finally {
+                netIn.flip();
+            }
+
+            if (engine == null) {
+                deliver(netIn);
+            } else {
+                unwrap();
+            }
+
+            if (read < 0 && !closed) {
+                onClosed();
+            }
+        }
+
+        private void unwrap() throws IOException {
+            while (!closed && netIn.hasRemaining()) {
+                SSLEngineResult result = engine.unwrap(netIn, appIn);
+
+                appIn.flip();
+                try {
+                    deliver(appIn);
+                } finally {
+                    appIn.clear();
+                }
+
+                if (closed) {
+                    return;
+                }
+
+                switch (result.getStatus()) {
+                    case BUFFER_UNDERFLOW:
+                        return;
+
+                    case BUFFER_OVERFLOW:
+                        appIn = ByteBuffer.allocate(Math.max(appIn.capacity() * 2, engine.getSession().getApplicationBufferSize()));
+                        break;
+
+                    case CLOSED:
+                        onClosed();
+                        return;
+
+                    default:
+                        if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                            runDelegatedTasks();
+                        }
+
+                        if (engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                            // the server wants to renegotiate, or update keys
+                            handshaking = true;
+                            handshake();
+                            if (handshaking) {
+                                return;
+                            }
+                        }
+
+                        if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+                            return;
+                        }
+                }
+            }
+        }
+
+        /**
+         * Hand bytes of the response to the parser.
+         */
+        private void deliver(ByteBuffer data) throws IOException {
+            if (!data.hasRemaining()) {
+                return;
+            }
+
+            if (parser == null) {
+                throw new IOException("Unexpected data from " + host.origin);
+            }
+
+            if (parser.parse(data)) {
+                // anything after the response can't be trusted, so the connection isn't either
+                boolean reusable = !data.hasRemaining() && !netIn.hasRemaining();
+                data.position(data.limit());
+
+                onResponse(this, reusable);
+            }
+        }
+
+        /**
+         * The server closed the connection.
+         */
+        private void onClosed() {
+            if (parser != null && parser.onClosed()) {
+                onResponse(this, false);
+                return;
+            }
+
+            close(this, parser == null ? null : new EOFException("Connection closed by " + host.origin + " before the response was complete"));
+        }
+
+        void release() {
+            if (key != null) {
+                key.cancel();
+            }
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close the connection to " + host.origin, e);
+            }
+
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Could not close a file", e);
+                }
+                file = null;
+            }
+
+            if (engine != null) {
+                engine.closeOutbound();
+            }
+        }
+
+    }
+
+    private SSLEngine createEngine(NioHttpUrl url) throws IOException {
+        SSLContext context = sslContext;
+
+        if (context == null) {
+            try {
+                context = SSLContext.getDefault();
+            } catch (Exception e) {
+                throw new SSLException("No default SSLContext", e);
+            }
+        }
+
+        SSLEngine engine = context.createSSLEngine(url.getHost(), url.getPort());
+        engine.setUseClientMode(true);
+
+        // Check the certificate is for the host. This is a Java 7 API, on Java 6 the connection checks it after.
+        if (SET_ENDPOINT_IDENTIFICATION_ALGORITHM != null) {
+            try {
+                SSLParameters parameters = engine.getSSLParameters();
+                SET_ENDPOINT_IDENTIFICATION_ALGORITHM.invoke(parameters, "HTTPS");
+                engine.setSSLParameters(parameters);
+            } catch (Exception e) {
+                throw new SSLException("Could not enable host name checks", e);
+            }
+        }
+
+        return engine;
+    }
+
+    private static Method getSetEndpointIdentificationAlgorithm() {
+        try {
+            return SSLParameters.class.getMethod("setEndpointIdentificationAlgorithm", String.class);
+        } catch (NoSuchMethodException e) {
+            LOGGER.debug("Host names of certificates are checked after the handshake on this runtime");
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.zipwhip.api.http;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A request for {@link NioHttpClient}. The body is a list of byte arrays and files, the files are read as they are
+ * written to the socket so an upload never has to fit in memory.
+ * <p/>
+ * This class is immutable.
+ */
+public class NioHttpRequest {
+
+    private static final Random BOUNDARIES = new Random();
+
+    private final String method;
+    private final NioHttpUrl url;
+    private final String contentType;
+    private final String contentEncoding;
+    private final List<Object> body;
+    private final long contentLength;
+
+    private NioHttpRequest(String method, NioHttpUrl url, String contentType, String contentEncoding, List<Object> body, long contentLength) {
+        this.method = method;
+        this.url = url;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.body = body;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * @param url An absolute http or https URL, with its query already encoded.
+     * @return A GET of {@code url}.
+     * @throws IllegalArgumentException If the URL can't be parsed.
+     */
+    public static NioHttpRequest get(String url) {
+        return new NioHttpRequest("GET", NioHttpUrl.parse(url), null, null, Collections.emptyList(), -1);
+    }
+
+    /**
+     * @param url             An absolute http or https URL, with its query already encoded.
+     * @param body            The body to post.
+     * @param contentType     The Content-Type of the body.
+     * @param contentEncoding The Content-Encoding of the body, or null.
+     * @return A POST of {@code body} to {@code url}.
+     * @throws IllegalArgumentException If the URL can't be parsed.
+     */
+    public static NioHttpRequest post(String url, byte[] body, String contentType, String contentEncoding) {
+        return new NioHttpRequest("POST", NioHttpUrl.parse(url), contentType, contentEncoding, Collections.<Object>singletonList(body), body.length);
+    }
+
+    /**
+     * @param url   An absolute http or https URL, with its query already encoded.
+     * @param name  The form field name of every file.
+     * @param files The files to upload, they are read when the request is written.
+     * @return A multipart/form-data POST of the files to {@code url}.
+     * @throws IllegalArgumentException If the URL can't be parsed.
+     */
+    public static NioHttpRequest multipart(String url, String name, List<File> files) {
+        String boundary = "----zipwhip" + Long.toHexString(BOUNDARIES.nextLong()) + Long.toHexString(System.nanoTime());
+
+        List<Object> body = new ArrayList<Object>(files.size() * 3 + 1);
+        long length = 0;
+
+        for (File file : files) {
+            byte[] head = ascii("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + file.getName().replace("\"", "") + "\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Transfer-Encoding: binary\r\n\r\n");
+            byte[] tail = ascii("\r\n");
+
+            body.add(head);
+            body.add(file);
+            body.add(tail);
+
+            length += head.length + file.length() + tail.length;
+        }
+
+        byte[] end = ascii("--" + boundary + "--\r\n");
+        body.add(end);
+        length += end.length;
+
+        return new NioHttpRequest("POST", NioHttpUrl.parse(url), "multipart/form-data; boundary=" + boundary, null, body, length);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public NioHttpUrl getUrl() {
+        return url;
+    }
+
+    /**
+     * @return {@code true} if this can be sent again on a new connection when the first one turns out to be stale.
+     */
+    public boolean isIdempotent() {
+        return "GET".equals(method);
+    }
+
+    /**
+     * @return The head of the request: the request line and the headers.
+     */
+    byte[] getHead() {
+        StringBuilder builder = new StringBuilder(url.getFile().length() + 256);
+
+        builder.append(method).append(' ').append(url.getFile()).append(" HTTP/1.1\r\n");
+        builder.append("Host: ").append(url.getHostHeader()).append("\r\n");
+        builder.append("Connection: keep-alive\r\n");
+        builder.append("Accept-Encoding: gzip\r\n");
+
+        if (contentLength >= 0) {
+            builder.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        if (contentType != null) {
+            builder.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (contentEncoding != null) {
+            builder.append("Content-Encoding: ").append(contentEncoding).append("\r\n");
+        }
+
+        builder.append("\r\n");
+
+        return ascii(builder.toString());
+    }
+
+    /**
+     * @return The byte arrays and files of the body, in order.
+     */
+    List<Object> getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+    private static byte[] ascii(String string) {
+        try {
+            return string.getBytes("ISO-8859-1");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
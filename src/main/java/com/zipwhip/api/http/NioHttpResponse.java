@@ -0,0 +1,96 @@
+package com.zipwhip.api.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+
+/**
+ * A complete response from {@link NioHttpClient}. A gzipped body has already been inflated.
+ * <p/>
+ * This class is immutable, the body array must not be changed.
+ */
+public class NioHttpResponse {
+
+    private final int statusCode;
+    private final String statusText;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final int bodyLength;
+
+    NioHttpResponse(int statusCode, String statusText, Map<String, String> headers, byte[] body, int bodyLength) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
+        this.body = body;
+        this.bodyLength = bodyLength;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusText() {
+        return statusText;
+    }
+
+    /**
+     * @param name The header name, in any case.
+     * @return The value, repeated headers are joined with ", ". Null if there is no such header.
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    public String getContentType() {
+        return getHeader("Content-Type");
+    }
+
+    public int getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * @return The body, decoded with the charset of the Content-Type or UTF-8 if it doesn't have one.
+     */
+    public String getBody() {
+        String charset = getCharset();
+        try {
+            return new String(body, 0, bodyLength, charset);
+        } catch (UnsupportedEncodingException e) {
+            try {
+                return new String(body, 0, bodyLength, "UTF-8");
+            } catch (UnsupportedEncodingException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    /**
+     * @return The body as a stream, it's in memory so it never blocks.
+     */
+    public InputStream getBodyAsStream() {
+        return new ByteArrayInputStream(body, 0, bodyLength);
+    }
+
+    private String getCharset() {
+        String contentType = getContentType();
+
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                parameter = parameter.trim();
+                if (parameter.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return parameter.substring(8).replace("\"", "").trim();
+                }
+            }
+        }
+
+        return "UTF-8";
+    }
+
+    @Override
+    public String toString() {
+        return "NioHttpResponse{" + statusCode + " " + statusText + ", " + bodyLength + " bytes}";
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.zipwhip.api.http;
+
+/**
+ * The parts of an absolute http or https URL that {@link NioHttpClient} needs.
+ * <p/>
+ * This is parsed by hand rather than with {@code java.net.URI}, which rejects some of the characters our unencoded
+ * URLs are allowed to carry.
+ * <p/>
+ * This class is immutable.
+ */
+public class NioHttpUrl {
+
+    private final boolean secure;
+    private final String host;
+    private final int port;
+    private final String file;
+
+    private NioHttpUrl(boolean secure, String host, int port, String file) {
+        this.secure = secure;
+        this.host = host;
+        this.port = port;
+        this.file = file;
+    }
+
+    /**
+     * @param url An absolute http or https URL.
+     * @return Its parts.
+     * @throws IllegalArgumentException If it's not an absolute http or https URL.
+     */
+    public static NioHttpUrl parse(String url) {
+        if (url == null) throw new IllegalArgumentException("url cannot be null");
+
+        boolean secure;
+        int hostStart;
+
+        if (url.regionMatches(true, 0, "https://", 0, 8)) {
+            secure = true;
+            hostStart = 8;
+        } else if (url.regionMatches(true, 0, "http://", 0, 7)) {
+            secure = false;
+            hostStart = 7;
+        } else {
+            throw new IllegalArgumentException("Not an http or https url: " + url);
+        }
+
+        int fileStart = url.length();
+        for (int i = hostStart; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                fileStart = i;
+                break;
+            }
+        }
+
+        String authority = url.substring(hostStart, fileStart);
+        if (authority.indexOf('@') >= 0) {
+            throw new IllegalArgumentException("User info is not supported: " + url);
+        }
+
+        String host = authority;
+        int port = secure ? 443 : 80;
+
+        int colon = authority.lastIndexOf(':');
+        if (colon >= 0 && authority.indexOf(']') < colon) {
+            host = authority.substring(0, colon);
+            try {
+                port = Integer.parseInt(authority.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad port in url: " + url);
+            }
+        }
+
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+
+        if (host.length() == 0) {
+            throw new IllegalArgumentException("No host in url: " + url);
+        }
+
+        String file = url.substring(fileStart);
+
+        int hash = file.indexOf('#');
+        if (hash >= 0) {
+            file = file.substring(0, hash);
+        }
+
+        if (file.length() == 0 || file.charAt(0) == '?') {
+            file = "/" + file;
+        }
+
+        return new NioHttpUrl(secure, host, port, file);
+    }
+
+    public boolean isSecure() {
+        return secure;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return The path and query, what goes in the request line.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * @return What goes in the Host header, the port is left off when it's the default.
+     */
+    public String getHostHeader() {
+        String name = host.indexOf(':') >= 0 ? "[" + host + "]" : host;
+        return port == (secure ? 443 : 80) ? name : name + ":" + port;
+    }
+
+    /**
+     * @return The key connections are pooled by.
+     */
+    String getOrigin() {
+        return (secure ? "https://" : "http://") + host.toLowerCase() + ":" + port;
+    }
+
+    @Override
+    public String toString() {
+        return (secure ? "https://" : "http://") + getHostHeader() + file;
+    }
+
+}
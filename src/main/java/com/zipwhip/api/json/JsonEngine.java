@@ -0,0 +1,35 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The json library behind {@link com.zipwhip.api.signals.commands.JsonSignalCommandParser} and
+ * {@link com.zipwhip.api.response.JsonResponseParser}.
+ * <p/>
+ * {@link OrgJsonEngine} is the default. {@link StreamingJsonEngine} reads the text as a stream of tokens, so the
+ * parsers can pick out the fields they need and skip the rest without building a tree.
+ */
+public interface JsonEngine {
+
+    /**
+     * @param json A json object.
+     * @return The whole object as a tree, for the code that works on JSONObject.
+     * @throws JSONException If it's not a json object.
+     */
+    JSONObject parseObject(String json) throws JSONException;
+
+    /**
+     * @param json A json value.
+     * @return A reader positioned before the value.
+     * @throws JSONException If the engine has to parse the json up front and it's not valid.
+     */
+    JsonReader newReader(String json) throws JSONException;
+
+    /**
+     * @return True if the readers read the text as they go, so skipping a value or getting its raw text costs
+     *         about as much as scanning it. The parsers only take their token paths if this is true.
+     */
+    boolean isStreaming();
+
+}
@@ -0,0 +1,141 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Reads a json value one token at a time.
+ * <p/>
+ * The opt methods read any kind of value the same way the opt methods on {@link org.json.JSONObject} do, so code
+ * moving off of JSONObject gets the same answers.
+ */
+public abstract class JsonReader {
+
+    public abstract JsonToken peek() throws JSONException;
+
+    public abstract void beginObject() throws JSONException;
+
+    public abstract void endObject() throws JSONException;
+
+    public abstract void beginArray() throws JSONException;
+
+    public abstract void endArray() throws JSONException;
+
+    /**
+     * @return True if the current object or array has another member.
+     */
+    public abstract boolean hasNext() throws JSONException;
+
+    public abstract String nextName() throws JSONException;
+
+    /**
+     * @return A string, or the text of a number or boolean. Null for null.
+     */
+    public abstract String nextString() throws JSONException;
+
+    /**
+     * @return A boolean, or a string that says true or false.
+     */
+    public abstract boolean nextBoolean() throws JSONException;
+
+    /**
+     * @return A number, or a string that holds one.
+     */
+    public abstract long nextLong() throws JSONException;
+
+    public abstract int nextInt() throws JSONException;
+
+    public abstract double nextDouble() throws JSONException;
+
+    public abstract void nextNull() throws JSONException;
+
+    /**
+     * Skip the next value, including everything inside it. If the next token is a name it's skipped with its value.
+     */
+    public abstract void skipValue() throws JSONException;
+
+    /**
+     * @return The next value as json text.
+     */
+    public abstract String nextRaw() throws JSONException;
+
+    /**
+     * @return The next value as a JSONObject, JSONArray, String, Boolean, Number or JSONObject.NULL.
+     */
+    public abstract Object nextValue() throws JSONException;
+
+    /**
+     * Read the next value and its json text at the same time.
+     *
+     * @param raw The value's json text is appended to this.
+     * @return The next value, like {@link #nextValue()}.
+     */
+    public Object nextValue(StringBuilder raw) throws JSONException {
+        Object value = nextValue();
+
+        if (value instanceof String) {
+            raw.append(JSONObject.quote((String) value));
+        } else if (value instanceof Number) {
+            raw.append(JSONObject.numberToString((Number) value));
+        } else {
+            raw.append(value);
+        }
+
+        return value;
+    }
+
+    /**
+     * @return Like {@link org.json.JSONObject#optString(String)}: "null" for null and objects and arrays as json.
+     */
+    public String optString() throws JSONException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                return nextRaw();
+            case NULL:
+                nextNull();
+                return "null";
+            default:
+                return nextString();
+        }
+    }
+
+    public long optLong(long defaultValue) throws JSONException {
+        JsonToken token = peek();
+
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            skipValue();
+            return defaultValue;
+        }
+
+        String value = nextString();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException e1) {
+                return defaultValue;
+            }
+        }
+    }
+
+    public boolean optBoolean(boolean defaultValue) throws JSONException {
+        JsonToken token = peek();
+
+        if (token != JsonToken.BOOLEAN && token != JsonToken.STRING) {
+            skipValue();
+            return defaultValue;
+        }
+
+        String value = nextString();
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+
+        return defaultValue;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.zipwhip.api.json;
+
+/**
+ * What a {@link JsonReader} will read next.
+ */
+public enum JsonToken {
+
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT
+
+}
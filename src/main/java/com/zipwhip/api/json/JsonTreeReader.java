@@ -0,0 +1,300 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the tokens back out of an org.json tree. Objects and arrays are handed out as they are, without copying.
+ */
+public class JsonTreeReader extends JsonReader {
+
+    private final List<Frame> stack = new ArrayList<Frame>();
+
+    /**
+     * @param value A JSONObject, JSONArray, String, Boolean, Number or JSONObject.NULL.
+     */
+    public JsonTreeReader(Object value) {
+        stack.add(new DocumentFrame(value));
+    }
+
+    @Override
+    public JsonToken peek() throws JSONException {
+        return top().peek();
+    }
+
+    @Override
+    public void beginObject() throws JSONException {
+        Object value = take(JsonToken.BEGIN_OBJECT);
+        stack.add(new ObjectFrame((JSONObject) value));
+    }
+
+    @Override
+    public void endObject() throws JSONException {
+        expect(JsonToken.END_OBJECT);
+        stack.remove(stack.size() - 1);
+    }
+
+    @Override
+    public void beginArray() throws JSONException {
+        Object value = take(JsonToken.BEGIN_ARRAY);
+        stack.add(new ArrayFrame((JSONArray) value));
+    }
+
+    @Override
+    public void endArray() throws JSONException {
+        expect(JsonToken.END_ARRAY);
+        stack.remove(stack.size() - 1);
+    }
+
+    @Override
+    public boolean hasNext() throws JSONException {
+        JsonToken token = peek();
+
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws JSONException {
+        expect(JsonToken.NAME);
+
+        return ((ObjectFrame) top()).nextName();
+    }
+
+    @Override
+    public String nextString() throws JSONException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER && token != JsonToken.BOOLEAN && token != JsonToken.NULL) {
+            throw new JSONException("Expected a string but was " + token);
+        }
+
+        Object value = top().take();
+
+        return value == JSONObject.NULL ? null : value.toString();
+    }
+
+    @Override
+    public boolean nextBoolean() throws JSONException {
+        JsonToken token = peek();
+        if (token != JsonToken.BOOLEAN && token != JsonToken.STRING) {
+            throw new JSONException("Expected a boolean but was " + token);
+        }
+
+        Object value = top().take();
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if ("true".equalsIgnoreCase((String) value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase((String) value)) {
+            return false;
+        }
+
+        throw new JSONException("Expected a boolean but was " + value);
+    }
+
+    @Override
+    public long nextLong() throws JSONException {
+        Object value = nextNumber();
+
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        try {
+            return Long.parseLong((String) value);
+        } catch (NumberFormatException e) {
+            return (long) nextDouble(value);
+        }
+    }
+
+    @Override
+    public int nextInt() throws JSONException {
+        return (int) nextLong();
+    }
+
+    @Override
+    public double nextDouble() throws JSONException {
+        return nextDouble(nextNumber());
+    }
+
+    @Override
+    public void nextNull() throws JSONException {
+        take(JsonToken.NULL);
+    }
+
+    @Override
+    public void skipValue() throws JSONException {
+        if (peek() == JsonToken.NAME) {
+            nextName();
+        }
+
+        nextValue();
+    }
+
+    @Override
+    public String nextRaw() throws JSONException {
+        Object value = nextValue();
+
+        if (value instanceof String) {
+            return JSONObject.quote((String) value);
+        } else if (value instanceof Number) {
+            return JSONObject.numberToString((Number) value);
+        }
+
+        return value.toString();
+    }
+
+    @Override
+    public Object nextValue() throws JSONException {
+        JsonToken token = peek();
+        if (token == JsonToken.NAME || token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY || token == JsonToken.END_DOCUMENT) {
+            throw new JSONException("Expected a value but was " + token);
+        }
+
+        return top().take();
+    }
+
+    private Object nextNumber() throws JSONException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            throw new JSONException("Expected a number but was " + token);
+        }
+
+        return top().take();
+    }
+
+    private double nextDouble(Object value) throws JSONException {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        try {
+            return Double.parseDouble((String) value);
+        } catch (NumberFormatException e) {
+            throw new JSONException("Expected a number but was " + value);
+        }
+    }
+
+    private Object take(JsonToken token) throws JSONException {
+        expect(token);
+
+        return top().take();
+    }
+
+    private void expect(JsonToken token) throws JSONException {
+        JsonToken actual = peek();
+
+        if (actual != token) {
+            throw new JSONException("Expected " + token + " but was " + actual);
+        }
+    }
+
+    private Frame top() {
+        return stack.get(stack.size() - 1);
+    }
+
+    private static JsonToken tokenOf(Object value) {
+        if (value instanceof JSONObject) {
+            return JsonToken.BEGIN_OBJECT;
+        } else if (value instanceof JSONArray) {
+            return JsonToken.BEGIN_ARRAY;
+        } else if (value instanceof String) {
+            return JsonToken.STRING;
+        } else if (value instanceof Number) {
+            return JsonToken.NUMBER;
+        } else if (value instanceof Boolean) {
+            return JsonToken.BOOLEAN;
+        }
+
+        return JsonToken.NULL;
+    }
+
+    private interface Frame {
+
+        JsonToken peek();
+
+        /**
+         * @return The next value, and move past it.
+         */
+        Object take();
+
+    }
+
+    private static class DocumentFrame implements Frame {
+
+        private final Object value;
+        private boolean taken;
+
+        private DocumentFrame(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public JsonToken peek() {
+            return taken ? JsonToken.END_DOCUMENT : tokenOf(value);
+        }
+
+        @Override
+        public Object take() {
+            taken = true;
+            return value;
+        }
+    }
+
+    private static class ObjectFrame implements Frame {
+
+        private final JSONObject object;
+        private final Iterator<?> keys;
+        private String name;
+
+        private ObjectFrame(JSONObject object) {
+            this.object = object;
+            this.keys = object.keys();
+        }
+
+        @Override
+        public JsonToken peek() {
+            if (name != null) {
+                return tokenOf(object.opt(name));
+            }
+
+            return keys.hasNext() ? JsonToken.NAME : JsonToken.END_OBJECT;
+        }
+
+        private String nextName() {
+            name = (String) keys.next();
+            return name;
+        }
+
+        @Override
+        public Object take() {
+            Object value = object.opt(name);
+            name = null;
+            return value;
+        }
+    }
+
+    private static class ArrayFrame implements Frame {
+
+        private final JSONArray array;
+        private int index;
+
+        private ArrayFrame(JSONArray array) {
+            this.array = array;
+        }
+
+        @Override
+        public JsonToken peek() {
+            return index < array.length() ? tokenOf(array.opt(index)) : JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Object take() {
+            return array.opt(index++);
+        }
+    }
+}
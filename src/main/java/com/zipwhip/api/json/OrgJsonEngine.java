@@ -0,0 +1,40 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The default. Parses the json into org.json's tree up front and reads the tokens back out of the tree.
+ */
+public class OrgJsonEngine implements JsonEngine {
+
+    @Override
+    public JSONObject parseObject(String json) throws JSONException {
+        return new JSONObject(json);
+    }
+
+    @Override
+    public JsonReader newReader(String json) throws JSONException {
+        String trimmed = json.trim();
+
+        if (trimmed.startsWith("[")) {
+            return new JsonTreeReader(new JSONArray(trimmed));
+        } else if (trimmed.startsWith("{")) {
+            return new JsonTreeReader(new JSONObject(trimmed));
+        }
+
+        // a bare value
+        return new JsonTreeReader(new JSONArray("[" + trimmed + "]").get(0));
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "[OrgJsonEngine]";
+    }
+}
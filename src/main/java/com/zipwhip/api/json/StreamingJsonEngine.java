@@ -0,0 +1,41 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Reads the json as a stream of tokens with a {@link StreamingJsonReader}.
+ */
+public class StreamingJsonEngine implements JsonEngine {
+
+    @Override
+    public JSONObject parseObject(String json) throws JSONException {
+        JsonReader reader = newReader(json);
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JSONException("A JSONObject text must begin with '{'");
+        }
+
+        JSONObject result = (JSONObject) reader.nextValue();
+
+        // make sure there's nothing after it.
+        reader.peek();
+
+        return result;
+    }
+
+    @Override
+    public JsonReader newReader(String json) {
+        return new StreamingJsonReader(json);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "[StreamingJsonEngine]";
+    }
+}
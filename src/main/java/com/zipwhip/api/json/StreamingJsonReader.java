@@ -0,0 +1,517 @@
+package com.zipwhip.api.json;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+
+/**
+ * Reads json straight out of the string it came in as. Nothing is built for the values that are skipped, and the
+ * raw text of a value is a substring of the input.
+ * <p/>
+ * This is strict json: keys must be quoted and there is no trailing junk. Values that are skipped are only checked
+ * for matching brackets and quotes.
+ */
+public class StreamingJsonReader extends JsonReader {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final String json;
+
+    // after peek() this is where the peeked token starts
+    private int pos;
+    private JsonToken peeked;
+
+    private int[] stack = new int[16];
+    private int stackSize;
+
+    public StreamingJsonReader(String json) {
+        if (json == null) {
+            throw new NullPointerException("The json can't be null");
+        }
+
+        this.json = json;
+        push(EMPTY_DOCUMENT);
+    }
+
+    @Override
+    public JsonToken peek() throws JSONException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        switch (stack[stackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return peeked = peekValue();
+            case NONEMPTY_DOCUMENT:
+                if (skipWhitespace() >= 0) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return peeked = JsonToken.END_DOCUMENT;
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (skipWhitespace() == ']') {
+                    return peeked = JsonToken.END_ARRAY;
+                }
+                return peeked = peekValue();
+            case NONEMPTY_ARRAY: {
+                int c = skipWhitespace();
+                if (c == ']') {
+                    return peeked = JsonToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected a ',' or ']'");
+                }
+                pos++;
+                return peeked = peekValue();
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = skipWhitespace();
+                if (c == '}') {
+                    return peeked = JsonToken.END_OBJECT;
+                }
+                if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected a ',' or '}'");
+                    }
+                    pos++;
+                    c = skipWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a key");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = JsonToken.NAME;
+            }
+            case DANGLING_NAME:
+                if (skipWhitespace() != ':') {
+                    throw syntaxError("Expected a ':' after a key");
+                }
+                pos++;
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return peeked = peekValue();
+            default:
+                throw new IllegalStateException("Closed");
+        }
+    }
+
+    private JsonToken peekValue() throws JSONException {
+        switch (skipWhitespace()) {
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+            case 'f':
+                return JsonToken.BOOLEAN;
+            case 'n':
+                return JsonToken.NULL;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return JsonToken.NUMBER;
+            case -1:
+                throw syntaxError("Unexpected end of the json");
+            default:
+                throw syntaxError("Expected a value");
+        }
+    }
+
+    @Override
+    public void beginObject() throws JSONException {
+        expect(JsonToken.BEGIN_OBJECT);
+        pos++;
+        push(EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws JSONException {
+        expect(JsonToken.END_OBJECT);
+        pos++;
+        stackSize--;
+    }
+
+    @Override
+    public void beginArray() throws JSONException {
+        expect(JsonToken.BEGIN_ARRAY);
+        pos++;
+        push(EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws JSONException {
+        expect(JsonToken.END_ARRAY);
+        pos++;
+        stackSize--;
+    }
+
+    @Override
+    public boolean hasNext() throws JSONException {
+        JsonToken token = peek();
+
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws JSONException {
+        expect(JsonToken.NAME);
+
+        return readString();
+    }
+
+    @Override
+    public String nextString() throws JSONException {
+        switch (peek()) {
+            case STRING:
+                return readString();
+            case NUMBER:
+            case BOOLEAN:
+                return readLiteral();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw syntaxError("Expected a string but was " + peeked);
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() throws JSONException {
+        JsonToken token = peek();
+        if (token != JsonToken.BOOLEAN && token != JsonToken.STRING) {
+            throw syntaxError("Expected a boolean but was " + token);
+        }
+
+        String value = nextString();
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+
+        throw syntaxError("Expected a boolean but was " + value);
+    }
+
+    @Override
+    public long nextLong() throws JSONException {
+        String value = nextNumber();
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException e1) {
+                throw syntaxError("Expected a number but was " + value);
+            }
+        }
+    }
+
+    @Override
+    public int nextInt() throws JSONException {
+        return (int) nextLong();
+    }
+
+    @Override
+    public double nextDouble() throws JSONException {
+        String value = nextNumber();
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a number but was " + value);
+        }
+    }
+
+    @Override
+    public void nextNull() throws JSONException {
+        expect(JsonToken.NULL);
+
+        if (!"null".equals(readLiteral())) {
+            throw syntaxError("Expected null");
+        }
+    }
+
+    @Override
+    public void skipValue() throws JSONException {
+        JsonToken token = peek();
+
+        switch (token) {
+            case NAME:
+                nextName();
+                skipValue();
+                return;
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                pos = skipNested(pos);
+                peeked = null;
+                return;
+            case STRING:
+                pos = skipString(pos);
+                peeked = null;
+                return;
+            case NUMBER:
+            case BOOLEAN:
+            case NULL:
+                readLiteral();
+                return;
+            default:
+                throw syntaxError("Expected a value but was " + token);
+        }
+    }
+
+    @Override
+    public String nextRaw() throws JSONException {
+        JsonToken token = peek();
+        if (token == JsonToken.NAME) {
+            throw syntaxError("Expected a value but was a name");
+        }
+
+        int start = pos;
+        skipValue();
+
+        return json.substring(start, pos);
+    }
+
+    @Override
+    public Object nextValue() throws JSONException {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                JSONObject result = new JSONObject();
+                beginObject();
+                while (hasNext()) {
+                    result.put(nextName(), nextValue());
+                }
+                endObject();
+                return result;
+            }
+            case BEGIN_ARRAY: {
+                JSONArray result = new JSONArray();
+                beginArray();
+                while (hasNext()) {
+                    result.put(nextValue());
+                }
+                endArray();
+                return result;
+            }
+            case STRING:
+                return readString();
+            case NUMBER:
+            case BOOLEAN:
+                // the same Integer, Long, Double or Boolean that JSONObject would make.
+                return JSONObject.stringToValue(readLiteral());
+            case NULL:
+                nextNull();
+                return JSONObject.NULL;
+            default:
+                throw syntaxError("Expected a value but was " + peeked);
+        }
+    }
+
+    @Override
+    public Object nextValue(StringBuilder raw) throws JSONException {
+        JsonToken token = peek();
+        if (token == JsonToken.NAME) {
+            throw syntaxError("Expected a value but was a name");
+        }
+
+        int start = pos;
+        Object value = nextValue();
+
+        // the text it was read from, not written back out
+        raw.append(json, start, pos);
+
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "[StreamingJsonReader at character " + pos + "]";
+    }
+
+    private String nextNumber() throws JSONException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            throw syntaxError("Expected a number but was " + token);
+        }
+
+        return nextString();
+    }
+
+    private void expect(JsonToken token) throws JSONException {
+        if (peek() != token) {
+            throw syntaxError("Expected " + token + " but was " + peeked);
+        }
+
+        peeked = null;
+    }
+
+    private void push(int context) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+
+        stack[stackSize++] = context;
+    }
+
+    /**
+     * @return The character at the new position, or -1 at the end.
+     */
+    private int skipWhitespace() {
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+
+        return -1;
+    }
+
+    // a number, true, false or null. Runs until the next delimiter.
+    private String readLiteral() throws JSONException {
+        peeked = null;
+
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            pos++;
+        }
+
+        if (pos == start) {
+            throw syntaxError("Expected a value");
+        }
+
+        return json.substring(start, pos);
+    }
+
+    private String readString() throws JSONException {
+        peeked = null;
+
+        int start = pos;
+        pos = skipString(start);
+
+        // most strings have nothing escaped.
+        int escape = start + 1;
+        while (escape < pos - 1 && json.charAt(escape) != '\\') {
+            escape++;
+        }
+        if (escape == pos - 1) {
+            return json.substring(start + 1, pos - 1);
+        }
+
+        StringBuilder result = new StringBuilder(pos - start);
+        result.append(json, start + 1, escape);
+
+        for (int i = escape; i < pos - 1; i++) {
+            char c = json.charAt(i);
+
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+
+            c = json.charAt(++i);
+            switch (c) {
+                case 'b':
+                    result.append('\b');
+                    break;
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 'f':
+                    result.append('\f');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case 'u':
+                    if (i + 4 >= pos) {
+                        throw syntaxError("Bad unicode escape");
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw syntaxError("Bad unicode escape");
+                    }
+                    i += 4;
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * @return The index just past the closing quote of the string that starts at this index.
+     */
+    private int skipString(int index) throws JSONException {
+        for (int i = index + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+
+        throw syntaxError("Unterminated string");
+    }
+
+    private int skipNested(int index) throws JSONException {
+        int depth = 0;
+
+        while (index < json.length()) {
+            char c = json.charAt(index);
+
+            if (c == '"') {
+                index = skipString(index);
+                continue;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return index + 1;
+                }
+            }
+
+            index++;
+        }
+
+        throw syntaxError("Unterminated object or array");
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + pos);
+    }
+
+}
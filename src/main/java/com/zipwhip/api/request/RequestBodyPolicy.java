@@ -0,0 +1,75 @@
+package com.zipwhip.api.request;
+
+/**
+ * Decides when the params of an API call are sent in a POST body rather than in the query string of the URL.
+ * <p/>
+ * Long URLs get truncated by proxies and can't be compressed, so once the params are longer than
+ * {@code postThreshold} characters they go in the body, form encoded. Only session, apiKey, date and signature stay
+ * in the URL.
+ * <p/>
+ * The signature doesn't change: it is over exactly the text that the GET with the same params would sign,
+ * apiVersion + method + query, whether or not that GET encodes its params.
+ * <p/>
+ * Bodies of at least {@code gzipThreshold} bytes are gzipped and sent with {@code Content-Encoding: gzip}.
+ * <p/>
+ * This class is immutable.
+ */
+public class RequestBodyPolicy {
+
+    /**
+     * Proxies and servers commonly start truncating somewhere past 2K.
+     */
+    public static final int DEFAULT_POST_THRESHOLD = 2048;
+
+    /**
+     * Never post, everything goes in the URL. This is how it worked before there was a policy.
+     */
+    public static final RequestBodyPolicy NEVER = new RequestBodyPolicy(-1, -1);
+
+    /**
+     * Form encoded bodies past {@link #DEFAULT_POST_THRESHOLD}, not gzipped. This is the default.
+     */
+    public static final RequestBodyPolicy FORM_BODY = new RequestBodyPolicy(DEFAULT_POST_THRESHOLD, -1);
+
+    private final int postThreshold;
+    private final int gzipThreshold;
+
+    /**
+     * @param postThreshold Post the params when they are longer than this many characters, -1 to never post.
+     * @param gzipThreshold Gzip bodies of at least this many bytes, -1 to never gzip.
+     */
+    public RequestBodyPolicy(int postThreshold, int gzipThreshold) {
+        this.postThreshold = postThreshold;
+        this.gzipThreshold = gzipThreshold;
+    }
+
+    /**
+     * @param length The length of the params as a query string.
+     * @return {@code true} if params this long should go in the body.
+     */
+    public boolean shouldPost(int length) {
+        return postThreshold >= 0 && length > postThreshold;
+    }
+
+    /**
+     * @param length The length of the body in bytes.
+     * @return {@code true} if a body this long should be gzipped.
+     */
+    public boolean shouldGzip(int length) {
+        return gzipThreshold >= 0 && length >= gzipThreshold;
+    }
+
+    public int getPostThreshold() {
+        return postThreshold;
+    }
+
+    public int getGzipThreshold() {
+        return gzipThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestBodyPolicy{postThreshold=" + postThreshold + ", gzipThreshold=" + gzipThreshold + '}';
+    }
+
+}
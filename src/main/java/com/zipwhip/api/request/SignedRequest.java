@@ -0,0 +1,61 @@
+package com.zipwhip.api.request;
+
+/**
+ * A signed URL, and the body to POST to it if the params didn't go in the URL.
+ * <p/>
+ * This class is immutable, the body array must not be changed.
+ */
+public class SignedRequest {
+
+    public static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded; charset=UTF-8";
+    public static final String GZIP_CONTENT_ENCODING = "gzip";
+
+    private final String url;
+    private final byte[] body;
+    private final String contentType;
+    private final String contentEncoding;
+
+    public SignedRequest(String url) {
+        this(url, null, null, null);
+    }
+
+    public SignedRequest(String url, byte[] body, String contentType, String contentEncoding) {
+        this.url = url;
+        this.body = body;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return {@code true} if this has a body, and so must be a POST.
+     */
+    public boolean isPost() {
+        return body != null;
+    }
+
+    /**
+     * @return The body, or null for a GET.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return The Content-Type of the body, or null for a GET.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return "gzip" if the body is gzipped, otherwise null.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+}
@@ -0,0 +1,332 @@
+package com.zipwhip.api.request;
+
+import com.zipwhip.util.SignTool;
+import com.zipwhip.util.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds a signed Zipwhip URL from a map of params in one pass.
+ * <p/>
+ * {@link #getSignedRequest} can also move long params into a POST body, see {@link RequestBodyPolicy}.
+ * <p/>
+ * It produces the same URL as {@link RequestBuilder} followed by {@code UrlUtil.getSignedUrl}, but the host,
+ * apiVersion, method, params, session, apiKey, date and signature are all written into one per-thread buffer. The
+ * signature is made from a range of that buffer and the only String made is the URL that is returned.
+ * <p/>
+ * The host/apiVersion/method prefix is kept in the buffer between calls, so a thread that calls the same method
+ * again only rewrites the query.
+ * <p/>
+ * This class is thread safe.
+ */
+public class SignedRequestBuilder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignedRequestBuilder.class);
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Buffers that have grown past this are dropped rather than kept by the thread.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFER = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            return new Buffer();
+        }
+    };
+
+    /**
+     * Get a signed URL for a method and its params.
+     *
+     * @param host          The host portion of the url.
+     * @param apiVersion    The Zipwhip API version.
+     * @param method        The method to be called on the Zipwhip API.
+     * @param params        A map of Objects to be converted into a URL query string, see {@link RequestBuilder#params(Map, boolean)}.
+     * @param encode        If {@code true} then URL encode the param values, otherwise only replace spaces with '+'.
+     * @param sessionKey    The user's sessionKey, may be null.
+     * @param authenticator A SignTool to use for signing the URL, may be null.
+     * @return A Zipwhip URL that is signed.
+     * @throws Exception If an error occurs signing the URL.
+     */
+    public static String getSignedUrl(String host, String apiVersion, String method, Map<String, Object> params, boolean encode, String sessionKey, SignTool authenticator) throws Exception {
+
+        Buffer buffer = BUFFER.get();
+        StringBuilder builder = buffer.prefix(host, apiVersion, method);
+
+        char connector = appendParams(builder, params, encode);
+        appendAuthentication(builder, connector, sessionKey, authenticator);
+        appendSignature(builder, buffer.hostLength, builder.length(), authenticator);
+
+        return toUrl(buffer, builder);
+    }
+
+    /**
+     * Get a signed request for a method and its params. If the params are too long for the URL according to
+     * {@code policy} they are put in a POST body, see {@link RequestBodyPolicy} for how that is signed.
+     *
+     * @param host          The host portion of the url.
+     * @param apiVersion    The Zipwhip API version.
+     * @param method        The method to be called on the Zipwhip API.
+     * @param params        A map of Objects to be converted into a URL query string, see {@link RequestBuilder#params(Map, boolean)}.
+     * @param encode        If {@code true} then URL encode the param values in the URL, otherwise only replace spaces
+     *                      with '+'. The signature follows this, but a body is always encoded.
+     * @param sessionKey    The user's sessionKey, may be null.
+     * @param authenticator A SignTool to use for signing the URL, may be null.
+     * @param policy        When to use a POST body, null to never.
+     * @return A signed URL, with a body if the params didn't go in it.
+     * @throws Exception If an error occurs signing the request.
+     */
+    public static SignedRequest getSignedRequest(String host, String apiVersion, String method, Map<String, Object> params, boolean encode, String sessionKey, SignTool authenticator, RequestBodyPolicy policy) throws Exception {
+
+        Buffer buffer = BUFFER.get();
+        StringBuilder builder = buffer.prefix(host, apiVersion, method);
+
+        char connector = appendParams(builder, params, encode);
+
+        if (policy == null || !policy.shouldPost(builder.length() - buffer.prefixLength)) {
+            appendAuthentication(builder, connector, sessionKey, authenticator);
+            appendSignature(builder, buffer.hostLength, builder.length(), authenticator);
+
+            return new SignedRequest(toUrl(buffer, builder));
+        }
+
+        // sign exactly what the GET would: prefix?param=value&session=...&date=...&signature=...
+        int bodyStart = buffer.prefixLength + 1;
+        int bodyEnd = builder.length();
+
+        appendAuthentication(builder, '&', sessionKey, authenticator);
+        appendSignature(builder, buffer.hostLength, builder.length(), authenticator);
+
+        // then move the params to the body, which is always form encoded (and so ASCII).
+        CharSequence form = builder;
+        int formStart = bodyStart;
+        int formEnd = bodyEnd;
+
+        if (!encode) {
+            StringBuilder encoded = new StringBuilder(bodyEnd - bodyStart + 64);
+            appendParams(encoded, params, true);
+
+            form = encoded;
+            formStart = 1;
+            formEnd = encoded.length();
+        }
+
+        byte[] body = new byte[formEnd - formStart];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) form.charAt(formStart + i);
+        }
+
+        // and the '&' after them
+        builder.delete(bodyStart, bodyEnd + 1);
+
+        String url = toUrl(buffer, builder);
+
+        if (policy.shouldGzip(body.length)) {
+            return new SignedRequest(url, gzip(body), SignedRequest.FORM_CONTENT_TYPE, SignedRequest.GZIP_CONTENT_ENCODING);
+        }
+
+        return new SignedRequest(url, body, SignedRequest.FORM_CONTENT_TYPE, null);
+    }
+
+    private static void appendAuthentication(StringBuilder builder, char connector, String sessionKey, SignTool authenticator) {
+
+        if (StringUtil.exists(sessionKey)) {
+            builder.append(connector).append("session=").append(sessionKey);
+            connector = '&';
+        }
+
+        if (authenticator != null && StringUtil.exists(authenticator.getApiKey())) {
+            builder.append(connector).append("apiKey=").append(authenticator.getApiKey());
+        }
+
+        builder.append(connector).append("date=").append(System.currentTimeMillis());
+    }
+
+    /**
+     * Append "&signature=" and the signature of the range {@code start} to {@code end} of the builder, if there is
+     * an authenticator that can sign.
+     */
+    private static void appendSignature(StringBuilder builder, int start, int end, SignTool authenticator) throws Exception {
+
+        if (authenticator == null) {
+            return;
+        }
+
+        int length = builder.length();
+        builder.append("&signature=");
+
+        if (!authenticator.appendSignature(builder, start, end, builder)) {
+            builder.setLength(length);
+        }
+    }
+
+    private static String toUrl(Buffer buffer, StringBuilder builder) {
+        String url = builder.toString();
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Signed url: " + url);
+        }
+
+        buffer.release();
+
+        return url;
+    }
+
+    /**
+     * Append the params as a query string, the same way {@link RequestBuilder#params(Map, boolean)} does.
+     *
+     * @return The connector for whatever is appended next, '?' if no params were appended, otherwise '&'.
+     */
+    static char appendParams(StringBuilder builder, Map<String, Object> params, boolean encode) {
+
+        char connector = '?';
+
+        if (params == null) {
+            return connector;
+        }
+
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            if (value == null || StringUtil.isNullOrEmpty(key)) {
+                continue;
+            }
+
+            if (value instanceof Collection) {
+
+                for (Object object : (Collection) value) {
+                    builder.append(connector).append(key).append('=');
+                    appendValue(builder, String.valueOf(object), encode);
+                    connector = '&';
+                }
+
+            } else {
+
+                builder.append(connector).append(key).append('=');
+                appendValue(builder, String.valueOf(value), encode);
+                connector = '&';
+            }
+        }
+
+        return connector;
+    }
+
+    private static void appendValue(StringBuilder builder, String value, boolean encode) {
+        if (encode) {
+            appendEncoded(builder, value);
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            builder.append(c == ' ' ? '+' : c);
+        }
+    }
+
+    /**
+     * Append the value form encoded in UTF-8, exactly as {@code URLEncoder.encode(value, "UTF-8")} would.
+     */
+    static void appendEncoded(StringBuilder builder, String value) {
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '*' || c == '_') {
+                builder.append(c);
+            } else if (c == ' ') {
+                builder.append('+');
+            } else if (c < 0x80) {
+                appendEscaped(builder, c);
+            } else if (c < 0x800) {
+                appendEscaped(builder, 0xc0 | (c >> 6));
+                appendEscaped(builder, 0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(builder, 0xf0 | (codePoint >> 18));
+                appendEscaped(builder, 0x80 | ((codePoint >> 12) & 0x3f));
+                appendEscaped(builder, 0x80 | ((codePoint >> 6) & 0x3f));
+                appendEscaped(builder, 0x80 | (codePoint & 0x3f));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // what String.getBytes replaces a lone surrogate with
+                appendEscaped(builder, '?');
+            } else {
+                appendEscaped(builder, 0xe0 | (c >> 12));
+                appendEscaped(builder, 0x80 | ((c >> 6) & 0x3f));
+                appendEscaped(builder, 0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder builder, int b) {
+        builder.append('%').append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2 + 32);
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * One thread's StringBuilder, and what prefix is already in it.
+     */
+    private static class Buffer {
+
+        private StringBuilder builder = new StringBuilder(512);
+
+        private String host;
+        private String apiVersion;
+        private String method;
+        private int hostLength;
+        private int prefixLength;
+
+        private StringBuilder prefix(String host, String apiVersion, String method) {
+            if (host == this.host && apiVersion == this.apiVersion && method == this.method) {
+                builder.setLength(prefixLength);
+                return builder;
+            }
+
+            this.host = null;
+
+            builder.setLength(0);
+            builder.append(host);
+            hostLength = builder.length();
+            builder.append(apiVersion).append(method);
+            prefixLength = builder.length();
+
+            this.host = host;
+            this.apiVersion = apiVersion;
+            this.method = method;
+
+            return builder;
+        }
+
+        private void release() {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder(512);
+                host = null;
+                apiVersion = null;
+                method = null;
+            }
+        }
+    }
+
+}
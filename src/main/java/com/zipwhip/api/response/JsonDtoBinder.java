@@ -0,0 +1,149 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.dto.TransmissionState;
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.api.json.JsonToken;
+import com.zipwhip.util.JsonDateUtil;
+import com.zipwhip.util.StringUtil;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fills a DTO in one pass over the tokens of a json object, without building a JSONObject for it. The DTO comes out
+ * the same as from {@link JsonDtoParser}: missing and null strings are empty, numbers are 0 and booleans are false.
+ * <p/>
+ * The binders themselves are in {@link JsonDtoBinders}, which is generated.
+ *
+ * @param <T> The DTO.
+ */
+public abstract class JsonDtoBinder<T> {
+
+    /**
+     * @param reader Positioned before a json object.
+     * @return The DTO, or null if the value is not an object. The value is read either way.
+     * @throws JSONException If the json is bad.
+     */
+    public T bind(JsonReader reader) throws JSONException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        T dto = create();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!bind(dto, reader.nextName(), reader)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return dto;
+    }
+
+    /**
+     * @param reader Positioned before a json array of objects.
+     * @return The DTOs, or an empty list if the value is null.
+     * @throws JSONException If the json is bad or an element is not an object.
+     */
+    public List<T> bindList(JsonReader reader) throws JSONException {
+        List<T> result = new ArrayList<T>();
+
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return result;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Expected an object but was " + reader.peek());
+            }
+            result.add(bind(reader));
+        }
+        reader.endArray();
+
+        return result;
+    }
+
+    /**
+     * @return A new DTO with the defaults for the fields that are bound.
+     */
+    protected abstract T create();
+
+    /**
+     * @param dto    The DTO being filled.
+     * @param name   The key that was just read.
+     * @param reader Positioned before the key's value.
+     * @return True if the value was read into the DTO, false if the key isn't bound and the value is still there.
+     * @throws JSONException If the json is bad.
+     */
+    protected abstract boolean bind(T dto, String name, JsonReader reader) throws JSONException;
+
+    protected static String string(JsonReader reader) throws JSONException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return StringUtil.EMPTY_STRING;
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                return reader.nextRaw();
+            case NUMBER: {
+                String number = reader.nextString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return number;
+                }
+                // JSONObject would have made it a Double
+                return JSONObject.stringToValue(number).toString();
+            }
+            default:
+                return reader.nextString();
+        }
+    }
+
+    protected static long longValue(JsonReader reader) throws JSONException {
+        return reader.optLong(0);
+    }
+
+    protected static int intValue(JsonReader reader) throws JSONException {
+        return (int) reader.optLong(0);
+    }
+
+    protected static boolean booleanValue(JsonReader reader) throws JSONException {
+        return reader.optBoolean(false);
+    }
+
+    protected static Date date(JsonReader reader) throws JSONException {
+        return JsonDateUtil.getDate(string(reader));
+    }
+
+    /**
+     * @return The state from an enum object like {"enumType":"...","name":"QUEUED"}, or null if it's not an object.
+     */
+    protected static TransmissionState transmissionState(JsonReader reader) throws JSONException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String name = StringUtil.EMPTY_STRING;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("name".equals(reader.nextName())) {
+                name = reader.optString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return TransmissionState.parse(name);
+    }
+
+}
@@ -0,0 +1,934 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.dto.*;
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.util.StringUtil;
+import org.json.JSONException;
+
+/**
+ * Generated by JsonDtoBinderGenerator in the test sources. Don't edit it, change the mapping there and run it.
+ * <p/>
+ * Each binder looks up the key in a switch on its hash code, the same way javac compiles a switch on strings.
+ */
+public final class JsonDtoBinders {
+
+    public static final JsonDtoBinder<Message> MESSAGE = new JsonDtoBinder<Message>() {
+
+        @Override
+        protected Message create() {
+            Message message = new Message();
+            message.setId(0);
+            message.setUuid(StringUtil.EMPTY_STRING);
+            message.setDeviceId(0);
+            message.setContactId(0);
+            message.setContactDeviceId(0);
+            message.setAddress(StringUtil.EMPTY_STRING);
+            message.setRead(false);
+            message.setDeleted(false);
+            message.setFingerprint(StringUtil.EMPTY_STRING);
+            message.setCc(StringUtil.EMPTY_STRING);
+            message.setBcc(StringUtil.EMPTY_STRING);
+            message.setErrorState(false);
+            message.setBody(StringUtil.EMPTY_STRING);
+            message.setDateCreated(null);
+            message.setLastUpdated(null);
+            message.setSourceAddress(StringUtil.EMPTY_STRING);
+            message.setDestinationAddress(StringUtil.EMPTY_STRING);
+            message.setStatusCode(0);
+            message.setStatusDesc(StringUtil.EMPTY_STRING);
+            message.setThread(StringUtil.EMPTY_STRING);
+            message.setChannel(StringUtil.EMPTY_STRING);
+            message.setFwd(StringUtil.EMPTY_STRING);
+            message.setCarrier(StringUtil.EMPTY_STRING);
+            message.setSubject(StringUtil.EMPTY_STRING);
+            message.setTo(StringUtil.EMPTY_STRING);
+            message.setMobileNumber(StringUtil.EMPTY_STRING);
+            message.setFirstName(StringUtil.EMPTY_STRING);
+            message.setLastName(StringUtil.EMPTY_STRING);
+            message.setVersion(0);
+            message.setMessageType(StringUtil.EMPTY_STRING);
+            message.setAdvertisement(StringUtil.EMPTY_STRING);
+            message.setHasAttachment(false);
+            return message;
+        }
+
+        @Override
+        protected boolean bind(Message message, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        message.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1867885268:
+                    if ("subject".equals(name)) {
+                        message.setSubject(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1459599807:
+                    if ("lastName".equals(name)) {
+                        message.setLastName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1375934236:
+                    if ("fingerprint".equals(name)) {
+                        message.setFingerprint(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1274032291:
+                    if ("hasAttachment".equals(name)) {
+                        message.setHasAttachment(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case -1180158496:
+                    if ("isRead".equals(name)) {
+                        message.setRead(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case -1147692044:
+                    if ("address".equals(name)) {
+                        message.setAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1053128871:
+                    if ("sourceAddress".equals(name)) {
+                        message.setSourceAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -874443254:
+                    if ("thread".equals(name)) {
+                        message.setThread(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -411130533:
+                    if ("contactId".equals(name)) {
+                        message.setContactId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case -128069115:
+                    if ("advertisement".equals(name)) {
+                        message.setAdvertisement(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -2600367:
+                    if ("contactDeviceId".equals(name)) {
+                        message.setContactDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 3168:
+                    if ("cc".equals(name)) {
+                        message.setCc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3355:
+                    if ("id".equals(name)) {
+                        message.setId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 3707:
+                    if ("to".equals(name)) {
+                        message.setTo(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 97346:
+                    if ("bcc".equals(name)) {
+                        message.setBcc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 101811:
+                    if ("fwd".equals(name)) {
+                        message.setFwd(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3029410:
+                    if ("body".equals(name)) {
+                        message.setBody(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3575610:
+                    if ("type".equals(name)) {
+                        message.setMessageType(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3601339:
+                    if ("uuid".equals(name)) {
+                        message.setUuid(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 132835675:
+                    if ("firstName".equals(name)) {
+                        message.setFirstName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 247507199:
+                    if ("statusCode".equals(name)) {
+                        message.setStatusCode(intValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 247527843:
+                    if ("statusDesc".equals(name)) {
+                        message.setStatusDesc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        message.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 554360568:
+                    if ("carrier".equals(name)) {
+                        message.setCarrier(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 738950403:
+                    if ("channel".equals(name)) {
+                        message.setChannel(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 974233869:
+                    if ("transmissionState".equals(name)) {
+                        message.setTransmissionState(transmissionState(reader));
+                        return true;
+                    }
+                    return false;
+                case 1109191185:
+                    if ("deviceId".equals(name)) {
+                        message.setDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1441127154:
+                    if ("destAddress".equals(name)) {
+                        message.setDestinationAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1550463001:
+                    if ("deleted".equals(name)) {
+                        message.setDeleted(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1625098089:
+                    if ("errorState".equals(name)) {
+                        message.setErrorState(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        message.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1737348747:
+                    if ("mobileNumber".equals(name)) {
+                        message.setMobileNumber(string(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<Contact> CONTACT = new JsonDtoBinder<Contact>() {
+
+        @Override
+        protected Contact create() {
+            Contact contact = new Contact();
+            contact.setLastUpdated(null);
+            contact.setDateCreated(null);
+            contact.setVersion(0);
+            contact.setDeviceId(0);
+            contact.setAddress(StringUtil.EMPTY_STRING);
+            contact.setMobileNumber(StringUtil.EMPTY_STRING);
+            contact.setState(StringUtil.EMPTY_STRING);
+            contact.setCity(StringUtil.EMPTY_STRING);
+            contact.setId(0);
+            contact.setPhoneKey(StringUtil.EMPTY_STRING);
+            contact.setThread(StringUtil.EMPTY_STRING);
+            contact.setFwd(StringUtil.EMPTY_STRING);
+            contact.setCarrier(StringUtil.EMPTY_STRING);
+            contact.setFirstName(StringUtil.EMPTY_STRING);
+            contact.setLastName(StringUtil.EMPTY_STRING);
+            contact.setMoCount(0);
+            contact.setZoCount(0);
+            contact.setZipcode(StringUtil.EMPTY_STRING);
+            contact.setLatlong(StringUtil.EMPTY_STRING);
+            contact.setEmail(StringUtil.EMPTY_STRING);
+            contact.setNotes(StringUtil.EMPTY_STRING);
+            contact.setChannel(StringUtil.EMPTY_STRING);
+            contact.setLoc(StringUtil.EMPTY_STRING);
+            contact.setDeleted(false);
+            return contact;
+        }
+
+        @Override
+        protected boolean bind(Contact contact, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        contact.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1459599807:
+                    if ("lastName".equals(name)) {
+                        contact.setLastName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1280128495:
+                    if ("phoneKey".equals(name)) {
+                        contact.setPhoneKey(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1147692044:
+                    if ("address".equals(name)) {
+                        contact.setAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -874443254:
+                    if ("thread".equals(name)) {
+                        contact.setThread(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -281146226:
+                    if ("zipcode".equals(name)) {
+                        contact.setZipcode(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -46366565:
+                    if ("latlong".equals(name)) {
+                        contact.setLatlong(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3355:
+                    if ("id".equals(name)) {
+                        contact.setId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 101811:
+                    if ("fwd".equals(name)) {
+                        contact.setFwd(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 107328:
+                    if ("loc".equals(name)) {
+                        contact.setLoc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3053931:
+                    if ("city".equals(name)) {
+                        contact.setCity(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 96619420:
+                    if ("email".equals(name)) {
+                        contact.setEmail(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 105008833:
+                    if ("notes".equals(name)) {
+                        contact.setNotes(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 109757585:
+                    if ("state".equals(name)) {
+                        contact.setState(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 132835675:
+                    if ("firstName".equals(name)) {
+                        contact.setFirstName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        contact.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 554360568:
+                    if ("carrier".equals(name)) {
+                        contact.setCarrier(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 597954266:
+                    if ("ZOCount".equals(name)) {
+                        contact.setZoCount(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 738950403:
+                    if ("channel".equals(name)) {
+                        contact.setChannel(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1109191185:
+                    if ("deviceId".equals(name)) {
+                        contact.setDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1550463001:
+                    if ("deleted".equals(name)) {
+                        contact.setDeleted(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        contact.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1737348747:
+                    if ("mobileNumber".equals(name)) {
+                        contact.setMobileNumber(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1945308301:
+                    if ("MOCount".equals(name)) {
+                        contact.setMoCount(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<User> USER = new JsonDtoBinder<User>() {
+
+        @Override
+        protected User create() {
+            User user = new User();
+            user.setLastUpdated(null);
+            user.setDateCreated(null);
+            user.setVersion(0);
+            user.setMobileNumber(StringUtil.EMPTY_STRING);
+            user.setPhoneKey(StringUtil.EMPTY_STRING);
+            user.setCarrier(StringUtil.EMPTY_STRING);
+            user.setFirstName(StringUtil.EMPTY_STRING);
+            user.setLastName(StringUtil.EMPTY_STRING);
+            user.setMoCount(0);
+            user.setZoCount(0);
+            user.setZipcode(StringUtil.EMPTY_STRING);
+            user.setEmail(StringUtil.EMPTY_STRING);
+            user.setNotes(StringUtil.EMPTY_STRING);
+            user.setLoc(StringUtil.EMPTY_STRING);
+            user.setWebsiteDeviceId(0);
+            return user;
+        }
+
+        @Override
+        protected boolean bind(User user, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        user.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1459599807:
+                    if ("lastName".equals(name)) {
+                        user.setLastName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1280128495:
+                    if ("phoneKey".equals(name)) {
+                        user.setPhoneKey(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -281146226:
+                    if ("zipcode".equals(name)) {
+                        user.setZipcode(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 107328:
+                    if ("loc".equals(name)) {
+                        user.setLoc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 96619420:
+                    if ("email".equals(name)) {
+                        user.setEmail(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 105008833:
+                    if ("notes".equals(name)) {
+                        user.setNotes(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 132835675:
+                    if ("firstName".equals(name)) {
+                        user.setFirstName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        user.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 554360568:
+                    if ("carrier".equals(name)) {
+                        user.setCarrier(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 597954266:
+                    if ("ZOCount".equals(name)) {
+                        user.setZoCount(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 746611660:
+                    if ("websiteDeviceId".equals(name)) {
+                        user.setWebsiteDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        user.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1737348747:
+                    if ("mobileNumber".equals(name)) {
+                        user.setMobileNumber(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1945308301:
+                    if ("MOCount".equals(name)) {
+                        user.setMoCount(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<Conversation> CONVERSATION = new JsonDtoBinder<Conversation>() {
+
+        @Override
+        protected Conversation create() {
+            Conversation conversation = new Conversation();
+            conversation.setId(0);
+            conversation.setDeviceId(0);
+            conversation.setDeviceAddress(StringUtil.EMPTY_STRING);
+            conversation.setFingerprint(StringUtil.EMPTY_STRING);
+            conversation.setAddress(StringUtil.EMPTY_STRING);
+            conversation.setCc(StringUtil.EMPTY_STRING);
+            conversation.setBcc(StringUtil.EMPTY_STRING);
+            conversation.setUnreadCount(0);
+            conversation.setLastContactId(0);
+            conversation.setNew(false);
+            conversation.setDeleted(false);
+            conversation.setVersion(0);
+            conversation.setLastContactDeviceId(0);
+            conversation.setLastMessageBody(StringUtil.EMPTY_STRING);
+            conversation.setLastContactFirstName(StringUtil.EMPTY_STRING);
+            conversation.setLastContactLastName(StringUtil.EMPTY_STRING);
+            conversation.setLastContactMobileNumber(StringUtil.EMPTY_STRING);
+            conversation.setLastMessageDate(null);
+            conversation.setLastNonDeletedMessageDate(null);
+            conversation.setDateCreated(null);
+            conversation.setLastUpdated(null);
+            return conversation;
+        }
+
+        @Override
+        protected boolean bind(Conversation conversation, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        conversation.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1375934236:
+                    if ("fingerprint".equals(name)) {
+                        conversation.setFingerprint(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1154305963:
+                    if ("lastContactMobileNumber".equals(name)) {
+                        conversation.setLastContactMobileNumber(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1147692044:
+                    if ("address".equals(name)) {
+                        conversation.setAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1070996832:
+                    if ("unreadCount".equals(name)) {
+                        conversation.setUnreadCount(intValue(reader));
+                        return true;
+                    }
+                    return false;
+                case -589458165:
+                    if ("lastContactLastName".equals(name)) {
+                        conversation.setLastContactLastName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3168:
+                    if ("cc".equals(name)) {
+                        conversation.setCc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3355:
+                    if ("id".equals(name)) {
+                        conversation.setId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 97346:
+                    if ("bcc".equals(name)) {
+                        conversation.setBcc(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 108960:
+                    if ("new".equals(name)) {
+                        conversation.setNew(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        conversation.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1109191185:
+                    if ("deviceId".equals(name)) {
+                        conversation.setDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1313607123:
+                    if ("lastMessageBody".equals(name)) {
+                        conversation.setLastMessageBody(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1313653727:
+                    if ("lastMessageDate".equals(name)) {
+                        conversation.setLastMessageDate(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1337422801:
+                    if ("lastContactFirstName".equals(name)) {
+                        conversation.setLastContactFirstName(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1550463001:
+                    if ("deleted".equals(name)) {
+                        conversation.setDeleted(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        conversation.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1979332827:
+                    if ("lastContactDeviceId".equals(name)) {
+                        conversation.setLastContactDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 2023828275:
+                    if ("lastNonDeletedMessageDate".equals(name)) {
+                        conversation.setLastNonDeletedMessageDate(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 2028759230:
+                    if ("deviceAddress".equals(name)) {
+                        conversation.setDeviceAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 2089466725:
+                    if ("lastContactId".equals(name)) {
+                        conversation.setLastContactId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<Device> DEVICE = new JsonDtoBinder<Device>() {
+
+        @Override
+        protected Device create() {
+            Device device = new Device();
+            device.setId(0);
+            device.setUuid(StringUtil.EMPTY_STRING);
+            device.setAddress(StringUtil.EMPTY_STRING);
+            device.setThread(StringUtil.EMPTY_STRING);
+            device.setVersion(0);
+            device.setLastUpdated(null);
+            device.setDateCreated(null);
+            device.setUserId(0);
+            device.setChannel(StringUtil.EMPTY_STRING);
+            device.setTextline(StringUtil.EMPTY_STRING);
+            device.setDisplayName(StringUtil.EMPTY_STRING);
+            return device;
+        }
+
+        @Override
+        protected boolean bind(Device device, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        device.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1147692044:
+                    if ("address".equals(name)) {
+                        device.setAddress(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -1002924383:
+                    if ("textline".equals(name)) {
+                        device.setTextline(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -874443254:
+                    if ("thread".equals(name)) {
+                        device.setThread(string(reader));
+                        return true;
+                    }
+                    return false;
+                case -836030906:
+                    if ("userId".equals(name)) {
+                        device.setUserId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 3355:
+                    if ("id".equals(name)) {
+                        device.setId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 3601339:
+                    if ("uuid".equals(name)) {
+                        device.setUuid(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        device.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 738950403:
+                    if ("channel".equals(name)) {
+                        device.setChannel(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        device.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case 1714148973:
+                    if ("displayName".equals(name)) {
+                        device.setDisplayName(string(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<MessageAttachment> MESSAGE_ATTACHMENT = new JsonDtoBinder<MessageAttachment>() {
+
+        @Override
+        protected MessageAttachment create() {
+            MessageAttachment messageAttachment = new MessageAttachment();
+            messageAttachment.setDateCreated(null);
+            messageAttachment.setDeviceId(0);
+            messageAttachment.setId(0);
+            messageAttachment.setLastUpdated(null);
+            messageAttachment.setMessageId(0);
+            messageAttachment.setMimeType(StringUtil.EMPTY_STRING);
+            messageAttachment.setNew(false);
+            messageAttachment.setStorageKey(StringUtil.EMPTY_STRING);
+            messageAttachment.setVersion(0);
+            return messageAttachment;
+        }
+
+        @Override
+        protected boolean bind(MessageAttachment messageAttachment, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -2071345318:
+                    if ("dateCreated".equals(name)) {
+                        messageAttachment.setDateCreated(date(reader));
+                        return true;
+                    }
+                    return false;
+                case -1440013438:
+                    if ("messageId".equals(name)) {
+                        messageAttachment.setMessageId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case -1392120434:
+                    if ("mimeType".equals(name)) {
+                        messageAttachment.setMimeType(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 3355:
+                    if ("id".equals(name)) {
+                        messageAttachment.setId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 108960:
+                    if ("new".equals(name)) {
+                        messageAttachment.setNew(booleanValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 351608024:
+                    if ("version".equals(name)) {
+                        messageAttachment.setVersion(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 814321124:
+                    if ("storageKey".equals(name)) {
+                        messageAttachment.setStorageKey(string(reader));
+                        return true;
+                    }
+                    return false;
+                case 1109191185:
+                    if ("deviceId".equals(name)) {
+                        messageAttachment.setDeviceId(longValue(reader));
+                        return true;
+                    }
+                    return false;
+                case 1649733957:
+                    if ("lastUpdated".equals(name)) {
+                        messageAttachment.setLastUpdated(date(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    public static final JsonDtoBinder<CarbonEvent> CARBON_EVENT = new JsonDtoBinder<CarbonEvent>() {
+
+        @Override
+        protected CarbonEvent create() {
+            CarbonEvent carbonEvent = new CarbonEvent();
+            carbonEvent.setCarbonDescriptor(StringUtil.EMPTY_STRING);
+            return carbonEvent;
+        }
+
+        @Override
+        protected boolean bind(CarbonEvent carbonEvent, String name, JsonReader reader) throws JSONException {
+            switch (name.hashCode()) {
+                case -990213956:
+                    if ("carbonDescriptor".equals(name)) {
+                        carbonEvent.setCarbonDescriptor(string(reader));
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    private JsonDtoBinders() {
+    }
+
+}
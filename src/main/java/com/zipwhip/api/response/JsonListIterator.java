@@ -0,0 +1,145 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.api.json.JsonToken;
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Binds the DTOs of a json list one at a time, as the iterator is advanced. Once the list is finished the rest of the
+ * object that holds it is read, for the values next to the list (like a total), and nothing after that.
+ * <p/>
+ * The iterator can't throw a JSONException, so bad json in the list is an IllegalStateException.
+ *
+ * @param <T> The DTO.
+ */
+public class JsonListIterator<T> implements Iterator<T> {
+
+    private final JsonReader reader;
+    private final JsonDtoBinder<T> binder;
+    private final boolean inObject;
+
+    // the strings, numbers and booleans in the object that holds the list
+    private final Map<String, String> siblings = new HashMap<String, String>();
+
+    // true once the list and the object that holds it have been read
+    private boolean finished;
+
+    /**
+     * @param reader Positioned before the json.
+     * @param binder Binds each element.
+     * @param path   The keys of the objects to go into to get to the list, like "response".
+     * @throws JSONException If the json is bad or there is no list at the path.
+     */
+    public JsonListIterator(JsonReader reader, JsonDtoBinder<T> binder, String... path) throws JSONException {
+        this.reader = reader;
+        this.binder = binder;
+        this.inObject = path.length > 0;
+
+        for (String key : path) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Expected an object with \"" + key + "\" but was " + reader.peek());
+            }
+
+            siblings.clear();
+
+            reader.beginObject();
+            while (true) {
+                if (!reader.hasNext()) {
+                    throw new JSONException("There is no \"" + key + "\"");
+                }
+
+                String name = reader.nextName();
+                if (key.equals(name)) {
+                    break;
+                }
+                readSibling(name);
+            }
+        }
+
+        if (reader.peek() == JsonToken.NULL) {
+            // a null list has nothing in it
+            reader.nextNull();
+            finish();
+        } else if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+        } else {
+            throw new JSONException("Expected a list but was " + reader.peek());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            if (finished) {
+                return false;
+            } else if (reader.hasNext()) {
+                return true;
+            }
+
+            reader.endArray();
+            finish();
+            return false;
+        } catch (JSONException e) {
+            throw new IllegalStateException("Bad json in the list", e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        try {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Expected an object but was " + reader.peek());
+            }
+            return binder.bind(reader);
+        } catch (JSONException e) {
+            throw new IllegalStateException("Bad json in the list", e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param name A key in the object that holds the list.
+     * @return Its value as a string, or null if it's not a string, number or boolean. The values after the list are
+     *         only there once the list has been iterated to the end.
+     */
+    public String getSibling(String name) {
+        return siblings.get(name);
+    }
+
+    private void finish() throws JSONException {
+        finished = true;
+
+        if (inObject) {
+            while (reader.hasNext()) {
+                readSibling(reader.nextName());
+            }
+            reader.endObject();
+        }
+    }
+
+    private void readSibling(String name) throws JSONException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                siblings.put(name, reader.nextString());
+                break;
+            default:
+                reader.skipValue();
+        }
+    }
+
+}
@@ -1,6 +1,10 @@
 package com.zipwhip.api.response;
 
 import com.zipwhip.api.dto.*;
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.api.json.JsonToken;
+import com.zipwhip.api.json.OrgJsonEngine;
 import com.zipwhip.api.signals.Signal;
 import com.zipwhip.signals.PresenceUtil;
 import com.zipwhip.signals.presence.Presence;
@@ -25,6 +29,21 @@ public class JsonResponseParser implements ResponseParser {
     private static final String EMPTY_OBJECT = "{}";
 
     private JsonDtoParser parser = new JsonDtoParser();
+    private final JsonEngine engine;
+
+    public JsonResponseParser() {
+        this(null);
+    }
+
+    /**
+     * @param engine The json library. Null for org.json.
+     */
+    public JsonResponseParser(JsonEngine engine) {
+        if (engine == null) {
+            engine = new OrgJsonEngine();
+        }
+        this.engine = engine;
+    }
 
     @Override
     public ServerResponse parse(String response) throws JSONException {
@@ -37,7 +56,16 @@ public class JsonResponseParser implements ResponseParser {
             return null;
         }
 
-        JSONObject thing = new JSONObject(response);
+        JSONObject thing = engine.parseObject(response);
+
+        ServerResponse result = parse(response, thing);
+        result.setDocument(thing);
+
+        return result;
+    }
+
+    private ServerResponse parse(String response, JSONObject thing) {
+
         String responseKey = "response";
 
         boolean success = thing.optBoolean("success");
@@ -137,13 +165,56 @@ public class JsonResponseParser implements ResponseParser {
         MessageListResult result = new MessageListResult();
         result.setMessages(messages);
 
-        JSONObject rawObject = new JSONObject(serverResponse.getRaw());
+        JSONObject rawObject = document(serverResponse);
         result.setTotal(rawObject.optInt("total", 0));
         result.setSize(rawObject.optInt("size", 0));
 
         return result;
     }
 
+    /**
+     * Reads a message list response in one pass over its tokens. The messages are bound as they are read, without
+     * building a tree for the response.
+     *
+     * @param response The json of a message list response.
+     * @return The messages with the total and size.
+     * @throws Exception If the response is not a list.
+     */
+    public MessageListResult parseMessagesListResult(String response) throws Exception {
+
+        if (StringUtil.isNullOrEmpty(response)) {
+            throw new Exception("The response must be a list");
+        }
+
+        MessageListResult result = new MessageListResult();
+
+        JsonReader reader = engine.newReader(response);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if ("response".equals(name)) {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    throw new Exception("The response must be a list");
+                }
+                result.setMessages(JsonDtoBinders.MESSAGE.bindList(reader));
+            } else if ("total".equals(name)) {
+                result.setTotal((int) reader.optLong(0));
+            } else if ("size".equals(name)) {
+                result.setSize((int) reader.optLong(0));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (result.getMessages() == null) {
+            throw new Exception("The response must be a list");
+        }
+
+        return result;
+    }
+
     @Override
     public List<Message> parseMessagesFromConversation(ServerResponse serverResponse) throws Exception {
 
@@ -345,8 +416,12 @@ public class JsonResponseParser implements ResponseParser {
     @Override
     public List<Presence> parsePresence(ServerResponse serverResponse) throws Exception {
 
-        JSONObject raw = new JSONObject(serverResponse.getRaw());
-        JSONObject response = raw.optJSONObject("response");
+        JSONObject response;
+        if (serverResponse instanceof ObjectServerResponse) {
+            response = ((ObjectServerResponse) serverResponse).response;
+        } else {
+            response = document(serverResponse).optJSONObject("response");
+        }
         JSONArray result = response.getJSONArray("result");
 
         if (result.length() > 1) {
@@ -408,7 +483,7 @@ public class JsonResponseParser implements ResponseParser {
     public Map<String, String> parseFaceNames(final ServerResponse serverResponse) throws Exception {
         if (serverResponse == null) return null;
 
-        final JSONObject response = new JSONObject(serverResponse.getRaw());
+        final JSONObject response = document(serverResponse);
         final Map<String, String> faceNameMap = new HashMap<String, String>(response.length());
         final Iterator itr = response.keys();
         String key = null;
@@ -416,10 +491,18 @@ public class JsonResponseParser implements ResponseParser {
 
         while (itr.hasNext()) {
             key = (String) itr.next();
+
+            // it's already been parsed, unless the server sent it as a string.
+            JSONObject face = response.optJSONObject(key);
+            if (face != null) {
+                faceNameMap.put(key, face.optString("fullName"));
+                continue;
+            }
+
             value = response.optString(key);
 
             if (!StringUtil.isNullOrEmpty(value)) {
-                faceNameMap.put(key, new JSONObject(value).optString("fullName"));
+                faceNameMap.put(key, engine.parseObject(value).optString("fullName"));
             }
         }
 
@@ -430,7 +513,7 @@ public class JsonResponseParser implements ResponseParser {
     public Map<String, Boolean> parseFaceImages(ServerResponse serverResponse) throws Exception {
         if (serverResponse == null) return null;
 
-        final JSONObject response = new JSONObject(serverResponse.getRaw());
+        final JSONObject response = document(serverResponse);
         final Map<String, Boolean> faceImageMap = new HashMap<String, Boolean>(response.length());
         final Iterator itr = response.keys();
         String key = null;
@@ -469,7 +552,7 @@ public class JsonResponseParser implements ResponseParser {
     @Override
     public TinyUrl parseTinyUrl(ServerResponse serverResponse) throws Exception {
 
-        JSONObject jsonObject = new JSONObject(serverResponse.getRaw());
+        JSONObject jsonObject = document(serverResponse);
 
         TinyUrl result = new TinyUrl();
         result.setKey(jsonObject.optString("key"));
@@ -478,4 +561,15 @@ public class JsonResponseParser implements ResponseParser {
         return result;
     }
 
+    /**
+     * @return The whole response, parsed. Only parses it again if the parse didn't keep it.
+     */
+    private JSONObject document(ServerResponse serverResponse) throws JSONException {
+        if (serverResponse.getDocument() instanceof JSONObject) {
+            return (JSONObject) serverResponse.getDocument();
+        }
+
+        return engine.parseObject(serverResponse.getRaw());
+    }
+
 }
@@ -13,6 +13,8 @@ public abstract class ServerResponse {
     private boolean success;
     private Map<String, Map<String, List<Signal>>> sessions;
     private String raw;
+    // the whole response as the parser read it, so it doesn't need to be parsed again.
+    private Object document;
 
     public ServerResponse(String raw, boolean success, Map<String, Map<String, List<Signal>>> sessions) {
         this.raw = raw;
@@ -44,4 +46,15 @@ public abstract class ServerResponse {
         this.raw = raw;
     }
 
+    /**
+     * @return The whole response as the parser read it (a JSONObject for json), or null if it wasn't kept.
+     */
+    public Object getDocument() {
+        return document;
+    }
+
+    public void setDocument(Object document) {
+        this.document = document;
+    }
+
 }
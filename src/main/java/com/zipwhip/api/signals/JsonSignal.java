@@ -1,25 +1,94 @@
 package com.zipwhip.api.signals;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 /**
  * Created by IntelliJ IDEA. User: Michael Date: 7/5/11 Time: 8:11 PM
  * <p/>
  * Represents a Signal that was parsed from Json
+ * <p/>
+ * The json is exactly as the server sent it, unless it had to be parsed leniently and was written back out of the
+ * parsed tree. The content is only turned into a DTO the first time someone asks for it, most signals are routed or
+ * forwarded on by their header and never need it.
  */
 public class JsonSignal extends Signal implements Serializable {
 
     private static final long serialVersionUID = 757720958701072081L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonSignal.class);
+
     private String json;
 
+    // null once the content has been decoded (or was set)
+    private transient volatile ContentDecoder decoder;
+
     public JsonSignal(String json) {
         this.json = json;
     }
 
+    /**
+     * @param json    The signal's json.
+     * @param decoder Makes the content the first time it's asked for.
+     */
+    public JsonSignal(String json, ContentDecoder decoder) {
+        this.json = json;
+        this.decoder = decoder;
+    }
+
     public String getJson() {
         return json;
     }
 
+    /**
+     * The content is decoded the first time this is called. A signal's command is parsed before anyone asks for its
+     * content, so content that can't be decoded doesn't fail the command. Instead the error is logged, the content
+     * is left null and the decoder isn't run again.
+     *
+     * @return The content, or null if it couldn't be decoded.
+     */
+    @Override
+    public Object getContent() {
+        if (decoder != null) {
+            synchronized (this) {
+                ContentDecoder decoder = this.decoder;
+                if (decoder != null) {
+                    try {
+                        content = decoder.decode();
+                    } catch (Exception e) {
+                        LOGGER.error("Could not parse the content of " + type + " signal " + uuid, e);
+                    }
+                    this.decoder = null;
+                }
+            }
+        }
+
+        return super.getContent();
+    }
+
+    @Override
+    public synchronized void setContent(Object content) {
+        this.decoder = null;
+        super.setContent(content);
+    }
+
+    /**
+     * @return True if the content has not been decoded yet.
+     */
+    public boolean isContentPending() {
+        return decoder != null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // the decoder doesn't travel, so decode it now.
+        getContent();
+        out.defaultWriteObject();
+    }
+
     @Override
     public String toString() {
         return json;
@@ -42,4 +111,13 @@ public class JsonSignal extends Signal implements Serializable {
         return json != null ? json.hashCode() : 0;
     }
 
+    /**
+     * Turns a signal's json content into its DTO.
+     */
+    public interface ContentDecoder {
+
+        Object decode() throws Exception;
+
+    }
+
 }
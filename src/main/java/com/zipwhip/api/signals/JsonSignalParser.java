@@ -1,9 +1,15 @@
 package com.zipwhip.api.signals;
 
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.api.response.JsonDtoBinder;
+import com.zipwhip.api.response.JsonDtoBinders;
 import com.zipwhip.api.response.JsonDtoParser;
 import com.zipwhip.locators.Locator;
 import com.zipwhip.util.MemoryLocator;
 import com.zipwhip.util.Parser;
+import com.zipwhip.util.StringUtil;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +25,8 @@ public class JsonSignalParser implements SignalParser<JSONObject> {
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonSignalParser.class);
 
     private final Locator<Parser<JSONObject, ?>> LOCATOR;
+    // the same DTOs, read straight from the tokens of the content
+    private final Locator<JsonDtoBinder<?>> BINDER_LOCATOR;
 
     public static final String CONTACT_KEY = "contact";
     public static final String CONVERSATION_KEY = "conversation";
@@ -39,12 +47,31 @@ public class JsonSignalParser implements SignalParser<JSONObject> {
         elements.put(CARBON_KEY, dtoParser.CARBON_PARSER);
 
         LOCATOR = new MemoryLocator<Parser<JSONObject, ?>>(elements);
+
+        Map<String, JsonDtoBinder<?>> binders = new HashMap<String, JsonDtoBinder<?>>(5);
+
+        binders.put(CONTACT_KEY, JsonDtoBinders.CONTACT);
+        binders.put(CONVERSATION_KEY, JsonDtoBinders.CONVERSATION);
+        binders.put(DEVICE_KEY, JsonDtoBinders.DEVICE);
+        binders.put(MESSAGE_KEY, JsonDtoBinders.MESSAGE);
+        binders.put(CARBON_KEY, JsonDtoBinders.CARBON_EVENT);
+
+        BINDER_LOCATOR = new MemoryLocator<JsonDtoBinder<?>>(binders);
     }
 
     @Override
     public Signal parseSignal(JSONObject object) throws Exception {
+        return parseSignal(object, null);
+    }
+
+    /**
+     * @param object The signal, or a command with a "signal" in it.
+     * @param json   The signal's json as it was received, or null to write it back out of the object.
+     * @return The signal. Its content is parsed the first time it's asked for.
+     */
+    public Signal parseSignal(JSONObject object, String json) throws Exception {
 
-        JSONObject node;
+        final JSONObject node;
 
         if (object.has("signal")) {
             node = object.optJSONObject("signal");
@@ -56,38 +83,128 @@ public class JsonSignalParser implements SignalParser<JSONObject> {
             return null;
         }
 
-        // Get signal.content
-        JSONObject content = node.optJSONObject("content");
+        if (json == null) {
+            json = node.toString();
+        }
 
         if (LOGGER.isDebugEnabled()){
-            LOGGER.debug("SIGNAL>>>" + JsonSignalParser.hashMessageBody(node.toString()));
+            LOGGER.debug("SIGNAL>>>" + JsonSignalParser.hashMessageBody(json));
         }
 
-        Signal signal = new JsonSignal(node.toString());
+        JsonSignal signal = new JsonSignal(json, new JsonSignal.ContentDecoder() {
+            @Override
+            public Object decode() throws Exception {
+                return parseContent(node);
+            }
+        });
 
-        String mType = signal.type = node.optString("type");
+        signal.type = node.optString("type");
         signal.event = node.optString("event");
         signal.reason = node.optString("reason");
         signal.uuid = node.optString("uuid");
         signal.scope = node.optString("scope");
         signal.uri = node.optString("uri");
 
-        Parser<JSONObject, ?> parser = LOCATOR.locate(mType.toLowerCase());
+        return signal;
+    }
+
+    /**
+     * Reads the header of the signal out of its json, without building a tree. The content is only parsed if it's
+     * asked for, and then DTOs are bound straight from its tokens.
+     *
+     * @param engine Reads the json.
+     * @param json   The signal.
+     * @return The signal.
+     */
+    public JsonSignal parseSignal(final JsonEngine engine, String json) throws JSONException {
+
+        if (LOGGER.isDebugEnabled()){
+            LOGGER.debug("SIGNAL>>>" + JsonSignalParser.hashMessageBody(json));
+        }
+
+        String type = StringUtil.EMPTY_STRING;
+        String event = StringUtil.EMPTY_STRING;
+        String reason = StringUtil.EMPTY_STRING;
+        String uuid = StringUtil.EMPTY_STRING;
+        String scope = StringUtil.EMPTY_STRING;
+        String uri = StringUtil.EMPTY_STRING;
+        String content = null;
+
+        JsonReader reader = engine.newReader(json);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if ("type".equals(name)) {
+                type = reader.optString();
+            } else if ("event".equals(name)) {
+                event = reader.optString();
+            } else if ("reason".equals(name)) {
+                reason = reader.optString();
+            } else if ("uuid".equals(name)) {
+                uuid = reader.optString();
+            } else if ("scope".equals(name)) {
+                scope = reader.optString();
+            } else if ("uri".equals(name)) {
+                uri = reader.optString();
+            } else if ("content".equals(name)) {
+                content = reader.nextRaw();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        final String finalType = type;
+        final String finalContent = content;
+
+        JsonSignal signal = new JsonSignal(json, new JsonSignal.ContentDecoder() {
+            @Override
+            public Object decode() throws Exception {
+                JsonDtoBinder<?> binder = BINDER_LOCATOR.locate(finalType.toLowerCase());
+                if (binder != null) {
+                    return finalContent == null ? null : binder.bind(engine.newReader(finalContent));
+                }
+
+                return parseContent(finalType, finalContent == null ? null : engine.newReader(finalContent).nextValue());
+            }
+        });
+
+        signal.type = type;
+        signal.event = event;
+        signal.reason = reason;
+        signal.uuid = uuid;
+        signal.scope = scope;
+        signal.uri = uri;
+
+        return signal;
+    }
+
+    /**
+     * @param node The signal.
+     * @return The signal's content as a DTO, or as a String if there is no parser for this type of signal.
+     */
+    public Object parseContent(JSONObject node) throws Exception {
+        return parseContent(node.optString("type"), node.opt("content"));
+    }
+
+    private Object parseContent(String type, Object content) throws Exception {
+
+        Parser<JSONObject, ?> parser = LOCATOR.locate(type.toLowerCase());
 
         if (parser != null){
 
-            signal.content = parser.parse(content);
+            return parser.parse(content instanceof JSONObject ? (JSONObject) content : null);
 
         } else {
 
             if (LOGGER.isDebugEnabled()){
-                LOGGER.debug("Unparsed signal type: " + mType);
+                LOGGER.debug("Unparsed signal type: " + type);
             }
 
-            signal.content = node.optString("content");
+            // the same as JSONObject.optString
+            return content == null ? StringUtil.EMPTY_STRING : content.toString();
         }
-
-        return signal;
     }
 
     /**
@@ -0,0 +1,13 @@
+package com.zipwhip.api.signals;
+
+/**
+ * Allows you to suspend and resume reading on a connection. This is how a slow consumer pushes back on the network.
+ */
+public interface ReadSuspendable {
+
+    /**
+     * @param readable False to stop reading from the network, true to start again.
+     */
+    void setReadable(boolean readable);
+
+}
@@ -0,0 +1,97 @@
+package com.zipwhip.api.signals;
+
+/**
+ * Which signals an observer wants, for {@link SignalProvider#addSignalObserver(SignalFilter, com.zipwhip.events.Observer)}.
+ * <p/>
+ * A null field matches anything. The uri can end with a {@code *} to match everything under it, for example
+ * {@code /signal/message/*}.
+ */
+public class SignalFilter {
+
+    public static final SignalFilter ALL = new SignalFilter(null, null, null, null);
+
+    private final String type;
+    private final String event;
+    private final String scope;
+    private final String uri;
+
+    public SignalFilter(String type) {
+        this(type, null, null, null);
+    }
+
+    public SignalFilter(String type, String event) {
+        this(type, event, null, null);
+    }
+
+    public SignalFilter(String type, String event, String scope) {
+        this(type, event, scope, null);
+    }
+
+    /**
+     * @param type  The signal type, like "message". Null for any.
+     * @param event The signal event, like "send". Null for any.
+     * @param scope The signal scope, like "device". Null for any.
+     * @param uri   The signal uri, or a prefix of it followed by {@code *}. Null for any.
+     */
+    public SignalFilter(String type, String event, String scope, String uri) {
+        this.type = type;
+        this.event = event;
+        this.scope = scope;
+        this.uri = uri;
+    }
+
+    /**
+     * @return True if the type, event and scope match. This ignores the uri.
+     */
+    public boolean matches(String type, String event, String scope) {
+        return matches(this.type, type) && matches(this.event, event) && matches(this.scope, scope);
+    }
+
+    /**
+     * @return True if this uri pattern matches. Always true if there is no uri pattern.
+     */
+    public boolean matchesUri(String uri) {
+        if (this.uri == null) {
+            return true;
+        } else if (uri == null) {
+            return false;
+        } else if (this.uri.endsWith("*")) {
+            return uri.startsWith(this.uri.substring(0, this.uri.length() - 1));
+        }
+
+        return this.uri.equals(uri);
+    }
+
+    public boolean matches(Signal signal) {
+        return matches(signal.getType(), signal.getEvent(), signal.getScope()) && matchesUri(signal.getUri());
+    }
+
+    public boolean hasUri() {
+        return uri != null;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    private static boolean matches(String pattern, String value) {
+        return pattern == null || pattern.equals(value);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[SignalFilter: type=%s, event=%s, scope=%s, uri=%s]", type, event, scope, uri);
+    }
+}
@@ -7,6 +7,7 @@ import com.zipwhip.api.signals.sockets.ConnectionHandle;
 import com.zipwhip.api.signals.sockets.ConnectionState;
 import com.zipwhip.concurrent.ObservableFuture;
 import com.zipwhip.events.Observable;
+import com.zipwhip.events.Observer;
 import com.zipwhip.lifecycle.Destroyable;
 import com.zipwhip.signals.presence.Presence;
 
@@ -107,6 +108,8 @@ public interface SignalProvider extends Destroyable {
      * You can Observe this event to capture signals that come in.
      * <p/>
      * As signals are always wrapped by SignalCommand this event and {@code onSignalCommandReceived} will fire simultaneously.
+     * <p/>
+     * Signals that arrive together (such as a backfill) come in 1 list, in order. Write them in bulk if you can.
      */
     Observable<List<Signal>> getSignalReceivedEvent();
 
@@ -118,6 +121,20 @@ public interface SignalProvider extends Destroyable {
      */
     Observable<List<SignalCommand>> getSignalCommandReceivedEvent();
 
+    /**
+     * Observe only the signals that match the filter. Unlike {@code getSignalReceivedEvent()}, the observer is not
+     * called at all for the signals it doesn't want, so register as many of these as you like.
+     *
+     * @param filter   The signals to send to this observer.
+     * @param observer The observer, it gets the matching signals of each batch as 1 list.
+     */
+    void addSignalObserver(SignalFilter filter, Observer<List<Signal>> observer);
+
+    /**
+     * @param observer An observer that was added with {@code addSignalObserver(SignalFilter, Observer)}.
+     */
+    void removeSignalObserver(Observer<List<Signal>> observer);
+
     /**
      * Observe the changes in connection. This is when your clientId is used for
      * the first time. True is connected and False is disconnected.
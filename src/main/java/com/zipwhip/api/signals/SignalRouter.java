@@ -0,0 +1,225 @@
+package com.zipwhip.api.signals;
+
+import com.zipwhip.events.Observer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands each signal only to the observers whose {@link SignalFilter} matches it.
+ * <p/>
+ * The observers that match a (type, event, scope) are worked out the first time a signal with those values shows up
+ * and then remembered, so routing a signal is 3 map lookups no matter how many observers there are. Adding or
+ * removing an observer throws the table away and it is rebuilt as signals come in.
+ * <p/>
+ * Each observer gets 1 list per batch with just the signals that it asked for, in order.
+ */
+public class SignalRouter implements Observer<List<Signal>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SignalRouter.class);
+
+    // there are only a handful of types, events and scopes, this is just to stop a misbehaving server growing the table forever.
+    private static final int MAX_ROUTES = 1024;
+
+    // stands in for a null type, event or scope in the table.
+    private static final String NULL_KEY = "\u0000null";
+
+    private static final Subscription[] NONE = new Subscription[0];
+
+    // guards changes to the table, routing doesn't lock.
+    private final Object lock = new Object();
+    private volatile Table table = new Table(NONE);
+
+    /**
+     * @param filter   The signals to send to this observer.
+     * @param observer The observer.
+     */
+    public void addObserver(SignalFilter filter, Observer<List<Signal>> observer) {
+        if (filter == null) {
+            throw new NullPointerException("The filter can't be null");
+        } else if (observer == null) {
+            throw new NullPointerException("The observer can't be null");
+        }
+
+        synchronized (lock) {
+            Subscription[] subscriptions = table.subscriptions;
+            Subscription[] result = new Subscription[subscriptions.length + 1];
+
+            System.arraycopy(subscriptions, 0, result, 0, subscriptions.length);
+            result[subscriptions.length] = new Subscription(subscriptions.length, filter, observer);
+
+            table = new Table(result);
+        }
+    }
+
+    /**
+     * @param observer The observer to remove (from every filter that it was added with).
+     * @return True if it was there.
+     */
+    public boolean removeObserver(Observer<List<Signal>> observer) {
+        synchronized (lock) {
+            List<Subscription> result = new ArrayList<Subscription>();
+            for (Subscription subscription : table.subscriptions) {
+                if (subscription.observer != observer) {
+                    result.add(new Subscription(result.size(), subscription.filter, subscription.observer));
+                }
+            }
+
+            if (result.size() == table.subscriptions.length) {
+                return false;
+            }
+
+            table = new Table(result.toArray(new Subscription[result.size()]));
+
+            return true;
+        }
+    }
+
+    public int size() {
+        return table.subscriptions.length;
+    }
+
+    @Override
+    public void notify(Object sender, List<Signal> signals) {
+        Table table = this.table;
+        if (table.subscriptions.length == 0 || signals == null || signals.isEmpty()) {
+            return;
+        }
+
+        if (signals.size() == 1) {
+            Signal signal = signals.get(0);
+
+            for (Subscription subscription : table.route(signal)) {
+                if (subscription.filter.matchesUri(signal.getUri())) {
+                    notify(subscription, sender, signals);
+                }
+            }
+
+            return;
+        }
+
+        // 1 list per observer, by the observer's position.
+        List<List<Signal>> batches = new ArrayList<List<Signal>>(Collections.<List<Signal>>nCopies(table.subscriptions.length, null));
+        for (Signal signal : signals) {
+            for (Subscription subscription : table.route(signal)) {
+                if (subscription.filter.matchesUri(signal.getUri())) {
+                    List<Signal> batch = batches.get(subscription.index);
+                    if (batch == null) {
+                        batch = new ArrayList<Signal>();
+                        batches.set(subscription.index, batch);
+                    }
+
+                    batch.add(signal);
+                }
+            }
+        }
+
+        for (Subscription subscription : table.subscriptions) {
+            List<Signal> batch = batches.get(subscription.index);
+            if (batch != null) {
+                notify(subscription, sender, Collections.unmodifiableList(batch));
+            }
+        }
+    }
+
+    private void notify(Subscription subscription, Object sender, List<Signal> signals) {
+        try {
+            subscription.observer.notify(sender, signals);
+        } catch (Exception e) {
+            LOGGER.error(String.format("%s threw while handling %d signals", subscription.observer, signals.size()), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[SignalRouter: %d observers]", size());
+    }
+
+    private static class Subscription {
+
+        private final int index;
+        private final SignalFilter filter;
+        private final Observer<List<Signal>> observer;
+
+        private Subscription(int index, SignalFilter filter, Observer<List<Signal>> observer) {
+            this.index = index;
+            this.filter = filter;
+            this.observer = observer;
+        }
+    }
+
+    /**
+     * Never changes once it's published, other than filling in the routes.
+     */
+    private static class Table {
+
+        private final Subscription[] subscriptions;
+
+        // type -> event -> scope -> the subscriptions that match (ignoring their uri)
+        private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Subscription[]>>> routes =
+                new ConcurrentHashMap<String, ConcurrentMap<String, ConcurrentMap<String, Subscription[]>>>();
+        private final AtomicInteger routeCount = new AtomicInteger();
+
+        private Table(Subscription[] subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+
+        private Subscription[] route(Signal signal) {
+            String type = signal.getType();
+            String event = signal.getEvent();
+            String scope = signal.getScope();
+
+            ConcurrentMap<String, ConcurrentMap<String, Subscription[]>> events = routes.get(key(type));
+            ConcurrentMap<String, Subscription[]> scopes = events == null ? null : events.get(key(event));
+            Subscription[] result = scopes == null ? null : scopes.get(key(scope));
+
+            if (result != null) {
+                return result;
+            }
+
+            result = resolve(type, event, scope);
+
+            if (routeCount.get() < MAX_ROUTES) {
+                if (events == null) {
+                    events = putIfAbsent(routes, key(type), new ConcurrentHashMap<String, ConcurrentMap<String, Subscription[]>>());
+                }
+                if (scopes == null) {
+                    scopes = putIfAbsent(events, key(event), new ConcurrentHashMap<String, Subscription[]>());
+                }
+                if (scopes.putIfAbsent(key(scope), result) == null) {
+                    routeCount.incrementAndGet();
+                }
+            }
+
+            return result;
+        }
+
+        private Subscription[] resolve(String type, String event, String scope) {
+            List<Subscription> result = new ArrayList<Subscription>();
+
+            for (Subscription subscription : subscriptions) {
+                if (subscription.filter.matches(type, event, scope)) {
+                    result.add(subscription);
+                }
+            }
+
+            return result.isEmpty() ? NONE : result.toArray(new Subscription[result.size()]);
+        }
+
+        private static <T> T putIfAbsent(ConcurrentMap<String, T> map, String key, T value) {
+            T existing = map.putIfAbsent(key, value);
+
+            return existing == null ? value : existing;
+        }
+
+        private static String key(String value) {
+            return value == null ? NULL_KEY : value;
+        }
+    }
+}
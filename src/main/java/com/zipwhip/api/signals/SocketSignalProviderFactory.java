@@ -1,13 +1,19 @@
 package com.zipwhip.api.signals;
 
+import com.zipwhip.api.ZipwhipRuntime;
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.signals.reconnect.DefaultReconnectStrategy;
 import com.zipwhip.api.signals.reconnect.ReconnectStrategy;
 import com.zipwhip.executors.CommonExecutorTypes;
 import com.zipwhip.api.signals.sockets.SocketSignalProvider;
+import com.zipwhip.api.signals.sockets.netty.RawSocketIoChannelPipelineFactory;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParser;
 import com.zipwhip.api.signals.sockets.netty.NettySignalConnection;
 import com.zipwhip.executors.CommonExecutorFactory;
 import com.zipwhip.lifecycle.DestroyableBase;
 import com.zipwhip.timers.Timer;
 import com.zipwhip.util.Factory;
+import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 
 import java.net.SocketAddress;
@@ -23,9 +29,15 @@ public class SocketSignalProviderFactory implements Factory<SignalProvider> {
 
     private ReconnectStrategy reconnectStrategy = null;
     private ChannelPipelineFactory channelPipelineFactory = null;
+    private ChannelFactory channelFactory = null;
     private CommonExecutorFactory executorFactory = null;
     private SocketAddress address;
     private Timer timer;
+    private ZipwhipRuntime runtime;
+    private int maxSignalBatchSize = SocketSignalProvider.DEFAULT_MAX_SIGNAL_BATCH_SIZE;
+    private boolean firehose;
+    private JsonEngine jsonEngine;
+    private boolean parallelLanes;
 
     public SocketSignalProviderFactory() {
 
@@ -37,7 +49,34 @@ public class SocketSignalProviderFactory implements Factory<SignalProvider> {
 
     @Override
     public SignalProvider create() {
-        NettySignalConnection connection = new NettySignalConnection(executorFactory, reconnectStrategy, channelPipelineFactory);
+        ReconnectStrategy reconnectStrategy = this.reconnectStrategy;
+        ChannelPipelineFactory channelPipelineFactory = this.channelPipelineFactory;
+
+        // the runtime's timer is shared, so these (per connection) objects must not make their own.
+        ReconnectStrategy runtimeReconnectStrategy = null;
+        if (runtime != null) {
+            if (reconnectStrategy == null) {
+                runtimeReconnectStrategy = new DefaultReconnectStrategy(runtime.getTimer());
+                reconnectStrategy = runtimeReconnectStrategy;
+            }
+        }
+
+        RawSocketIoChannelPipelineFactory ownPipelineFactory = null;
+        if (channelPipelineFactory == null && (runtime != null || firehose || jsonEngine != null)) {
+            ownPipelineFactory = new RawSocketIoChannelPipelineFactory(
+                    runtime == null ? null : runtime.getNettyTimer(),
+                    RawSocketIoChannelPipelineFactory.DEFAULT_PING_INTERVAL_SECONDS,
+                    RawSocketIoChannelPipelineFactory.DEFAULT_PONG_TIMEOUT_SECONDS,
+                    new JsonSignalCommandParser(jsonEngine, firehose));
+            channelPipelineFactory = ownPipelineFactory;
+        }
+
+        NettySignalConnection connection = new NettySignalConnection(executorFactory, reconnectStrategy, channelPipelineFactory, channelFactory);
+
+        if (ownPipelineFactory != null) {
+            // it only owns a timer when there's no runtime.
+            connection.link(ownPipelineFactory);
+        }
 
         connection.setConnectTimeoutSeconds(10);
 
@@ -46,25 +85,56 @@ public class SocketSignalProviderFactory implements Factory<SignalProvider> {
         }
 
         Executor executor = null;
+        Executor laneExecutor = null;
         if (executorFactory != null){
             executor = executorFactory.create(CommonExecutorTypes.EVENTS, "SignalProvider");
+            if (parallelLanes) {
+                laneExecutor = executorFactory.create(CommonExecutorTypes.WORKER, "SignalProvider-lanes");
+            }
         }
 
-        SocketSignalProvider signalProvider = new SocketSignalProvider(connection, executor, timer);
+        SocketSignalProvider signalProvider = new SocketSignalProvider(connection, executor, timer, laneExecutor);
+        signalProvider.setMaxSignalBatchSize(maxSignalBatchSize);
 
         if (executor != null){
             final Executor finalExecutor = executor;
+            final Executor finalLaneExecutor = laneExecutor;
             signalProvider.link(new DestroyableBase() {
                 @Override
                 protected void onDestroy() {
                     ((ExecutorService)finalExecutor).shutdownNow();
+                    if (finalLaneExecutor != null) {
+                        ((ExecutorService)finalLaneExecutor).shutdownNow();
+                    }
                 }
             });
         }
 
+        if (runtimeReconnectStrategy != null) {
+            signalProvider.link(runtimeReconnectStrategy);
+        }
+
         return signalProvider;
     }
 
+    /**
+     * Share the runtime's threads, timer and NIO transport with every provider this factory creates,
+     * instead of each one creating its own. The caller owns the runtime and must destroy it.
+     * <p/>
+     * This replaces any executorFactory, timer or channelFactory that was set before.
+     */
+    public SocketSignalProviderFactory runtime(ZipwhipRuntime runtime) {
+        this.runtime = runtime;
+
+        if (runtime != null) {
+            this.executorFactory = runtime;
+            this.timer = runtime.getTimer();
+            this.channelFactory = runtime.getChannelFactory();
+        }
+
+        return this;
+    }
+
     public SocketSignalProviderFactory timer(Timer timer) {
         this.timer = timer;
         return this;
@@ -80,11 +150,62 @@ public class SocketSignalProviderFactory implements Factory<SignalProvider> {
         return this;
     }
 
+    /**
+     * Use a shared transport for every connection this factory creates. For example, pass in a single
+     * {@code SharedNioClientSocketChannelFactory} to multiplex all of the signal sockets over a few selector threads.
+     * The caller owns the channelFactory and must destroy it.
+     */
+    public SocketSignalProviderFactory channelFactory(ChannelFactory channelFactory) {
+        this.channelFactory = channelFactory;
+        return this;
+    }
+
     public SocketSignalProviderFactory executorFactory(CommonExecutorFactory executorFactory) {
         this.executorFactory = executorFactory;
         return this;
     }
 
+    /**
+     * By default every command that a provider receives is handled on its events executor, in the order it came in.
+     * Set this to give every provider a worker pool of its own for the version key lanes, so that signals for
+     * different version keys are handled in parallel (but no longer in order with the unversioned commands).
+     * Ignored if there is no executorFactory.
+     *
+     * @param parallelLanes True for a worker pool per provider.
+     * @see SocketSignalProvider#SocketSignalProvider(SignalConnection, Executor, Timer, Executor)
+     */
+    public SocketSignalProviderFactory parallelLanes(boolean parallelLanes) {
+        this.parallelLanes = parallelLanes;
+        return this;
+    }
+
+    /**
+     * @param maxSignalBatchSize The most signals that the signal observers get in 1 list.
+     */
+    public SocketSignalProviderFactory maxSignalBatchSize(int maxSignalBatchSize) {
+        this.maxSignalBatchSize = maxSignalBatchSize;
+        return this;
+    }
+
+    /**
+     * @param firehose True to only parse the header of each signal and keep the rest as the json it came in as.
+     *                 Good for clients that forward signals on by their type rather than look inside them.
+     *                 Ignored if a channelPipelineFactory is set.
+     */
+    public SocketSignalProviderFactory firehose(boolean firehose) {
+        this.firehose = firehose;
+        return this;
+    }
+
+    /**
+     * @param jsonEngine The json library to read the commands with, for example a {@code StreamingJsonEngine}.
+     *                   Null for org.json. Ignored if a channelPipelineFactory is set.
+     */
+    public SocketSignalProviderFactory jsonEngine(JsonEngine jsonEngine) {
+        this.jsonEngine = jsonEngine;
+        return this;
+    }
+
     public SocketSignalProviderFactory address(SocketAddress address) {
         this.address = address;
         return this;
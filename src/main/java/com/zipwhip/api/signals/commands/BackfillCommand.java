@@ -9,6 +9,8 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -41,6 +43,19 @@ public class BackfillCommand extends SerializingCommand<Long> {
 
     @Override
     public String serialize() {
+        return toJson().toString();
+    }
+
+    @Override
+    public void serialize(Writer writer) throws IOException {
+        try {
+            toJson().write(writer);
+        } catch (JSONException e) {
+            throw new IOException("Error serializing BackfillCommand", e);
+        }
+    }
+
+    private JSONObject toJson() {
 
         JSONObject json = new JSONObject();
 
@@ -60,7 +75,7 @@ public class BackfillCommand extends SerializingCommand<Long> {
             LOGGER.error("Error serializing BackfillCommand", e);
         }
 
-        return json.toString();
+        return json;
     }
 
     @Override
@@ -10,6 +10,8 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.Map;
 
@@ -62,6 +64,19 @@ public class ConnectCommand extends SerializingCommand {
 
     @Override
     public String serialize() {
+        return toJson().toString();
+    }
+
+    @Override
+    public void serialize(Writer writer) throws IOException {
+        try {
+            toJson().write(writer);
+        } catch (JSONException e) {
+            throw new IOException("Error serializing ConnectCommand", e);
+        }
+    }
+
+    private JSONObject toJson() {
 
         JSONObject json = new JSONObject();
 
@@ -85,7 +100,7 @@ public class ConnectCommand extends SerializingCommand {
             LOGGER.error("Error serializing ConnectCommand", e);
         }
 
-        return json.toString();
+        return json;
     }
 
     @Override
@@ -1,12 +1,19 @@
 package com.zipwhip.api.signals.commands;
 
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.json.JsonReader;
+import com.zipwhip.api.json.JsonToken;
+import com.zipwhip.api.json.OrgJsonEngine;
+import com.zipwhip.api.json.StreamingJsonEngine;
 import com.zipwhip.api.signals.JsonSignalParser;
+import com.zipwhip.api.signals.Signal;
 import com.zipwhip.api.signals.VersionMapEntry;
 import com.zipwhip.signals.PresenceUtil;
 import com.zipwhip.signals.message.Action;
 import com.zipwhip.util.Parser;
 import com.zipwhip.util.StringUtil;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,8 +34,46 @@ public class JsonSignalCommandParser implements Parser<String, Command<?>> {
 
 	private final Map<Action, Parser<JSONObject, Command<?>>> parsers;
 	private final JsonSignalParser signalContentParser = new JsonSignalParser();
+	private final JsonEngine engine;
+	// reads commands as tokens, so their signal is kept as it came in
+	private final JsonEngine signalEngine;
+	// only read the header of each signal, its content stays json until it's asked for
+	private final boolean headerOnly;
 
 	public JsonSignalCommandParser() {
+		this(null, false);
+	}
+
+	public JsonSignalCommandParser(boolean firehose) {
+		this(null, firehose);
+	}
+
+	public JsonSignalCommandParser(JsonEngine engine) {
+		this(engine, false);
+	}
+
+	/**
+	 * @param engine   The json library. Null for org.json. If it's a streaming engine only the header (type, event,
+	 *                 uuid, scope, uri and version) of each signal is read and the rest is kept as the json it came
+	 *                 in as. The content is still parsed if it's asked for. With org.json the whole signal is parsed
+	 *                 into a tree, and its json is still the text it was sent as.
+	 * @param firehose True to read signals that way even if the engine is org.json, for clients that forward
+	 *                 signals on rather than look inside them.
+	 */
+	public JsonSignalCommandParser(JsonEngine engine, boolean firehose) {
+
+		if (engine == null) {
+			engine = new OrgJsonEngine();
+		}
+		this.engine = engine;
+
+		if (engine.isStreaming()) {
+			this.signalEngine = engine;
+			this.headerOnly = true;
+		} else {
+			this.signalEngine = new StreamingJsonEngine();
+			this.headerOnly = firehose;
+		}
 
 		parsers = new HashMap<Action, Parser<JSONObject, Command<?>>>();
 
@@ -51,7 +96,42 @@ public class JsonSignalCommandParser implements Parser<String, Command<?>> {
 			return PingPongCommand.getShortformInstance();
 		}
 
-		JSONObject json = new JSONObject(string);
+		JSONObject json = null;
+		// the signal's json as it came in, if it was read as tokens
+		String signalJson = null;
+
+		try {
+			JsonReader reader = signalEngine.newReader(string);
+			if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+				json = new JSONObject();
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					String name = reader.nextName();
+
+					if ("signal".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+						if (headerOnly) {
+							signalJson = reader.nextRaw();
+						} else {
+							StringBuilder raw = new StringBuilder();
+							json.put(name, reader.nextValue(raw));
+							signalJson = raw.toString();
+						}
+					} else {
+						json.put(name, reader.nextValue());
+					}
+				}
+				reader.endObject();
+			}
+		} catch (JSONException e) {
+			// leave it to parseObject, which will say what's wrong with it (or is more forgiving).
+			json = null;
+			signalJson = null;
+		}
+
+		if (json == null) {
+			json = engine.parseObject(string);
+		}
 
 		String action = json.optString("action");
 
@@ -73,9 +153,35 @@ public class JsonSignalCommandParser implements Parser<String, Command<?>> {
 			LOGGER.debug("Parsing" + JsonSignalParser.hashMessageBody(string));
 		}
 
+		if (signalJson != null) {
+			if (parser == SIGNAL_PARSER) {
+				if (headerOnly) {
+					return parseSignal(json, signalContentParser.parseSignal(signalEngine, signalJson));
+				}
+
+				// the content is parsed from the tree if it's asked for
+				return parseSignal(json, signalContentParser.parseSignal(json, signalJson));
+			}
+
+			if (headerOnly) {
+				// some other command with a signal in it, give it the whole tree
+				json.put("signal", signalEngine.newReader(signalJson).nextValue());
+			}
+		}
+
 		return parser.parse(json);
 	}
 
+	private Command<?> parseSignal(JSONObject object, Signal signal) {
+
+		SignalCommand signalCommand = new SignalCommand(signal);
+		signalCommand.setVersion(new VersionMapEntry(object.optString("versionKey", StringUtil.EMPTY_STRING), object.optLong("version", -1)));
+		signalCommand.setBackfill(object.optBoolean("isBackfill", false));
+		signalCommand.setMaxBackfillVersion(object.optLong("maxBackfillVersion", SignalCommand.NOT_BACKFILL_SIGNAL_VERSION));
+
+		return signalCommand;
+	}
+
 	public final Parser<JSONObject, Command<?>> CONNECT_PARSER = new Parser<JSONObject, Command<?>>() {
 		@Override
 		public Command<?> parse(JSONObject object) throws Exception {
@@ -140,18 +246,13 @@ public class JsonSignalCommandParser implements Parser<String, Command<?>> {
 	public final Parser<JSONObject, Command<?>> SIGNAL_PARSER = new Parser<JSONObject, Command<?>>() {
 		@Override
 		public Command<?> parse(JSONObject object) throws Exception {
-
 			if (!object.has("signal")) {
 				LOGGER.warn("SIGNAL command received with no signal object.");
 				return null;
 			}
 
-			SignalCommand signalCommand = new SignalCommand(signalContentParser.parseSignal(object));
-			signalCommand.setVersion(new VersionMapEntry(object.optString("versionKey", StringUtil.EMPTY_STRING), object.optLong("version", -1)));
-			signalCommand.setBackfill(object.optBoolean("isBackfill", false));
-			signalCommand.setMaxBackfillVersion(object.optLong("maxBackfillVersion", SignalCommand.NOT_BACKFILL_SIGNAL_VERSION));
-
-			return signalCommand;
+			// the signal is written back out of the tree, its content is parsed from the tree if it's asked for
+			return parseSignal(object, signalContentParser.parseSignal(object));
 		}
 	};
 
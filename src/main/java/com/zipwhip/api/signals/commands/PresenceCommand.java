@@ -8,6 +8,8 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -41,6 +43,19 @@ public class PresenceCommand extends SerializingCommand {
 
     @Override
     public String serialize() {
+        return toJson().toString();
+    }
+
+    @Override
+    public void serialize(Writer writer) throws IOException {
+        try {
+            toJson().write(writer);
+        } catch (JSONException e) {
+            throw new IOException("Error serializing PresenceCommand", e);
+        }
+    }
+
+    private JSONObject toJson() {
 
         JSONObject json = new JSONObject();
 
@@ -52,7 +67,7 @@ public class PresenceCommand extends SerializingCommand {
             logger.error("Error serializing PresenceCommand", e);
         }
 
-        return json.toString();
+        return json;
     }
 
     @Override
@@ -1,5 +1,8 @@
 package com.zipwhip.api.signals.commands;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * Created by IntelliJ IDEA.
  * User: jed
@@ -11,4 +14,17 @@ package com.zipwhip.api.signals.commands;
  */
 public abstract class SerializingCommand<T> extends Command<T> implements CommandSerializer {
 
+    /**
+     * Serialize this command straight to the writer. The encoder uses this to write into the outbound buffer
+     * without building the whole String first.
+     * <p/>
+     * The output must be the same as {@code serialize()}. Commands that can get large should override this.
+     *
+     * @param writer The writer to serialize to.
+     * @throws IOException If the writer fails.
+     */
+    public void serialize(Writer writer) throws IOException {
+        writer.write(serialize());
+    }
+
 }
@@ -32,6 +32,7 @@ public class DefaultReconnectStrategy extends ReconnectStrategy {
     private Timeout timeout;
     private RetryStrategy strategy;
     private final Timer timer;
+    private final boolean ownsTimer;
     private int failCount;
 
     public DefaultReconnectStrategy() {
@@ -45,6 +46,8 @@ public class DefaultReconnectStrategy extends ReconnectStrategy {
     public DefaultReconnectStrategy(Timer timer, RetryStrategy strategy) {
         super();
 
+        // a timer that is passed in might be shared, so only stop the one we create.
+        this.ownsTimer = timer == null;
         if (timer == null) {
             timer = new HashedWheelTimer(new NamedThreadFactory(this.toString()), 1, TimeUnit.SECONDS);
         }
@@ -136,6 +139,10 @@ public class DefaultReconnectStrategy extends ReconnectStrategy {
     @Override
     protected void onDestroy() {
         stop();
+
+        if (ownsTimer) {
+            timer.stop();
+        }
     }
 
     @Override
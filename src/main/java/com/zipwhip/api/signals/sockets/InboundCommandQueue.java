@@ -0,0 +1,193 @@
+package com.zipwhip.api.signals.sockets;
+
+import com.zipwhip.api.signals.ReadSuspendable;
+import com.zipwhip.api.signals.commands.Command;
+import com.zipwhip.events.Observer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the commands that come in from the network over to an executor, like a DifferentExecutorObserverAdapter,
+ * but keeps the queue bounded.
+ * <p/>
+ * When the number of commands waiting on the executor reaches the high watermark we suspend reads on the connection
+ * that sent them (if it is {@code ReadSuspendable}). Reads are resumed once the queue drains to the low watermark.
+ * The network buffers fill up in the meantime and the server has to slow down, instead of our heap growing
+ * without limit during a backlog replay.
+ * <p/>
+ * If it has {@code VersionKeyLanes}, commands with a version run on the lane for their version key instead of the
+ * executor. They still count towards the watermarks until the observer is done with them. They are only ordered
+ * with the other commands for the same key, not with the commands that run on the executor. If the lanes are a
+ * single lane, every command goes through it, so they are all observed in the order they came in.
+ */
+public class InboundCommandQueue implements Observer<Command> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InboundCommandQueue.class);
+
+    public static final int DEFAULT_HIGH_WATERMARK = 1000;
+    public static final int DEFAULT_LOW_WATERMARK = 100;
+
+    private final Executor executor;
+    private final VersionKeyLanes lanes;
+    private final Observer<Command> observer;
+    private final int highWatermark;
+    private final int lowWatermark;
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /**
+     * The connections that we suspended. Only touched when crossing a watermark.
+     */
+    private final List<ReadSuspendable> suspended = new ArrayList<ReadSuspendable>();
+    private volatile boolean suspendedAny;
+
+    public InboundCommandQueue(Executor executor, Observer<Command> observer) {
+        this(executor, observer, DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK);
+    }
+
+    public InboundCommandQueue(Executor executor, Observer<Command> observer, int highWatermark, int lowWatermark) {
+        this(executor, null, observer, highWatermark, lowWatermark);
+    }
+
+    public InboundCommandQueue(Executor executor, VersionKeyLanes lanes, Observer<Command> observer) {
+        this(executor, lanes, observer, DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK);
+    }
+
+    /**
+     * @param executor      Where commands without a version are observed.
+     * @param lanes         Where commands with a version are observed (every command, if it is a single lane),
+     *                      or null to use the executor for everything.
+     * @param observer      Gets every command, on the executor or on its lane.
+     * @param highWatermark Suspend reads when this many commands are waiting.
+     * @param lowWatermark  Resume reads when it drains to this many.
+     */
+    public InboundCommandQueue(Executor executor, VersionKeyLanes lanes, Observer<Command> observer, int highWatermark, int lowWatermark) {
+        if (lowWatermark < 0 || highWatermark <= lowWatermark) {
+            throw new IllegalArgumentException(String.format("Need 0 <= lowWatermark < highWatermark (%d, %d)", lowWatermark, highWatermark));
+        }
+
+        this.executor = executor;
+        this.lanes = lanes;
+        this.observer = observer;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    @Override
+    public void notify(final Object sender, final Command command) {
+
+        if (depth.incrementAndGet() >= highWatermark && sender instanceof ReadSuspendable) {
+            suspend((ReadSuspendable) sender);
+        }
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    observer.notify(sender, command);
+                } finally {
+                    released();
+                }
+            }
+
+            @Override
+            public String toString() {
+                return String.format("[InboundCommandQueue: %s]", command);
+            }
+        };
+
+        try {
+            String lane = getLaneKey(command);
+
+            if (lane != null || (lanes != null && lanes.isSingleLane())) {
+                lanes.execute(lane, task);
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            released();
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return The version key of the lane this command should run on, or null for the executor.
+     */
+    private String getLaneKey(Command command) {
+        if (lanes == null || command.getVersion() == null || command.getVersion().getValue() <= 0) {
+            return null;
+        }
+
+        return command.getVersion().getKey();
+    }
+
+    /**
+     * @return The number of commands waiting for (or being processed by) the observer.
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public boolean isSuspended() {
+        return suspendedAny;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    private void released() {
+        if (depth.decrementAndGet() <= lowWatermark && suspendedAny) {
+            resume();
+        }
+    }
+
+    private synchronized void suspend(ReadSuspendable connection) {
+        if (suspended.contains(connection)) {
+            return;
+        }
+
+        LOGGER.warn(String.format("The inbound queue reached %d commands, suspending reads on %s", depth.get(), connection));
+
+        suspended.add(connection);
+        suspendedAny = true;
+
+        connection.setReadable(false);
+
+        // the queue may have drained while we were getting here, and then nobody would resume.
+        if (depth.get() <= lowWatermark) {
+            resume();
+        }
+    }
+
+    private synchronized void resume() {
+        if (suspended.isEmpty()) {
+            return;
+        }
+
+        LOGGER.warn(String.format("The inbound queue drained to %d commands, resuming reads", depth.get()));
+
+        for (ReadSuspendable connection : suspended) {
+            connection.setReadable(true);
+        }
+
+        suspended.clear();
+        suspendedAny = false;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[InboundCommandQueue: %s (depth %d)]", observer, depth.get());
+    }
+}
@@ -2,7 +2,9 @@ package com.zipwhip.api.signals.sockets;
 
 import com.zipwhip.api.signals.PingEvent;
 import com.zipwhip.api.signals.Signal;
+import com.zipwhip.api.signals.SignalFilter;
 import com.zipwhip.api.signals.SignalProvider;
+import com.zipwhip.api.signals.SignalRouter;
 import com.zipwhip.api.signals.VersionMapEntry;
 import com.zipwhip.api.signals.commands.Command;
 import com.zipwhip.api.signals.commands.SignalCommand;
@@ -10,7 +12,8 @@ import com.zipwhip.api.signals.commands.SubscriptionCompleteCommand;
 import com.zipwhip.concurrent.ObservableFuture;
 import com.zipwhip.events.Observable;
 import com.zipwhip.events.ObservableHelper;
-import com.zipwhip.executors.DebuggingExecutor;
+import com.zipwhip.events.Observer;
+import com.zipwhip.executors.InstrumentedExecutor;
 import com.zipwhip.executors.NamedThreadFactory;
 import com.zipwhip.lifecycle.CascadingDestroyableBase;
 import com.zipwhip.lifecycle.DestroyableBase;
@@ -26,6 +29,7 @@ import java.util.TreeMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.zipwhip.concurrent.ThreadUtil.ensureLock;
 
@@ -50,6 +54,9 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
     protected final ObservableHelper<PingEvent> pingReceivedEvent = new ObservableHelper<PingEvent>("pingReceivedEvent");
     protected final ObservableHelper<List<Signal>> signalReceivedEvent = new ObservableHelper<List<Signal>>("signalReceivedEvent");
     protected final ObservableHelper<List<SignalCommand>> signalCommandReceivedEvent = new ObservableHelper<List<SignalCommand>>("signalCommandReceivedEvent");
+
+    // the observers that only want some of the signals, fed by signalReceivedEvent.
+    protected final SignalRouter signalRouter = new SignalRouter();
     protected final ObservableHelper<Void> signalVerificationReceivedEvent = new ObservableHelper<Void>("signalVerificationReceivedEvent");
     protected final ObservableHelper<Command> commandReceivedEvent = new ObservableHelper<Command>("commandReceivedEvent");
     protected final ObservableHelper<Boolean> presenceReceivedEvent = new ObservableHelper<Boolean>("presenceReceivedEvent");
@@ -65,6 +72,9 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
     private ObservableFuture<ConnectionHandle> connectFuture;
     private SignalProviderConnectionHandle connectionHandle;
 
+    // Republished (never changed) by every transition, so the state can be read without taking any locks.
+    private final AtomicReference<ConnectionSnapshot> connectionSnapshot = new AtomicReference<ConnectionSnapshot>(ConnectionSnapshot.DISCONNECTED);
+
     protected String clientId;
     protected String originalClientId;
     protected Presence presence;
@@ -73,7 +83,7 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
     public SignalProviderBase(Executor executor) {
 
         if (executor == null) {
-            executor = new DebuggingExecutor(Executors.newSingleThreadExecutor(new NamedThreadFactory("SignalProvider-events(newSingleThreadExecutor)-")));
+            executor = new InstrumentedExecutor(Executors.newSingleThreadExecutor(new NamedThreadFactory("SignalProvider-events(newSingleThreadExecutor)-")), "SignalProvider-events");
             this.link(new DestroyableBase() {
                 @Override
                 protected void onDestroy() {
@@ -91,6 +101,7 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
         this.link(connectionChangedEvent);
         this.link(newClientIdReceivedEvent);
         this.link(signalReceivedEvent);
+        this.signalReceivedEvent.addObserver(signalRouter);
         this.link(exceptionEvent);
         this.link(signalVerificationReceivedEvent);
         this.link(newVersionEvent);
@@ -100,6 +111,14 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
         this.link(commandReceivedEvent);
     }
 
+    /**
+     * @return The executor that events are fired on. Unless one was passed in, it's an {@code InstrumentedExecutor}
+     * that can tell you how far behind the events are.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
     @Override
     public String getClientId() {
         return clientId;
@@ -188,6 +207,7 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
 
         LOGGER.warn(String.format("The connectionHandle was cleared by %s", Thread.currentThread().getName()));
         connectionHandle = null;
+        connectionSnapshot.set(ConnectionSnapshot.DISCONNECTED);
     }
 
     /**
@@ -249,6 +269,33 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
         }
 
         this.connectionHandle = connectionHandle;
+        this.connectionSnapshot.set(new ConnectionSnapshot(connectionHandle, connectionHandle.finishedActionConnect));
+    }
+
+    /**
+     * The server accepted our ConnectCommand on this connection. If it's still the current connection,
+     * the new snapshot shows it as authenticated.
+     *
+     * @param connectionHandle The connection that the ConnectCommand was sent on.
+     */
+    protected void markConnectionAuthenticated(SignalProviderConnectionHandle connectionHandle) {
+        connectionHandle.finishedActionConnect = true;
+
+        ConnectionSnapshot snapshot;
+        do {
+            snapshot = connectionSnapshot.get();
+
+            if (snapshot.connectionHandle != connectionHandle || snapshot.authenticated) {
+                return;
+            }
+        } while (!connectionSnapshot.compareAndSet(snapshot, new ConnectionSnapshot(connectionHandle, true)));
+    }
+
+    /**
+     * @return The last published snapshot, this never blocks.
+     */
+    protected ConnectionSnapshot getConnectionSnapshot() {
+        return connectionSnapshot.get();
     }
 
     protected SignalProviderConnectionHandle newConnectionHandle() {
@@ -272,6 +319,16 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
         return signalCommandReceivedEvent;
     }
 
+    @Override
+    public void addSignalObserver(SignalFilter filter, Observer<List<Signal>> observer) {
+        signalRouter.addObserver(filter, observer);
+    }
+
+    @Override
+    public void removeSignalObserver(Observer<List<Signal>> observer) {
+        signalRouter.removeObserver(observer);
+    }
+
     @Override
     public Observable<Boolean> getConnectionChangedEvent() {
         return connectionChangedEvent;
@@ -372,4 +429,29 @@ public abstract class SignalProviderBase extends CascadingDestroyableBase implem
     protected SignalProviderConnectionHandle getCurrentConnectionHandle() {
         return connectionHandle;
     }
+
+    /**
+     * The part of the connection state that the provider owns. Immutable so that readers
+     * can never see half of a transition.
+     */
+    protected static final class ConnectionSnapshot {
+
+        static final ConnectionSnapshot DISCONNECTED = new ConnectionSnapshot(null, false);
+
+        // null if there is no current connection.
+        final SignalProviderConnectionHandle connectionHandle;
+
+        // the server accepted our ConnectCommand on this connection.
+        final boolean authenticated;
+
+        ConnectionSnapshot(SignalProviderConnectionHandle connectionHandle, boolean authenticated) {
+            this.connectionHandle = connectionHandle;
+            this.authenticated = authenticated;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[ConnectionSnapshot: %s, authenticated: %b]", connectionHandle, authenticated);
+        }
+    }
 }
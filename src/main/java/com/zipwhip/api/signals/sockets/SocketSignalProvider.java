@@ -1,6 +1,7 @@
 package com.zipwhip.api.signals.sockets;
 
 import com.zipwhip.api.signals.PingEvent;
+import com.zipwhip.api.signals.Signal;
 import com.zipwhip.api.signals.SignalConnection;
 import com.zipwhip.api.signals.SignalProvider;
 import com.zipwhip.api.signals.VersionMapEntry;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
@@ -44,7 +46,10 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketSignalProvider.class);
 
-    private final Map<String, SlidingWindow<Command>> slidingWindows = new HashMap<String, SlidingWindow<Command>>();
+    public static final int DEFAULT_MAX_SIGNAL_BATCH_SIZE = 500;
+
+    // Each window is only touched by its own lane (and its own timer).
+    private final Map<String, SlidingWindow<Command>> slidingWindows = new ConcurrentHashMap<String, SlidingWindow<Command>>();
 
     protected final ImportantTaskExecutor importantTaskExecutor;
     protected final Scheduler scheduler;
@@ -53,6 +58,15 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
     // this is how we interact with the underlying signal server.
     protected final SignalConnection signalConnection;
 
+    // the commands that came in from the signalConnection and are waiting for our executor.
+    private InboundCommandQueue inboundCommandQueue;
+
+    // versioned commands are windowed and handled on a serial lane per version key.
+    protected final VersionKeyLanes versionKeyLanes;
+
+    // the most signals that go to the signal observers in 1 list.
+    private volatile int maxSignalBatchSize = DEFAULT_MAX_SIGNAL_BATCH_SIZE;
+
     public SocketSignalProvider() {
         this(new NettySignalConnection());
     }
@@ -66,8 +80,31 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
     }
 
     public SocketSignalProvider(SignalConnection connection, Executor executor, Timer timer) {
+        this(connection, executor, timer, null);
+    }
+
+    /**
+     * With a {@code laneExecutor}, commands with a version run on the serial lane for their version key, and
+     * everything else (connect, disconnect, presence and the like) runs on {@code executor}. Commands keep their
+     * order within a version key, and the unversioned ones keep theirs, but there is no order between the two:
+     * a signal can be observed before a command that arrived ahead of it.
+     * <p/>
+     * Without one, every command goes through 1 lane on {@code executor} and is observed in the order it came in.
+     *
+     * @param laneExecutor The threads that the version key lanes share. Signals for different version keys are
+     *                     handled (and their observers notified) in parallel on these threads. Null to keep every
+     *                     command in order on {@code executor}.
+     */
+    public SocketSignalProvider(SignalConnection connection, Executor executor, Timer timer, Executor laneExecutor) {
         super(executor);
 
+        if (laneExecutor == null) {
+            // the lanes couldn't run in parallel on our executor, so keep everything in order instead.
+            this.versionKeyLanes = VersionKeyLanes.singleLane(this.executor);
+        } else {
+            this.versionKeyLanes = new VersionKeyLanes(laneExecutor);
+        }
+
         if (timer == null) {
             this.timer = new HashedWheelTimer(new NamedThreadFactory("SocketSignalProvider-"), 1, TimeUnit.SECONDS);
             this.link(new DestroyableBase() {
@@ -120,10 +157,29 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
                         new ThreadSafeObserverAdapter<ConnectionHandle>(
                                 executeDisconnectStateObserver)));
 
-        this.signalConnection.getCommandReceivedEvent().addObserver(
-                new DifferentExecutorObserverAdapter<Command>(executor,
-                        new ThreadSafeObserverAdapter<Command>(
-                                new ActiveConnectionObserverAdapter<Command>(onMessageReceived))));
+        // bounded, so a slow observer suspends reads on the connection instead of growing the heap.
+        // versioned commands go to their own lane, everything else is serialized on the executor with the locks.
+        // (or all of them go through the same lane, if the lanes share the executor.)
+        final Observer<Command> threadSafeMessageReceived = new ThreadSafeObserverAdapter<Command>(
+                new ActiveConnectionObserverAdapter<Command>(onMessageReceived));
+
+        inboundCommandQueue = new InboundCommandQueue(executor, versionKeyLanes, new Observer<Command>() {
+            @Override
+            public void notify(Object sender, Command command) {
+                if (isVersioned(command)) {
+                    onVersionedMessageReceived.notify(sender, command);
+                } else {
+                    threadSafeMessageReceived.notify(sender, command);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "onMessageReceived/onVersionedMessageReceived";
+            }
+        });
+
+        this.signalConnection.getCommandReceivedEvent().addObserver(inboundCommandQueue);
 
         this.signalConnection.getPingEventReceivedEvent().addObserver(
                 new DifferentExecutorObserverAdapter<PingEvent>(executor,
@@ -284,7 +340,8 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
         /**
          * The NettySignalConnection will call this method when there's an
-         * event from the remote SignalServer.
+         * event from the remote SignalServer. Versioned commands don't come through here, they
+         * go to onVersionedMessageReceived on their own lane.
          *
          * @param sender The sender might not be the same object every time.
          * @param command Rich object representing the command received from the SignalServer.
@@ -295,70 +352,197 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
             Asserts.assertTrue(!connection.isDestroyed(), "The connection wasn't active?!?");
 
-            // Check if this command has a valid version number associated with it...
-            if (command.getVersion() != null && command.getVersion().getValue() > 0) {
+            // Non versioned command, not windowed
+            handleCommand(connection, command);
+        }
 
-                String versionKey = command.getVersion().getKey();
+        @Override
+        public String toString() {
+            return "onMessageReceived";
+        }
+    };
 
-                synchronized (slidingWindows) {
-                    if (!slidingWindows.containsKey(versionKey)) {
+    private final Observer<Command> onVersionedMessageReceived = new Observer<Command>() {
 
-                        LOGGER.warn("Creating sliding window for key " + versionKey);
+        /**
+         * We are on the lane for this command's version key. Nothing else touches this key's window
+         * right now, so we don't take the provider locks for the window or for the signal observers.
+         *
+         * @param sender The raw connection that the command came in on.
+         * @param command A command with a version.
+         */
+        @Override
+        public void notify(Object sender, Command command) {
+            SignalProviderConnectionHandle connection = getActiveConnectionHandle((ConnectionHandle) sender);
+            if (connection == null) {
+                LOGGER.error(String.format("%s: The connection is not active. Quitting.", this));
+                return;
+            }
 
-                        SlidingWindow<Command> newWindow = new SlidingWindow<Command>(timer, versionKey);
-                        newWindow.onHoleTimeout(signalHoleObserver);
-                        newWindow.onPacketsReleased(packetReleasedObserver);
+            String versionKey = command.getVersion().getKey();
 
-                        if (versions != null && versions.get(versionKey) != null) {
-                            LOGGER.debug("Initializing sliding window index sequence to " + versions.get(versionKey));
-                            newWindow.setIndexSequence(versions.get(versionKey));
-                        }
+            SlidingWindow<Command> window = slidingWindows.get(versionKey);
+            if (window == null) {
 
-                        slidingWindows.put(versionKey, newWindow);
-                    }
+                LOGGER.warn("Creating sliding window for key " + versionKey);
+
+                window = new SlidingWindow<Command>(timer, versionKey);
+                window.onHoleTimeout(signalHoleObserver);
+                window.onPacketsReleased(packetReleasedObserver);
+                // the timer releases on this lane, so the window moves and the packets go out before the next receive.
+                window.setReleaseExecutor(versionKeyLanes.executorFor(versionKey));
+
+                Long version = getVersion(versionKey);
+                if (version != null) {
+                    LOGGER.debug("Initializing sliding window index sequence to " + version);
+                    window.setIndexSequence(version);
                 }
 
-                // This list will be populated with the sequential packets that should be released
-                List<Command> commandResults = new ArrayList<Command>();
+                slidingWindows.put(versionKey, window);
+            }
 
+            // This list will be populated with the sequential packets that should be released
+            List<Command> commandResults = new ArrayList<Command>();
+
+            if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Signal version " + command.getVersion().getValue());
+            }
 
-                SlidingWindow.ReceiveResult result = slidingWindows.get(versionKey).receive(command.getVersion().getValue(), command, commandResults);
+            SlidingWindow.ReceiveResult result;
+            synchronized (window) {
+                // the window's hole timer also locks it.
+                result = window.receive(command.getVersion().getValue(), command, commandResults);
+            }
 
-                switch (result) {
-                    case EXPECTED_SEQUENCE:
-                        LOGGER.debug("EXPECTED_SEQUENCE: " + commandResults);
-                        handleCommands(connection, commandResults);
-                        break;
-                    case HOLE_FILLED:
-                        LOGGER.debug("HOLE_FILLED: " + commandResults);
-                        handleCommands(connection, commandResults);
-                        break;
-                    case DUPLICATE_SEQUENCE:
-                        LOGGER.warn("DUPLICATE_SEQUENCE: " + commandResults);
-                        break;
-                    case POSITIVE_HOLE:
-                        LOGGER.warn("POSITIVE_HOLE: " + commandResults);
-                        break;
-                    case NEGATIVE_HOLE:
-                        LOGGER.debug("NEGATIVE_HOLE: " + commandResults);
-                        handleCommands(connection, commandResults);
-                        break;
-                    default:
-                        LOGGER.warn("UNKNOWN_RESULT: " + commandResults);
-                }
-            } else {
-                // Non versioned command, not windowed
-                handleCommand(connection, command);
+            switch (result) {
+                case EXPECTED_SEQUENCE:
+                    LOGGER.debug("EXPECTED_SEQUENCE: " + commandResults);
+                    handleCommandsOnLane(connection, commandResults);
+                    break;
+                case HOLE_FILLED:
+                    LOGGER.debug("HOLE_FILLED: " + commandResults);
+                    handleCommandsOnLane(connection, commandResults);
+                    break;
+                case DUPLICATE_SEQUENCE:
+                    LOGGER.warn("DUPLICATE_SEQUENCE: " + commandResults);
+                    break;
+                case POSITIVE_HOLE:
+                    LOGGER.warn("POSITIVE_HOLE: " + commandResults);
+                    break;
+                case NEGATIVE_HOLE:
+                    LOGGER.debug("NEGATIVE_HOLE: " + commandResults);
+                    handleCommandsOnLane(connection, commandResults);
+                    break;
+                default:
+                    LOGGER.warn("UNKNOWN_RESULT: " + commandResults);
             }
         }
 
         @Override
         public String toString() {
-            return "onMessageReceived";
+            return "onVersionedMessageReceived";
         }
     };
 
+    private static boolean isVersioned(Command command) {
+        return command.getVersion() != null && command.getVersion().getValue() > 0;
+    }
+
+    /**
+     * Take the locks just long enough to find out if this raw connection is still the active one.
+     *
+     * @return The active SignalProviderConnectionHandle for this connection, or null if it's not active.
+     */
+    private SignalProviderConnectionHandle getActiveConnectionHandle(ConnectionHandle connectionHandle) {
+        synchronized (SocketSignalProvider.this) {
+            synchronized (signalConnection) {
+                synchronized (PROVIDER_CONNECTION_HANDLE_LOCK) {
+                    final SignalProviderConnectionHandle signalProviderConnectionHandle = getUnchangingConnectionHandle();
+
+                    if (signalProviderConnectionHandle == null || signalProviderConnectionHandle.isDestroyed()) {
+                        return null;
+                    } else if (connectionHandle != null && !signalProviderConnectionHandle.isFor(connectionHandle)) {
+                        return null;
+                    }
+
+                    return signalProviderConnectionHandle;
+                }
+            }
+        }
+    }
+
+    /**
+     * Signals only go out to the observers so they are handled right here on the lane. Anything else
+     * that happened to have a version gets the same locks as the commands on the executor.
+     * <p/>
+     * The signals that were released together go to the signal observers as 1 list (up to maxSignalBatchSize),
+     * so a backfill of hundreds of signals is hundreds of signals in 1 call instead of hundreds of calls.
+     */
+    private void handleCommandsOnLane(SignalProviderConnectionHandle connection, List<Command> commands) {
+        List<SignalCommand> signalCommands = null;
+
+        for (Command command : commands) {
+            if (command instanceof SignalCommand) {
+                if (signalCommands == null) {
+                    signalCommands = new ArrayList<SignalCommand>(Math.min(commands.size(), maxSignalBatchSize));
+                }
+
+                notifyCommandReceived(connection, command);
+                signalCommands.add((SignalCommand) command);
+
+                if (signalCommands.size() >= maxSignalBatchSize) {
+                    handleSignalCommands(connection, signalCommands);
+                    signalCommands = null;
+                }
+            } else {
+                // keep the signals in order with whatever is between them.
+                if (signalCommands != null) {
+                    handleSignalCommands(connection, signalCommands);
+                    signalCommands = null;
+                }
+
+                handleCommandWithLocks(connection, command);
+            }
+        }
+
+        if (signalCommands != null) {
+            handleSignalCommands(connection, signalCommands);
+        }
+    }
+
+    private void handleCommandWithLocks(SignalProviderConnectionHandle connection, Command command) {
+        synchronized (SocketSignalProvider.this) {
+            synchronized (signalConnection) {
+                synchronized (PROVIDER_CONNECTION_HANDLE_LOCK) {
+                    if (getUnchangingConnectionHandle() != connection) {
+                        LOGGER.error(String.format("The connection %s is no longer active, dropping %s", connection, command));
+                        return;
+                    }
+
+                    synchronized (connection) {
+                        if (connection.isDestroyed()) {
+                            LOGGER.error(String.format("The connection %s was destroyed, dropping %s", connection, command));
+                            return;
+                        }
+
+                        handleCommand(connection, command);
+                    }
+                }
+            }
+        }
+    }
+
+    private Long getVersion(String versionKey) {
+        Map<String, Long> versions = this.versions;
+        if (versions == null) {
+            return null;
+        }
+
+        synchronized (versions) {
+            return versions.get(versionKey);
+        }
+    }
+
     private final Observer<ConnectionHandle> sendConnectCommandIfConnectedObserver = new Observer<ConnectionHandle>() {
 
         /**
@@ -431,7 +615,7 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
                                                 public void notify(Object sender, final ObservableFuture<ConnectCommand> future) {
 
                                                     if (future.isSuccess()) {
-                                                        finalSignalProviderConnectionHandle.finishedActionConnect = true;
+                                                        markConnectionAuthenticated(finalSignalProviderConnectionHandle);
 
                                                         if (!socketConnectionHandle.isDestroyed()) {
                                                             // great, we're still active and we got a success from the future
@@ -541,20 +725,21 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         }
     };
 
-    private void handleCommands(SignalProviderConnectionHandle connection, List<Command> commands) {
-        for (Command command : commands) {
-            handleCommand(connection, command);
-        }
-    }
-
     private final Observer<VersionMapEntry> updateVersionsOnVersionChanged = new Observer<VersionMapEntry>() {
         @Override
         public void notify(Object sender, VersionMapEntry version) {
             SignalProviderConnectionHandle connection = (SignalProviderConnectionHandle) sender;
 
-            Asserts.assertTrue(!connection.isDestroyed(), "The connection is not active?!?");
+            // the lanes run without our locks, so the connection can be torn down underneath them.
+            if (connection.isDestroyed()) {
+                LOGGER.warn(String.format("Dropping version %s, the connection is not active", version));
+                return;
+            }
 
-            versions.put(version.getKey(), version.getValue());
+            // the lanes update this in parallel.
+            synchronized (versions) {
+                versions.put(version.getKey(), version.getValue());
+            }
         }
 
         @Override
@@ -565,11 +750,7 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
     private void handleCommand(SignalProviderConnectionHandle connection, Command command) {
 
-        commandReceivedEvent.notifyObservers(connection, command);
-
-        if (command.getVersion() != null && command.getVersion().getValue() > 0) {
-            newVersionEvent.notifyObservers(connection, command.getVersion());
-        }
+        notifyCommandReceived(connection, command);
 
         if (command instanceof ConnectCommand) {
 
@@ -585,7 +766,7 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
         } else if (command instanceof SignalCommand) {
 
-            handleSignalCommand(connection, (SignalCommand) command);
+            handleSignalCommands(connection, Collections.singletonList((SignalCommand) command));
 
         } else if (command instanceof PresenceCommand) {
 
@@ -605,6 +786,14 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         }
     }
 
+    private void notifyCommandReceived(SignalProviderConnectionHandle connection, Command command) {
+        commandReceivedEvent.notifyObservers(connection, command);
+
+        if (command.getVersion() != null && command.getVersion().getValue() > 0) {
+            newVersionEvent.notifyObservers(connection, command.getVersion());
+        }
+    }
+
     /*
 	 * This method allows us to decouple connection.connect() from provider.connect() for
 	 * cases when we have been notified by the connection that it has a successful connection.
@@ -632,33 +821,31 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         }
     }
 
-    public synchronized ConnectionState getConnectionState() {
-        synchronized (signalConnection) {
+    /**
+     * Never blocks. Reads the snapshot that the (still serialized) transitions publish, so health checks
+     * and the send path don't contend with connect/disconnect for the provider locks.
+     */
+    public ConnectionState getConnectionState() {
+        final ConnectionSnapshot snapshot = getConnectionSnapshot();
+        if (snapshot.connectionHandle == null) {
+            return ConnectionState.DISCONNECTED;
+        }
 
-            ConnectionState signalConnectionState = signalConnection.getConnectionState();
-            synchronized (PROVIDER_CONNECTION_HANDLE_LOCK) {
-                final SignalProviderConnectionHandle connectionHandle = getUnchangingConnectionHandle();
-                if (connectionHandle == null) {
-                    return ConnectionState.DISCONNECTED;
+        switch (signalConnection.getConnectionState()) {
+            case CONNECTING:
+                return ConnectionState.CONNECTING;
+            case CONNECTED:
+                if (snapshot.authenticated) {
+                    return ConnectionState.AUTHENTICATED;
                 }
 
-                switch (signalConnectionState) {
-                    case CONNECTING:
-                        return ConnectionState.CONNECTING;
-                    case CONNECTED:
-                        if (connectionHandle.finishedActionConnect) {
-                            return ConnectionState.AUTHENTICATED;
-                        }
-
-                        return ConnectionState.CONNECTED;
-                    case DISCONNECTING:
-                        return ConnectionState.DISCONNECTING;
-                    case DISCONNECTED:
-                        return ConnectionState.DISCONNECTED;
-                    default:
-                        throw new IllegalStateException("Odd unexpected state");
-                }
-            }
+                return ConnectionState.CONNECTED;
+            case DISCONNECTING:
+                return ConnectionState.DISCONNECTING;
+            case DISCONNECTED:
+                return ConnectionState.DISCONNECTED;
+            default:
+                throw new IllegalStateException("Odd unexpected state");
         }
     }
 
@@ -857,11 +1044,13 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
     private ObservableFuture<ConnectionHandle> executeResetDisconnectAndConnect() {
         final String c = clientId = originalClientId = StringUtil.EMPTY_STRING;
         // TODO: I think this is a bug. The local hashmap being cleared doesnt really do anything on disk.
-        versions.clear();
+        synchronized (versions) {
+            versions.clear();
+        }
 
-        synchronized (slidingWindows) {
-            for (String key : slidingWindows.keySet()) {
-                slidingWindows.get(key).reset();
+        for (SlidingWindow<Command> window : slidingWindows.values()) {
+            synchronized (window) {
+                window.reset();
             }
         }
 
@@ -885,6 +1074,14 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         return signalConnection;
     }
 
+    /**
+     * @return The number of received commands waiting to be processed. Reads are suspended while this is above
+     * the high watermark of the InboundCommandQueue.
+     */
+    public int getInboundQueueDepth() {
+        return inboundCommandQueue.getDepth();
+    }
+
     private void handleConnectCommand(SignalProviderConnectionHandle connectionHandle, ConnectCommand command) {
         // we are in the "Channel" thread.
         // We already have the SignalConnection and CONNECTION_BEING_CHANGED locks right now.
@@ -927,8 +1124,13 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         // our "executor." We can't trust that the connection is still connected.
         if (versions != null) {
             // kind of cheating i guess.
-            for (String key : versions.keySet()) {
-                connectionHandle.write(new BackfillCommand(Collections.singletonList(versions.get(key)), key))
+            Map<String, Long> copy;
+            synchronized (versions) {
+                copy = new HashMap<String, Long>(versions);
+            }
+
+            for (String key : copy.keySet()) {
+                connectionHandle.write(new BackfillCommand(Collections.singletonList(copy.get(key)), key))
                         .addObserver((Observer) logIfWriteFailedObserver);
             }
         }
@@ -1067,12 +1269,24 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
         }
     }
 
-    private void handleSignalCommand(SignalProviderConnectionHandle connection, SignalCommand command) {
-        LOGGER.debug("Handling SignalCommand");
+    private void handleSignalCommands(SignalProviderConnectionHandle connection, List<SignalCommand> commands) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Handling %d SignalCommands", commands.size()));
+        }
+
+        List<Signal> signals;
+        if (commands.size() == 1) {
+            signals = Collections.singletonList(commands.get(0).getSignal());
+        } else {
+            signals = new ArrayList<Signal>(commands.size());
+            for (SignalCommand command : commands) {
+                signals.add(command.getSignal());
+            }
+        }
 
         // Distribute the command and the raw signal to give client's flexibility regarding what data they need
-        signalCommandReceivedEvent.notifyObservers(connection, Collections.singletonList(command));
-        signalReceivedEvent.notifyObservers(connection, Collections.singletonList(command.getSignal()));
+        signalCommandReceivedEvent.notifyObservers(connection, Collections.unmodifiableList(commands));
+        signalReceivedEvent.notifyObservers(connection, Collections.unmodifiableList(signals));
     }
 
     private void handleSubscriptionCompleteCommand(SignalProviderConnectionHandle connection, SubscriptionCompleteCommand command) {
@@ -1119,21 +1333,47 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
     };
 
     private final Observer<List<Command>> packetReleasedObserver = new Observer<List<Command>>() {
+
+        /**
+         * The window releases them on the lane for its key, in the same step that it moves past the hole,
+         * so they stay in order with the rest of this key.
+         */
         @Override
         public void notify(Object sender, List<Command> commands) {
             LOGGER.warn(commands.size() + " packets released due to timeout, leaving a hole.");
+
             // TODO: how do we know this is the right connection???
-            synchronized (SocketSignalProvider.this) {
-                synchronized (signalConnection) {
-                    synchronized (PROVIDER_CONNECTION_HANDLE_LOCK) {
-                        final SignalProviderConnectionHandle finalConnectionHandle = getUnchangingConnectionHandle();
-                        handleCommands(finalConnectionHandle, commands);
-                    }
-                }
+            SignalProviderConnectionHandle connection = getActiveConnectionHandle(null);
+            if (connection == null) {
+                LOGGER.error(String.format("No active connection, dropping %d released packets for %s", commands.size(), ((SlidingWindow<?>) sender).getKey()));
+                return;
             }
+
+            handleCommandsOnLane(connection, commands);
+        }
+
+        @Override
+        public String toString() {
+            return "packetReleasedObserver";
         }
     };
 
+    public int getMaxSignalBatchSize() {
+        return maxSignalBatchSize;
+    }
+
+    /**
+     * @param maxSignalBatchSize The most signals that the signal observers get in 1 list. Signals that are released
+     *                           together (a backfill, or a filled hole) are split into lists of this size.
+     */
+    public void setMaxSignalBatchSize(int maxSignalBatchSize) {
+        if (maxSignalBatchSize <= 0) {
+            throw new IllegalArgumentException("The maxSignalBatchSize must be positive: " + maxSignalBatchSize);
+        }
+
+        this.maxSignalBatchSize = maxSignalBatchSize;
+    }
+
     public ImportantTaskExecutor getImportantTaskExecutor() {
         return importantTaskExecutor;
     }
@@ -1297,7 +1537,7 @@ public class SocketSignalProvider extends SignalProviderBase implements SignalPr
 
             ConnectCommand connectCommand = future.getResult();
 
-            finalConnectionHandle.finishedActionConnect = true;
+            markConnectionAuthenticated(finalConnectionHandle);
 
             handleConnectCommand(finalConnectionHandle, connectCommand);
         }
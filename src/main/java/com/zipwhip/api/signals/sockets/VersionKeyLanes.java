@@ -0,0 +1,200 @@
+package com.zipwhip.api.signals.sockets;
+
+import com.zipwhip.executors.SerialExecutor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a serial "lane" per version key, with all of the lanes sharing 1 executor.
+ * <p/>
+ * Tasks for the same key run one at a time, in the order they were submitted. Tasks for different keys
+ * (different channels or subscriptions) run in parallel on the executor's threads.
+ * <p/>
+ * A lane only occupies a thread while it has work, and hands the thread back after {@code maxBatchSize}
+ * tasks so that one busy key can't starve the others. Once it has no work at all it is dropped, so keys
+ * that come and go (subscriptions, channels) don't pile up.
+ * <p/>
+ * With {@link #singleLane(Executor)} every key shares 1 lane instead, for when the executor can't run them in
+ * parallel anyway.
+ */
+public class VersionKeyLanes {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = SerialExecutor.DEFAULT_MAX_BATCH_SIZE;
+
+    private final Executor executor;
+    private final int maxBatchSize;
+
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<String, Lane>();
+
+    // the lane that every key shares, or null for a lane per key.
+    private final SerialExecutor singleLane;
+
+    public VersionKeyLanes(Executor executor) {
+        this(executor, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public VersionKeyLanes(Executor executor, int maxBatchSize) {
+        this(executor, maxBatchSize, false);
+    }
+
+    private VersionKeyLanes(Executor executor, int maxBatchSize, boolean single) {
+        if (executor == null) {
+            throw new NullPointerException("The executor can't be null");
+        }
+
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.singleLane = single ? new SerialExecutor(executor, "single", maxBatchSize) : null;
+    }
+
+    /**
+     * Every key, and every task without a key, shares 1 lane, so the tasks run in the order they were submitted.
+     * <p/>
+     * The lane never hands the thread back while it has work. Nothing that was queued on the executor after a task
+     * can run ahead of it, just as if the task had been queued on the executor itself.
+     *
+     * @param executor The executor that the rest of the work runs on.
+     */
+    public static VersionKeyLanes singleLane(Executor executor) {
+        return new VersionKeyLanes(executor, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Run the task after every task that was already submitted for this key.
+     *
+     * @param key  The version key. Can only be null if this is a single lane.
+     * @param task The work to do.
+     * @throws RejectedExecutionException if the executor would not take the lane.
+     */
+    public void execute(String key, Runnable task) {
+        if (singleLane != null) {
+            singleLane.execute(task);
+            return;
+        }
+
+        while (true) {
+            Lane lane = lanes.get(key);
+
+            if (lane == null) {
+                lane = new Lane(key);
+
+                Lane existing = lanes.putIfAbsent(key, lane);
+                if (existing != null) {
+                    lane = existing;
+                }
+            }
+
+            if (lane.acquire()) {
+                lane.execute(task);
+                return;
+            }
+
+            // it went idle while we were looking. once it's out of the map the next one can't overlap with it.
+            lanes.remove(key, lane);
+        }
+    }
+
+    /**
+     * @param key The version key.
+     * @return An executor that runs its tasks on the lane for this key.
+     */
+    public Executor executorFor(final String key) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                VersionKeyLanes.this.execute(key, task);
+            }
+
+            @Override
+            public String toString() {
+                return String.format("[VersionKeyLanes: %s]", key);
+            }
+        };
+    }
+
+    /**
+     * @return The number of keys that have work queued or running.
+     */
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+    /**
+     * @return True if every key shares 1 lane.
+     */
+    public boolean isSingleLane() {
+        return singleLane != null;
+    }
+
+    @Override
+    public String toString() {
+        if (singleLane != null) {
+            return "[VersionKeyLanes: single lane]";
+        }
+
+        return String.format("[VersionKeyLanes: %d lanes]", lanes.size());
+    }
+
+    private class Lane {
+
+        private final String key;
+        private final SerialExecutor executor;
+
+        // the tasks that are queued or running, or -1 once it went idle and was dropped.
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Lane(String key) {
+            this.key = key;
+            this.executor = new SerialExecutor(VersionKeyLanes.this.executor, key, maxBatchSize);
+        }
+
+        /**
+         * @return False if it was dropped, and the task has to go to a new lane.
+         */
+        private boolean acquire() {
+            while (true) {
+                int count = pending.get();
+                if (count < 0) {
+                    return false;
+                } else if (pending.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void execute(final Runnable task) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            release();
+                        }
+                    }
+
+                    @Override
+                    public String toString() {
+                        return task.toString();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                release();
+
+                throw e;
+            }
+        }
+
+        private void release() {
+            // the last task is done running, so a new lane for this key can't overlap with this one.
+            if (pending.decrementAndGet() == 0 && pending.compareAndSet(0, -1)) {
+                lanes.remove(key, this);
+            }
+        }
+    }
+}
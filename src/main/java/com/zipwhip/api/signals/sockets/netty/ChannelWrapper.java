@@ -4,9 +4,9 @@ import com.zipwhip.api.signals.sockets.ConnectionHandle;
 import com.zipwhip.api.signals.sockets.ConnectionState;
 import com.zipwhip.api.signals.sockets.ConnectionStateManagerFactory;
 import com.zipwhip.api.signals.sockets.netty.pipeline.SignalsChannelHandler;
-import com.zipwhip.concurrent.FutureUtil;
+import com.zipwhip.concurrent.DefaultObservableFuture;
 import com.zipwhip.concurrent.ObservableFuture;
-import com.zipwhip.executors.NamedThreadFactory;
+import com.zipwhip.executors.SerialExecutor;
 import com.zipwhip.lifecycle.CascadingDestroyableBase;
 import com.zipwhip.lifecycle.DestroyableBase;
 import com.zipwhip.util.Asserts;
@@ -17,9 +17,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created with IntelliJ IDEA.
@@ -36,6 +39,8 @@ public class ChannelWrapper extends CascadingDestroyableBase {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChannelWrapper.class);
 
+    public static final int DEFAULT_MAX_WRITE_BATCH_SIZE = 64;
+
     /**
      * This delegate represents the channel's ensureAbleTo to our SignalConnectionBase class. The ChannelHandlers
      * need to be able to talk into the SignalProvider 'safely'. If their connection gets torn down we need to
@@ -63,6 +68,15 @@ public class ChannelWrapper extends CascadingDestroyableBase {
 
     protected final SignalConnectionBase signalConnectionBase;
 
+    /**
+     * Writes that have not been flushed to the channel yet. Everything that is queued by the time the flush runs
+     * on the executor goes out as 1 channel write (up to maxWriteBatchSize commands).
+     */
+    protected final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<PendingWrite>();
+    protected final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private volatile int maxWriteBatchSize = DEFAULT_MAX_WRITE_BATCH_SIZE;
+
     /**
      * For keeping absolute care over the thread safe state
      */
@@ -73,7 +87,7 @@ public class ChannelWrapper extends CascadingDestroyableBase {
         this.connection = new ChannelWrapperConnectionHandle(id, signalConnectionBase, this);
         this.connection.link(this);
         if (executor == null){
-            this.executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("ChannelWrapper(newSingleThreadExecutor)-"));
+            this.executor = new SerialExecutor("ChannelWrapper");
             this.link(new DestroyableBase() {
                 @Override
                 protected void onDestroy() {
@@ -215,8 +229,60 @@ public class ChannelWrapper extends CascadingDestroyableBase {
         // need to ensure that the CONNECTED state doesn't change.
         stateManager.ensure(ConnectionState.CONNECTED);
 
-        return FutureUtil.execute(executor, null,
-                new WriteOnChannelSafelyCallable(this, message));
+        ObservableFuture<Boolean> future = new DefaultObservableFuture<Boolean>(this);
+
+        pendingWrites.add(new PendingWrite(message, future));
+
+        // only 1 flush at a time. If one is already scheduled it will pick this write up.
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(new FlushPendingWritesRunnable(this));
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+
+                LOGGER.error("Could not schedule the flush, failing the pending writes", e);
+                failPendingWrites(e);
+            }
+        }
+
+        return future;
+    }
+
+    /**
+     * Suspend or resume reading from the channel, for when the inbound commands are piling up.
+     *
+     * @param readable False to stop reading, true to start again.
+     */
+    public void setReadable(boolean readable) {
+        // capture it, the channel is nulled out on disconnect.
+        final Channel channel = this.channel;
+
+        if (channel == null) {
+            LOGGER.debug("The channel is gone, ignoring setReadable " + readable);
+            return;
+        }
+
+        channel.setReadable(readable);
+    }
+
+    public int getMaxWriteBatchSize() {
+        return maxWriteBatchSize;
+    }
+
+    /**
+     * @param maxWriteBatchSize The most commands to coalesce into 1 channel write. Use 1 to turn off coalescing.
+     */
+    public void setMaxWriteBatchSize(int maxWriteBatchSize) {
+        Asserts.assertTrue(maxWriteBatchSize > 0, "The maxWriteBatchSize must be positive");
+
+        this.maxWriteBatchSize = maxWriteBatchSize;
+    }
+
+    private void failPendingWrites(Throwable cause) {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            pendingWrite.future.setFailure(cause);
+        }
     }
 
     private void assertClosed(Channel channel) {
@@ -242,6 +308,26 @@ public class ChannelWrapper extends CascadingDestroyableBase {
         // forcibly kill it.
         this.delegate = null;
 
+        // nobody is going to flush these now.
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            pendingWrite.future.setSuccess(Boolean.FALSE);
+        }
+
         // dont null out the "connection" object because it would cause null pointers. It's linked so it will auto destroy.
     }
+
+    /**
+     * A command waiting to be flushed and the future to complete when it is.
+     */
+    static class PendingWrite {
+
+        final Object message;
+        final ObservableFuture<Boolean> future;
+
+        PendingWrite(Object message, ObservableFuture<Boolean> future) {
+            this.message = message;
+            this.future = future;
+        }
+    }
 }
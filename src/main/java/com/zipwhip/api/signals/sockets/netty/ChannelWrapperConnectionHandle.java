@@ -1,5 +1,6 @@
 package com.zipwhip.api.signals.sockets.netty;
 
+import com.zipwhip.api.signals.ReadSuspendable;
 import com.zipwhip.api.signals.Writable;
 import com.zipwhip.api.signals.sockets.ConnectionHandle;
 import com.zipwhip.concurrent.ObservableFuture;
@@ -13,7 +14,7 @@ import com.zipwhip.concurrent.ObservableFuture;
  * This class allows callers to have "correct ensureAbleTo" to the underlying connection. They might need to disconnect
  * THE SPECIFIC connection that they created. If another connection has taken its place then they want to just noop.
  */
-public class ChannelWrapperConnectionHandle extends SignalConnectionBaseConnectionHandleBase implements ConnectionHandle, Writable {
+public class ChannelWrapperConnectionHandle extends SignalConnectionBaseConnectionHandleBase implements ConnectionHandle, Writable, ReadSuspendable {
 
     public ChannelWrapper channelWrapper;
     // we use pause to prevent any concurrent ensureAbleTo. Is this needed?
@@ -34,6 +35,18 @@ public class ChannelWrapperConnectionHandle extends SignalConnectionBaseConnecti
         return channelWrapper.write(object);
     }
 
+    @Override
+    public void setReadable(boolean readable) {
+        final ChannelWrapper channelWrapper = this.channelWrapper;
+
+        if (channelWrapper == null) {
+            // destroyed, nothing to read from anymore.
+            return;
+        }
+
+        channelWrapper.setReadable(readable);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
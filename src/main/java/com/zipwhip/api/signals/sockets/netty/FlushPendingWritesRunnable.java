@@ -0,0 +1,91 @@
+package com.zipwhip.api.signals.sockets.netty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flushes the writes that queued up on a {@code ChannelWrapper}.
+ * <p/>
+ * Everything that was queued by the time this runs is written to the channel as 1 batch (a {@code List} that the
+ * encoder turns into 1 buffer), so a burst of small commands (like the backfills after a reconnect) costs 1 write
+ * instead of 1 per command. Each command's own future is completed with the result of the batch.
+ * <p/>
+ * Only 1 runs at a time for a wrapper, so the writes go out in the order they were queued even if the wrapper was
+ * given a multi threaded executor.
+ */
+public class FlushPendingWritesRunnable implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlushPendingWritesRunnable.class);
+
+    final ChannelWrapper wrapper;
+
+    public FlushPendingWritesRunnable(ChannelWrapper wrapper) {
+        this.wrapper = wrapper;
+    }
+
+    @Override
+    public void run() {
+        List<ChannelWrapper.PendingWrite> batch = new ArrayList<ChannelWrapper.PendingWrite>();
+
+        do {
+            try {
+                while (drain(batch)) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } finally {
+                // only clear the flag once the queue is empty. While it's set no other flush is scheduled, so on a
+                // multi threaded executor there is never a second one draining the queue alongside this one.
+                wrapper.flushScheduled.set(false);
+            }
+
+            // a write that was queued after the last drain, but before the flag was cleared, saw the flag set and
+            // left it to us. Take it if nobody else has started a flush since.
+        } while (!wrapper.pendingWrites.isEmpty() && wrapper.flushScheduled.compareAndSet(false, true));
+    }
+
+    private boolean drain(List<ChannelWrapper.PendingWrite> batch) {
+        int maxWriteBatchSize = wrapper.getMaxWriteBatchSize();
+
+        ChannelWrapper.PendingWrite pendingWrite;
+        while (batch.size() < maxWriteBatchSize && (pendingWrite = wrapper.pendingWrites.poll()) != null) {
+            batch.add(pendingWrite);
+        }
+
+        return !batch.isEmpty();
+    }
+
+    private void flush(List<ChannelWrapper.PendingWrite> batch) {
+        Object message;
+        if (batch.size() == 1) {
+            message = batch.get(0).message;
+        } else {
+            List<Object> messages = new ArrayList<Object>(batch.size());
+            for (ChannelWrapper.PendingWrite pendingWrite : batch) {
+                messages.add(pendingWrite.message);
+            }
+            message = messages;
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Coalesced %d writes into 1", batch.size()));
+            }
+        }
+
+        Boolean result;
+        try {
+            result = new WriteOnChannelSafelyCallable(wrapper, message).call();
+        } catch (Exception e) {
+            for (ChannelWrapper.PendingWrite pendingWrite : batch) {
+                pendingWrite.future.setFailure(e);
+            }
+            return;
+        }
+
+        for (ChannelWrapper.PendingWrite pendingWrite : batch) {
+            pendingWrite.future.setSuccess(result);
+        }
+    }
+}
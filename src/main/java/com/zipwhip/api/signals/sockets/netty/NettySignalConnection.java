@@ -34,6 +34,11 @@ public class NettySignalConnection extends SignalConnectionBase {
     private final ChannelWrapperFactory channelWrapperFactory;
     private final ChannelFactory channelFactory;
 
+    /**
+     * A shared (NIO) channelFactory is owned by the caller, so we must not release it when we are destroyed.
+     */
+    private final boolean ownsChannelFactory;
+
     /**
      * Create a new {@code NettySignalConnection} with a default {@code ReconnectStrategy} and {@code ChannelPipelineFactory}.
      */
@@ -78,6 +83,22 @@ public class NettySignalConnection extends SignalConnectionBase {
     public NettySignalConnection(CommonExecutorFactory executorFactory,
                                  ReconnectStrategy reconnectStrategy,
                                  ChannelPipelineFactory channelPipelineFactory) {
+        this(executorFactory, reconnectStrategy, channelPipelineFactory, null);
+    }
+
+    /**
+     * Create a new {@code NettySignalConnection}
+     *
+     * @param reconnectStrategy      The reconnect strategy to use in the case of socket disconnects.
+     * @param channelPipelineFactory The Factory to create a Netty pipeline.
+     * @param channelFactory         The transport to create channels with, such as a {@code SharedNioClientSocketChannelFactory}
+     *                               that is shared across many connections. If null, a private OIO transport is created.
+     *                               A channelFactory that is passed in is not released when this connection is destroyed.
+     */
+    public NettySignalConnection(CommonExecutorFactory executorFactory,
+                                 ReconnectStrategy reconnectStrategy,
+                                 ChannelPipelineFactory channelPipelineFactory,
+                                 ChannelFactory channelFactory) {
 
         super(executorFactory != null ? executorFactory.create(CommonExecutorTypes.EVENTS, "NettySignalConnection") : null);
 
@@ -138,12 +159,16 @@ public class NettySignalConnection extends SignalConnectionBase {
             };
         }
 
-//        channelFactory = new NioClientSocketChannelFactory(
-//                executorFactory.create(CommonExecutorTypes.BOSS, "nio"),
-//                executorFactory.create(CommonExecutorTypes.WORKER, "nio"), 1, 1);
-        channelFactory = new OioClientSocketChannelFactory(executorFactory.create(CommonExecutorTypes.BOSS, "Netty OIO"));
+        if (channelFactory == null) {
+            // For the NIO transport pass in a (shared) SharedNioClientSocketChannelFactory instead.
+            this.channelFactory = new OioClientSocketChannelFactory(executorFactory.create(CommonExecutorTypes.BOSS, "Netty OIO"));
+            this.ownsChannelFactory = true;
+        } else {
+            this.channelFactory = channelFactory;
+            this.ownsChannelFactory = false;
+        }
 
-        this.channelWrapperFactory = new ChannelWrapperFactory(channelPipelineFactory, channelFactory, this, executorFactory);
+        this.channelWrapperFactory = new ChannelWrapperFactory(channelPipelineFactory, this.channelFactory, this, executorFactory);
         this.link(channelWrapperFactory);
     }
 
@@ -214,6 +239,11 @@ public class NettySignalConnection extends SignalConnectionBase {
             }
         }
 
+        if (!ownsChannelFactory) {
+            // the channelFactory is shared with other connections. The owner will release it.
+            return;
+        }
+
         if (channelFactory instanceof Destroyable) {
             ((Destroyable) channelFactory).destroy();
         } else {
@@ -1,16 +1,16 @@
 package com.zipwhip.api.signals.sockets.netty;
 
+import com.zipwhip.api.signals.commands.Command;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParser;
 import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIdleStateHandler;
-import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoCommandDecoder;
 import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoCommandEncoder;
+import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoFrameDecoder;
 import com.zipwhip.executors.NamedThreadFactory;
 import com.zipwhip.lifecycle.DestroyableBase;
+import com.zipwhip.util.Parser;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.Channels;
-import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
-import org.jboss.netty.handler.codec.frame.Delimiters;
-import org.jboss.netty.handler.codec.string.StringDecoder;
 import org.jboss.netty.handler.codec.string.StringEncoder;
 import org.jboss.netty.handler.timeout.IdleStateHandler;
 import org.jboss.netty.util.CharsetUtil;
@@ -36,10 +36,10 @@ public class RawSocketIoChannelPipelineFactory extends DestroyableBase implement
     public static final int DEFAULT_PONG_TIMEOUT_SECONDS = 30; // when to disconnect if a ping was not ponged by this time
 
     private final IdleStateHandler idleStateHandler;
-    private final StringDecoder stringDecoder;
     private final StringEncoder stringEncoder;
-    private final SocketIoCommandDecoder socketIoCommandDecoder;
+    private final Parser<String, Command<?>> commandParser;
     private final Timer idleChannelTimer;
+    private final boolean ownsIdleChannelTimer;
 
     public RawSocketIoChannelPipelineFactory() {
         this(DEFAULT_PING_INTERVAL_SECONDS, DEFAULT_PONG_TIMEOUT_SECONDS);
@@ -58,15 +58,27 @@ public class RawSocketIoChannelPipelineFactory extends DestroyableBase implement
     }
 
     public RawSocketIoChannelPipelineFactory(Timer idleChannelTimer, int pingIntervalSeconds, int pongTimeoutSeconds) {
+        this(idleChannelTimer, pingIntervalSeconds, pongTimeoutSeconds, null);
+    }
+
+    /**
+     * @param commandParser Turns each frame into a command, for example a firehose {@link JsonSignalCommandParser}.
+     *                      Null for the default.
+     */
+    public RawSocketIoChannelPipelineFactory(Timer idleChannelTimer, int pingIntervalSeconds, int pongTimeoutSeconds, Parser<String, Command<?>> commandParser) {
+        // a timer that is passed in might be shared, so only stop the one we create.
+        this.ownsIdleChannelTimer = idleChannelTimer == null;
         if (idleChannelTimer == null) {
             idleChannelTimer = new HashedWheelTimer(new NamedThreadFactory("IdleStateHandler-"));
         }
         this.idleChannelTimer = idleChannelTimer;
         idleStateHandler = new SocketIdleStateHandler(idleChannelTimer, pingIntervalSeconds, pongTimeoutSeconds);
 
-        stringDecoder = new StringDecoder(CharsetUtil.UTF_8);
         stringEncoder = new StringEncoder(CharsetUtil.UTF_8);
-        socketIoCommandDecoder = new SocketIoCommandDecoder();
+        if (commandParser == null) {
+            commandParser = new JsonSignalCommandParser();
+        }
+        this.commandParser = commandParser;
     }
 
     /*
@@ -78,9 +90,7 @@ public class RawSocketIoChannelPipelineFactory extends DestroyableBase implement
     public ChannelPipeline getPipeline() {
         return Channels.pipeline(
                 idleStateHandler,
-                new DelimiterBasedFrameDecoder(DEFAULT_FRAME_SIZE, Delimiters.lineDelimiter()),
-                stringDecoder,
-                socketIoCommandDecoder,
+                new SocketIoFrameDecoder(commandParser, DEFAULT_FRAME_SIZE),
                 stringEncoder,
                 new SocketIoCommandEncoder()
         );
@@ -88,6 +98,8 @@ public class RawSocketIoChannelPipelineFactory extends DestroyableBase implement
 
     @Override
     protected void onDestroy() {
-        idleChannelTimer.stop();
+        if (ownsIdleChannelTimer) {
+            idleChannelTimer.stop();
+        }
     }
 }
@@ -0,0 +1,109 @@
+package com.zipwhip.api.signals.sockets.netty;
+
+import com.zipwhip.executors.CommonExecutorFactory;
+import com.zipwhip.executors.CommonExecutorTypes;
+import com.zipwhip.executors.NamedThreadFactory;
+import com.zipwhip.lifecycle.DestroyableBase;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The NIO transport for {@code NettySignalConnection}.
+ * <p/>
+ * The OIO transport pins a blocking thread to every socket. This factory multiplexes every channel it creates over
+ * 1 selector (boss) thread and a small fixed number of worker threads, so it is meant to be created once and handed
+ * to every {@code NettySignalConnection} in the JVM.
+ * <p/>
+ * Because it is shared, calls to {@code releaseExternalResources()} from the individual connections are ignored.
+ * The owner is responsible for calling {@code destroy()} once all of the connections are gone.
+ */
+public class SharedNioClientSocketChannelFactory extends DestroyableBase implements ChannelFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedNioClientSocketChannelFactory.class);
+
+    public static final int DEFAULT_WORKER_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final NioClientSocketChannelFactory channelFactory;
+    private final ExecutorService bossExecutor;
+    private final ExecutorService workerExecutor;
+
+    // the NIO workers won't exit while they still have channels, so destroy() closes the stragglers.
+    private final ChannelGroup channels = new DefaultChannelGroup("SharedNioClientSocketChannelFactory");
+
+    /**
+     * Create a new {@code SharedNioClientSocketChannelFactory} with its own boss and worker pools.
+     */
+    public SharedNioClientSocketChannelFactory() {
+        this(null, DEFAULT_WORKER_COUNT);
+    }
+
+    /**
+     * Create a new {@code SharedNioClientSocketChannelFactory}
+     *
+     * @param executorFactory The factory for the BOSS and WORKER pools. If null the pools will be created internally.
+     */
+    public SharedNioClientSocketChannelFactory(CommonExecutorFactory executorFactory) {
+        this(executorFactory, DEFAULT_WORKER_COUNT);
+    }
+
+    /**
+     * Create a new {@code SharedNioClientSocketChannelFactory}
+     *
+     * @param executorFactory The factory for the BOSS and WORKER pools. If null the pools will be created internally.
+     * @param workerCount     The number of selector worker threads shared by all channels.
+     */
+    public SharedNioClientSocketChannelFactory(CommonExecutorFactory executorFactory, int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("The workerCount must be positive: " + workerCount);
+        }
+
+        if (executorFactory == null) {
+            bossExecutor = Executors.newFixedThreadPool(1, new NamedThreadFactory("NettySignalConnection-nio-boss-"));
+            workerExecutor = Executors.newFixedThreadPool(workerCount, new NamedThreadFactory("NettySignalConnection-nio-worker-"));
+        } else {
+            bossExecutor = executorFactory.create(CommonExecutorTypes.BOSS, "NettySignalConnection-nio");
+            workerExecutor = executorFactory.create(CommonExecutorTypes.WORKER, "NettySignalConnection-nio");
+        }
+
+        channelFactory = new NioClientSocketChannelFactory(bossExecutor, workerExecutor, 1, workerCount);
+    }
+
+    @Override
+    public Channel newChannel(ChannelPipeline pipeline) {
+        if (isDestroyed()) {
+            throw new IllegalStateException("The shared channel factory is destroyed");
+        }
+
+        Channel channel = channelFactory.newChannel(pipeline);
+        channels.add(channel);
+
+        return channel;
+    }
+
+    /**
+     * This factory is shared by many connections, so a single connection is not allowed to release it.
+     * Call {@code destroy()} instead.
+     */
+    @Override
+    public void releaseExternalResources() {
+        LOGGER.debug("Ignoring releaseExternalResources() on a shared factory. Call destroy() to release it.");
+    }
+
+    @Override
+    protected void onDestroy() {
+        channels.close().awaitUninterruptibly();
+        channelFactory.releaseExternalResources();
+
+        bossExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+    }
+}
@@ -13,7 +13,7 @@ import com.zipwhip.concurrent.*;
 import com.zipwhip.events.Observable;
 import com.zipwhip.events.ObservableHelper;
 import com.zipwhip.events.Observer;
-import com.zipwhip.executors.NamedThreadFactory;
+import com.zipwhip.executors.SerialExecutor;
 import com.zipwhip.lifecycle.CascadingDestroyableBase;
 import com.zipwhip.lifecycle.DestroyableBase;
 import com.zipwhip.util.Asserts;
@@ -24,7 +24,6 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static com.zipwhip.concurrent.ThreadUtil.ensureLock;
 
@@ -94,7 +93,7 @@ public abstract class SignalConnectionBase extends CascadingDestroyableBase impl
         if (executor != null) {
             this.executor = executor;
         } else {
-            this.executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("SignalConnection(newSingleThreadExecutor)-"));
+            this.executor = new SerialExecutor("SignalConnection");
             this.link(new DestroyableBase() {
                 @Override
                 protected void onDestroy() {
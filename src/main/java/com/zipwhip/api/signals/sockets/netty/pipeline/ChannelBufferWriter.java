@@ -0,0 +1,110 @@
+package com.zipwhip.api.signals.sockets.netty.pipeline;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+
+import java.io.Writer;
+
+/**
+ * A {@code Writer} that encodes characters as UTF-8 straight into a {@code ChannelBuffer}.
+ * <p/>
+ * Unlike an OutputStreamWriter there is no char buffer or CharsetEncoder in between, so it is cheap enough
+ * to create one per outbound message. Use a dynamic buffer if the size of the output is not known up front.
+ */
+public class ChannelBufferWriter extends Writer {
+
+    private final ChannelBuffer buffer;
+
+    /**
+     * A high surrogate that is waiting for its low surrogate from the next write.
+     */
+    private char highSurrogate;
+
+    public ChannelBufferWriter(ChannelBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ChannelBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void write(int c) {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(string.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence sequence) {
+        if (sequence == null) {
+            sequence = "null";
+        }
+
+        for (int i = 0; i < sequence.length(); i++) {
+            writeChar(sequence.charAt(i));
+        }
+
+        return this;
+    }
+
+    @Override
+    public void flush() {
+
+    }
+
+    @Override
+    public void close() {
+        if (highSurrogate != 0) {
+            // a dangling high surrogate can't be encoded.
+            buffer.writeByte('?');
+            highSurrogate = 0;
+        }
+    }
+
+    private void writeChar(char c) {
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+
+                buffer.writeByte(0xF0 | (codePoint >> 18));
+                buffer.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                buffer.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                buffer.writeByte(0x80 | (codePoint & 0x3F));
+                return;
+            }
+
+            buffer.writeByte('?');
+        }
+
+        if (c < 0x80) {
+            buffer.writeByte(c);
+        } else if (c < 0x800) {
+            buffer.writeByte(0xC0 | (c >> 6));
+            buffer.writeByte(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.writeByte('?');
+        } else {
+            buffer.writeByte(0xE0 | (c >> 12));
+            buffer.writeByte(0x80 | ((c >> 6) & 0x3F));
+            buffer.writeByte(0x80 | (c & 0x3F));
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.jboss.netty.handler.timeout.IdleStateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Created with IntelliJ IDEA.
  * User: jed
@@ -42,6 +44,13 @@ public class SignalsChannelHandler extends IdleStateAwareChannelHandler {
 
         if (object instanceof PingPongCommand) {
             delegate.notifyPingEvent(PingEvent.PING_SENT);
+        } else if (object instanceof List) {
+            // the ChannelWrapper coalesced some writes, and a ping may be one of them.
+            for (Object command : (List<?>) object) {
+                if (command instanceof PingPongCommand) {
+                    delegate.notifyPingEvent(PingEvent.PING_SENT);
+                }
+            }
         }
 
         if (ctx == null) {
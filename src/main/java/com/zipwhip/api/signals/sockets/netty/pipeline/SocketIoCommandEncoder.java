@@ -3,48 +3,141 @@ package com.zipwhip.api.signals.sockets.netty.pipeline;
 import com.zipwhip.api.signals.commands.ConnectCommand;
 import com.zipwhip.api.signals.commands.SerializingCommand;
 import com.zipwhip.signals.server.protocol.SocketIoProtocol;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+import org.jboss.netty.util.CharsetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Created by IntelliJ IDEA.
  * User: jed
  * Date: 1/9/12
  * Time: 4:40 PM
+ * <p/>
+ * Writes the Socket.IO framing and the JSON body of a command straight into a ChannelBuffer from the channel's
+ * buffer factory. The buffer is sized from the previous message so that it rarely has to grow.
+ * <p/>
+ * A {@code List} of commands (a batch from the ChannelWrapper) is encoded into a single buffer.
  */
 public class SocketIoCommandEncoder extends OneToOneEncoder implements ChannelHandler {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(SocketIoCommandEncoder.class);
 
+    private static final int MIN_ESTIMATED_LENGTH = 256;
+
     private long messageId = 0l;
 
+    private int estimatedLength = MIN_ESTIMATED_LENGTH;
+
     @Override
     protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
 
-        String message = null;
+        ChannelBuffer message = null;
+
+        if (msg instanceof List) {
+
+            // A batch of commands that the ChannelWrapper coalesced, they go out as 1 buffer.
+            List<?> commands = (List<?>) msg;
+
+            message = ChannelBuffers.dynamicBuffer(estimatedLength * commands.size(), getBufferFactory(channel));
+
+            for (Object command : commands) {
+                encode(message, command);
+            }
+
+            if (!message.readable()) {
+                message = null;
+            }
+
+        } else if (msg instanceof SerializingCommand) {
+
+            message = ChannelBuffers.dynamicBuffer(estimatedLength, getBufferFactory(channel));
+
+            encode(message, msg);
+        }
+
+        if (LOGGER.isDebugEnabled() && message != null) {
+            LOGGER.debug("Encoded message:  " + message.toString(CharsetUtil.UTF_8));
+        }
+
+        return message;
+    }
+
+    private void encode(ChannelBuffer buffer, Object msg) throws Exception {
 
         if (msg instanceof ConnectCommand) {
 
             ConnectCommand command = (ConnectCommand) msg;
 
-            message = SocketIoProtocol.connectMessageResponse(command.serialize(), command.getClientId());
+            encode(buffer, SocketIoProtocol.CONNECT, 0l, command.getClientId(), command);
 
         } else if (msg instanceof SerializingCommand) {
 
             SerializingCommand command = (SerializingCommand) msg;
 
-            message = SocketIoProtocol.jsonMessageResponse(messageId++, command.serialize());
+            encode(buffer, SocketIoProtocol.JSON_MESSAGE, messageId++, null, command);
         }
+    }
+
+    /**
+     * The same framing as {@code SocketIoProtocol.baseMessageResponse}: "type:id:clientId:message\n"
+     */
+    private void encode(ChannelBuffer buffer, char messageType, long messageId, String clientId, SerializingCommand command) throws Exception {
+
+        int start = buffer.writerIndex();
+        ChannelBufferWriter writer = new ChannelBufferWriter(buffer);
 
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Encoded message:  " + message);
+        buffer.writeByte(messageType);
+        buffer.writeByte(':');
+        writeLong(buffer, messageId);
+        buffer.writeByte(':');
+        if (clientId != null) {
+            writer.write(clientId);
         }
+        buffer.writeByte(':');
 
-        return message;
+        command.serialize(writer);
+        writer.close();
+
+        buffer.writeByte('\n');
+
+        estimatedLength = Math.max(MIN_ESTIMATED_LENGTH, buffer.writerIndex() - start);
+    }
+
+    private static ChannelBufferFactory getBufferFactory(Channel channel) {
+        if (channel == null) {
+            return HeapChannelBufferFactory.getInstance();
+        }
+
+        return channel.getConfig().getBufferFactory();
+    }
+
+    static void writeLong(ChannelBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.writeByte('-');
+        } else {
+            // count down from 0 instead, because -Long.MIN_VALUE doesn't fit in a long.
+            value = -value;
+        }
+
+        writeNegativeLong(buffer, value);
+    }
+
+    private static void writeNegativeLong(ChannelBuffer buffer, long value) {
+        if (value <= -10) {
+            writeNegativeLong(buffer, value / 10);
+        }
+
+        buffer.writeByte((int) ('0' - value % 10));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package com.zipwhip.api.signals.sockets.netty.pipeline;
+
+import com.zipwhip.api.signals.JsonSignalParser;
+import com.zipwhip.api.signals.commands.Command;
+import com.zipwhip.api.signals.commands.ConnectCommand;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParser;
+import com.zipwhip.api.signals.commands.PingPongCommand;
+import com.zipwhip.signals.server.protocol.SocketIoProtocol;
+import com.zipwhip.util.Parser;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes newline delimited Socket.IO frames straight from the {@code ChannelBuffer} into a {@code Command}.
+ * <p/>
+ * This replaces the DelimiterBasedFrameDecoder -> StringDecoder -> SocketIoCommandDecoder chain. The newline and
+ * the Socket.IO "type:id:endpoint:" prefix are found in place in the buffer, so the only String that is created is
+ * the payload that is handed to the command parser.
+ * <p/>
+ * A FrameDecoder keeps state per channel, so create a new instance for every pipeline. The command parser can be shared.
+ */
+public class SocketIoFrameDecoder extends FrameDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketIoFrameDecoder.class);
+
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 8192;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte SEPARATOR = ':';
+
+    private final Parser<String, Command<?>> commandParser;
+    private final int maxFrameLength;
+
+    private boolean discardingTooLongFrame;
+    private long tooLongFrameLength;
+
+    public SocketIoFrameDecoder() {
+        this(new JsonSignalCommandParser());
+    }
+
+    public SocketIoFrameDecoder(Parser<String, Command<?>> commandParser) {
+        this(commandParser, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * Create a new {@code SocketIoFrameDecoder}
+     *
+     * @param commandParser  The parser for the JSON payload. If null the frames are passed up as Strings.
+     * @param maxFrameLength The longest frame (not counting the newline) that we will accept.
+     */
+    public SocketIoFrameDecoder(Parser<String, Command<?>> commandParser, int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("The maxFrameLength must be positive: " + maxFrameLength);
+        }
+
+        this.commandParser = commandParser;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+
+        int lineFeed = buffer.indexOf(buffer.readerIndex(), buffer.writerIndex(), LF);
+
+        if (discardingTooLongFrame) {
+            if (lineFeed < 0) {
+                tooLongFrameLength += buffer.readableBytes();
+                buffer.skipBytes(buffer.readableBytes());
+            } else {
+                // we found the end of the frame that was too long, start over after it.
+                tooLongFrameLength += lineFeed - buffer.readerIndex();
+                buffer.readerIndex(lineFeed + 1);
+                discardingTooLongFrame = false;
+
+                LOGGER.warn("Discarded a frame of " + tooLongFrameLength + " bytes");
+                tooLongFrameLength = 0;
+            }
+
+            return null;
+        }
+
+        if (lineFeed < 0) {
+            if (buffer.readableBytes() > maxFrameLength) {
+                discardingTooLongFrame = true;
+                tooLongFrameLength = buffer.readableBytes();
+                buffer.skipBytes(buffer.readableBytes());
+
+                throw new TooLongFrameException("The frame length exceeds " + maxFrameLength);
+            }
+
+            // wait for the rest of the frame
+            return null;
+        }
+
+        int start = buffer.readerIndex();
+        int end = lineFeed;
+
+        // consume the frame and the newline, whatever happens below.
+        buffer.readerIndex(lineFeed + 1);
+
+        if (end > start && buffer.getByte(end - 1) == CR) {
+            end--;
+        }
+
+        if (end - start > maxFrameLength) {
+            throw new TooLongFrameException("The frame length (" + (end - start) + ") exceeds " + maxFrameLength);
+        }
+
+        if (end == start) {
+            // an empty line, nothing to decode
+            return null;
+        }
+
+        if (commandParser == null) {
+            return buffer.toString(start, end - start, CharsetUtil.UTF_8);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("SocketIO message: " + JsonSignalParser.hashMessageBody(buffer.toString(start, end - start, CharsetUtil.UTF_8)));
+        }
+
+        if (isSocketIoPrefix(buffer, start, end)) {
+            return decodeSocketIoMessage(buffer, start, end);
+        }
+
+        // We are assuming that this is a Socket.IO connect command
+        return decodeConnectCommand(buffer, start, end);
+    }
+
+    /**
+     * Decode a "type:id:endpoint:payload" frame.
+     */
+    private Command<?> decodeSocketIoMessage(ChannelBuffer buffer, int start, int end) {
+
+        byte type = buffer.getByte(start);
+
+        // We have a Socket.IO HeartBeat message, convert it to a PingPongCommand
+        if (type == SocketIoProtocol.HEART_BEAT) {
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Received a HeartBeat");
+            }
+
+            // We received a PONG, cancel the PONG timeout.
+            return PingPongCommand.getShortformInstance();
+        }
+
+        if (type != SocketIoProtocol.JSON_MESSAGE && type != SocketIoProtocol.MESSAGE) {
+            return null;
+        }
+
+        // skip "type:" then the id and the endpoint.
+        int payloadStart = skipField(buffer, start + 2, end);
+        if (payloadStart < 0) {
+            return null;
+        }
+
+        payloadStart = skipField(buffer, payloadStart, end);
+        if (payloadStart < 0) {
+            return null;
+        }
+
+        // A non-JSON Socket.IO command, the only one we understand is the shortform PING/PONG (an empty string)
+        if (type == SocketIoProtocol.MESSAGE) {
+            if (payloadStart == end) {
+                return PingPongCommand.getShortformInstance();
+            }
+
+            return null;
+        }
+
+        // We have a Socket.IO JSON message, try to parse it to a command
+        String payload = buffer.toString(payloadStart, end - payloadStart, CharsetUtil.UTF_8);
+
+        try {
+            return commandParser.parse(payload);
+        } catch (Exception ex) {
+            LOGGER.error("Could not extract command from " + payload, ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Decode a "clientId:heartbeat:disconnect:transports" frame.
+     */
+    private Command<?> decodeConnectCommand(ChannelBuffer buffer, int start, int end) {
+
+        int clientIdEnd = buffer.indexOf(start, end, SEPARATOR);
+        if (clientIdEnd < 0) {
+            return null;
+        }
+
+        int heartbeatEnd = buffer.indexOf(clientIdEnd + 1, end, SEPARATOR);
+        if (heartbeatEnd < 0) {
+            return null;
+        }
+
+        int disconnectEnd = buffer.indexOf(heartbeatEnd + 1, end, SEPARATOR);
+        if (disconnectEnd < 0) {
+            disconnectEnd = end;
+        }
+
+        String clientId = buffer.toString(start, clientIdEnd - start, CharsetUtil.US_ASCII);
+
+        Map<String, Long> map = new HashMap<String, Long>();
+
+        map.put("heartbeat", parseLong(buffer, clientIdEnd + 1, heartbeatEnd));
+        map.put("disconnect", parseLong(buffer, heartbeatEnd + 1, disconnectEnd));
+
+        return new ConnectCommand(clientId, map);
+    }
+
+    private static boolean isSocketIoPrefix(ChannelBuffer buffer, int start, int end) {
+        return end - start >= 2 && buffer.getByte(start + 1) == SEPARATOR;
+    }
+
+    /**
+     * @return The index just after the next separator, or -1 if there is none.
+     */
+    private static int skipField(ChannelBuffer buffer, int index, int end) {
+        if (index > end) {
+            return -1;
+        }
+
+        int separator = buffer.indexOf(index, end, SEPARATOR);
+
+        return separator < 0 ? -1 : separator + 1;
+    }
+
+    private static long parseLong(ChannelBuffer buffer, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty number");
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.getByte(i) - '0';
+
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number: " + buffer.toString(start, end - start, CharsetUtil.US_ASCII));
+            }
+
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+}
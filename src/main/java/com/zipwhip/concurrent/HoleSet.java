@@ -0,0 +1,274 @@
+package com.zipwhip.concurrent;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The set of sequences that are holes in a {@code SlidingWindow}.
+ * <p/>
+ * Holes are kept as merged, inclusive [start, end] intervals keyed by start, so the cost of every operation
+ * depends on the number of gaps and not on how wide they are. A jump of a few million sequences is 1 interval.
+ * <p/>
+ * It is also a {@code Set<Long>}, iterating it boxes every single hole so prefer {@link #getRanges(String)}.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class HoleSet extends AbstractSet<Long> {
+
+    // start -> end (inclusive), never overlapping or touching
+    private final TreeMap<Long, Long> intervals = new TreeMap<Long, Long>();
+
+    private long size;
+
+    public boolean add(long sequence) {
+        if (contains(sequence)) {
+            return false;
+        }
+
+        addRange(sequence, sequence);
+
+        return true;
+    }
+
+    /**
+     * Add every sequence in [start, end] inclusive, merging with any interval that it overlaps or touches.
+     */
+    public void addRange(long start, long end) {
+        if (end < start) {
+            return;
+        }
+
+        Map.Entry<Long, Long> floor = intervals.floorEntry(start);
+        if (floor != null && floor.getValue() >= start - 1) {
+            if (floor.getValue() >= end) {
+                // already covered
+                return;
+            }
+
+            start = floor.getKey();
+            removeInterval(start, floor.getValue());
+        }
+
+        Map.Entry<Long, Long> next;
+        while ((next = intervals.ceilingEntry(start)) != null && next.getKey() <= end + 1) {
+            end = Math.max(end, next.getValue());
+            removeInterval(next.getKey(), next.getValue());
+        }
+
+        addInterval(start, end);
+    }
+
+    @Override
+    public boolean add(Long sequence) {
+        return add(sequence.longValue());
+    }
+
+    public void addRange(HoleRange range) {
+        addRange(range.start, range.end);
+    }
+
+    public boolean remove(long sequence) {
+        if (!contains(sequence)) {
+            return false;
+        }
+
+        removeRange(sequence, sequence);
+
+        return true;
+    }
+
+    /**
+     * Remove every sequence in [start, end] inclusive, splitting intervals that stick out on either side.
+     */
+    public void removeRange(long start, long end) {
+        if (end < start) {
+            return;
+        }
+
+        Map.Entry<Long, Long> floor = intervals.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            long intervalStart = floor.getKey();
+            long intervalEnd = floor.getValue();
+
+            removeInterval(intervalStart, intervalEnd);
+
+            if (intervalStart < start) {
+                addInterval(intervalStart, start - 1);
+            }
+            if (intervalEnd > end) {
+                addInterval(end + 1, intervalEnd);
+                return;
+            }
+        }
+
+        Map.Entry<Long, Long> next;
+        while ((next = intervals.ceilingEntry(start)) != null && next.getKey() <= end) {
+            long intervalEnd = next.getValue();
+
+            removeInterval(next.getKey(), intervalEnd);
+
+            if (intervalEnd > end) {
+                addInterval(end + 1, intervalEnd);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long && remove(((Long) o).longValue());
+    }
+
+    public void removeRange(HoleRange range) {
+        removeRange(range.start, range.end);
+    }
+
+    public boolean contains(long sequence) {
+        Map.Entry<Long, Long> floor = intervals.floorEntry(sequence);
+
+        return floor != null && floor.getValue() >= sequence;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && contains(((Long) o).longValue());
+    }
+
+    /**
+     * @return The lowest hole.
+     * @throws NoSuchElementException if there are no holes.
+     */
+    public long first() {
+        return intervals.firstKey();
+    }
+
+    /**
+     * @param sequence exclusive
+     * @return The lowest hole greater than {@code sequence} or null if there isn't one.
+     */
+    public Long nextAfter(long sequence) {
+        Map.Entry<Long, Long> floor = intervals.floorEntry(sequence);
+        if (floor != null && floor.getValue() > sequence) {
+            return sequence + 1;
+        }
+
+        return intervals.higherKey(sequence);
+    }
+
+    /**
+     * From these ranges, get the parts that are still holes.
+     *
+     * @param key    The key to put on the resulting ranges.
+     * @param ranges The ranges to check, in any order.
+     * @return The parts of {@code ranges} that are still holes.
+     */
+    public List<HoleRange> intersect(String key, Collection<HoleRange> ranges) {
+        List<HoleRange> result = new ArrayList<HoleRange>();
+
+        for (HoleRange range : ranges) {
+            Map.Entry<Long, Long> interval = intervals.floorEntry(range.start);
+            if (interval == null || interval.getValue() < range.start) {
+                interval = intervals.higherEntry(range.start);
+            }
+
+            while (interval != null && interval.getKey() <= range.end) {
+                result.add(new HoleRange(key, Math.max(range.start, interval.getKey()), Math.min(range.end, interval.getValue())));
+
+                interval = intervals.higherEntry(interval.getKey());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param key The key to put on the resulting ranges.
+     * @return All of the holes as ranges in ascending order.
+     */
+    public List<HoleRange> getRanges(String key) {
+        List<HoleRange> result = new ArrayList<HoleRange>(intervals.size());
+
+        for (Map.Entry<Long, Long> interval : intervals.entrySet()) {
+            result.add(new HoleRange(key, interval.getKey(), interval.getValue()));
+        }
+
+        return result;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+
+            Long next = isEmpty() ? null : first();
+            Long last;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Long next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                last = next;
+                next = nextAfter(next);
+
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+
+                HoleSet.this.remove(last.longValue());
+                last = null;
+            }
+        };
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+
+    /**
+     * @return The number of sequences that are holes (not the number of ranges), at most Integer.MAX_VALUE.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The number of separate ranges of holes.
+     */
+    public int getRangeCount() {
+        return intervals.size();
+    }
+
+    @Override
+    public void clear() {
+        intervals.clear();
+        size = 0;
+    }
+
+    private void addInterval(long start, long end) {
+        intervals.put(start, end);
+        size += end - start + 1;
+    }
+
+    private void removeInterval(long start, long end) {
+        intervals.remove(start);
+        size -= end - start + 1;
+    }
+}
@@ -9,11 +9,13 @@ import com.zipwhip.timers.Timeout;
 import com.zipwhip.timers.Timer;
 import com.zipwhip.timers.TimerTask;
 import com.zipwhip.util.CollectionUtil;
-import com.zipwhip.util.FlexibleTimedEvictionMap;
+import com.zipwhip.util.SequenceRingBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,9 +55,9 @@ public class SlidingWindow<P> extends DestroyableBase {
     protected static final int DEFAULT_WINDOW_SIZE = 100;
     protected static final long DEFAULT_MINIMUM_EVICTION_AGE = 5 * 60 * 1000;
 
-    // Backing data structure holding an ordered map
-    protected FlexibleTimedEvictionMap<Long, P> window;
-    protected Set<Long> holes;
+    // Backing data structure, a ring buffer indexed by sequence
+    protected SequenceRingBuffer<P> window;
+    protected HoleSet holes;
 
     // This is used to fire notifications if a hole was not filled inside the timeout window
     private final ObservableHelper<HoleRange> holeTimeoutEvent = new ObservableHelper<HoleRange>();
@@ -78,6 +80,9 @@ public class SlidingWindow<P> extends DestroyableBase {
     // How long to wait for holes to fill in
     private int holeTimeoutMillis = 5000;
 
+    // Where packets are released after a hole times out, null for the timer thread
+    private volatile Executor releaseExecutor;
+
     /**
      * Construct a SlidingWindow with a default window size and eviction time.
      */
@@ -97,8 +102,8 @@ public class SlidingWindow<P> extends DestroyableBase {
         }
         this.timer = timer;
         this.key = key;
-        this.window = new FlexibleTimedEvictionMap<Long, P>(idealSize, minimumEvictionTimeMillis);
-        this.holes = new TreeSet<Long>();
+        this.window = new SequenceRingBuffer<P>(idealSize, minimumEvictionTimeMillis);
+        this.holes = new HoleSet();
     }
 
     public long getIndexSequence() {
@@ -153,6 +158,21 @@ public class SlidingWindow<P> extends DestroyableBase {
         this.holeTimeoutMillis = holeTimeoutMillis;
     }
 
+    public Executor getReleaseExecutor() {
+        return releaseExecutor;
+    }
+
+    /**
+     * Release the packets that were waiting on a hole that timed out on this executor instead of the timer thread.
+     * If it is the only thread that calls {@code receive}, the window moves forward and the released packets go to
+     * the observers in 1 step, before anything else is received.
+     *
+     * @param releaseExecutor The thread that receives the packets, or null for the timer thread.
+     */
+    public void setReleaseExecutor(Executor releaseExecutor) {
+        this.releaseExecutor = releaseExecutor;
+    }
+
     public void onHoleTimeout(Observer<HoleRange> observable) {
         holeTimeoutEvent.addObserver(observable);
     }
@@ -197,7 +217,9 @@ public class SlidingWindow<P> extends DestroyableBase {
 
         // DUPLICATE_SEQUENCE
         if (window.containsKey(sequence)) {
-            LOGGER.debug(String.format("DUPLICATE_SEQUENCE (sequence: %d)", sequence));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("DUPLICATE_SEQUENCE (sequence: %d)", sequence));
+            }
 
             // No results to release, this packet gets dropped
             return ReceiveResult.DUPLICATE_SEQUENCE;
@@ -206,19 +228,23 @@ public class SlidingWindow<P> extends DestroyableBase {
         // DUPLICATE?
         // It's not in the window, but it might be the "initial condition"
         if (sequence.equals(indexSequence)) {
-            LOGGER.debug(String.format("DUPLICATE_SEQUENCE (sequence: %d)", sequence));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("DUPLICATE_SEQUENCE (sequence: %d)", sequence));
+            }
 
             return ReceiveResult.DUPLICATE_SEQUENCE;
         }
 
         // HOLE_FILLED
         if (hasHoles() && fillsAHole(sequence)) {
-            LOGGER.debug(String.format("HOLE_FILLED (sequence: %d, hasHoles: %b, fillsAHole: %b)", sequence, hasHoles(), fillsAHole(sequence)));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("HOLE_FILLED (sequence: %d, hasHoles: %b, fillsAHole: %b)", sequence, hasHoles(), fillsAHole(sequence)));
+            }
 
             window.put(sequence, value);
 
             // We only want to add the results if the filled hole was the first hole
-            long firstHole = holes.isEmpty() ? sequence : holes.iterator().next();
+            long firstHole = holes.isEmpty() ? sequence : holes.first();
             holes.remove(sequence);
 
             if (firstHole == sequence) {
@@ -230,7 +256,9 @@ public class SlidingWindow<P> extends DestroyableBase {
 
         // EXPECTED_SEQUENCE
         if (indexSequence == INITIAL_CONDITION || sequence.equals(indexSequence + step)) {
-            LOGGER.debug(String.format("EXPECTED_SEQUENCE (indexSequence: %d, step: %d, sequence: %d)", indexSequence, step, sequence));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("EXPECTED_SEQUENCE (indexSequence: %d, step: %d, sequence: %d)", indexSequence, step, sequence));
+            }
 
             // Add a single result
             results.add(value);
@@ -244,11 +272,15 @@ public class SlidingWindow<P> extends DestroyableBase {
 
         // POSITIVE_HOLE
         if (sequence > expectedSequence) {
-            LOGGER.debug(String.format("POSITIVE_HOLE (indexSequence: %d, step: %d, sequence: %d, idealSize: %d)", indexSequence, step, sequence, window.getIdealSize()));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("POSITIVE_HOLE (indexSequence: %d, step: %d, sequence: %d, idealSize: %d)", indexSequence, step, sequence, window.getIdealSize()));
+            }
 
-            Set<Long> holes = getHolesBetween(indexSequence, sequence);
+            List<HoleRange> holes = getHolesBetween(indexSequence, sequence);
             window.put(sequence, value);
-            this.holes.addAll(holes);
+            for (HoleRange hole : holes) {
+                this.holes.addRange(hole);
+            }
 
             // TODO: Reenable
             waitForHole(sequence, holes);
@@ -259,7 +291,9 @@ public class SlidingWindow<P> extends DestroyableBase {
 
         // NEGATIVE_HOLE
         if (sequence < indexSequence + step) {
-            LOGGER.debug(String.format("NEGATIVE_HOLE (indexSequence: %d, step: %d, sequence: %d, idealSize: %d)", indexSequence, step, sequence, window.getIdealSize()));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("NEGATIVE_HOLE (indexSequence: %d, step: %d, sequence: %d, idealSize: %d)", indexSequence, step, sequence, window.getIdealSize()));
+            }
 
             // This sequence is much lower, must be a reset
             if (indexSequence + step - sequence > window.getIdealSize()) {
@@ -281,20 +315,32 @@ public class SlidingWindow<P> extends DestroyableBase {
     }
 
     /**
+     * Only visits the packets that are in the window between the two, so a huge jump is still 1 range.
+     *
      * @param indexSequence non-inclusive
      * @param sequence      non-inclusive
-     * @return
+     * @return The gaps between the packets in the window, in ascending order.
      */
-    protected Set<Long> getHolesBetween(long indexSequence, long sequence) {
-        Set<Long> result = new TreeSet<Long>();
+    protected List<HoleRange> getHolesBetween(long indexSequence, long sequence) {
+        List<HoleRange> result = new ArrayList<HoleRange>();
 
-        for (long index = indexSequence + step; index < sequence; index++) {
-            if (window.containsKey(index)) {
-                // not a hole
-                continue;
+        long start = indexSequence + step;
+        Long next = window.higherKey(start - 1);
+
+        while (start < sequence) {
+            long end = (next == null || next >= sequence) ? sequence - 1 : next - 1;
+
+            if (end >= start) {
+                result.add(new HoleRange(key, start, end));
+            }
+
+            if (next == null || next >= sequence) {
+                break;
             }
 
-            result.add(index);
+            // not a hole
+            start = next + 1;
+            next = window.higherKey(next);
         }
 
         return result;
@@ -344,35 +390,17 @@ public class SlidingWindow<P> extends DestroyableBase {
     }
 
     /**
-     * From this map, get the ones that are still holes
+     * From these ranges, get the parts that are still holes
      *
      * @param holes
      * @return
      */
-    protected Set<Long> getExistingHoles(Map<Long, Void> holes) {
-        return getExistingHoles(holes.keySet());
+    protected List<HoleRange> getExistingHoles(List<HoleRange> holes) {
+        return this.holes.intersect(key, holes);
     }
 
-    /**
-     * From this set, get the ones that are still holes
-     *
-     * @param holes
-     * @return
-     */
-    protected Set<Long> getExistingHoles(Set<Long> holes) {
-        Set<Long> result = new TreeSet<Long>();
-
-        for (Long sequence : holes) {
-            if (this.holes.contains(sequence)) {
-                result.add(sequence);
-            }
-        }
-
-        return result;
-    }
-
-    protected void waitForHole(final Long sequence, final Set<Long> discoveredHoles) {
-        if (CollectionUtil.isNullOrEmpty(holes)) {
+    protected void waitForHole(final Long sequence, final List<HoleRange> discoveredHoles) {
+        if (holes.isEmpty()) {
             return;
         }
 
@@ -380,7 +408,7 @@ public class SlidingWindow<P> extends DestroyableBase {
             @Override
             public void run(Timeout timeout) throws Exception {
                 synchronized (SlidingWindow.this) {
-                    final Set<Long> existingHoles = getExistingHoles(discoveredHoles);
+                    final List<HoleRange> existingHoles = getExistingHoles(discoveredHoles);
                     if (CollectionUtil.isNullOrEmpty(existingHoles)) {
                         // All of the holes we were looking for are no longer holes!
                         return;
@@ -391,10 +419,23 @@ public class SlidingWindow<P> extends DestroyableBase {
                     timer.newTimeout(new TimerTask() {
                         @Override
                         public void run(Timeout timeout) throws Exception {
-                            // we need to clean up any holes and just discard them.
-                            Set<Long> currentHoles = getExistingHoles(existingHoles);
-
-                            flushAndReleaseHoles(sequence, currentHoles);
+                            Executor executor = releaseExecutor;
+                            if (executor == null) {
+                                // we need to clean up any holes and just discard them.
+                                flushAndReleaseHoles(sequence, getExistingHoles(existingHoles));
+                                return;
+                            }
+
+                            try {
+                                executor.execute(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        releaseHoles(sequence, existingHoles);
+                                    }
+                                });
+                            } catch (RejectedExecutionException e) {
+                                LOGGER.warn(String.format("The releaseExecutor rejected the holes %s of %s", existingHoles, key), e);
+                            }
                         }
                     }, getHoleTimeoutMillis() * 2, TimeUnit.MILLISECONDS);
                 }
@@ -402,18 +443,35 @@ public class SlidingWindow<P> extends DestroyableBase {
         }, getHoleTimeoutMillis(), TimeUnit.MILLISECONDS);
     }
 
-    protected synchronized void flushAndReleaseHoles(Long sequence, Set<Long> existingHoles) {
-        this.holes.removeAll(existingHoles);
+    protected synchronized void flushAndReleaseHoles(Long sequence, List<HoleRange> existingHoles) {
+        for (HoleRange hole : existingHoles) {
+            this.holes.removeRange(hole);
+        }
 
         List<P> results = getResultsAfterAndMoveIndex(sequence);
 
         packetsReleasedEvent.notifyObservers(SlidingWindow.this, results);
     }
 
-    private void notifyObserversOfHoles(Set<Long> existingHoles) {
-        Set<HoleRange> ranges = buildHoleRanges(existingHoles);
+    /**
+     * Like flushAndReleaseHoles, but the observers are notified after the window is unlocked (so they don't
+     * hold up the timer). Only safe on the releaseExecutor, where nothing is received in the meantime.
+     */
+    private void releaseHoles(Long sequence, List<HoleRange> holes) {
+        List<P> results;
+        synchronized (this) {
+            for (HoleRange hole : getExistingHoles(holes)) {
+                this.holes.removeRange(hole);
+            }
 
-        for (HoleRange range : ranges) {
+            results = getResultsAfterAndMoveIndex(sequence);
+        }
+
+        packetsReleasedEvent.notifyObservers(this, results);
+    }
+
+    private void notifyObserversOfHoles(List<HoleRange> existingHoles) {
+        for (HoleRange range : existingHoles) {
             holeTimeoutEvent.notifyObservers(this, range);
         }
     }
@@ -513,7 +571,7 @@ public class SlidingWindow<P> extends DestroyableBase {
     }
 
     protected Long getNextHole(long sequence) {
-        return getNextValueAfter(holes.iterator(), sequence);
+        return holes.nextAfter(sequence);
     }
 
     protected Long getLastValueUntilHole(long sequence) {
@@ -544,8 +602,10 @@ public class SlidingWindow<P> extends DestroyableBase {
         sequence = getLastValueUntilHole(sequence);
 
         List<P> result = new ArrayList<P>();
-        for (long index = indexSequence + step; index <= sequence; index += step) {
-            if (!window.containsKey(index)) {
+
+        // walk the packets in the window rather than every sequence, there could be millions between them.
+        for (Long index = window.higherKey(indexSequence); index != null && index <= sequence; index = window.higherKey(index)) {
+            if ((index - indexSequence) % step != 0) {
                 continue;
             }
 
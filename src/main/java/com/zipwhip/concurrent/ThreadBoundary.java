@@ -1,5 +1,6 @@
 package com.zipwhip.concurrent;
 
+import com.zipwhip.executors.SerialExecutor;
 import com.zipwhip.lifecycle.DestroyableBase;
 import com.zipwhip.util.CollectionUtil;
 import com.zipwhip.util.StateManager;
@@ -24,7 +25,7 @@ public class ThreadBoundary<T extends Enum> extends DestroyableBase {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ThreadBoundary.class);
 
-    private ExecutorService executor = Executors.newSingleThreadExecutor();
+    private ExecutorService executor = new SerialExecutor("ThreadBoundary");
     private long timeout = 60;
     private TimeUnit timeUnit = TimeUnit.SECONDS;
     private Collection<T> forbiddenStates;
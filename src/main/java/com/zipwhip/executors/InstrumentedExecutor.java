@@ -0,0 +1,234 @@
+package com.zipwhip.executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the executor it wraps, cheaply enough to leave on in production.
+ * <p/>
+ * Every task is counted and its wait time (submitted until started) and run time go into a {@link LatencyHistogram}.
+ * Nothing takes a lock, and the only allocation is the 1 wrapper per task. Tasks that run longer than
+ * {@code slowTaskMillis} are counted, and logged at most once per {@code slowTaskLogIntervalMillis} along with the
+ * queue depth, so a backed up executor shows up in the logs without flooding them.
+ * <p/>
+ * Unlike {@link DebuggingExecutor} this does not log every task, use that one when you need the full trace.
+ */
+public class InstrumentedExecutor extends ExecutorAdapterBase {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentedExecutor.class);
+
+    public static final long DEFAULT_SLOW_TASK_MILLIS = 500;
+    public static final long DEFAULT_SLOW_TASK_LOG_INTERVAL_MILLIS = 10000;
+
+    private final String name;
+    private final long slowTaskNanos;
+    private final long slowTaskLogIntervalNanos;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong slow = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    // the slow counter when we last logged, and when that was.
+    private final AtomicLong lastSlowLogNanos = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+    private volatile long slowAtLastLog;
+
+    public InstrumentedExecutor(Executor executor, String name) {
+        this(executor, name, DEFAULT_SLOW_TASK_MILLIS, DEFAULT_SLOW_TASK_LOG_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param executor                  The executor to measure.
+     * @param name                      The name to log with.
+     * @param slowTaskMillis            Tasks that run at least this long are counted as slow.
+     * @param slowTaskLogIntervalMillis Log slow tasks at most this often.
+     */
+    public InstrumentedExecutor(Executor executor, String name, long slowTaskMillis, long slowTaskLogIntervalMillis) {
+        super(executor);
+
+        if (executor == null) {
+            throw new NullPointerException("The executor can't be null");
+        }
+
+        this.name = name;
+        this.slowTaskNanos = TimeUnit.MILLISECONDS.toNanos(slowTaskMillis);
+        this.slowTaskLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(slowTaskLogIntervalMillis);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("The command can't be null");
+        }
+
+        submitted.incrementAndGet();
+
+        int depth = queueDepth.incrementAndGet();
+        int max = maxQueueDepth.get();
+        while (depth > max && !maxQueueDepth.compareAndSet(max, depth)) {
+            max = maxQueueDepth.get();
+        }
+
+        try {
+            super.execute(new InstrumentedTask(command, System.nanoTime()));
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            rejected.incrementAndGet();
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return The tasks that never ran, as they were submitted.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> result = new ArrayList<Runnable>();
+
+        for (Runnable runnable : super.shutdownNow()) {
+            if (runnable instanceof InstrumentedTask) {
+                queueDepth.decrementAndGet();
+                result.add(((InstrumentedTask) runnable).command);
+            } else {
+                result.add(runnable);
+            }
+        }
+
+        return result;
+    }
+
+    private void slow(Runnable command, long runNanos) {
+        long count = slow.incrementAndGet();
+
+        long now = System.nanoTime();
+        long last = lastSlowLogNanos.get();
+        if (now - last < slowTaskLogIntervalNanos || !lastSlowLogNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        long skipped = count - slowAtLastLog - 1;
+        slowAtLastLog = count;
+
+        LOGGER.warn(String.format("%s: %s ran for %dms (%d other slow tasks since the last warning). queue=%d, wait=%s, run=%s",
+                this, command, TimeUnit.NANOSECONDS.toMillis(runNanos), skipped, queueDepth.get(), waitTime, runTime));
+    }
+
+    /**
+     * @return The tasks that were submitted and haven't started yet.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * @return The tasks that threw. They are also counted as completed.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getSlowCount() {
+        return slow.get();
+    }
+
+    /**
+     * @return How long tasks waited between being submitted and being started.
+     */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * @return How long tasks took to run.
+     */
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[InstrumentedExecutor: %s]", name);
+    }
+
+    /**
+     * @return Everything we know, for logging.
+     */
+    public String getStatistics() {
+        return String.format("%s submitted=%d, completed=%d, failed=%d, rejected=%d, slow=%d, queue=%d, maxQueue=%d, wait=%s, run=%s",
+                this, getSubmittedCount(), getCompletedCount(), getFailedCount(), getRejectedCount(), getSlowCount(),
+                getQueueDepth(), getMaxQueueDepth(), waitTime, runTime);
+    }
+
+    private class InstrumentedTask implements Runnable {
+
+        private final Runnable command;
+        private final long submittedNanos;
+
+        private InstrumentedTask(Runnable command, long submittedNanos) {
+            this.command = command;
+            this.submittedNanos = submittedNanos;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+
+            queueDepth.decrementAndGet();
+            waitTime.record(start - submittedNanos);
+
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                throw e;
+            } catch (Error e) {
+                failed.incrementAndGet();
+                throw e;
+            } finally {
+                long runNanos = System.nanoTime() - start;
+
+                runTime.record(runNanos);
+                completed.incrementAndGet();
+
+                if (runNanos >= slowTaskNanos) {
+                    slow(command, runNanos);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return command.toString();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.zipwhip.executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on a shared executor.
+ * <p/>
+ * To the caller it behaves like {@code Executors.newSingleThreadExecutor()}, but it only borrows a thread from the
+ * shared executor while it has work. Thousands of them can share a small pool. After {@code maxBatchSize} tasks
+ * it hands the thread back and gets back in line, so one busy lane can't starve the others.
+ * <p/>
+ * Submitting never takes a lock. The tasks go on a linked queue that any number of threads can add to
+ * (1 atomic swap each), and only the thread that is draining the lane takes them off.
+ * <p/>
+ * Shutting it down only stops this lane. The shared executor is left alone.
+ */
+public class SerialExecutor extends AbstractExecutorService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerialExecutor.class);
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+    private final Executor executor;
+    private final String name;
+    private final int maxBatchSize;
+
+    // producers swap themselves in at the tail, the draining thread walks forward from the head.
+    private final AtomicReference<Node> tail;
+    private volatile Node head;
+
+    // true while a drain is queued on (or running on) the shared executor. Whoever sets it owns the head.
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile boolean shutdown;
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+
+        @Override
+        public String toString() {
+            return SerialExecutor.this.toString();
+        }
+    };
+
+    /**
+     * Create a lane on a cached pool that all of the lanes created this way share.
+     *
+     * @param name A name for debugging.
+     */
+    public SerialExecutor(String name) {
+        this(DefaultExecutorHolder.INSTANCE, name);
+    }
+
+    public SerialExecutor(Executor executor, String name) {
+        this(executor, name, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public SerialExecutor(Executor executor, String name, int maxBatchSize) {
+        if (executor == null) {
+            throw new NullPointerException("The executor can't be null");
+        }
+
+        this.executor = executor;
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+
+        Node stub = new Node(null);
+        this.head = stub;
+        this.tail = new AtomicReference<Node>(stub);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("The command can't be null");
+        } else if (shutdown) {
+            throw new RejectedExecutionException(String.format("%s is shut down", this));
+        }
+
+        Node node = new Node(command);
+        tail.getAndSet(node).next = node;
+
+        // link first, then check. if a drain is running it is guaranteed to see our node before it goes idle.
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(drainTask);
+        } catch (RejectedExecutionException e) {
+            // other producers may have linked their tasks behind ours while we held the lane.
+            rejectAll();
+
+            throw e;
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < maxBatchSize; i++) {
+            Node next = head.next;
+
+            if (next == null) {
+                idle();
+
+                // a producer may have linked a node after we looked, but saw us still scheduled.
+                if (head.next == null || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+
+                continue;
+            }
+
+            head = next;
+
+            Runnable task = next.take();
+            if (task == null) {
+                // shutdownNow() took it, or the shared executor rejected it.
+                continue;
+            }
+
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.error(String.format("%s: task %s failed", this, task), e);
+            }
+        }
+
+        // give the thread back to the other lanes, and get back in line.
+        try {
+            executor.execute(drainTask);
+        } catch (RejectedExecutionException e) {
+            int dropped = rejectAll();
+
+            LOGGER.error(String.format("%s: the shared executor rejected us, dropped %d tasks", this, dropped), e);
+        }
+    }
+
+    /**
+     * Gives up the lane and fails every task that is still queued on it, since the shared executor won't run them.
+     *
+     * @return The number of tasks that were dropped.
+     */
+    private int rejectAll() {
+        // go idle first. a producer that links after this schedules its own drain, and one that linked
+        // before it (and saw us scheduled) is guaranteed to be seen by takeAll().
+        idle();
+
+        List<Runnable> tasks = takeAll();
+        for (Runnable task : tasks) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+
+        return tasks.size();
+    }
+
+    private void idle() {
+        scheduled.set(false);
+
+        if (shutdown) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private List<Runnable> takeAll() {
+        List<Runnable> result = new ArrayList<Runnable>();
+
+        // we may be racing the drain, so only take the tasks (never move the head).
+        for (Node node = head.next; node != null; node = node.next) {
+            Runnable task = node.take();
+            if (task != null) {
+                result.add(task);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * The task that is running (if any) is not interrupted, since the thread belongs to the shared executor.
+     *
+     * @return The tasks that never ran.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+
+        return takeAll();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && !scheduled.get();
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!isTerminated()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[SerialExecutor: %s]", name);
+    }
+
+    private static class Node {
+
+        private static final AtomicReferenceFieldUpdater<Node, Runnable> TASK =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Runnable.class, "task");
+
+        private volatile Runnable task;
+        private volatile Node next;
+
+        private Node(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * @return The task, or null if someone else already took it.
+         */
+        private Runnable take() {
+            return TASK.getAndSet(this, null);
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+
+        // cached, because the lanes that don't say otherwise are allowed to block (like the executors they replace).
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new NamedThreadFactory("SerialExecutor-"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.zipwhip.executors;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets a component treat part of a shared pool as its own {@code ExecutorService}.
+ * <p/>
+ * Tasks run in parallel on the shared executor. Shutting down the view only stops it from taking new tasks,
+ * the shared executor keeps running for everyone else.
+ */
+public class SharedExecutorView extends AbstractExecutorService {
+
+    private final Executor executor;
+    private final String name;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean shutdown;
+
+    public SharedExecutorView(Executor executor, String name) {
+        if (executor == null) {
+            throw new NullPointerException("The executor can't be null");
+        }
+
+        this.executor = executor;
+        this.name = name;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException(String.format("%s is shut down", this));
+        }
+
+        pending.incrementAndGet();
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        command.run();
+                    } finally {
+                        finished();
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return command.toString();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finished();
+
+            throw e;
+        }
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0 && shutdown) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * Tasks that were already handed to the shared executor can't be taken back, so they will still run.
+     *
+     * @return An empty list.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && pending.get() == 0;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!isTerminated()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[SharedExecutorView: %s]", name);
+    }
+}
@@ -1,12 +1,12 @@
 package com.zipwhip.signals;
 
 import com.zipwhip.concurrent.HoleRange;
+import com.zipwhip.concurrent.HoleSet;
 import com.zipwhip.events.Observable;
 import com.zipwhip.events.ObservableHelper;
 import com.zipwhip.executors.SimpleExecutor;
 import com.zipwhip.timers.Timer;
 import com.zipwhip.util.BufferedRunnable;
-import com.zipwhip.util.CollectionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,8 +36,10 @@ public class DefaultVersionRange implements VersionRange {
 
     private String key;
     private BufferedRunnable holeDetectedEventRunnable;
-    protected List<Value> list = new LinkedList<Value>();
-    protected Set<Long> holes = new TreeSet<Long>();
+
+    // The versions we have received, compressed into runs of start -> end (inclusive).
+    protected final TreeMap<Long, Long> runs = new TreeMap<Long, Long>();
+    protected final HoleSet holes = new HoleSet();
 
     public DefaultVersionRange(Timer timer, String key) {
         this(timer);
@@ -55,89 +57,72 @@ public class DefaultVersionRange implements VersionRange {
 
     @Override
     public synchronized boolean add(long version) {
-        Value value = new Value(version);
-
-        if (list.contains(value)) {
-            return false;
-        }
-
-        list.add(value);
-
-        // Sort the list so they are in order.
-        Collections.sort(list);
+        Map.Entry<Long, Long> toTheLeft = runs.floorEntry(version);
 
-        // Figure out where it was added.
-        int index = list.indexOf(value);
-
-        Value toTheRight = value;
-        Value toTheLeft = value;
+        if (toTheLeft != null && toTheLeft.getValue() >= version) {
+            if (toTheLeft.getKey() == version || toTheLeft.getValue() == version) {
+                // The end of a run, we already have it.
+                return false;
+            }
 
-        if (index > 0) {
-            toTheLeft = lookBehind(index);
+            // It's inside a run that was trimmed.
+            // This is a NOOP case. Just skip it.
+            return true;
         }
 
-        if (index + 1 < list.size()) {
-            toTheRight = lookAhead(index);
-        }
+        Map.Entry<Long, Long> toTheRight = runs.higherEntry(version);
 
-        if (toTheLeft.isTrimmedToRight()) {
-            // The left claims to be trimmed.
-            // This is a NOOP case. Just skip it.
-            list.remove(value);
+        // Is there a hole?
+        boolean holeToLeft = toTheLeft != null && toTheLeft.getValue() != version - 1;
+        boolean holeToRight = toTheRight != null && toTheRight.getKey() != version + 1;
 
-            return true;
-        } else if (toTheRight.isTrimmedToLeft()) {
-            // The left claims to be trimmed.
-            // This is a NOOP case. Just skip it.
-            list.remove(value);
+        if (holeToRight && version + DEFAULT_MAX_RANGE < getHighestVersion()) {
+            LOGGER.warn("Received much lower version, must have been a version reset!");
+            holes.clear();
+            runs.clear();
+            runs.put(version, version);
+
+            resetDetectedEvent.notifyObservers(DefaultVersionRange.this, version);
 
             return true;
         }
 
-        // Is there a hole?
-        boolean holeToLeft = !(isToTheLeft(toTheLeft, value) || toTheLeft.equals(value));
-        boolean holeToRight = !(isToTheRight(toTheRight, value) || toTheRight.equals(value));
-
         if (holeToLeft) {
-            long neighborVersion = value.getLong() - 1;
-            while (neighborVersion != toTheLeft.getLong()) {
-                LOGGER.debug("Detected hole to the left! Version: " + neighborVersion);
-                holes.add(neighborVersion);
-                neighborVersion--;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Detected hole to the left! Versions: %d-%d", toTheLeft.getValue() + 1, version - 1));
             }
+            holes.addRange(toTheLeft.getValue() + 1, version - 1);
         }
 
         if (holeToRight) {
-            if (version + DEFAULT_MAX_RANGE < getHighestVersion()) {
-                LOGGER.warn("Received much lower version, must have been a version reset!");
-                holes.clear();
-                list.clear();
-                list.add(value);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Detected hole to the right! Versions: %d-%d", version + 1, toTheRight.getKey() - 1));
+            }
+            holes.addRange(version + 1, toTheRight.getKey() - 1);
+        }
 
-                resetDetectedEvent.notifyObservers(DefaultVersionRange.this, version);
+        // Join the runs on either side if it touches them.
+        long start = version;
+        long end = version;
 
-                return true;
-            }
+        if (toTheLeft != null && !holeToLeft) {
+            start = toTheLeft.getKey();
+        }
 
-            long neighborVersion = value.getLong() + 1;
-            while (neighborVersion != toTheRight.getLong()) {
-                LOGGER.debug("Detected hole to the right! Version: " + neighborVersion);
-                holes.add(neighborVersion);
-                neighborVersion++;
-            }
+        if (toTheRight != null && !holeToRight) {
+            end = toTheRight.getValue();
+            runs.remove(toTheRight.getKey());
         }
 
-        if (CollectionUtil.exists(holes)) {
-            if (holes.contains(version)) {
-                // not a hole anymore, we just received it!
-                holes.remove(version);
-            }
+        runs.put(start, end);
+
+        if (!holes.isEmpty()) {
+            // not a hole anymore, we just received it!
+            holes.remove(version);
 
             holeDetectedEventRunnable.run();
         }
 
-        autoPruneSignalList();
-
         return true;
     }
 
@@ -158,136 +143,27 @@ public class DefaultVersionRange implements VersionRange {
         }
     };
 
-    private boolean isToTheRight(Value toTheRight, Value value) {
-        return toTheRight.getLong().equals(value.getLong() + 1);
-    }
-
-    private boolean isToTheLeft(Value toTheLeft, Value value) {
-        return toTheLeft.getLong().equals(value.getLong() - 1);
-    }
-
-    private void autoPruneSignalList() {
-        if (CollectionUtil.isNullOrEmpty(list)) {
-            return;
-        } else if (list.size() <= 1) {
-            return;
-        }
-
-        Set<Long> thingsToRemove = new TreeSet<Long>();
-
-        for (int index = 0; index < list.size(); index++) {
-            Value currentValue = list.get(index);
-            Value toTheLeft = lookBehind(index);
-            Value toTheRight = lookAhead(index);
-
-            // Keep the first element for tracking
-            if (index == 0) {
-                continue;
-            }
-
-            if (toTheLeft != null && toTheLeft.getLong() == currentValue.getLong() - 1) {
-                if (toTheRight != null && toTheRight.getLong() == currentValue.getLong() + 1) {
-                    toTheLeft.setTrimmedToRight(true);
-                    toTheRight.setTrimmedToLeft(true);
-
-                    thingsToRemove.add(currentValue.getLong());
-                    continue;
-                }
-            }
-
-            if (currentValue.isTrimmedToLeft() && currentValue.isTrimmedToRight()) {
-                thingsToRemove.add(currentValue.getLong());
-                continue;
-            }
-
-            if (currentValue.isTrimmedToRight()) {
-                // check left
-                if (toTheLeft == null) {
-                    // nothing to check.
-                    continue;
-                }
-
-                if (isToTheLeft(toTheLeft, currentValue)) {
-                    toTheLeft.setTrimmedToRight(true);
-
-                    // I'm no longer needed. Trim myself
-                    thingsToRemove.add(currentValue.getLong());
-                    continue;
-                } else {
-                    // It's a hole still.
-                    continue;
-                }
-            }
-
-            if (currentValue.isTrimmedToLeft()) {
-                // check left
-                if (toTheRight == null) {
-                    // nothing to check.
-                    continue;
-                }
-
-                if (isToTheRight(toTheRight, currentValue)) {
-                    toTheRight.setTrimmedToLeft(true);
-
-                    // I'm no longer needed. Trim myself
-                    thingsToRemove.add(currentValue.getLong());
-                    continue;
-                } else {
-                    // It's a hole still.
-                    continue;
-                }
-            }
-
-            // It's not trimmed at all. Check to see if we can trim?
-            if (toTheLeft != null) {
-                if (isToTheLeft(toTheLeft, currentValue)) {
-                    if (toTheLeft.isTrimmedToRight()) {
-                        throw new RuntimeException("Impossible");
-                    }
-
-                    if (toTheLeft.isTrimmedToLeft()) {
-                        // I can take its place
-                        currentValue.setTrimmedToLeft(true);
-                        thingsToRemove.add(toTheLeft.getLong());
-                        continue;
-                    }
-
-                    if (toTheRight == null) {
-                        // I have to stay here for the next signal
-                        continue;
-                    } else if (isToTheRight(toTheRight, currentValue)) {
-                        toTheLeft.setTrimmedToRight(true);
-                        toTheRight.setTrimmedToLeft(true);
-                        thingsToRemove.add(currentValue.getLong());
-                        continue;
-                    }
-                }
+    /**
+     * The received versions as the ends of each run. A run of 1 version is a single value.
+     *
+     * @return A copy of the runs, in ascending order.
+     */
+    protected synchronized List<Value> getValues() {
+        List<Value> result = new ArrayList<Value>(runs.size() * 2);
+
+        for (Map.Entry<Long, Long> run : runs.entrySet()) {
+            Value start = new Value(run.getKey());
+            result.add(start);
+
+            if (run.getValue() > run.getKey()) {
+                Value end = new Value(run.getValue());
+                start.setTrimmedToRight(true);
+                end.setTrimmedToLeft(true);
+                result.add(end);
             }
         }
 
-        for (Long value : thingsToRemove) {
-            list.remove(new Value(value));
-        }
-    }
-
-    private Value lookAhead(int index) {
-        return __safe_get(index + 1);
-    }
-
-    private Value lookBehind(int index) {
-        return __safe_get(index - 1);
-    }
-
-    private Value __safe_get(int index) {
-        if (index < 0) {
-            return null;
-        } else if (index >= list.size()) {
-            return null;
-        } else if (CollectionUtil.isNullOrEmpty(list)) {
-            return null;
-        }
-
-        return list.get(index);
+        return result;
     }
 
     @Override
@@ -301,35 +177,21 @@ public class DefaultVersionRange implements VersionRange {
     }
 
     @Override
-    public Long getHighestVersion() {
-        if (CollectionUtil.isNullOrEmpty(list)) {
+    public synchronized Long getHighestVersion() {
+        if (runs.isEmpty()) {
             return null;
         }
 
-        Value value = list.get(list.size() - 1);
-
-        if (value == null) {
-            return null;
-        }
-
-        LOGGER.debug(String.format("Getting highest version: [%d] out of %d versions.",
-                value.getLong(), list.size()));
-
-        return value.getLong();
+        return runs.lastEntry().getValue();
     }
 
     @Override
     public List<HoleRange> takeHoles() {
         // Get the current holes.
         synchronized (DefaultVersionRange.this) {
-            Collection<Long> dest = new ArrayList<Long>(holes);
-            List<HoleRange> result = new ArrayList<HoleRange>();
+            List<HoleRange> result = holes.getRanges(key);
             holes.clear();
 
-            for (Long version : dest) {
-                result.add(new HoleRange(key, version, version));
-            }
-
             return result;
         }
     }
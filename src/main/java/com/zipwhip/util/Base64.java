@@ -0,0 +1,123 @@
+package com.zipwhip.util;
+
+/**
+ * Standard (RFC 4648) base64 encoding, padded and without line breaks.
+ * <p/>
+ * This replaces {@code sun.misc.BASE64Encoder}, which wraps lines at 76 characters and made callers trim the result.
+ * There is no state, so it is safe to call from any thread.
+ */
+public class Base64 {
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * @param length The number of bytes to be encoded.
+     * @return The number of characters they encode to.
+     */
+    public static int getEncodedLength(int length) {
+        return ((length + 2) / 3) * 4;
+    }
+
+    /**
+     * Base64 encode a byte array.
+     *
+     * @param data The bytes to be encoded.
+     * @return The base64 encoded String.
+     */
+    public static String encode(byte[] data) {
+        return encode(data, 0, data.length);
+    }
+
+    /**
+     * Base64 encode a range of a byte array.
+     *
+     * @param data   The bytes to be encoded.
+     * @param offset Where in {@code data} to start.
+     * @param length How many bytes to encode.
+     * @return The base64 encoded String.
+     */
+    public static String encode(byte[] data, int offset, int length) {
+        char[] chars = new char[getEncodedLength(length)];
+        encode(data, offset, length, chars, 0);
+
+        return new String(chars);
+    }
+
+    /**
+     * Base64 encode a range of a byte array onto the end of a builder.
+     *
+     * @param data    The bytes to be encoded.
+     * @param offset  Where in {@code data} to start.
+     * @param length  How many bytes to encode.
+     * @param builder Where to append the encoded characters.
+     */
+    public static void encode(byte[] data, int offset, int length, StringBuilder builder) {
+        int end = offset + length;
+        int i = offset;
+
+        for (; i + 2 < end; i += 3) {
+            int bits = (data[i] & 0xff) << 16 | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff);
+            builder.append(ALPHABET[bits >>> 18])
+                    .append(ALPHABET[(bits >>> 12) & 0x3f])
+                    .append(ALPHABET[(bits >>> 6) & 0x3f])
+                    .append(ALPHABET[bits & 0x3f]);
+        }
+
+        int remaining = end - i;
+        if (remaining == 1) {
+            int bits = (data[i] & 0xff) << 16;
+            builder.append(ALPHABET[bits >>> 18])
+                    .append(ALPHABET[(bits >>> 12) & 0x3f])
+                    .append('=')
+                    .append('=');
+        } else if (remaining == 2) {
+            int bits = (data[i] & 0xff) << 16 | (data[i + 1] & 0xff) << 8;
+            builder.append(ALPHABET[bits >>> 18])
+                    .append(ALPHABET[(bits >>> 12) & 0x3f])
+                    .append(ALPHABET[(bits >>> 6) & 0x3f])
+                    .append('=');
+        }
+    }
+
+    /**
+     * Base64 encode a range of a byte array into a char array.
+     *
+     * @param data     The bytes to be encoded.
+     * @param offset   Where in {@code data} to start.
+     * @param length   How many bytes to encode.
+     * @param out      Where to write the encoded characters, it must have room for {@link #getEncodedLength(int)}.
+     * @param outStart Where in {@code out} to start writing.
+     * @return The number of characters written.
+     */
+    public static int encode(byte[] data, int offset, int length, char[] out, int outStart) {
+        int end = offset + length;
+        int i = offset;
+        int o = outStart;
+
+        for (; i + 2 < end; i += 3) {
+            int bits = (data[i] & 0xff) << 16 | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff);
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = ALPHABET[bits & 0x3f];
+        }
+
+        int remaining = end - i;
+        if (remaining == 1) {
+            int bits = (data[i] & 0xff) << 16;
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = '=';
+            out[o++] = '=';
+        } else if (remaining == 2) {
+            int bits = (data[i] & 0xff) << 16 | (data[i + 1] & 0xff) << 8;
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = '=';
+        }
+
+        return o - outStart;
+    }
+
+}
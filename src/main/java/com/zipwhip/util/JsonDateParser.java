@@ -0,0 +1,301 @@
+package com.zipwhip.util;
+
+import java.util.TimeZone;
+
+/**
+ * Parses the two date formats the server sends, {@code yyyy-MM-ddTHH:mm:ss} with a zone and
+ * {@code MMM d, yyyy h:mm:ss aaa}, straight out of the string. There is no shared formatter, so it's thread safe, and
+ * nothing is allocated unless a date is seen for the first time.
+ * <p/>
+ * It's strict. Anything it can't parse exactly (no zone, out of range fields, other formats) is UNPARSEABLE, and
+ * {@link JsonDateUtil} leaves those to the lenient formatters it always used.
+ */
+final class JsonDateParser {
+
+    public static final long UNPARSEABLE = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+
+    // the zone JsonDateUtil's formatter was made with
+    private static final TimeZone ZONE = TimeZone.getDefault();
+
+    // The day that a date starts with, in a power-of-two array indexed by the hash of the text. Most of the dates
+    // in a response are from the same few days. The entries can't change, so a racing read sees an old entry or
+    // a new one, never half of one.
+    private static final Day[] DAYS = new Day[64];
+
+    private JsonDateParser() {
+    }
+
+    /**
+     * @param date The text of a date.
+     * @return The milliseconds since the epoch, or UNPARSEABLE.
+     */
+    public static long parse(String date) {
+        if (date == null || date.isEmpty()) {
+            return UNPARSEABLE;
+        }
+
+        char first = date.charAt(0);
+        if (first >= '0' && first <= '9') {
+            return parseIso(date);
+        }
+
+        return parseText(date);
+    }
+
+    // 2011-09-09T15:04:44-07:00, with optional fractions of a second and a zone of Z, +hh:mm, +hhmm or +hh.
+    private static long parseIso(String date) {
+        if (date.length() < 20 || date.charAt(4) != '-' || date.charAt(7) != '-' || (date.charAt(10) != 'T' && date.charAt(10) != 't')
+                || date.charAt(13) != ':' || date.charAt(16) != ':') {
+            return UNPARSEABLE;
+        }
+
+        long day = day(date, 10);
+        if (day == UNPARSEABLE) {
+            day = isoDay(date);
+            if (day == UNPARSEABLE) {
+                return UNPARSEABLE;
+            }
+            remember(date, 10, day);
+        }
+
+        int hour = digits(date, 11, 2);
+        int minute = digits(date, 14, 2);
+        int second = digits(date, 17, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return UNPARSEABLE;
+        }
+
+        int index = 19;
+        int millis = 0;
+        if (date.charAt(index) == '.') {
+            index++;
+            int start = index;
+            while (index < date.length() && date.charAt(index) >= '0' && date.charAt(index) <= '9') {
+                if (index - start < 3) {
+                    millis = millis * 10 + date.charAt(index) - '0';
+                }
+                index++;
+            }
+            if (index == start) {
+                return UNPARSEABLE;
+            }
+            for (int i = index - start; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        if (index >= date.length()) {
+            // no zone
+            return UNPARSEABLE;
+        }
+
+        long offset;
+        char sign = date.charAt(index);
+        if ((sign == 'Z' || sign == 'z') && index + 1 == date.length()) {
+            offset = 0;
+        } else if (sign == '+' || sign == '-') {
+            int length = date.length() - index - 1;
+            int hours = digits(date, index + 1, 2);
+            int minutes;
+            if (length == 2) {
+                minutes = 0;
+            } else if (length == 4) {
+                minutes = digits(date, index + 3, 2);
+            } else if (length == 5 && date.charAt(index + 3) == ':') {
+                minutes = digits(date, index + 4, 2);
+            } else {
+                return UNPARSEABLE;
+            }
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+                return UNPARSEABLE;
+            }
+            offset = hours * MILLIS_PER_HOUR + minutes * MILLIS_PER_MINUTE;
+            if (sign == '-') {
+                offset = -offset;
+            }
+        } else {
+            return UNPARSEABLE;
+        }
+
+        return day + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * 1000L + millis - offset;
+    }
+
+    private static long isoDay(String date) {
+        return day(digits(date, 0, 4), digits(date, 5, 2), digits(date, 8, 2));
+    }
+
+    // Jan 26, 2012 3:45:36 PM, in the default zone.
+    private static long parseText(String date) {
+        int comma = date.indexOf(',');
+        // "Jan 2, 2012" is the shortest and "Jan 26, 2012" the longest
+        if (comma < 5 || comma > 6 || date.length() < comma + 6 || date.charAt(comma + 1) != ' ') {
+            return UNPARSEABLE;
+        }
+
+        int prefix = comma + 6;
+        long day = day(date, prefix);
+        if (day == UNPARSEABLE) {
+            day = textDay(date, comma);
+            if (day == UNPARSEABLE) {
+                return UNPARSEABLE;
+            }
+            remember(date, prefix, day);
+        }
+
+        // " 3:45:36 PM" or " 12:45:36 PM"
+        int index = prefix;
+        if (index >= date.length() || date.charAt(index) != ' ') {
+            return UNPARSEABLE;
+        }
+        index++;
+
+        int hourDigits = index + 1 < date.length() && date.charAt(index + 1) == ':' ? 1 : 2;
+        int hour = digits(date, index, hourDigits);
+        index += hourDigits;
+
+        if (date.length() != index + 9 || date.charAt(index) != ':' || date.charAt(index + 3) != ':' || date.charAt(index + 6) != ' ') {
+            return UNPARSEABLE;
+        }
+
+        int minute = digits(date, index + 1, 2);
+        int second = digits(date, index + 4, 2);
+        if (hour < 1 || hour > 12 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return UNPARSEABLE;
+        }
+
+        char marker = date.charAt(index + 7);
+        char m = date.charAt(index + 8);
+        if (m != 'M' && m != 'm') {
+            return UNPARSEABLE;
+        }
+        if (marker == 'A' || marker == 'a') {
+            hour = hour == 12 ? 0 : hour;
+        } else if (marker == 'P' || marker == 'p') {
+            hour = hour == 12 ? 12 : hour + 12;
+        } else {
+            return UNPARSEABLE;
+        }
+
+        long local = day + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * 1000L;
+
+        // the offset at that local time, which is only different from a guess around a daylight saving change
+        int offset = ZONE.getOffset(local - ZONE.getRawOffset());
+        long time = local - offset;
+        int actual = ZONE.getOffset(time);
+
+        return actual == offset ? time : local - actual;
+    }
+
+    private static long textDay(String date, int comma) {
+        if (date.charAt(3) != ' ') {
+            return UNPARSEABLE;
+        }
+
+        int month = -1;
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (date.regionMatches(true, 0, MONTHS[i], 0, 3)) {
+                month = i + 1;
+                break;
+            }
+        }
+
+        return day(digits(date, comma + 2, 4), month, digits(date, 4, comma - 4));
+    }
+
+    /**
+     * @return The start of the day as if the date were in UTC, or UNPARSEABLE if it's not a real day.
+     */
+    private static long day(int year, int month, int day) {
+        // before 1583 the calendar is Julian and the formatters know about that
+        if (year < 1583 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return UNPARSEABLE;
+        }
+
+        // days from the civil date, from Howard Hinnant's date algorithms
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return (era * 146097L + dayOfEra - 719468) * MILLIS_PER_DAY;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return The digits as a number, or -1 if they aren't all digits.
+     */
+    private static int digits(String text, int start, int count) {
+        if (start + count > text.length()) {
+            return -1;
+        }
+
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + c - '0';
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The day if the first characters of the date have been seen recently, or UNPARSEABLE.
+     */
+    private static long day(String date, int length) {
+        Day day = DAYS[hash(date, length) & (DAYS.length - 1)];
+
+        if (day != null && day.text.length() == length && date.regionMatches(0, day.text, 0, length)) {
+            return day.millis;
+        }
+
+        return UNPARSEABLE;
+    }
+
+    private static void remember(String date, int length, long millis) {
+        DAYS[hash(date, length) & (DAYS.length - 1)] = new Day(date.substring(0, length), millis);
+    }
+
+    private static int hash(String text, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Day {
+
+        private final String text;
+        private final long millis;
+
+        private Day(String text, long millis) {
+            this.text = text;
+            this.millis = millis;
+        }
+    }
+
+}
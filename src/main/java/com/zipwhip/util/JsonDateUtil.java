@@ -56,7 +56,7 @@ public class JsonDateUtil {
 
 	/**
 	 * Takes a string date in the grails default format (yyyy-MM-ddTHH:mm:ssZ)
-	 * and returns a java.util.Date
+	 * and returns a java.util.Date. Safe to call from any thread.
 	 * The time zone for the input date string is considered to be in GMT by
 	 * default (+0000)
 	 * Returns null in case of an exception
@@ -71,10 +71,18 @@ public class JsonDateUtil {
 			return null;
 		}
 
+		long time = JsonDateParser.parse(stringDate);
+		if (time != JsonDateParser.UNPARSEABLE) {
+			return new Date(time);
+		}
+
+		// not one it can parse exactly, so leave it to the lenient formatters
 		try {
-			Date parse = formatter.parse(stringDate);
-			if (parse != null) {
-				return parse;
+			synchronized (formatter) {
+				Date parse = formatter.parse(stringDate);
+				if (parse != null) {
+					return parse;
+				}
 			}
 		} catch (ParseException e) {
 			// fall back to the Grails thing
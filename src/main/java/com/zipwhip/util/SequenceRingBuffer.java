@@ -0,0 +1,383 @@
+package com.zipwhip.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A primitive replacement for {@code FlexibleTimedEvictionMap<Long, V>} that is keyed by sequence number.
+ * <p/>
+ * The values live in a power-of-two circular array indexed by {@code sequence & mask}, with a parallel long[] of
+ * insert times and a bitmap of occupied slots, so putting a packet does not box a Long or allocate a tree node.
+ * The array doubles (up to MAX_CAPACITY) whenever the span between the lowest and highest sequence gets too wide.
+ * <p/>
+ * If the span gets wider than MAX_CAPACITY (a huge jump in sequence numbers) the oldest values spill over into
+ * a TreeMap, so nothing is lost. It has the same eviction rules as FlexibleTimedEvictionMap: {@code shrink()}
+ * will only evict the oldest value if there are more than {@code idealSize} values AND it is older than
+ * {@code minimumEvictionAgeMillis}.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class SequenceRingBuffer<V> {
+
+    public static final int MIN_CAPACITY = 16;
+    public static final int MAX_CAPACITY = 1 << 16;
+
+    // The ideal size of the window. The window can grow larger within a given time period.
+    private int idealSize;
+
+    // The minimum time in milliseconds before an item will be evicted.
+    private long minimumEvictionAgeMillis;
+
+    private Object[] values;
+    private long[] timestamps;
+    private long[] occupied;
+    private int mask;
+
+    // the lowest and highest sequence in the ring, only valid if ringSize > 0
+    private long low;
+    private long high;
+    private int ringSize;
+
+    // values that fell off the bottom of the ring. Every key in here is lower than "low". Usually null.
+    private TreeMap<Long, SpilledValue<V>> spill;
+
+    public SequenceRingBuffer(int idealSize, long minimumEvictionAgeMillis) {
+        this.idealSize = idealSize;
+        this.minimumEvictionAgeMillis = minimumEvictionAgeMillis;
+
+        allocate(capacityFor(idealSize));
+    }
+
+    public V put(long sequence, V value) {
+        return put(sequence, value, System.currentTimeMillis());
+    }
+
+    protected V put(long sequence, V value, long timestamp) {
+        if (spill != null && !spill.isEmpty() && sequence <= spill.lastKey()) {
+            // it belongs down with the other old values.
+            SpilledValue<V> previous = spill.put(sequence, new SpilledValue<V>(value, timestamp));
+
+            return previous == null ? null : previous.value;
+        }
+
+        if (ringSize == 0) {
+            low = sequence;
+            high = sequence;
+        } else if (sequence < low || sequence > high) {
+            long newLow = Math.min(low, sequence);
+            long newHigh = Math.max(high, sequence);
+
+            // don't bother growing for a jump that would never fit.
+            while (newHigh - newLow >= values.length && newHigh - newLow < MAX_CAPACITY) {
+                allocate(values.length << 1);
+            }
+
+            if (newHigh - newLow >= values.length) {
+                if (sequence < low) {
+                    // far below the ring, too wide to hold in the array.
+                    spill().put(sequence, new SpilledValue<V>(value, timestamp));
+
+                    return null;
+                }
+
+                // far above the ring, make room by spilling the lowest values.
+                spillBelow(sequence - values.length + 1);
+
+                newLow = ringSize == 0 ? sequence : low;
+            }
+
+            low = newLow;
+            high = newHigh;
+        }
+
+        int slot = (int) (sequence & mask);
+
+        @SuppressWarnings("unchecked")
+        V previous = isOccupied(slot) ? (V) values[slot] : null;
+
+        if (!isOccupied(slot)) {
+            occupied[slot >>> 6] |= 1L << slot;
+            ringSize++;
+        }
+
+        values[slot] = value;
+        timestamps[slot] = timestamp;
+
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long sequence) {
+        if (inRing(sequence)) {
+            return (V) values[(int) (sequence & mask)];
+        }
+
+        if (spill != null) {
+            SpilledValue<V> spilled = spill.get(sequence);
+            if (spilled != null) {
+                return spilled.value;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(long sequence) {
+        return inRing(sequence) || (spill != null && spill.containsKey(sequence));
+    }
+
+    public int size() {
+        return ringSize + (spill == null ? 0 : spill.size());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return The lowest sequence.
+     * @throws NoSuchElementException if empty (just like a TreeMap)
+     */
+    public long firstKey() {
+        if (spill != null && !spill.isEmpty()) {
+            return spill.firstKey();
+        } else if (ringSize > 0) {
+            return low;
+        }
+
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * @return The highest sequence.
+     * @throws NoSuchElementException if empty (just like a TreeMap)
+     */
+    public long lastKey() {
+        if (ringSize > 0) {
+            return high;
+        } else if (spill != null && !spill.isEmpty()) {
+            return spill.lastKey();
+        }
+
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Like {@code TreeMap.higherKey}, walks the stored sequences without visiting the empty ones between them.
+     *
+     * @param sequence exclusive
+     * @return The lowest stored sequence greater than {@code sequence}, or null if there isn't one.
+     */
+    public Long higherKey(long sequence) {
+        if (spill != null && !spill.isEmpty()) {
+            Long key = spill.higherKey(sequence);
+            if (key != null) {
+                return key;
+            }
+        }
+
+        if (ringSize == 0 || sequence >= high) {
+            return null;
+        }
+
+        long index = Math.max(sequence + 1, low);
+        while (!isOccupied((int) (index & mask))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * @return The sequences in ascending order. This is a copy.
+     */
+    public SortedSet<Long> keySet() {
+        SortedSet<Long> result = new TreeSet<Long>();
+
+        if (spill != null) {
+            result.addAll(spill.keySet());
+        }
+
+        if (ringSize > 0) {
+            for (long sequence = low; sequence <= high; sequence++) {
+                if (isOccupied((int) (sequence & mask))) {
+                    result.add(sequence);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public void clear() {
+        if (ringSize > 0) {
+            Arrays.fill(values, null);
+            Arrays.fill(occupied, 0L);
+            ringSize = 0;
+        }
+
+        spill = null;
+    }
+
+    /**
+     * Equivalent to calling {@code shrink(1)}
+     */
+    public void shrink() {
+        shrink(1);
+    }
+
+    /**
+     * Attempt to shrink the window by a number of values starting with the lowest sequence.
+     * If there are less than {@code idealSize} values or if the values to be removed have not
+     * expired then they will not be removed.
+     *
+     * @param size The number of values to attempt to shrink by.
+     */
+    public void shrink(int size) {
+
+        long currentTime = System.currentTimeMillis();
+
+        for (int i = 0; i < size; i++) {
+
+            if (size() <= idealSize) {
+                break;
+            }
+
+            if (spill != null && !spill.isEmpty()) {
+                Long key = spill.firstKey();
+
+                if (currentTime - spill.get(key).timestamp > minimumEvictionAgeMillis) {
+                    spill.remove(key);
+                }
+            } else {
+                int slot = (int) (low & mask);
+
+                if (currentTime - timestamps[slot] > minimumEvictionAgeMillis) {
+                    removeLowest();
+                }
+            }
+        }
+    }
+
+    public int getIdealSize() {
+        return idealSize;
+    }
+
+    public void setIdealSize(int idealSize) {
+        this.idealSize = idealSize;
+    }
+
+    public long getMinimumEvictionAgeMillis() {
+        return minimumEvictionAgeMillis;
+    }
+
+    public void setMinimumEvictionAgeMillis(long minimumEvictionAgeMillis) {
+        this.minimumEvictionAgeMillis = minimumEvictionAgeMillis;
+    }
+
+    /**
+     * @return The current length of the circular array.
+     */
+    public int getCapacity() {
+        return values.length;
+    }
+
+    private boolean inRing(long sequence) {
+        return ringSize > 0 && sequence >= low && sequence <= high && isOccupied((int) (sequence & mask));
+    }
+
+    private boolean isOccupied(int slot) {
+        return (occupied[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void removeLowest() {
+        int slot = (int) (low & mask);
+
+        values[slot] = null;
+        occupied[slot >>> 6] &= ~(1L << slot);
+        ringSize--;
+
+        if (ringSize == 0) {
+            return;
+        }
+
+        // walk up to the next occupied slot, bounded by the capacity.
+        do {
+            low++;
+        } while (!isOccupied((int) (low & mask)));
+    }
+
+    private void spillBelow(long newLow) {
+        while (ringSize > 0 && low < newLow) {
+            int slot = (int) (low & mask);
+
+            @SuppressWarnings("unchecked")
+            V value = (V) values[slot];
+
+            spill().put(low, new SpilledValue<V>(value, timestamps[slot]));
+
+            removeLowest();
+        }
+    }
+
+    private TreeMap<Long, SpilledValue<V>> spill() {
+        if (spill == null) {
+            spill = new TreeMap<Long, SpilledValue<V>>();
+        }
+
+        return spill;
+    }
+
+    private void allocate(int capacity) {
+        Object[] oldValues = values;
+        long[] oldTimestamps = timestamps;
+        long[] oldOccupied = occupied;
+        int oldMask = mask;
+
+        values = new Object[capacity];
+        timestamps = new long[capacity];
+        occupied = new long[Math.max(1, capacity >>> 6)];
+        mask = capacity - 1;
+
+        if (oldValues == null || ringSize == 0) {
+            return;
+        }
+
+        for (long sequence = low; sequence <= high; sequence++) {
+            int oldSlot = (int) (sequence & oldMask);
+
+            if ((oldOccupied[oldSlot >>> 6] & (1L << oldSlot)) == 0) {
+                continue;
+            }
+
+            int slot = (int) (sequence & mask);
+
+            values[slot] = oldValues[oldSlot];
+            timestamps[slot] = oldTimestamps[oldSlot];
+            occupied[slot >>> 6] |= 1L << slot;
+        }
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static class SpilledValue<V> {
+
+        final V value;
+        final long timestamp;
+
+        SpilledValue(V value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -2,16 +2,23 @@ package com.zipwhip.util;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Created by IntelliJ IDEA.
  * Date: Jul 18, 2009
  * Time: 4:34:17 PM
+ * <p/>
+ * A {@code Mac} is not thread safe, so every signature is made with a {@code Mac} borrowed from a pool of clones of
+ * the one made in {@link #setSecret(String)}. Concurrent callers each get their own, so signing doesn't serialize the
+ * outbound requests. The pool only grows to the number of threads that have signed at the same time.
  */
 public class SignTool {
 
-    private javax.crypto.Mac mac = null;
-    private String apiKey = null;
+    private static final String ALGORITHM = "HmacSHA1";
+
+    private volatile Signer signer = null;
+    private volatile String apiKey = null;
 
     public SignTool() {
     }
@@ -35,40 +42,75 @@ public class SignTool {
      * @return {@code TRUE} if it is prepared otherwise {@code FALSE}
      */
     public boolean prepared() {
-        return !(mac == null);
+        return !(signer == null);
     }
 
     /**
      * This method converts SecretKey into crypto instance.
+     * <p/>
+     * Signatures that are in flight when the secret changes finish with the old secret.
      *
      * @param secret SecretKey
      * @throws Exception If an error occurs creating the crypto.
      */
     public void setSecret(String secret) throws Exception {
         if (secret == null) {
-            mac = null;
+            signer = null;
         } else {
-            mac = Mac.getInstance("HmacSHA1");
-            byte[] keyBytes = secret.getBytes("UTF8");
-            mac.init(new SecretKeySpec(keyBytes, "HmacSHA1"));
+            signer = new Signer(new SecretKeySpec(secret.getBytes("UTF8"), ALGORITHM));
         }
     }
 
     /**
-     * Creates a signature for a given String.
+     * Creates a signature for a given String. This is safe to call from many threads at once.
+     *
      * @param data The String to create the signature for.
      * @return The signature.
      * @throws Exception If an error occurs creating the signature.
      */
     public String sign(String data) throws Exception {
-        if (mac == null) {
+        Signer signer = this.signer;
+
+        if (signer == null) {
             return null;
         }
 
-        // Signed String mst be a BASE64 encoded.
-        return encodeBase64(mac.doFinal(data.getBytes("UTF8"))).trim();
+        PooledMac pooled = signer.borrow();
+        try {
+            // Signed String mst be a BASE64 encoded.
+            return encodeBase64(pooled.sign(data, 0, data.length()));
+        } finally {
+            signer.release(pooled);
+        }
     }
 
+    /**
+     * Sign a range of a {@code CharSequence} and append the signature to a builder, without making a String of
+     * either. The range may be part of {@code builder}, it is read before anything is appended.
+     *
+     * @param data    The chars to create the signature for.
+     * @param start   The index of the first char to sign.
+     * @param end     The index after the last char to sign.
+     * @param builder Where to append the signature.
+     * @return {@code true} if a signature was appended, {@code false} if this {@code SignTool} is not prepared.
+     * @throws Exception If an error occurs creating the signature.
+     */
+    public boolean appendSignature(CharSequence data, int start, int end, StringBuilder builder) throws Exception {
+        Signer signer = this.signer;
+
+        if (signer == null) {
+            return false;
+        }
+
+        PooledMac pooled = signer.borrow();
+        try {
+            byte[] signature = pooled.sign(data, start, end);
+            Base64.encode(signature, 0, signature.length, builder);
+            return true;
+        } finally {
+            signer.release(pooled);
+        }
+    }
 
     /**
      * Base 64 encode a byte array.
@@ -77,9 +119,87 @@ public class SignTool {
      * @return The base64 encoded String.
      */
     protected String encodeBase64(byte[] data) {
-        String base64 = new sun.misc.BASE64Encoder().encodeBuffer(data);
-        if (base64.endsWith("\r\n")) base64 = base64.substring(0, base64.length() - 2);
-        return base64;
+        return Base64.encode(data);
+    }
+
+    /**
+     * The pool of {@code Mac}s for one secret. It is replaced, not changed, when the secret changes so a {@code Mac}
+     * that is released late can't go back into the pool of a different secret.
+     */
+    private static class Signer {
+
+        private final SecretKeySpec key;
+        private final Mac prototype;
+        private final ConcurrentLinkedQueue<PooledMac> idle = new ConcurrentLinkedQueue<PooledMac>();
+
+        private Signer(SecretKeySpec key) throws Exception {
+            this.key = key;
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(key);
+        }
+
+        private PooledMac borrow() throws Exception {
+            PooledMac pooled = idle.poll();
+
+            return pooled == null ? new PooledMac(newMac()) : pooled;
+        }
+
+        private void release(PooledMac pooled) {
+            idle.offer(pooled);
+        }
+
+        private Mac newMac() throws Exception {
+            try {
+                // the prototype itself never signs anything, so cloning it doesn't race a signature.
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            }
+        }
+    }
+
+    /**
+     * A {@code Mac} and the scratch space to feed and read it, owned by one thread at a time.
+     */
+    private static class PooledMac {
+
+        private final Mac mac;
+        private final byte[] digest;
+        private byte[] buffer = new byte[256];
+
+        private PooledMac(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+        }
+
+        /**
+         * @return The signature, in an array that is reused by the next call.
+         */
+
+        private byte[] sign(CharSequence data, int start, int end) throws Exception {
+            int length = end - start;
+
+            if (length > buffer.length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+
+            // Signed urls are url encoded, so they are nearly always ASCII. Copy the chars straight into the
+            // buffer rather than have getBytes allocate a new array every time.
+            for (int i = 0; i < length; i++) {
+                char c = data.charAt(start + i);
+                if (c >= 0x80) {
+                    return mac.doFinal(data.subSequence(start, end).toString().getBytes("UTF8"));
+                }
+                buffer[i] = (byte) c;
+            }
+
+            mac.update(buffer, 0, length);
+            mac.doFinal(digest, 0);
+
+            return digest;
+        }
     }
 
 }
@@ -59,7 +59,13 @@ public class UrlUtil {
      */
     public static String getSignedUrl(String host, String apiVersion, String method, String params, String sessionKey, SignTool authenticator) throws Exception {
 
-        StringBuilder builder = new StringBuilder();
+        StringBuilder builder = new StringBuilder(256);
+        builder.append(host);
+
+        int signFrom = builder.length();
+
+        builder.append(apiVersion);
+        builder.append(method);
         builder.append(params);
 
         String connector = "&";
@@ -85,38 +91,25 @@ public class UrlUtil {
         builder.append("date=");
         builder.append(System.currentTimeMillis());
 
-        String url = apiVersion + method + builder.toString();
-        String signature = getSignature(authenticator, url);
-
-        if (StringUtil.exists(signature)) {
+        if (authenticator != null) {
+            int signTo = builder.length();
             builder.append("&signature=");
-            builder.append(signature);
-        }
 
-        url = host + apiVersion + method + builder.toString();
-        LOGGER.debug("Signed url: " + url);
-
-        return url;
-    }
+            // the signature covers everything after the host
+            if (!authenticator.appendSignature(builder, signFrom, signTo, builder)) {
+                builder.setLength(signTo);
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Signing: " + builder.substring(signFrom, signTo));
+            }
+        }
 
-    /**
-     * Sign a URL.
-     *
-     * @param authenticator The SignTool to use in signing.
-     * @param url           The URL to sign
-     * @return The encrypted secret of an empty string.
-     * @throws Exception Id an error occurs signing the URL.
-     */
-    private static String getSignature(SignTool authenticator, String url) throws Exception {
+        String url = builder.toString();
 
-        if (authenticator == null) {
-            return StringUtil.EMPTY_STRING;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Signed url: " + url);
         }
 
-        String result = authenticator.sign(url);
-        LOGGER.debug("Signing: " + url);
-
-        return result;
+        return url;
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.zipwhip.api;
 
+import com.zipwhip.api.dto.Message;
 import com.zipwhip.api.response.ServerResponse;
 import com.zipwhip.api.response.StringServerResponse;
 import com.zipwhip.api.settings.MemorySettingStore;
@@ -255,6 +256,26 @@ public class DefaultZipwhipClientTest {
         assertFalse(connectionChangedObserver.connected);
     }
 
+    @Test
+    public void testIterateMessages() throws Exception {
+        ((MockApiConnection) apiConnection).messages = 25;
+
+        int count = 0;
+        for (Message message : client.iterateMessages(10)) {
+            assertEquals(count++, message.getId());
+            assertEquals("Hello", message.getBody());
+        }
+        assertEquals(25, count);
+
+        ((MockApiConnection) apiConnection).messages = -1;
+        try {
+            client.iterateMessages(10).iterator().hasNext();
+            fail("The server said no");
+        } catch (IllegalStateException e) {
+            assertEquals("Bad session", e.getCause().getMessage());
+        }
+    }
+
     @Test
     public void testConnectSignalConnectTwoTimesQuicklyReturnsSameFuture() throws Exception {
 
@@ -443,6 +464,8 @@ public class DefaultZipwhipClientTest {
         boolean failSignalsConnect = false;
         boolean failSignalsConnectWithException = false;
         boolean missSignalsConnect = false;
+        // how many messages message/list has, or -1 for an error
+        int messages = 0;
 
         @Override
         public ObservableFuture<String> send(String method, Map<String, Object> params) throws Exception {
@@ -467,6 +490,21 @@ public class DefaultZipwhipClientTest {
                 }
             }
 
+            if (ZipwhipNetworkSupport.MESSAGE_LIST.equalsIgnoreCase(method)) {
+                if (messages < 0) {
+                    result.setSuccess("{\"success\":false,\"response\":\"Bad session\"}");
+                } else {
+                    int start = Integer.parseInt((String) params.get("start"));
+                    int limit = Integer.parseInt((String) params.get("limit"));
+
+                    StringBuilder list = new StringBuilder("{\"success\":true,\"total\":" + messages + ",\"response\":[");
+                    for (int i = start; i < Math.min(messages, start + limit); i++) {
+                        list.append(i == start ? "" : ",").append("{\"id\":").append(i).append(",\"body\":\"Hello\"}");
+                    }
+                    result.setSuccess(list.append("]}").toString());
+                }
+            }
+
             return result;
         }
 
@@ -0,0 +1,197 @@
+package com.zipwhip.api;
+
+import com.zipwhip.concurrent.ObservableFuture;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.*;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Fires a burst of requests at a keep-alive stub server on localhost and checks that they go out over a stable set of
+ * pooled connections.
+ */
+public class NingHttpConnectionLoadTest {
+
+    private static final int MAX_CONNECTIONS = 8;
+    private static final int ROUNDS = 5;
+    private static final int REQUESTS_PER_ROUND = 500;
+
+    private ServerBootstrap server;
+    private Channel serverChannel;
+    private String host;
+    private final AtomicInteger acceptedChannels = new AtomicInteger();
+    private final AtomicInteger served = new AtomicInteger();
+
+    private ExecutorService workerExecutor;
+    private NingHttpConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        // the stand-in server answers every request with a small json body and keeps the connection open.
+        server = new ServerBootstrap(new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool(), 2));
+        server.setPipelineFactory(new ChannelPipelineFactory() {
+            @Override
+            public ChannelPipeline getPipeline() throws Exception {
+                return Channels.pipeline(new HttpRequestDecoder(), new HttpResponseEncoder(), new SimpleChannelUpstreamHandler() {
+                    @Override
+                    public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+                        acceptedChannels.incrementAndGet();
+                    }
+
+                    @Override
+                    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+                        ChannelBuffer content = ChannelBuffers.copiedBuffer("{\"success\":true,\"response\":" + served.incrementAndGet() + "}", CharsetUtil.UTF_8);
+
+                        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                        response.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/json");
+                        response.setHeader(HttpHeaders.Names.CONTENT_LENGTH, content.readableBytes());
+                        response.setHeader(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+                        response.setContent(content);
+
+                        e.getChannel().write(response);
+                    }
+                });
+            }
+        });
+        serverChannel = server.bind(new InetSocketAddress("127.0.0.1", 0));
+        host = "http://127.0.0.1:" + ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+
+        workerExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (connection != null) {
+            connection.destroy();
+        }
+        workerExecutor.shutdownNow();
+
+        serverChannel.close().awaitUninterruptibly();
+        server.releaseExternalResources();
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        HttpClientSettings settings = new HttpClientSettings()
+                .setMaxConnectionsPerHost(MAX_CONNECTIONS)
+                .setMaxConnections(MAX_CONNECTIONS * 2)
+                .setIdleTimeoutMillis(60000);
+
+        connection = new NingHttpConnection(workerExecutor, null, null, settings);
+        connection.setHost(host);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            burst();
+
+            HttpPoolStats stats = connection.getPoolStats();
+            System.out.println("round " + round + ": " + stats + ", server accepted " + acceptedChannels.get());
+
+            assertEquals(0, stats.getActive());
+            assertEquals(0, stats.getPending());
+            assertTrue(stats.getIdle() <= MAX_CONNECTIONS);
+        }
+
+        HttpPoolStats stats = connection.getPoolStats();
+
+        assertEquals(ROUNDS * REQUESTS_PER_ROUND, served.get());
+        assertEquals(ROUNDS * REQUESTS_PER_ROUND, stats.getRequests());
+
+        // the first burst opens the connections, and no more are needed after that.
+        assertTrue("accepted " + acceptedChannels.get(), acceptedChannels.get() <= MAX_CONNECTIONS);
+        assertTrue(stats.toString(), stats.getReused() >= stats.getRequests() - acceptedChannels.get());
+    }
+
+    @Test
+    public void testPendingPastTheLimit() throws Exception {
+        connection = new NingHttpConnection(workerExecutor, null, null, new HttpClientSettings().setMaxConnectionsPerHost(1));
+        connection.setHost(host);
+
+        List<ObservableFuture<String>> futures = new ArrayList<ObservableFuture<String>>();
+        int mostPending = 0;
+
+        for (int i = 0; i < 50; i++) {
+            futures.addAll(send(1));
+
+            HttpPoolStats stats = connection.getPoolStats();
+            assertTrue(stats.toString(), stats.getActive() <= 1);
+            mostPending = Math.max(mostPending, stats.getPending());
+        }
+
+        await(futures);
+
+        assertTrue(mostPending > 0);
+
+        assertEquals(1, acceptedChannels.get());
+        assertEquals(0, connection.getPoolStats().getPending());
+    }
+
+    @Test
+    public void testNoLimitByDefault() throws Exception {
+        assertEquals(HttpClientSettings.NO_LIMIT, new HttpClientSettings().getMaxConnectionsPerHost());
+        assertEquals(HttpClientSettings.NO_LIMIT, new HttpClientSettings().getMaxConnections());
+
+        connection = new NingHttpConnection(workerExecutor, null, null, new HttpClientSettings());
+        connection.setHost(host);
+
+        List<ObservableFuture<String>> futures = send(50);
+        assertEquals(0, connection.getPoolStats().getPending());
+
+        await(futures);
+        assertEquals(50, served.get());
+    }
+
+    @Test
+    public void testNoKeepAlive() throws Exception {
+        connection = new NingHttpConnection(workerExecutor, null, null, new HttpClientSettings().setKeepAlive(false).setMaxConnectionsPerHost(4));
+        connection.setHost(host);
+
+        await(send(20));
+
+        HttpPoolStats stats = connection.getPoolStats();
+        assertEquals(0, stats.getIdle());
+        assertEquals(0, stats.getReused());
+        assertEquals(20, acceptedChannels.get());
+    }
+
+    private void burst() throws Exception {
+        await(send(REQUESTS_PER_ROUND));
+    }
+
+    private List<ObservableFuture<String>> send(int count) throws Exception {
+        List<ObservableFuture<String>> futures = new ArrayList<ObservableFuture<String>>(count);
+
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("index", i);
+            futures.add(connection.send("user/get", params));
+        }
+
+        return futures;
+    }
+
+    private static void await(List<ObservableFuture<String>> futures) throws Exception {
+        for (ObservableFuture<String> future : futures) {
+            assertTrue(future.await(30, TimeUnit.SECONDS));
+            assertTrue(String.valueOf(future.getCause()), future.isSuccess());
+        }
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.zipwhip.api;
+
+import com.zipwhip.concurrent.DefaultObservableFuture;
+import com.zipwhip.concurrent.ObservableFuture;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+public class PageIteratorTest {
+
+    private final ExecutorService server = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testReadsEveryPageInOrder() throws Exception {
+        FakePages pages = new FakePages(250, 100, 1);
+
+        List<Integer> result = new ArrayList<Integer>();
+        while (pages.hasNext()) {
+            result.add(pages.next());
+        }
+
+        assertEquals(250, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, result.get(i).intValue());
+        }
+
+        // the last page was short, so it asked again from where it ended until a page was empty
+        assertEquals(Arrays.asList(0, 100, 200, 300, 250, 300), pages.starts);
+        assertTrue(pages.requests.get(3).isCancelled());
+        assertTrue(pages.requests.get(5).isCancelled());
+        assertTrue(pages.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testServerSendsLessThanAskedFor() throws Exception {
+        FakePages pages = new FakePages(250, 100, 1);
+        pages.maxLimit = 30;
+
+        List<Integer> result = new ArrayList<Integer>();
+        while (pages.hasNext()) {
+            result.add(pages.next());
+        }
+
+        assertEquals(250, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i, result.get(i).intValue());
+        }
+
+        // the page asked for ahead started in the wrong place, after that it only asks for what the server sends
+        assertEquals(Arrays.asList(0, 100, 30, 60), pages.starts.subList(0, 4));
+        assertTrue(pages.requests.get(1).isCancelled());
+        assertEquals(30, pages.limits.get(2).intValue());
+    }
+
+    @Test
+    public void testStopsAtTheTotal() throws Exception {
+        FakePages pages = new FakePages(250, 100, 0);
+        pages.sendTotal = true;
+
+        int count = 0;
+        while (pages.hasNext()) {
+            pages.next();
+            count++;
+        }
+
+        assertEquals(250, count);
+        // no need to ask for the empty page after the total
+        assertEquals(Arrays.asList(0, 100, 200), pages.starts);
+    }
+
+    @Test
+    public void testPrefetchIsBounded() throws Exception {
+        FakePages pages = new FakePages(1000, 10, 3);
+
+        int count = 0;
+        while (pages.hasNext()) {
+            pages.next();
+            count++;
+
+            // the page being read and 3 ahead of it
+            assertTrue(pages.requested() <= count / 10 + 4);
+        }
+
+        assertEquals(1000, count);
+        assertTrue(pages.maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testExactPagesAndNoPrefetch() throws Exception {
+        FakePages pages = new FakePages(20, 10, 0);
+
+        int count = 0;
+        while (pages.hasNext()) {
+            pages.next();
+            count++;
+        }
+
+        assertEquals(20, count);
+        // the empty page at 20 is how it knows the list is over
+        assertEquals(Arrays.asList(0, 10, 20), pages.starts);
+        assertFalse(pages.hasNext());
+    }
+
+    @Test
+    public void testFailedPage() throws Exception {
+        FakePages pages = new FakePages(250, 100, 1);
+        pages.failAt = 100;
+
+        int count = 0;
+        try {
+            while (pages.hasNext()) {
+                pages.next();
+                count++;
+            }
+            fail("The second page failed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("100"));
+        }
+
+        assertEquals(100, count);
+        assertFalse(pages.hasNext());
+    }
+
+    /**
+     * A list of the numbers up to size, where a page comes back on another thread. Pages after the end never come.
+     */
+    private class FakePages extends PageIterator<Integer> {
+
+        private final int size;
+        private final List<Integer> starts = new ArrayList<Integer>();
+        private final List<Integer> limits = new ArrayList<Integer>();
+        private final List<ObservableFuture<String>> requests = new ArrayList<ObservableFuture<String>>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private int failAt = -1;
+        private int maxLimit = Integer.MAX_VALUE;
+        private boolean sendTotal;
+
+        private FakePages(int size, int pageSize, int prefetch) {
+            super(pageSize, prefetch, 10);
+            this.size = size;
+        }
+
+        private int requested() {
+            return starts.size();
+        }
+
+        @Override
+        protected ObservableFuture<String> request(final int start, final int limit) throws Exception {
+            final ObservableFuture<String> result = new DefaultObservableFuture<String>(this);
+
+            starts.add(start);
+            limits.add(limit);
+            requests.add(result);
+
+            if (start > size) {
+                // a slow server, so it will still be in flight when it's cancelled
+                return result;
+            }
+
+            int now = inFlight.incrementAndGet();
+            if (now > maxInFlight.get()) {
+                maxInFlight.set(now);
+            }
+
+            server.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (start == failAt) {
+                        result.setFailure(new Exception("Server error"));
+                        return;
+                    }
+
+                    StringBuilder page = new StringBuilder();
+                    for (int i = start; i < Math.min(size, start + Math.min(limit, maxLimit)); i++) {
+                        page.append(i).append(',');
+                    }
+                    result.setSuccess(page.toString());
+                }
+            });
+
+            return result;
+        }
+
+        @Override
+        protected Iterator<Integer> read(String page) throws Exception {
+            inFlight.decrementAndGet();
+
+            List<Integer> result = new ArrayList<Integer>();
+            for (String number : page.split(",")) {
+                if (number.length() > 0) {
+                    result.add(Integer.valueOf(number));
+                }
+            }
+            return result.iterator();
+        }
+
+        @Override
+        protected int total(Iterator<Integer> page) {
+            return sendTotal ? size : -1;
+        }
+    }
+
+}
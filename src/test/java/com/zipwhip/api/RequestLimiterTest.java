@@ -0,0 +1,155 @@
+package com.zipwhip.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+public class RequestLimiterTest {
+
+    @Test
+    public void testQueuesPastTheLimit() throws Exception {
+        final RequestLimiter limiter = new RequestLimiter(2);
+        final List<Integer> started = new ArrayList<Integer>();
+
+        for (int i = 0; i < 5; i++) {
+            final int index = i;
+            limiter.submit(new Runnable() {
+                @Override
+                public void run() {
+                    started.add(index);
+                }
+            });
+        }
+
+        assertEquals(2, started.size());
+        assertEquals(2, limiter.getActive());
+        assertEquals(3, limiter.getPending());
+
+        limiter.release();
+        assertEquals(3, started.size());
+        assertEquals(2, limiter.getActive());
+        assertEquals(2, limiter.getPending());
+
+        limiter.release();
+        limiter.release();
+        limiter.release();
+        limiter.release();
+
+        // in the order they were submitted
+        assertEquals(5, started.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, started.get(i).intValue());
+        }
+
+        assertEquals(0, limiter.getActive());
+        assertEquals(0, limiter.getPending());
+    }
+
+    @Test
+    public void testNeverMoreThanTheLimit() throws Exception {
+        final int limit = 4;
+        final int requests = 20000;
+
+        final RequestLimiter limiter = new RequestLimiter(limit);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger highest = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(requests);
+
+        // stands in for the IO threads that finish requests
+        final ConcurrentLinkedQueue<Runnable> inFlight = new ConcurrentLinkedQueue<Runnable>();
+        final ExecutorService io = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            io.execute(new Runnable() {
+                @Override
+                public void run() {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Runnable finish = inFlight.poll();
+                        if (finish == null) {
+                            Thread.yield();
+                        } else {
+                            finish.run();
+                        }
+                    }
+                }
+            });
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < requests; i++) {
+            callers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    limiter.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            int now = running.incrementAndGet();
+                            int high;
+                            while (now > (high = highest.get()) && !highest.compareAndSet(high, now)) {
+                            }
+
+                            inFlight.offer(new Runnable() {
+                                @Override
+                                public void run() {
+                                    running.decrementAndGet();
+                                    limiter.release();
+                                    done.countDown();
+                                }
+                            });
+                        }
+                    });
+                }
+            });
+        }
+
+        try {
+            assertTrue(done.await(1, TimeUnit.MINUTES));
+        } finally {
+            callers.shutdownNow();
+            io.shutdownNow();
+        }
+
+        assertTrue("highest was " + highest.get(), highest.get() <= limit);
+        assertEquals(0, limiter.getActive());
+        assertEquals(0, limiter.getPending());
+    }
+
+    @Test
+    public void testFailingOnTheCallerDoesNotRecurse() throws Exception {
+        final RequestLimiter limiter = new RequestLimiter(1);
+        final AtomicInteger finished = new AtomicInteger();
+
+        // hold the only slot so everything else queues
+        limiter.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        for (int i = 0; i < 100000; i++) {
+            limiter.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // fails straight away, like a request Ning rejects
+                    finished.incrementAndGet();
+                    limiter.release();
+                }
+            });
+        }
+
+        limiter.release();
+
+        assertEquals(100000, finished.get());
+        assertEquals(0, limiter.getActive());
+        assertEquals(0, limiter.getPending());
+    }
+
+}
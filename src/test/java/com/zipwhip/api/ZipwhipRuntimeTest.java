@@ -0,0 +1,168 @@
+package com.zipwhip.api;
+
+import com.zipwhip.api.signals.SignalProvider;
+import com.zipwhip.api.signals.SocketSignalProviderFactory;
+import com.zipwhip.executors.CommonExecutorTypes;
+import com.zipwhip.timers.Timeout;
+import com.zipwhip.timers.TimerTask;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+public class ZipwhipRuntimeTest {
+
+    private static final int PROVIDERS = 200;
+
+    private ZipwhipRuntime runtime;
+
+    private ServerBootstrap server;
+    private Channel serverChannel;
+    private InetSocketAddress address;
+    private final AtomicInteger acceptedChannels = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        runtime = new ZipwhipRuntime(2, 4, 2);
+
+        // the stand-in server just accepts the sockets and holds them open.
+        server = new ServerBootstrap(new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool(), 1));
+        server.setPipelineFactory(new ChannelPipelineFactory() {
+            @Override
+            public ChannelPipeline getPipeline() throws Exception {
+                return Channels.pipeline(new SimpleChannelUpstreamHandler() {
+                    @Override
+                    public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+                        acceptedChannels.incrementAndGet();
+                    }
+                });
+            }
+        });
+        serverChannel = server.bind(new InetSocketAddress("127.0.0.1", 0));
+        address = (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        runtime.destroy();
+
+        serverChannel.close().awaitUninterruptibly();
+        server.releaseExternalResources();
+    }
+
+    @Test
+    public void testProvidersCostNoThreads() throws Exception {
+        SocketSignalProviderFactory factory = SocketSignalProviderFactory.newInstance()
+                .runtime(runtime)
+                .address(address);
+
+        // warm up the shared pools.
+        List<SignalProvider> providers = new ArrayList<SignalProvider>();
+        connect(factory, providers, 1);
+
+        final int threadsBefore = Thread.activeCount();
+
+        connect(factory, providers, PROVIDERS);
+
+        final int threadsConnected = Thread.activeCount();
+        assertTrue(String.format("Used %d threads for %d providers", threadsConnected - threadsBefore, PROVIDERS),
+                threadsConnected - threadsBefore <= 4);
+
+        for (SignalProvider provider : providers) {
+            provider.destroy();
+        }
+
+        assertFalse(runtime.isDestroyed());
+    }
+
+    @Test
+    public void testSharedTimerCantBeStoppedByAUser() throws Exception {
+        runtime.getTimer().stop();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        runtime.getTimer().newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                latch.countDown();
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledTimeoutNeverRuns() throws Exception {
+        final AtomicBoolean ran = new AtomicBoolean();
+
+        Timeout timeout = runtime.getTimer().newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                ran.set(true);
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        timeout.cancel();
+
+        Thread.sleep(ZipwhipRuntime.DEFAULT_TICK_MILLIS * 3);
+
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.isExpired());
+        assertFalse(ran.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testClientFactoryNeedsARuntime() throws Exception {
+        new ZipwhipClientFactory(null, new SocketSignalProviderFactory(), null, null);
+    }
+
+    @Test
+    public void testShuttingDownALaneLeavesThePoolAlone() throws Exception {
+        ExecutorService lane1 = runtime.create(CommonExecutorTypes.EVENTS, "lane1");
+        ExecutorService lane2 = runtime.create(CommonExecutorTypes.EVENTS, "lane2");
+        ExecutorService worker = runtime.create(CommonExecutorTypes.WORKER, "worker");
+
+        lane1.shutdownNow();
+        worker.shutdownNow();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        lane2.execute(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(lane1.isShutdown());
+        assertTrue(worker.isTerminated());
+    }
+
+    private void connect(SocketSignalProviderFactory factory, List<SignalProvider> providers, int count) throws Exception {
+        int expected = acceptedChannels.get() + count;
+
+        for (int i = 0; i < count; i++) {
+            SignalProvider provider = factory.create();
+            providers.add(provider);
+            provider.connect();
+        }
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (acceptedChannels.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, acceptedChannels.get());
+    }
+}
@@ -0,0 +1,48 @@
+package com.zipwhip.api.http;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+
+import static junit.framework.Assert.*;
+
+public class CertificateHostNamesTest {
+
+    @Test
+    public void testCertificate() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        InputStream in = NioHttpClientTest.class.getResourceAsStream("localhost.jks");
+        try {
+            keyStore.load(in, "changeit".toCharArray());
+        } finally {
+            in.close();
+        }
+
+        X509Certificate certificate = (X509Certificate) keyStore.getCertificate("localhost");
+
+        assertTrue(CertificateHostNames.matches("localhost", certificate));
+        assertTrue(CertificateHostNames.matches("LOCALHOST.", certificate));
+        assertFalse(CertificateHostNames.matches("127.0.0.1", certificate));
+        assertFalse(CertificateHostNames.matches("evil.localhost", certificate));
+    }
+
+    @Test
+    public void testNames() throws Exception {
+        assertTrue(CertificateHostNames.matches("api.zipwhip.com", "api.zipwhip.com"));
+        assertTrue(CertificateHostNames.matches("api.zipwhip.com", "*.zipwhip.com"));
+        assertTrue(CertificateHostNames.matches("API.Zipwhip.com", "*.ZIPWHIP.COM"));
+
+        // a wildcard is exactly 1 label
+        assertFalse(CertificateHostNames.matches("zipwhip.com", "*.zipwhip.com"));
+        assertFalse(CertificateHostNames.matches("a.api.zipwhip.com", "*.zipwhip.com"));
+        assertFalse(CertificateHostNames.matches(".zipwhip.com", "*.zipwhip.com"));
+
+        // and never a whole top level domain
+        assertFalse(CertificateHostNames.matches("zipwhip.com", "*.com"));
+
+        assertFalse(CertificateHostNames.matches("api.zipwhip.com.evil.com", "api.zipwhip.com"));
+        assertFalse(CertificateHostNames.matches("evilzipwhip.com", "*zipwhip.com"));
+    }
+}
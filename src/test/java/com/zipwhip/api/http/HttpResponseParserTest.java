@@ -0,0 +1,112 @@
+package com.zipwhip.api.http;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
+
+import static junit.framework.Assert.*;
+
+public class HttpResponseParserTest {
+
+    @Test
+    public void testContentLength() throws Exception {
+        HttpResponseParser parser = parseWhole("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 16\r\n\r\n{\"success\":true}");
+
+        NioHttpResponse response = parser.toResponse();
+        assertEquals(200, response.getStatusCode());
+        assertEquals("OK", response.getStatusText());
+        assertEquals("application/json", response.getHeader("content-type"));
+        assertEquals("{\"success\":true}", response.getBody());
+        assertTrue(parser.isKeepAlive());
+    }
+
+    @Test
+    public void testChunkedOneByteAtATime() throws Exception {
+        String raw = "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n5;ext=1\r\nHello\r\n7\r\n, world\r\n0\r\nX-Trailer: 1\r\n\r\n";
+        byte[] bytes = raw.getBytes("ISO-8859-1");
+
+        HttpResponseParser parser = new HttpResponseParser(false);
+        for (int i = 0; i < bytes.length; i++) {
+            boolean done = parser.parse(ByteBuffer.wrap(bytes, i, 1));
+            assertEquals(i == bytes.length - 1, done);
+        }
+
+        assertEquals("Hello, world", parser.toResponse().getBody());
+        assertTrue(parser.isKeepAlive());
+    }
+
+    @Test
+    public void testStopsAtTheEndOfTheResponse() throws Exception {
+        ByteBuffer in = ByteBuffer.wrap("HTTP/1.1 204 No Content\r\n\r\nHTTP/1.1".getBytes("ISO-8859-1"));
+
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertTrue(parser.parse(in));
+        assertEquals(8, in.remaining());
+        assertEquals(0, parser.toResponse().getBodyLength());
+    }
+
+    @Test
+    public void testSkipsContinue() throws Exception {
+        HttpResponseParser parser = parseWhole("HTTP/1.1 100 Continue\r\n\r\nHTTP/1.1 201 Created\r\nContent-Length: 2\r\n\r\nok");
+
+        assertEquals(201, parser.toResponse().getStatusCode());
+        assertEquals("ok", parser.toResponse().getBody());
+    }
+
+    @Test
+    public void testBodyUntilClose() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+
+        assertFalse(parser.parse(ByteBuffer.wrap("HTTP/1.0 200 OK\r\n\r\nall of it".getBytes("ISO-8859-1"))));
+        assertTrue(parser.onClosed());
+        assertEquals("all of it", parser.toResponse().getBody());
+        assertFalse(parser.isKeepAlive());
+    }
+
+    @Test
+    public void testConnectionClose() throws Exception {
+        HttpResponseParser parser = parseWhole("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+        assertFalse(parser.isKeepAlive());
+    }
+
+    @Test
+    public void testTruncatedIsNotComplete() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+
+        assertFalse(parser.parse(ByteBuffer.wrap("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\nshort".getBytes("ISO-8859-1"))));
+        assertTrue(parser.isStarted());
+        assertFalse(parser.onClosed());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(zipped);
+        out.write("caf\u00e9 caf\u00e9 caf\u00e9".getBytes("UTF-8"));
+        out.close();
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        raw.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=UTF-8\r\nContent-Encoding: gzip\r\nContent-Length: " + zipped.size() + "\r\n\r\n").getBytes("ISO-8859-1"));
+        raw.write(zipped.toByteArray());
+
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertTrue(parser.parse(ByteBuffer.wrap(raw.toByteArray())));
+        assertEquals("caf\u00e9 caf\u00e9 caf\u00e9", parser.toResponse().getBody());
+    }
+
+    @Test(expected = IOException.class)
+    public void testBadStatusLine() throws Exception {
+        parseWhole("SSH-2.0-OpenSSH\r\n\r\n");
+    }
+
+    private static HttpResponseParser parseWhole(String raw) throws Exception {
+        HttpResponseParser parser = new HttpResponseParser(false);
+        assertTrue(parser.parse(ByteBuffer.wrap(raw.getBytes("ISO-8859-1"))));
+        return parser;
+    }
+
+}
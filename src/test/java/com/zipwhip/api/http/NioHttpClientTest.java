@@ -0,0 +1,558 @@
+package com.zipwhip.api.http;
+
+import com.zipwhip.api.HttpClientSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Runs {@link NioHttpClient} against a blocking stub server on localhost, plain and over TLS.
+ */
+public class NioHttpClientTest {
+
+    private Server server;
+    private NioHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new Server();
+        client = new NioHttpClient(new HttpClientSettings().setMaxConnectionsPerHost(2).setRequestTimeoutMillis(5000));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                return response("200 OK", "text/plain", head.substring(0, head.indexOf(' ', 4)).getBytes("UTF-8"));
+            }
+        };
+
+        for (int i = 0; i < 5; i++) {
+            Result result = send(NioHttpRequest.get(server.url("/page?i=" + i)));
+            assertEquals(200, result.response.getStatusCode());
+            assertEquals("GET /page?i=" + i, result.response.getBody());
+        }
+
+        assertEquals(1, server.accepted.get());
+        assertEquals(4, client.getPoolStats().getReused());
+        assertEquals(5, client.getPoolStats().getRequests());
+    }
+
+    @Test
+    public void testChunkedAndBinary() throws Exception {
+        final byte[] bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                return chunked(bytes, 30000);
+            }
+        };
+
+        Result result = send(NioHttpRequest.get(server.url("/image")));
+
+        assertTrue(Arrays.equals(bytes, read(result.response.getBodyAsStream())));
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                assertTrue(head.contains("Accept-Encoding: gzip"));
+
+                ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+                GZIPOutputStream out = new GZIPOutputStream(zipped);
+                out.write("{\"success\":true}".getBytes("UTF-8"));
+                out.close();
+
+                ByteArrayOutputStream response = new ByteArrayOutputStream();
+                response.write(("HTTP/1.1 200 OK\r\nContent-Encoding: gzip\r\nContent-Length: " + zipped.size() + "\r\n\r\n").getBytes("ISO-8859-1"));
+                response.write(zipped.toByteArray());
+                return response.toByteArray();
+            }
+        };
+
+        assertEquals("{\"success\":true}", send(NioHttpRequest.get(server.url("/"))).response.getBody());
+    }
+
+    @Test
+    public void testPostAndMultipart() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                return response("200 OK", "text/plain", body);
+            }
+        };
+
+        Result posted = send(NioHttpRequest.post(server.url("/form"), "a=1&b=2".getBytes("UTF-8"), "application/x-www-form-urlencoded", null));
+        assertEquals("a=1&b=2", posted.response.getBody());
+
+        File file = File.createTempFile("upload", ".txt");
+        file.deleteOnExit();
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            contents.append("line ").append(i).append('\n');
+        }
+        OutputStream out = new FileOutputStream(file);
+        out.write(contents.toString().getBytes("UTF-8"));
+        out.close();
+
+        List<File> files = new ArrayList<File>();
+        files.add(file);
+
+        String uploaded = send(NioHttpRequest.multipart(server.url("/upload"), "data", files)).response.getBody();
+        assertTrue(uploaded.contains("name=\"data\"; filename=\"" + file.getName() + "\""));
+        assertTrue(uploaded.contains(contents.toString()));
+        assertTrue(uploaded.trim().endsWith("--"));
+    }
+
+    @Test
+    public void testRetriesAGetThatAPooledConnectionDropped() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                // answers the first request on a connection, then closes on the second without a word
+                return request == 0 ? response("200 OK", "text/plain", "ok".getBytes("UTF-8")) : CLOSE;
+            }
+        };
+
+        assertEquals("ok", send(NioHttpRequest.get(server.url("/"))).response.getBody());
+        assertEquals("ok", send(NioHttpRequest.get(server.url("/"))).response.getBody());
+
+        // the second GET was read on the pooled connection, then sent again on a new one
+        assertEquals(3, server.requests.get());
+        assertEquals(2, server.accepted.get());
+        assertEquals(1, client.getPoolStats().getReused());
+    }
+
+    @Test
+    public void testDoesNotResendAPost() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                return request == 0 ? response("200 OK", "text/plain", "ok".getBytes("UTF-8")) : CLOSE;
+            }
+        };
+
+        assertEquals("ok", send(NioHttpRequest.get(server.url("/"))).response.getBody());
+
+        Result result = new Result();
+        client.execute(NioHttpRequest.post(server.url("/"), "a=1".getBytes("UTF-8"), "application/x-www-form-urlencoded", null), result);
+
+        assertTrue(result.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(result.cause), result.cause instanceof IOException);
+        assertEquals(2, server.requests.get());
+        assertEquals(1, server.accepted.get());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        server.handler = null;
+
+        Result result = new Result();
+        NioHttpClient.Call call = client.execute(NioHttpRequest.get(server.url("/slow")), result);
+
+        assertTrue(server.received.await(5, TimeUnit.SECONDS));
+        assertTrue(call.cancel());
+        assertFalse(call.cancel());
+        assertTrue(call.isDone());
+
+        // the connection is closed, and the callback never hears of it
+        assertTrue(server.closed.await(5, TimeUnit.SECONDS));
+        assertFalse(result.latch.await(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        client.destroy();
+        client = new NioHttpClient(new HttpClientSettings().setRequestTimeoutMillis(300));
+        server.handler = null;
+
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        client.execute(NioHttpRequest.get(server.url("/slow")), result);
+
+        assertTrue(result.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(result.cause instanceof TimeoutException);
+        assertTrue(System.currentTimeMillis() - start >= 300);
+    }
+
+    @Test
+    public void testWaitsForTheConnectionLimit() throws Exception {
+        server.handler = new Handler() {
+            @Override
+            public byte[] handle(int request, String head, byte[] body) throws Exception {
+                Thread.sleep(20);
+                return response("200 OK", "text/plain", "ok".getBytes("UTF-8"));
+            }
+        };
+
+        List<Result> results = new ArrayList<Result>();
+        for (int i = 0; i < 20; i++) {
+            Result result = new Result();
+            client.execute(NioHttpRequest.get(server.url("/")), result);
+            results.add(result);
+        }
+
+        for (Result result : results) {
+            assertTrue(result.latch.await(5, TimeUnit.SECONDS));
+            assertEquals("ok", result.response.getBody());
+        }
+
+        assertEquals(2, server.accepted.get());
+    }
+
+    @Test
+    public void testConnectionRefused() throws Exception {
+        int port = server.port;
+        server.close();
+
+        Result result = new Result();
+        client.execute(NioHttpRequest.get("http://127.0.0.1:" + port + "/"), result);
+
+        assertTrue(result.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(result.cause instanceof IOException);
+    }
+
+    @Test
+    public void testTls() throws Exception {
+        SSLContext context = localhostContext();
+        Server tls = new Server(context.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getByName("127.0.0.1")), "https", "localhost");
+
+        client.destroy();
+        client = new NioHttpClient(new HttpClientSettings().setRequestTimeoutMillis(5000), context);
+
+        try {
+            final byte[] bytes = new byte[200000];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) i;
+            }
+
+            tls.handler = new Handler() {
+                @Override
+                public byte[] handle(int request, String head, byte[] body) throws Exception {
+                    // bigger than a TLS record, in chunks that don't line up with the records
+                    return chunked(bytes, 70001);
+                }
+            };
+
+            for (int i = 0; i < 3; i++) {
+                NioHttpResponse response = send(NioHttpRequest.get(tls.url("/image?i=" + i))).response;
+                assertEquals(200, response.getStatusCode());
+                assertTrue(Arrays.equals(bytes, read(response.getBodyAsStream())));
+            }
+
+            assertEquals(1, tls.accepted.get());
+            assertEquals(2, client.getPoolStats().getReused());
+        } finally {
+            tls.close();
+        }
+    }
+
+    @Test
+    public void testTlsHostNameMismatch() throws Exception {
+        // checked by the engine from Java 7, and by the client after the handshake before that
+        SSLContext context = localhostContext();
+        Server tls = new Server(context.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getByName("127.0.0.1")), "https", "127.0.0.1");
+
+        client.destroy();
+        client = new NioHttpClient(new HttpClientSettings().setRequestTimeoutMillis(5000), context);
+
+        try {
+            tls.handler = new Handler() {
+                @Override
+                public byte[] handle(int request, String head, byte[] body) throws Exception {
+                    return response("200 OK", "text/plain", "ok".getBytes("UTF-8"));
+                }
+            };
+
+            // the certificate is for localhost, not 127.0.0.1
+            Result result = new Result();
+            client.execute(NioHttpRequest.get(tls.url("/")), result);
+
+            assertTrue(result.latch.await(5, TimeUnit.SECONDS));
+            assertTrue(String.valueOf(result.cause), result.cause instanceof SSLException);
+            assertEquals(0, tls.requests.get());
+        } finally {
+            tls.close();
+        }
+    }
+
+    /**
+     * A context that serves, and trusts, the self-signed certificate for localhost in localhost.jks.
+     */
+    private static SSLContext localhostContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        InputStream in = NioHttpClientTest.class.getResourceAsStream("localhost.jks");
+        try {
+            keyStore.load(in, "changeit".toCharArray());
+        } finally {
+            in.close();
+        }
+
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, "changeit".toCharArray());
+
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return context;
+    }
+
+    private Result send(NioHttpRequest request) throws Exception {
+        Result result = new Result();
+        client.execute(request, result);
+
+        assertTrue("No response to " + request, result.latch.await(5, TimeUnit.SECONDS));
+        if (result.cause != null) {
+            throw new AssertionError(result.cause);
+        }
+
+        return result;
+    }
+
+    private static byte[] response(String status, String contentType, byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Type: " + contentType + "\r\nContent-Length: " + body.length + "\r\n\r\n").getBytes("ISO-8859-1"));
+        out.write(body);
+        return out.toByteArray();
+    }
+
+    private static byte[] chunked(byte[] bytes, int chunkSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("HTTP/1.1 200 OK\r\nContent-Type: image/png\r\nTransfer-Encoding: chunked\r\n\r\n".getBytes("ISO-8859-1"));
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - i);
+            out.write((Integer.toHexString(length) + "\r\n").getBytes("ISO-8859-1"));
+            out.write(bytes, i, length);
+            out.write("\r\n".getBytes("ISO-8859-1"));
+        }
+        out.write("0\r\n\r\n".getBytes("ISO-8859-1"));
+        return out.toByteArray();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        return out.toByteArray();
+    }
+
+    private static class Result implements NioHttpClient.Callback {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile NioHttpResponse response;
+        volatile Throwable cause;
+
+        @Override
+        public void onResponse(NioHttpResponse response) {
+            this.response = response;
+            latch.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable cause) {
+            this.cause = cause;
+            latch.countDown();
+        }
+
+    }
+
+    private interface Handler {
+
+        /**
+         * @param request Which request this is on its connection, from 0.
+         * @return The raw response to write back, or {@link #CLOSE} to close the connection without answering.
+         */
+        byte[] handle(int request, String head, byte[] body) throws Exception;
+
+    }
+
+    /**
+     * Tells the server to close the connection without answering.
+     */
+    private static final byte[] CLOSE = new byte[0];
+
+    /**
+     * A thread per connection server that reads a request head and a Content-Length body, and writes back whatever
+     * the handler says. With no handler it reads the request and never answers.
+     */
+    private static class Server implements Runnable {
+
+        final ServerSocket socket;
+        final String scheme;
+        final String host;
+        final int port;
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        volatile Handler handler;
+
+        Server() throws IOException {
+            this(new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1")), "http", "127.0.0.1");
+        }
+
+        /**
+         * @param socket A plain or SSL server socket on 127.0.0.1.
+         * @param scheme What goes in the URLs, http or https.
+         * @param host   What goes in the URLs, localhost and 127.0.0.1 both reach the socket.
+         */
+        Server(ServerSocket socket, String scheme, String host) {
+            this.socket = socket;
+            this.scheme = scheme;
+            this.host = host;
+            this.port = socket.getLocalPort();
+
+            Thread thread = new Thread(this, "stub-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String url(String file) {
+            return scheme + "://" + host + ":" + port + file;
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!socket.isClosed()) {
+                final Socket connection;
+                try {
+                    connection = socket.accept();
+                } catch (IOException e) {
+                    return;
+                }
+
+                accepted.incrementAndGet();
+
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(connection);
+                    }
+                }, "stub-connection");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        private void serve(Socket connection) {
+            try {
+                InputStream in = connection.getInputStream();
+                OutputStream out = connection.getOutputStream();
+
+                for (int request = 0; ; request++) {
+                    String head = readHead(in);
+                    if (head == null) {
+                        closed.countDown();
+                        return;
+                    }
+
+                    byte[] body = new byte[contentLength(head)];
+                    for (int read = 0; read < body.length; ) {
+                        int n = in.read(body, read, body.length - read);
+                        if (n < 0) {
+                            return;
+                        }
+                        read += n;
+                    }
+
+                    requests.incrementAndGet();
+                    received.countDown();
+
+                    Handler handler = this.handler;
+                    if (handler == null) {
+                        continue;
+                    }
+
+                    byte[] response = handler.handle(request, head, body);
+                    if (response == CLOSE) {
+                        return;
+                    }
+
+                    out.write(response);
+                    out.flush();
+                }
+            } catch (Exception e) {
+                closed.countDown();
+            } finally {
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        private static String readHead(InputStream in) throws IOException {
+            StringBuilder head = new StringBuilder();
+
+            int c;
+            while ((c = in.read()) != -1) {
+                head.append((char) c);
+                if (head.length() >= 4 && head.substring(head.length() - 4).equals("\r\n\r\n")) {
+                    return head.toString();
+                }
+            }
+
+            return null;
+        }
+
+        private static int contentLength(String head) {
+            for (String line : head.split("\r\n")) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    return Integer.parseInt(line.substring(15).trim());
+                }
+            }
+
+            return 0;
+        }
+
+    }
+
+}
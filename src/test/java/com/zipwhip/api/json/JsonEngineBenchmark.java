@@ -0,0 +1,81 @@
+package com.zipwhip.api.json;
+
+import com.zipwhip.api.response.JsonResponseParser;
+import com.zipwhip.api.response.MessageListResult;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParser;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParserTest;
+import com.zipwhip.api.signals.commands.SignalCommand;
+import com.zipwhip.util.MicroBenchmark;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static junit.framework.Assert.*;
+
+/**
+ * org.json against the streaming engine, on a recorded signal frame and on a 100 message list response.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class JsonEngineBenchmark {
+
+    private static final int SIGNALS = 20000;
+    private static final int LISTS = 200;
+    private static final int MESSAGES_PER_LIST = 100;
+
+    @Test
+    public void testSignalFrames() throws Exception {
+        MicroBenchmark.Result org = signals("org.json signal frames", new JsonSignalCommandParser(new OrgJsonEngine()));
+        MicroBenchmark.Result streaming = signals("streaming signal frames", new JsonSignalCommandParser(new StreamingJsonEngine()));
+
+        assertTrue(streaming.getOperationsPerSecond() > org.getOperationsPerSecond());
+    }
+
+    @Test
+    public void testMessageLists() throws Exception {
+        String message = new JSONObject(JsonSignalCommandParserTest.SIGNAL).getJSONObject("signal").getJSONObject("content").toString();
+
+        StringBuilder list = new StringBuilder("{\"success\":true,\"total\":1000,\"size\":" + MESSAGES_PER_LIST + ",\"response\":[");
+        for (int i = 0; i < MESSAGES_PER_LIST; i++) {
+            list.append(i == 0 ? "" : ",").append(message);
+        }
+        list.append("]}");
+
+        MicroBenchmark.Result org = lists("org.json message lists", new JsonResponseParser(new OrgJsonEngine()), list.toString());
+        MicroBenchmark.Result streaming = lists("streaming message lists", new JsonResponseParser(new StreamingJsonEngine()), list.toString());
+
+        assertTrue(streaming.getOperationsPerSecond() > org.getOperationsPerSecond());
+    }
+
+    private static MicroBenchmark.Result signals(String name, final JsonSignalCommandParser parser) {
+        return MicroBenchmark.run(name, SIGNALS, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < SIGNALS; i++) {
+                        SignalCommand command = (SignalCommand) parser.parse(JsonSignalCommandParserTest.SIGNAL);
+                        // what a client that routes by type looks at
+                        command.getSignal().getType();
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    private static MicroBenchmark.Result lists(String name, final JsonResponseParser parser, final String list) {
+        return MicroBenchmark.run(name, LISTS, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < LISTS; i++) {
+                        MessageListResult result = parser.parseMessagesListResult(parser.parse(list));
+                        assertEquals(MESSAGES_PER_LIST, result.getMessages().size());
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+}
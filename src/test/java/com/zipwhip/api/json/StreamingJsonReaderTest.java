@@ -0,0 +1,160 @@
+package com.zipwhip.api.json;
+
+import com.zipwhip.api.signals.commands.JsonSignalCommandParserTest;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static junit.framework.Assert.*;
+
+public class StreamingJsonReaderTest {
+
+    private static final String SIGNAL = "{\"content\":{\"body\":\"a } \\\" ] {\",\"list\":[1,{\"x\":[]}]},\"type\":\"message\"}";
+    private static final String JSON = " { \"action\" : \"SIGNAL\", \"version\":6, \"isBackfill\":true, \"reason\":null, " +
+            "\"signal\":" + SIGNAL + ", \"escaped\":\"tab\\there \\u00e9\", \"double\":1.5e3, \"numberString\":\"7\" } ";
+
+    @Test
+    public void testReadAndSkip() throws Exception {
+        JsonReader reader = new StreamingJsonReader(JSON);
+
+        assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+
+        assertEquals("action", reader.nextName());
+        assertEquals("SIGNAL", reader.nextString());
+        assertEquals("version", reader.nextName());
+        assertEquals(JsonToken.NUMBER, reader.peek());
+        assertEquals(6, reader.nextLong());
+        assertEquals("isBackfill", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        assertEquals("reason", reader.nextName());
+        // same as JSONObject.optString
+        assertEquals("null", reader.optString());
+        assertEquals("signal", reader.nextName());
+        assertEquals(SIGNAL, reader.nextRaw());
+        assertEquals("escaped", reader.nextName());
+        assertEquals("tab\there \u00e9", reader.nextString());
+        // a name is skipped with its value
+        reader.skipValue();
+        assertEquals("numberString", reader.nextName());
+        assertEquals(7, reader.optLong(-1));
+
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testNextValueMatchesJSONObject() throws Exception {
+        String[] documents = {JSON, JsonSignalCommandParserTest.SIGNAL, JsonSignalCommandParserTest.PRESENCE, JsonSignalCommandParserTest.SUB_COMPLETE};
+
+        for (String json : documents) {
+            JSONObject expected = new JSONObject(json);
+
+            assertEquals(canonical(expected), canonical(new StreamingJsonEngine().parseObject(json)));
+            // and the tokens read back out of the tree are the same
+            assertEquals(canonical(expected), canonical(new OrgJsonEngine().newReader(json).nextValue()));
+        }
+    }
+
+    @Test
+    public void testNextValueKeepsItsJson() throws Exception {
+        JsonReader reader = new StreamingJsonReader(JSON);
+        StringBuilder raw = new StringBuilder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("signal".equals(reader.nextName())) {
+                JSONObject signal = (JSONObject) reader.nextValue(raw);
+                assertEquals("message", signal.getString("type"));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        assertEquals(SIGNAL, raw.toString());
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testTreeReader() throws Exception {
+        JsonReader reader = new OrgJsonEngine().newReader(JSON);
+
+        long version = 0;
+        String reason = null;
+        String signal = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("version".equals(name)) {
+                version = reader.optLong(-1);
+            } else if ("reason".equals(name)) {
+                reason = reader.optString();
+            } else if ("signal".equals(name)) {
+                signal = reader.nextRaw();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        assertEquals(6, version);
+        assertEquals("null", reason);
+        // written back out of the tree
+        assertEquals("message", new JSONObject(signal).getString("type"));
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testBadJson() throws Exception {
+        String[] bad = {"", "[]", "{", "{\"a\"}", "{\"a\":}", "{\"a\":\"b}", "{\"a\":{\"b\":1}", "{\"a\":1 \"b\":2}", "{a:1}", "{} {}"};
+
+        for (String json : bad) {
+            try {
+                new StreamingJsonEngine().parseObject(json);
+                fail("Should not have parsed " + json);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+
+        assertEquals(0, new StreamingJsonEngine().parseObject(" { } ").length());
+    }
+
+    /**
+     * @return The value as json, with the keys sorted.
+     */
+    private static String canonical(Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            String[] keys = new String[object.length()];
+            Iterator<?> iterator = object.keys();
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = (String) iterator.next();
+            }
+            Arrays.sort(keys);
+
+            StringBuilder result = new StringBuilder("{");
+            for (String key : keys) {
+                result.append(JSONObject.quote(key)).append(':').append(canonical(object.get(key))).append(',');
+            }
+            return result.append('}').toString();
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+
+            StringBuilder result = new StringBuilder("[");
+            for (int i = 0; i < array.length(); i++) {
+                result.append(canonical(array.get(i))).append(',');
+            }
+            return result.append(']').toString();
+        }
+
+        return value.getClass().getSimpleName() + ":" + value;
+    }
+}
@@ -0,0 +1,86 @@
+package com.zipwhip.api.request;
+
+import com.zipwhip.util.MicroBenchmark;
+import com.zipwhip.util.SignTool;
+import com.zipwhip.util.UrlUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+
+/**
+ * RequestBuilder and UrlUtil.getSignedUrl against SignedRequestBuilder, on the params a MESSAGE_SEND to a few
+ * contacts has.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SignedRequestBuilderBenchmark {
+
+    private static final int REQUESTS = 20000;
+
+    private static final String HOST = "http://network.zipwhip.com/";
+    private static final String API_VERSION = "/";
+    private static final String METHOD = "message/send";
+    private static final String SESSION_KEY = "1443-2436546745637-636578-74487745:12345";
+
+    @Test
+    public void testMessageSend() throws Exception {
+        final SignTool authenticator = new SignTool("123456", "123456asdfasdf123456asdfasdf");
+        final Map<String, Object> params = messageSend();
+
+        for (final boolean encode : new boolean[]{false, true}) {
+            MicroBenchmark.Result old = MicroBenchmark.run("RequestBuilder + UrlUtil" + (encode ? " encoded" : ""), REQUESTS, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < REQUESTS; i++) {
+                            RequestBuilder rb = new RequestBuilder();
+                            rb.params(params, encode);
+                            UrlUtil.getSignedUrl(HOST, API_VERSION, METHOD, rb.build(), SESSION_KEY, authenticator);
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            MicroBenchmark.Result lean = MicroBenchmark.run("SignedRequestBuilder" + (encode ? " encoded" : ""), REQUESTS, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < REQUESTS; i++) {
+                            SignedRequestBuilder.getSignedUrl(HOST, API_VERSION, METHOD, params, encode, SESSION_KEY, authenticator);
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            assertTrue(lean.getOperationsPerSecond() > old.getOperationsPerSecond());
+        }
+    }
+
+    /**
+     * What DefaultZipwhipClient.sendMessage puts in the map.
+     */
+    private static Map<String, Object> messageSend() {
+        List<String> contacts = new ArrayList<String>();
+        contacts.add("2063758020");
+        contacts.add("2069305008");
+        contacts.add("4252466003");
+
+        Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("contacts", contacts);
+        params.put("body", "Hey, are we still on for lunch tomorrow at noon? Let me know if the new place works for you");
+        params.put("fromName", "Jed");
+        params.put("fromAddress", "0");
+        params.put("advertisement", null);
+
+        return params;
+    }
+}
@@ -0,0 +1,262 @@
+package com.zipwhip.api.request;
+
+import com.zipwhip.util.SignTool;
+import com.zipwhip.util.UrlUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+public class SignedRequestBuilderTest {
+
+    String host = "http://network.zipwhip.com/";
+    String apiVersion = "api/v1/";
+    String method = "message/send";
+    String sessionKey = "1443-2436546745637-636578-74487745:12345";
+
+    SignTool authenticator;
+    Map<String, Object> params;
+
+    @Before
+    public void setUp() throws Exception {
+        authenticator = new SignTool("123456", "123456asdfasdf123456asdfasdf");
+
+        List<String> contacts = new ArrayList<String>();
+        contacts.add("2063758020");
+        contacts.add("2069305008");
+
+        params = new LinkedHashMap<String, Object>();
+        params.put("contacts", contacts);
+        params.put("body", "Hello there, how's it going? 100% & then some");
+        params.put("fromName", null);
+        params.put("fromAddress", "0");
+        params.put("advertisement", "");
+    }
+
+    @Test
+    public void testSameAsRequestBuilder() throws Exception {
+        for (boolean encode : new boolean[]{false, true}) {
+            for (String session : new String[]{null, sessionKey}) {
+                for (SignTool tool : new SignTool[]{null, new SignTool(), authenticator}) {
+                    RequestBuilder rb = new RequestBuilder();
+                    rb.params(params, encode);
+
+                    String expected = UrlUtil.getSignedUrl(host, apiVersion, method, rb.build(), session, tool);
+                    String url = SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, encode, session, tool);
+
+                    Assert.assertEquals(withoutDate(expected), withoutDate(url));
+                    assertSigned(url, tool != null && tool.prepared());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoParams() throws Exception {
+        String url = SignedRequestBuilder.getSignedUrl(host, apiVersion, method, null, false, null, null);
+        Assert.assertTrue(url, url.startsWith(host + apiVersion + method + "?date="));
+
+        url = SignedRequestBuilder.getSignedUrl(host, apiVersion, method, new LinkedHashMap<String, Object>(), false, sessionKey, authenticator);
+        Assert.assertTrue(url, url.startsWith(host + apiVersion + method + "?session=" + sessionKey + "&apiKey=123456&date="));
+        assertSigned(url, true);
+    }
+
+    @Test
+    public void testPrefixReused() throws Exception {
+        String first = SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, false, sessionKey, authenticator);
+        String other = SignedRequestBuilder.getSignedUrl(host, apiVersion, "user/get", null, false, sessionKey, authenticator);
+        String again = SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, false, sessionKey, authenticator);
+
+        Assert.assertTrue(other, other.startsWith(host + apiVersion + "user/get?session="));
+        Assert.assertEquals(withoutDate(first), withoutDate(again));
+        assertSigned(again, true);
+    }
+
+    @Test
+    public void testShortParamsStayInUrl() throws Exception {
+        SignedRequest request = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, false, sessionKey, authenticator, RequestBodyPolicy.FORM_BODY);
+
+        Assert.assertFalse(request.isPost());
+        Assert.assertNull(request.getBody());
+        Assert.assertEquals(withoutDate(SignedRequestBuilder.getSignedUrl(host, apiVersion, method, params, false, sessionKey, authenticator)), withoutDate(request.getUrl()));
+    }
+
+    @Test
+    public void testNeverPost() throws Exception {
+        params.put("contacts", manyContacts(1000));
+
+        Assert.assertFalse(SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, false, sessionKey, authenticator, RequestBodyPolicy.NEVER).isPost());
+        Assert.assertFalse(SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, false, sessionKey, authenticator, null).isPost());
+    }
+
+    @Test
+    public void testFormBody() throws Exception {
+        params.put("contacts", manyContacts(300));
+
+        SignedRequest request = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, false, sessionKey, authenticator, RequestBodyPolicy.FORM_BODY);
+
+        Assert.assertTrue(request.isPost());
+        Assert.assertEquals(SignedRequest.FORM_CONTENT_TYPE, request.getContentType());
+        Assert.assertNull(request.getContentEncoding());
+
+        RequestBuilder rb = new RequestBuilder();
+        rb.params(params, true);
+        String body = new String(request.getBody(), "US-ASCII");
+        Assert.assertEquals(rb.build().substring(1), body);
+
+        String url = request.getUrl();
+        Assert.assertTrue(url, url.startsWith(host + apiVersion + method + "?session=" + sessionKey + "&apiKey=123456&date="));
+
+        // signed as if the params were still at the start of the query, the way the GET has them
+        RequestBuilder get = new RequestBuilder();
+        get.params(params, false);
+        int index = url.indexOf("&signature=");
+        String query = url.substring((host + apiVersion + method + "?").length(), index);
+        Assert.assertEquals(authenticator.sign(apiVersion + method + get.build() + "&" + query), url.substring(index + "&signature=".length()));
+    }
+
+    @Test
+    public void testGzipBody() throws Exception {
+        params.put("contacts", manyContacts(300));
+
+        SignedRequest plain = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, true, sessionKey, authenticator, RequestBodyPolicy.FORM_BODY);
+        SignedRequest gzipped = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, params, true, sessionKey, authenticator,
+                new RequestBodyPolicy(RequestBodyPolicy.DEFAULT_POST_THRESHOLD, 1024));
+
+        Assert.assertEquals(SignedRequest.GZIP_CONTENT_ENCODING, gzipped.getContentEncoding());
+        Assert.assertTrue(gzipped.getBody().length < plain.getBody().length);
+        Assert.assertEquals(new String(plain.getBody(), "US-ASCII"), new String(gunzip(gzipped.getBody()), "US-ASCII"));
+    }
+
+    @Test
+    public void testEncodedLikeUrlEncoder() throws Exception {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        chars[j] = (char) random.nextInt(0x80);
+                        break;
+                    case 1:
+                        chars[j] = (char) random.nextInt(0x800);
+                        break;
+                    case 2:
+                        // surrogates, paired and not
+                        chars[j] = (char) (0xd800 + random.nextInt(0x800));
+                        break;
+                    default:
+                        chars[j] = (char) random.nextInt(0x10000);
+                }
+            }
+
+            String value = new String(chars);
+            StringBuilder builder = new StringBuilder();
+            SignedRequestBuilder.appendEncoded(builder, value);
+
+            Assert.assertEquals(URLEncoder.encode(value, "UTF-8"), builder.toString());
+        }
+
+        StringBuilder builder = new StringBuilder();
+        SignedRequestBuilder.appendEncoded(builder, "smile 😀");
+        Assert.assertEquals("smile+%F0%9F%98%80", builder.toString());
+    }
+
+    @Test
+    public void testSignedText() throws Exception {
+        RecordingSignTool tool = new RecordingSignTool();
+        Map<String, Object> small = new LinkedHashMap<String, Object>();
+        small.put("body", "a b&c");
+
+        RequestBodyPolicy form = new RequestBodyPolicy(0, -1);
+        String auth = "session=" + sessionKey + "&apiKey=123456&date=";
+
+        // the GET that a body replaces
+        SignedRequestBuilder.getSignedRequest(host, apiVersion, method, small, false, sessionKey, tool, RequestBodyPolicy.NEVER);
+        Assert.assertEquals(apiVersion + method + "?body=a+b&c&" + auth, tool.signedWithoutDate());
+
+        SignedRequestBuilder.getSignedRequest(host, apiVersion, method, small, true, sessionKey, tool, RequestBodyPolicy.NEVER);
+        Assert.assertEquals(apiVersion + method + "?body=a+b%26c&" + auth, tool.signedWithoutDate());
+
+        // a body signs the same text as that GET, but is always encoded
+        SignedRequest request = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, small, false, sessionKey, tool, form);
+        Assert.assertEquals(apiVersion + method + "?body=a+b&c&" + auth, tool.signedWithoutDate());
+        Assert.assertEquals("body=a+b%26c", new String(request.getBody(), "US-ASCII"));
+
+        request = SignedRequestBuilder.getSignedRequest(host, apiVersion, method, small, true, sessionKey, tool, form);
+        Assert.assertEquals(apiVersion + method + "?body=a+b%26c&" + auth, tool.signedWithoutDate());
+        Assert.assertEquals("body=a+b%26c", new String(request.getBody(), "US-ASCII"));
+    }
+
+    /**
+     * Remembers the text it was last asked to sign.
+     */
+    private static class RecordingSignTool extends SignTool {
+
+        private String signed;
+
+        RecordingSignTool() throws Exception {
+            super("123456", "123456asdfasdf123456asdfasdf");
+        }
+
+        @Override
+        public boolean appendSignature(CharSequence data, int start, int end, StringBuilder builder) throws Exception {
+            signed = data.subSequence(start, end).toString();
+            return super.appendSignature(data, start, end, builder);
+        }
+
+        String signedWithoutDate() {
+            return signed.replaceAll("date=\\d+", "date=");
+        }
+
+    }
+
+    private void assertSigned(String url, boolean signed) throws Exception {
+        int index = url.indexOf("&signature=");
+
+        if (!signed) {
+            Assert.assertEquals(url, -1, index);
+            return;
+        }
+
+        Assert.assertTrue(url, index > 0);
+        Assert.assertEquals(authenticator.sign(url.substring(host.length(), index)), url.substring(index + "&signature=".length()));
+    }
+
+    private static List<String> manyContacts(int count) {
+        List<String> contacts = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            contacts.add(String.valueOf(2065550000L + i));
+        }
+        return contacts;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws Exception {
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static String withoutDate(String url) {
+        return url.replaceAll("date=\\d+.*", "date=");
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.dto.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes {@link JsonDtoBinders} from the key to property mapping below, which is the same mapping as
+ * {@link JsonDtoParser}. The type of each property is looked up on the DTO's setter.
+ * <p/>
+ * Run the main from the project directory after changing a mapping or a DTO. {@link JsonDtoBindersTest} fails if the
+ * checked in binders are out of date.
+ */
+public class JsonDtoBinderGenerator {
+
+    public static final String SOURCE = "src/main/java/com/zipwhip/api/response/JsonDtoBinders.java";
+
+    private static final String[] BASIC_DTO = {"lastUpdated", "dateCreated", "version"};
+
+    // "key" binds to the property of the same name, "key:property" to another one.
+    private static final Binder[] BINDERS = {
+            new Binder("MESSAGE", Message.class,
+                    "transmissionState", "id", "uuid", "deviceId", "contactId", "contactDeviceId", "address",
+                    "isRead:read", "deleted", "fingerprint", "cc", "bcc", "errorState", "body", "dateCreated",
+                    "lastUpdated", "sourceAddress", "destAddress:destinationAddress", "statusCode", "statusDesc",
+                    "thread", "channel", "fwd", "carrier", "subject", "to", "mobileNumber", "firstName", "lastName",
+                    "version", "type:messageType", "advertisement", "hasAttachment"),
+            new Binder("CONTACT", Contact.class, BASIC_DTO,
+                    "deviceId", "address", "mobileNumber", "state", "city", "id", "phoneKey", "thread", "fwd",
+                    "carrier", "firstName", "lastName", "MOCount:moCount", "ZOCount:zoCount", "zipcode", "latlong",
+                    "email", "notes", "channel", "loc", "deleted"),
+            new Binder("USER", User.class, BASIC_DTO,
+                    "mobileNumber", "phoneKey", "carrier", "firstName", "lastName", "MOCount:moCount",
+                    "ZOCount:zoCount", "zipcode", "email", "notes", "loc", "websiteDeviceId"),
+            new Binder("CONVERSATION", Conversation.class,
+                    "id", "deviceId", "deviceAddress", "fingerprint", "address", "cc", "bcc", "unreadCount",
+                    "lastContactId", "new", "deleted", "version", "lastContactDeviceId", "lastMessageBody",
+                    "lastContactFirstName", "lastContactLastName", "lastContactMobileNumber", "lastMessageDate",
+                    "lastNonDeletedMessageDate", "dateCreated", "lastUpdated"),
+            new Binder("DEVICE", Device.class,
+                    "id", "uuid", "address", "thread", "version", "lastUpdated", "dateCreated", "userId", "channel",
+                    "textline", "displayName"),
+            new Binder("MESSAGE_ATTACHMENT", MessageAttachment.class,
+                    "dateCreated", "deviceId", "id", "lastUpdated", "messageId", "mimeType", "new", "storageKey",
+                    "version"),
+            new Binder("CARBON_EVENT", CarbonEvent.class,
+                    "carbonDescriptor")
+    };
+
+    public static void main(String[] args) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(SOURCE)), "UTF-8");
+        try {
+            writer.write(generate());
+        } finally {
+            writer.close();
+        }
+    }
+
+    public static String generate() {
+        StringBuilder out = new StringBuilder();
+
+        out.append("package com.zipwhip.api.response;\n");
+        out.append("\n");
+        out.append("import com.zipwhip.api.dto.*;\n");
+        out.append("import com.zipwhip.api.json.JsonReader;\n");
+        out.append("import com.zipwhip.util.StringUtil;\n");
+        out.append("import org.json.JSONException;\n");
+        out.append("\n");
+        out.append("/**\n");
+        out.append(" * Generated by JsonDtoBinderGenerator in the test sources. Don't edit it, change the mapping there and run it.\n");
+        out.append(" * <p/>\n");
+        out.append(" * Each binder looks up the key in a switch on its hash code, the same way javac compiles a switch on strings.\n");
+        out.append(" */\n");
+        out.append("public final class JsonDtoBinders {\n");
+
+        for (Binder binder : BINDERS) {
+            binder.write(out);
+        }
+
+        out.append("\n");
+        out.append("    private JsonDtoBinders() {\n");
+        out.append("    }\n");
+        out.append("\n");
+        out.append("}\n");
+
+        return out.toString();
+    }
+
+    private static class Binder {
+
+        private final String name;
+        private final Class<?> type;
+        private final List<Field> fields = new ArrayList<Field>();
+
+        Binder(String name, Class<?> type, String... keys) {
+            this(name, type, new String[0], keys);
+        }
+
+        Binder(String name, Class<?> type, String[] inherited, String... keys) {
+            this.name = name;
+            this.type = type;
+
+            for (String key : inherited) {
+                fields.add(new Field(type, key));
+            }
+            for (String key : keys) {
+                fields.add(new Field(type, key));
+            }
+        }
+
+        void write(StringBuilder out) {
+            String dto = type.getSimpleName();
+            String variable = Character.toLowerCase(dto.charAt(0)) + dto.substring(1);
+
+            out.append("\n");
+            out.append("    public static final JsonDtoBinder<").append(dto).append("> ").append(name)
+                    .append(" = new JsonDtoBinder<").append(dto).append(">() {\n");
+            out.append("\n");
+            out.append("        @Override\n");
+            out.append("        protected ").append(dto).append(" create() {\n");
+            out.append("            ").append(dto).append(' ').append(variable).append(" = new ").append(dto).append("();\n");
+            for (Field field : fields) {
+                if (field.defaultValue != null) {
+                    out.append("            ").append(variable).append('.').append(field.setter)
+                            .append('(').append(field.defaultValue).append(");\n");
+                }
+            }
+            out.append("            return ").append(variable).append(";\n");
+            out.append("        }\n");
+            out.append("\n");
+            out.append("        @Override\n");
+            out.append("        protected boolean bind(").append(dto).append(' ').append(variable)
+                    .append(", String name, JsonReader reader) throws JSONException {\n");
+            out.append("            switch (name.hashCode()) {\n");
+
+            Map<Integer, List<Field>> cases = new TreeMap<Integer, List<Field>>();
+            for (Field field : fields) {
+                List<Field> list = cases.get(field.key.hashCode());
+                if (list == null) {
+                    list = new ArrayList<Field>();
+                    cases.put(field.key.hashCode(), list);
+                }
+                list.add(field);
+            }
+
+            for (Map.Entry<Integer, List<Field>> entry : cases.entrySet()) {
+                out.append("                case ").append(entry.getKey()).append(":\n");
+                for (Field field : entry.getValue()) {
+                    out.append("                    if (\"").append(field.key).append("\".equals(name)) {\n");
+                    out.append("                        ").append(variable).append('.').append(field.setter)
+                            .append('(').append(field.reader).append("(reader));\n");
+                    out.append("                        return true;\n");
+                    out.append("                    }\n");
+                }
+                out.append("                    return false;\n");
+            }
+
+            out.append("                default:\n");
+            out.append("                    return false;\n");
+            out.append("            }\n");
+            out.append("        }\n");
+            out.append("    };\n");
+        }
+    }
+
+    private static class Field {
+
+        private final String key;
+        private final String setter;
+        private final String reader;
+        private final String defaultValue;
+
+        Field(Class<?> type, String mapping) {
+            int colon = mapping.indexOf(':');
+            String property = colon < 0 ? mapping : mapping.substring(colon + 1);
+
+            this.key = colon < 0 ? mapping : mapping.substring(0, colon);
+            this.setter = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+
+            Class<?> parameter = null;
+            for (Method method : type.getMethods()) {
+                if (method.getName().equals(setter) && method.getParameterTypes().length == 1) {
+                    parameter = method.getParameterTypes()[0];
+                }
+            }
+
+            if (parameter == String.class) {
+                reader = "string";
+                defaultValue = "StringUtil.EMPTY_STRING";
+            } else if (parameter == long.class) {
+                reader = "longValue";
+                defaultValue = "0";
+            } else if (parameter == int.class) {
+                reader = "intValue";
+                defaultValue = "0";
+            } else if (parameter == boolean.class) {
+                reader = "booleanValue";
+                defaultValue = "false";
+            } else if (parameter == Date.class) {
+                reader = "date";
+                defaultValue = "null";
+            } else if (parameter == TransmissionState.class) {
+                // only set if the message has one
+                reader = "transmissionState";
+                defaultValue = null;
+            } else {
+                throw new IllegalArgumentException("Can't bind " + type.getSimpleName() + "." + setter + "(" + parameter + ")");
+            }
+        }
+    }
+
+}
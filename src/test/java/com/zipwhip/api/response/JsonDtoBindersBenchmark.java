@@ -0,0 +1,65 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.json.StreamingJsonEngine;
+import com.zipwhip.util.MicroBenchmark;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Per message cost of a 1,000 message list response: the JSONObject tree and JsonDtoParser against the binders in one
+ * pass over the tokens.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class JsonDtoBindersBenchmark {
+
+    private static final int LISTS = 20;
+    private static final int MESSAGES_PER_LIST = 1000;
+
+    @Test
+    public void testMessageLists() throws Exception {
+        String message = new JSONObject(JsonDtoParserTest.MESSAGE).getJSONObject("content").toString();
+
+        StringBuilder builder = new StringBuilder("{\"success\":true,\"total\":100000,\"size\":" + MESSAGES_PER_LIST + ",\"response\":[");
+        for (int i = 0; i < MESSAGES_PER_LIST; i++) {
+            builder.append(i == 0 ? "" : ",").append(message);
+        }
+        final String list = builder.append("]}").toString();
+
+        final JsonResponseParser tree = new JsonResponseParser();
+        MicroBenchmark.Result parser = MicroBenchmark.run("JsonDtoParser messages", LISTS * MESSAGES_PER_LIST, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < LISTS; i++) {
+                        assertEquals(MESSAGES_PER_LIST, tree.parseMessagesListResult(tree.parse(list)).getMessages().size());
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        final JsonResponseParser streaming = new JsonResponseParser(new StreamingJsonEngine());
+        MicroBenchmark.Result binders = MicroBenchmark.run("bound messages", LISTS * MESSAGES_PER_LIST, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < LISTS; i++) {
+                        assertEquals(MESSAGES_PER_LIST, streaming.parseMessagesListResult(list).getMessages().size());
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        System.out.println(String.format("Per message: %.1f us with JsonDtoParser, %.1f us bound",
+                1000000 / parser.getOperationsPerSecond(), 1000000 / binders.getOperationsPerSecond()));
+
+        assertTrue(binders.getOperationsPerSecond() > parser.getOperationsPerSecond());
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.zipwhip.api.response;
+
+import com.zipwhip.api.dto.*;
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.json.OrgJsonEngine;
+import com.zipwhip.api.json.StreamingJsonEngine;
+import com.zipwhip.util.Parser;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import static junit.framework.Assert.*;
+
+public class JsonDtoBindersTest {
+
+    private static final String ODD_MESSAGE = "{\"id\":\"42\",\"body\":null,\"isRead\":\"true\",\"deleted\":1,\"statusCode\":2.7," +
+            "\"fingerprint\":1.5e3,\"cc\":{\"a\":[1,2]},\"transmissionState\":\"QUEUED\",\"version\":null,\"destAddress\":12345," +
+            "\"dateCreated\":\"2011-09-08T15:21:46-07:00\",\"unknown\":{\"body\":\"not this one\"}}";
+    private static final String USER = "{\"mobileNumber\":\"2069308934\",\"firstName\":\"Ted\",\"MOCount\":3,\"ZOCount\":\"4\"," +
+            "\"websiteDeviceId\":132961202,\"version\":7,\"lastUpdated\":\"2011-09-09T15:04:44-07:00\",\"notes\":null}";
+
+    private final JsonDtoParser parser = new JsonDtoParser();
+
+    @Test
+    public void testGeneratedSourceIsCurrent() throws Exception {
+        File source = new File(System.getProperty("basedir", "."), JsonDtoBinderGenerator.SOURCE);
+        if (!source.exists()) {
+            // not run from the project directory
+            return;
+        }
+
+        assertEquals("Run JsonDtoBinderGenerator", JsonDtoBinderGenerator.generate(), read(source));
+    }
+
+    @Test
+    public void testBindersMatchJsonDtoParser() throws Exception {
+        assertSame(parser.MESSAGE_PARSER, JsonDtoBinders.MESSAGE, content(JsonDtoParserTest.MESSAGE));
+        assertSame(parser.MESSAGE_PARSER, JsonDtoBinders.MESSAGE, ODD_MESSAGE);
+        assertSame(parser.MESSAGE_PARSER, JsonDtoBinders.MESSAGE, "{}");
+        assertSame(parser.CONTACT_PARSER, JsonDtoBinders.CONTACT, content(JsonDtoParserTest.CONTACT));
+        assertSame(parser.USER_PARSER, JsonDtoBinders.USER, USER);
+        assertSame(parser.CONVERSATION_PARSER, JsonDtoBinders.CONVERSATION, content(JsonDtoParserTest.CONVERSATION));
+        assertSame(parser.DEVICE_PARSER, JsonDtoBinders.DEVICE, content(JsonDtoParserTest.DEVICE));
+        assertSame(parser.CARBON_PARSER, JsonDtoBinders.CARBON_EVENT, content(JsonDtoParserTest.CARBON));
+
+        Parser<JSONObject, MessageAttachment> attachments = new Parser<JSONObject, MessageAttachment>() {
+            @Override
+            public MessageAttachment parse(JSONObject object) throws Exception {
+                return parser.parseMessageAttachment(object);
+            }
+        };
+        assertSame(attachments, JsonDtoBinders.MESSAGE_ATTACHMENT, JsonDtoParserTest.ATTACHMENT);
+
+        Message message = JsonDtoBinders.MESSAGE.bind(new StreamingJsonEngine().newReader(ODD_MESSAGE));
+        assertEquals(42, message.getId());
+        assertEquals("", message.getBody());
+        assertTrue(message.isRead());
+        assertFalse(message.isDeleted());
+        assertEquals(2, message.getStatusCode());
+        assertEquals("1500.0", message.getFingerprint());
+        assertEquals("12345", message.getDestinationAddress());
+        assertNull(message.getTransmissionState());
+
+        assertNull(JsonDtoBinders.MESSAGE.bind(new StreamingJsonEngine().newReader("null")));
+    }
+
+    @Test
+    public void testMessagesListResult() throws Exception {
+        String message = content(JsonDtoParserTest.MESSAGE);
+        String list = "{\"success\":true,\"total\":1000,\"size\":3,\"response\":[" + message + "," + ODD_MESSAGE + "," + message + "]}";
+
+        JsonResponseParser treeParser = new JsonResponseParser();
+        MessageListResult expected = treeParser.parseMessagesListResult(treeParser.parse(list));
+
+        for (JsonEngine engine : new JsonEngine[]{new OrgJsonEngine(), new StreamingJsonEngine()}) {
+            MessageListResult result = new JsonResponseParser(engine).parseMessagesListResult(list);
+
+            assertEquals(1000, result.getTotal());
+            assertEquals(3, result.getSize());
+            assertEquals(expected.getMessages(), result.getMessages());
+        }
+
+        try {
+            new JsonResponseParser(new StreamingJsonEngine()).parseMessagesListResult("{\"success\":true,\"response\":\"no\"}");
+            fail("Not a list");
+        } catch (Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testListIterator() throws Exception {
+        String message = content(JsonDtoParserTest.MESSAGE);
+        String conversation = "{\"success\":true,\"response\":{\"conversation\":{},\"messages\":[" + message + "," + message + "],\"total\":2}}";
+
+        JsonListIterator<Message> messages = new JsonListIterator<Message>(new StreamingJsonEngine().newReader(conversation), JsonDtoBinders.MESSAGE, "response", "messages");
+        assertEquals(parser.parseMessage(new JSONObject(message)), messages.next());
+        assertTrue(messages.hasNext());
+        assertNull(messages.getSibling("total"));
+        messages.next();
+        assertFalse(messages.hasNext());
+        // read once the list is finished, the conversation is not a value
+        assertEquals("2", messages.getSibling("total"));
+        assertNull(messages.getSibling("conversation"));
+
+        String none = "{\"response\":{\"messages\":null}}";
+        assertFalse(new JsonListIterator<Message>(new StreamingJsonEngine().newReader(none), JsonDtoBinders.MESSAGE, "response", "messages").hasNext());
+
+        try {
+            new JsonListIterator<Message>(new StreamingJsonEngine().newReader("{\"success\":false,\"response\":\"Bad session\"}"), JsonDtoBinders.MESSAGE, "response");
+            fail("Not a list");
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    private static <T> void assertSame(Parser<JSONObject, T> parser, JsonDtoBinder<T> binder, String json) throws Exception {
+        T expected = parser.parse(new JSONObject(json));
+
+        for (JsonEngine engine : new JsonEngine[]{new OrgJsonEngine(), new StreamingJsonEngine()}) {
+            T dto = binder.bind(engine.newReader(json));
+
+            assertEquals(expected, dto);
+            assertEquals(expected.toString(), dto.toString());
+        }
+    }
+
+    private static String content(String signal) throws Exception {
+        return new JSONObject(signal).getJSONObject("content").toString();
+    }
+
+    private static String read(File file) throws Exception {
+        StringBuilder result = new StringBuilder();
+        Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                result.append(buffer, 0, read);
+            }
+        } finally {
+            reader.close();
+        }
+        return result.toString();
+    }
+
+}
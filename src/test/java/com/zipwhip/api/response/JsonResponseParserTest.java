@@ -1,6 +1,10 @@
 package com.zipwhip.api.response;
 
 import com.zipwhip.api.dto.*;
+import com.zipwhip.api.json.JsonEngine;
+import com.zipwhip.api.json.OrgJsonEngine;
+import com.zipwhip.api.json.StreamingJsonEngine;
+import com.zipwhip.api.signals.commands.JsonSignalCommandParserTest;
 import com.zipwhip.util.StringUtil;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -354,4 +358,25 @@ public class JsonResponseParserTest {
         Assert.assertEquals(tokens.get(1).getRootMessage(), "215923266879361026");
 
     }
+
+    @Test
+    public void testMessagesListResultWithEachEngine() throws Exception {
+        String message = new JSONObject(JsonSignalCommandParserTest.SIGNAL).getJSONObject("signal").getJSONObject("content").toString();
+        String responseString = "{\"success\":true,\"total\":10,\"size\":2,\"response\":[" + message + "," + message + "]}";
+
+        JsonEngine[] engines = {new OrgJsonEngine(), new StreamingJsonEngine()};
+        for (JsonEngine engine : engines) {
+            JsonResponseParser parser = new JsonResponseParser(engine);
+
+            ServerResponse response = parser.parse(responseString);
+            Assert.assertTrue(response instanceof ArrayServerResponse);
+            Assert.assertNotNull(response.getDocument());
+
+            MessageListResult result = parser.parseMessagesListResult(response);
+            Assert.assertEquals(10, result.getTotal());
+            Assert.assertEquals(2, result.getSize());
+            Assert.assertEquals(2, result.getMessages().size());
+            Assert.assertEquals("Yo", result.getMessages().get(1).getBody());
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.zipwhip.api.dto.Contact;
 import com.zipwhip.api.dto.Conversation;
 import com.zipwhip.api.dto.Device;
 import com.zipwhip.api.dto.Message;
+import com.zipwhip.api.json.StreamingJsonEngine;
 import junit.framework.Assert;
 import org.json.JSONObject;
 import org.junit.Before;
@@ -35,8 +36,8 @@ public class JsonSignalParserTest {
 	public void testParseContactSignal() throws Exception {
 		Signal s = parser.parseSignal(new JSONObject(CONTACT));
 		Assert.assertNotNull(s);
-		Assert.assertNotNull(s.content);
-		Assert.assertTrue(s.content instanceof Contact);
+		Assert.assertNotNull(s.getContent());
+		Assert.assertTrue(s.getContent() instanceof Contact);
 
 	}
 
@@ -44,8 +45,8 @@ public class JsonSignalParserTest {
 	public void testParseMessageSignal() throws Exception {
 		Signal s = parser.parseSignal(new JSONObject(MESSAGE));
 		Assert.assertNotNull(s);
-		Assert.assertNotNull(s.content);
-		Assert.assertTrue(s.content instanceof Message);
+		Assert.assertNotNull(s.getContent());
+		Assert.assertTrue(s.getContent() instanceof Message);
 
 	}
 
@@ -53,8 +54,8 @@ public class JsonSignalParserTest {
 	public void testParseConversationSignal() throws Exception {
 		Signal s = parser.parseSignal(new JSONObject(CONVERSATION));
 		Assert.assertNotNull(s);
-		Assert.assertNotNull(s.content);
-		Assert.assertTrue(s.content instanceof Conversation);
+		Assert.assertNotNull(s.getContent());
+		Assert.assertTrue(s.getContent() instanceof Conversation);
 
 	}
 
@@ -62,8 +63,8 @@ public class JsonSignalParserTest {
 	public void testParseDeviceSignal() throws Exception {
 		Signal s = parser.parseSignal(new JSONObject(DEVICE));
 		Assert.assertNotNull(s);
-		Assert.assertNotNull(s.content);
-		Assert.assertTrue(s.content instanceof Device);
+		Assert.assertNotNull(s.getContent());
+		Assert.assertTrue(s.getContent() instanceof Device);
 
 	}
 
@@ -86,4 +87,72 @@ public class JsonSignalParserTest {
 		assertTrue(s.getContent() instanceof Device);
 		assertEquals("Wed Dec 31 16:00:00 PST 1969", ((Device) s.getContent()).getDateCreated().toString());
 	}
+
+	@Test
+	public void testContentIsParsedWhenItIsAskedFor() throws Exception {
+		JSONObject object = new JSONObject(MESSAGE);
+		String json = object.getJSONObject("signal").toString();
+
+		JsonSignal s = (JsonSignal) parser.parseSignal(object, json);
+		assertSame(json, s.getJson());
+		assertEquals("message", s.getType());
+		assertEquals("send", s.getEvent());
+		assertTrue(s.isContentPending());
+
+		Message message = (Message) s.getContent();
+		assertFalse(s.isContentPending());
+		assertEquals("Hello World", message.getBody());
+		assertSame(message, s.getContent());
+	}
+
+	@Test
+	public void testSignalReadAsTokens() throws Exception {
+		String json = CONTACT.substring(CONTACT.indexOf("{\"content\""), CONTACT.indexOf(",\"channel\":\"/device"));
+		JsonSignal s = parser.parseSignal(new StreamingJsonEngine(), json);
+
+		assertEquals("contact", s.getType());
+		assertEquals("change", s.getEvent());
+		assertEquals("device", s.getScope());
+		assertEquals("2147bc3b-9ab4-4f35-98ea-80a3e4ca2d09", s.getUuid());
+		assertEquals("/signal/contact/change", s.getUri());
+		assertSame(json, s.getJson());
+		assertTrue(s.isContentPending());
+
+		assertEquals("Jed", ((Contact) s.getContent()).getFirstName());
+	}
+
+	@Test
+	public void testContentThatCannotBeDecodedIsNull() throws Exception {
+
+		final int[] decoded = new int[1];
+		JsonSignal signal = new JsonSignal("{}", new JsonSignal.ContentDecoder() {
+			@Override
+			public Object decode() throws Exception {
+				decoded[0]++;
+				throw new Exception("malformed");
+			}
+		});
+
+		Assert.assertTrue(signal.isContentPending());
+		Assert.assertNull(signal.getContent());
+		Assert.assertFalse(signal.isContentPending());
+
+		// logged once, not decoded again
+		Assert.assertNull(signal.getContent());
+		Assert.assertEquals(1, decoded[0]);
+	}
+
+	@Test
+	public void testMalformedContentDoesNotFailTheSignal() throws Exception {
+
+		String json = "{\"type\":\"message\",\"event\":\"send\",\"uuid\":\"2147bc3b-9ab4-4f35-98ea-80a3e4ca2d09\",\"content\":[1]}";
+
+		Signal tree = parser.parseSignal(new JSONObject(json));
+		Assert.assertEquals("send", tree.getEvent());
+		Assert.assertNull(tree.getContent());
+
+		Signal tokens = parser.parseSignal(new StreamingJsonEngine(), json);
+		Assert.assertEquals("send", tokens.getEvent());
+		Assert.assertNull(tokens.getContent());
+	}
 }
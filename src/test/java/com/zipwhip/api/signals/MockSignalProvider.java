@@ -39,6 +39,7 @@ public class MockSignalProvider implements SignalProvider {
     private final ObservableHelper<Boolean> presenceReceivedEvent = new ObservableHelper<Boolean>();
     public final ObservableHelper<SubscriptionCompleteCommand> subscriptionCompleteEvent = new ObservableHelper<SubscriptionCompleteCommand>();
     private final ObservableHelper<Command> commandReceivedEvent = new ObservableHelper<Command>();
+    private final SignalRouter signalRouter = new SignalRouter();
 
     protected StateManager<ConnectionState> stateManager;
     protected ObservableFuture<ConnectionHandle> disconnectingFuture = null;
@@ -50,6 +51,7 @@ public class MockSignalProvider implements SignalProvider {
 
     public MockSignalProvider() {
         stateManager = ConnectionStateManagerFactory.getInstance().create();
+        signalEvent.addObserver(signalRouter);
     }
 
     @Override
@@ -229,6 +231,16 @@ public class MockSignalProvider implements SignalProvider {
         return signalEvent;
     }
 
+    @Override
+    public void addSignalObserver(SignalFilter filter, Observer<List<Signal>> observer) {
+        signalRouter.addObserver(filter, observer);
+    }
+
+    @Override
+    public void removeSignalObserver(Observer<List<Signal>> observer) {
+        signalRouter.removeObserver(observer);
+    }
+
     @Override
     public Observable<List<SignalCommand>> getSignalCommandReceivedEvent() {
         return signalCommandEvent;
@@ -0,0 +1,93 @@
+package com.zipwhip.api.signals;
+
+import com.zipwhip.events.ObservableHelper;
+import com.zipwhip.events.Observer;
+import com.zipwhip.util.MicroBenchmark;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.*;
+
+/**
+ * 100 observers that each want 1 kind of signal. Compares every observer getting every signal and filtering it
+ * themselves (what addSignalObserver(observer) does) with the SignalRouter.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SignalRouterBenchmark {
+
+    private static final int OBSERVERS = 100;
+    private static final int SIGNALS = 100000;
+
+    private static final String[] TYPES = {"message", "contact", "conversation", "device", "carbon"};
+    private static final String[] EVENTS = {"send", "read", "delete", "save", "receive", "progress", "change", "sync", "update", "create",
+            "a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+    @Test
+    public void testHundredObservers() throws Exception {
+        final int[] hits = new int[1];
+
+        final ObservableHelper<List<Signal>> broadcast = new ObservableHelper<List<Signal>>("broadcast");
+        final SignalRouter router = new SignalRouter();
+
+        for (int i = 0; i < OBSERVERS; i++) {
+            final SignalFilter filter = new SignalFilter(TYPES[i % TYPES.length], EVENTS[i / TYPES.length], "device");
+
+            broadcast.addObserver(new Observer<List<Signal>>() {
+                @Override
+                public void notify(Object sender, List<Signal> signals) {
+                    for (Signal signal : signals) {
+                        if (filter.matches(signal)) {
+                            hits[0]++;
+                        }
+                    }
+                }
+            });
+
+            router.addObserver(filter, new Observer<List<Signal>>() {
+                @Override
+                public void notify(Object sender, List<Signal> signals) {
+                    hits[0] += signals.size();
+                }
+            });
+        }
+
+        final List<Signal> signal = Collections.singletonList(signal("message", "send", "device"));
+
+        hits[0] = 0;
+        MicroBenchmark.Result everyone = MicroBenchmark.run("every observer filters (100)", SIGNALS, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SIGNALS; i++) {
+                    broadcast.notifyObservers(this, signal);
+                }
+            }
+        });
+        int everyoneHits = hits[0];
+
+        hits[0] = 0;
+        MicroBenchmark.Result routed = MicroBenchmark.run("SignalRouter (100)", SIGNALS, new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SIGNALS; i++) {
+                    router.notify(this, signal);
+                }
+            }
+        });
+
+        // both found the 1 matching observer for every signal.
+        assertEquals(everyoneHits, hits[0]);
+        assertTrue(routed.getOperationsPerSecond() > everyone.getOperationsPerSecond());
+    }
+
+    private static Signal signal(String type, String event, String scope) {
+        Signal signal = new Signal();
+        signal.setType(type);
+        signal.setEvent(event);
+        signal.setScope(scope);
+
+        return signal;
+    }
+}
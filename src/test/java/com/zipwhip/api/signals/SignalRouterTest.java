@@ -0,0 +1,142 @@
+package com.zipwhip.api.signals;
+
+import com.zipwhip.events.Observer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.*;
+
+public class SignalRouterTest {
+
+    private SignalRouter router;
+
+    private RecordingObserver messages;
+    private RecordingObserver messageSends;
+    private RecordingObserver contacts;
+    private RecordingObserver everything;
+
+    @Before
+    public void setUp() throws Exception {
+        router = new SignalRouter();
+
+        messages = new RecordingObserver();
+        messageSends = new RecordingObserver();
+        contacts = new RecordingObserver();
+        everything = new RecordingObserver();
+
+        router.addObserver(new SignalFilter("message"), messages);
+        router.addObserver(new SignalFilter("message", "send", "device"), messageSends);
+        router.addObserver(new SignalFilter("contact"), contacts);
+        router.addObserver(SignalFilter.ALL, everything);
+    }
+
+    @Test
+    public void testOnlyMatchingObserversAreCalled() throws Exception {
+        Signal send = signal("message", "send", "device", "/signal/message/send");
+
+        router.notify(this, Collections.singletonList(send));
+        // the second time comes from the table.
+        router.notify(this, Collections.singletonList(send));
+
+        assertEquals(2, messages.calls);
+        assertEquals(2, messageSends.calls);
+        assertEquals(0, contacts.calls);
+        assertEquals(2, everything.calls);
+
+        router.notify(this, Collections.singletonList(signal("message", "read", "device", "/signal/message/read")));
+
+        assertEquals(3, messages.calls);
+        assertEquals(2, messageSends.calls);
+    }
+
+    @Test
+    public void testBatchesAreSplitPerObserverInOrder() throws Exception {
+        Signal send1 = signal("message", "send", "device", null);
+        Signal contact = signal("contact", "save", "device", null);
+        Signal send2 = signal("message", "send", "device", null);
+        Signal nobody = signal(null, null, null, null);
+
+        router.notify(this, Arrays.asList(send1, contact, send2, nobody));
+
+        assertEquals(1, messages.calls);
+        assertEquals(Arrays.asList(send1, send2), messages.signals);
+        assertEquals(Arrays.asList(contact), contacts.signals);
+        assertEquals(Arrays.asList(send1, contact, send2, nobody), everything.signals);
+    }
+
+    @Test
+    public void testUriPatterns() throws Exception {
+        RecordingObserver sendUris = new RecordingObserver();
+        RecordingObserver messageUris = new RecordingObserver();
+        router.addObserver(new SignalFilter(null, null, null, "/signal/message/send"), sendUris);
+        router.addObserver(new SignalFilter(null, null, null, "/signal/message/*"), messageUris);
+
+        router.notify(this, Collections.singletonList(signal("message", "send", "device", "/signal/message/send")));
+        router.notify(this, Collections.singletonList(signal("message", "read", "device", "/signal/message/read")));
+        router.notify(this, Collections.singletonList(signal("contact", "save", "device", "/signal/contact/save")));
+        router.notify(this, Collections.singletonList(signal("contact", "save", "device", null)));
+
+        assertEquals(1, sendUris.calls);
+        assertEquals(2, messageUris.calls);
+    }
+
+    @Test
+    public void testRemoveObserverRebuildsTheTable() throws Exception {
+        Signal send = signal("message", "send", "device", null);
+        router.notify(this, Collections.singletonList(send));
+
+        assertTrue(router.removeObserver(messages));
+        assertFalse(router.removeObserver(messages));
+        assertEquals(3, router.size());
+
+        router.notify(this, Collections.singletonList(send));
+        router.notify(this, Arrays.asList(send, send));
+
+        assertEquals(1, messages.calls);
+        assertEquals(3, messageSends.calls);
+        assertEquals(4, messageSends.signals.size());
+    }
+
+    @Test
+    public void testAThrowingObserverDoesNotStopTheOthers() throws Exception {
+        SignalRouter router = new SignalRouter();
+        router.addObserver(SignalFilter.ALL, new Observer<List<Signal>>() {
+            @Override
+            public void notify(Object sender, List<Signal> item) {
+                throw new RuntimeException("expected");
+            }
+        });
+        router.addObserver(SignalFilter.ALL, everything);
+
+        router.notify(this, Collections.singletonList(signal("message", "send", "device", null)));
+
+        assertEquals(1, everything.calls);
+    }
+
+    private static Signal signal(String type, String event, String scope, String uri) {
+        Signal signal = new Signal();
+        signal.setType(type);
+        signal.setEvent(event);
+        signal.setScope(scope);
+        signal.setUri(uri);
+
+        return signal;
+    }
+
+    private static class RecordingObserver implements Observer<List<Signal>> {
+
+        int calls;
+        final List<Signal> signals = new ArrayList<Signal>();
+
+        @Override
+        public void notify(Object sender, List<Signal> item) {
+            calls++;
+            signals.addAll(item);
+        }
+    }
+}
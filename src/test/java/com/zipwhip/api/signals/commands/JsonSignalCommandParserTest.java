@@ -1,5 +1,8 @@
 package com.zipwhip.api.signals.commands;
 
+import com.zipwhip.api.dto.Message;
+import com.zipwhip.api.json.StreamingJsonEngine;
+import com.zipwhip.api.signals.JsonSignal;
 import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -160,4 +163,83 @@ public class JsonSignalCommandParserTest {
 		Assert.assertTrue(pingPongCommand.isRequest());
 	}
 
+
+	@Test
+	public void testSignalKeepsItsJson() throws Exception {
+
+		SignalCommand cmd = (SignalCommand) new JsonSignalCommandParser(true).parse(SIGNAL);
+
+		JsonSignal signal = (JsonSignal) cmd.getSignal();
+		String json = signal.getJson();
+
+		// exactly as it was sent, not written back out of a JSONObject
+		Assert.assertTrue(SIGNAL.contains(json));
+		Assert.assertTrue(json.startsWith("{\"content\":{\"to\":\"\",\"body\":\"Yo\""));
+		Assert.assertTrue(json.endsWith("\"uri\":\"/signal/message/send\"}"));
+		Assert.assertEquals("Yo", ((Message) signal.getContent()).getBody());
+	}
+
+	@Test
+	public void testFirehose() throws Exception {
+
+		JsonSignalCommandParser firehose = new JsonSignalCommandParser(true);
+
+		SignalCommand cmd = (SignalCommand) firehose.parse(SIGNAL);
+		SignalCommand expected = (SignalCommand) parser.parse(SIGNAL);
+
+		JsonSignal signal = (JsonSignal) cmd.getSignal();
+		Assert.assertEquals(expected.getSignal().getType(), signal.getType());
+		Assert.assertEquals("message", signal.getType());
+		Assert.assertEquals("send", signal.getEvent());
+		Assert.assertEquals("device", signal.getScope());
+		Assert.assertEquals("5211ae17-d07f-465a-9cb4-0982d3c91952", signal.getUuid());
+		Assert.assertEquals("/signal/message/send", signal.getUri());
+		Assert.assertEquals(expected.getVersion().getKey(), cmd.getVersion().getKey());
+		Assert.assertEquals(Long.valueOf(6), cmd.getVersion().getValue());
+		Assert.assertTrue(signal.isContentPending());
+
+		// the content is still there if anyone wants it
+		Assert.assertEquals("Yo", ((Message) signal.getContent()).getBody());
+
+		// everything else is parsed as normal
+		Assert.assertTrue(firehose.parse(CONNECT) instanceof ConnectCommand);
+		SubscriptionCompleteCommand subscriptionComplete = (SubscriptionCompleteCommand) firehose.parse(SUB_COMPLETE);
+		Assert.assertEquals(parser.parse(SUB_COMPLETE), subscriptionComplete);
+		Assert.assertEquals(Long.valueOf(1), subscriptionComplete.getVersion().getValue());
+		Assert.assertTrue(((PingPongCommand) firehose.parse(PING_PONG)).isRequest());
+	}
+
+	@Test
+	public void testDefaultKeepsTheContentOnTheTree() throws Exception {
+
+		SignalCommand cmd = (SignalCommand) parser.parse(SIGNAL);
+
+		// exactly as it was sent, the same as the firehose keeps it
+		JsonSignal signal = (JsonSignal) cmd.getSignal();
+		JsonSignal firehose = (JsonSignal) ((SignalCommand) new JsonSignalCommandParser(true).parse(SIGNAL)).getSignal();
+		Assert.assertEquals(firehose.getJson(), signal.getJson());
+		Assert.assertEquals("device", signal.getScope());
+		Assert.assertTrue(signal.isContentPending());
+		Assert.assertEquals("Yo", ((Message) signal.getContent()).getBody());
+	}
+
+	@Test
+	public void testStreamingEngine() throws Exception {
+
+		JsonSignalCommandParser streaming = new JsonSignalCommandParser(new StreamingJsonEngine());
+
+		SignalCommand cmd = (SignalCommand) streaming.parse(SIGNAL);
+		SignalCommand expected = (SignalCommand) parser.parse(SIGNAL);
+
+		Assert.assertEquals(((SignalCommand) new JsonSignalCommandParser(true).parse(SIGNAL)).getSignal(), cmd.getSignal());
+		Assert.assertEquals(expected.getSignal().getUri(), cmd.getSignal().getUri());
+		Assert.assertEquals(expected.getSignal().getReason(), cmd.getSignal().getReason());
+		Assert.assertEquals(expected.getVersion().getKey(), cmd.getVersion().getKey());
+		Assert.assertEquals(expected.getVersion().getValue(), cmd.getVersion().getValue());
+		Assert.assertEquals("Yo", ((Message) cmd.getSignal().getContent()).getBody());
+
+		Assert.assertEquals("168d4470-c436-48d8-80bf-48bb9c1f8d7c", ((ConnectCommand) streaming.parse(CONNECT)).getClientId());
+		Assert.assertTrue(streaming.parse(PRESENCE) instanceof PresenceCommand);
+		Assert.assertTrue(streaming.parse(PING_PONG) instanceof PingPongCommand);
+	}
 }
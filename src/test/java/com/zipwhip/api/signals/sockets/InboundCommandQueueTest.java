@@ -0,0 +1,175 @@
+package com.zipwhip.api.signals.sockets;
+
+import com.zipwhip.api.signals.ReadSuspendable;
+import com.zipwhip.api.signals.Signal;
+import com.zipwhip.api.signals.VersionMapEntry;
+import com.zipwhip.api.signals.commands.Command;
+import com.zipwhip.api.signals.commands.PingPongCommand;
+import com.zipwhip.api.signals.commands.SignalCommand;
+import com.zipwhip.events.Observer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.*;
+
+public class InboundCommandQueueTest {
+
+    private final Queue<Runnable> tasks = new LinkedList<Runnable>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    };
+
+    private int processed;
+    private InboundCommandQueue queue;
+    private MockConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        processed = 0;
+        connection = new MockConnection();
+        queue = new InboundCommandQueue(executor, new Observer<Command>() {
+            @Override
+            public void notify(Object sender, Command item) {
+                processed++;
+            }
+        }, 10, 2);
+    }
+
+    @Test
+    public void testSuspendsAtHighAndResumesAtLowWatermark() throws Exception {
+        for (int i = 0; i < 9; i++) {
+            queue.notify(connection, PingPongCommand.getShortformInstance());
+        }
+
+        assertEquals(9, queue.getDepth());
+        assertTrue(connection.readable);
+        assertFalse(queue.isSuspended());
+
+        queue.notify(connection, PingPongCommand.getShortformInstance());
+
+        assertEquals(10, queue.getDepth());
+        assertFalse(connection.readable);
+        assertTrue(queue.isSuspended());
+
+        // drain down to just above the low watermark
+        for (int i = 0; i < 7; i++) {
+            tasks.poll().run();
+        }
+
+        assertEquals(3, queue.getDepth());
+        assertFalse(connection.readable);
+
+        tasks.poll().run();
+
+        assertEquals(2, queue.getDepth());
+        assertTrue(connection.readable);
+        assertFalse(queue.isSuspended());
+        assertEquals(8, processed);
+        assertEquals(1, connection.suspends);
+    }
+
+    @Test
+    public void testSenderThatCannotSuspend() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            queue.notify(this, PingPongCommand.getShortformInstance());
+        }
+
+        assertEquals(20, queue.getDepth());
+        assertFalse(queue.isSuspended());
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertEquals(0, queue.getDepth());
+        assertEquals(20, processed);
+    }
+
+    @Test
+    public void testVersionedCommandsGoToTheirLane() throws Exception {
+        final Queue<Runnable> laneTasks = new LinkedList<Runnable>();
+        VersionKeyLanes lanes = new VersionKeyLanes(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                laneTasks.add(command);
+            }
+        });
+
+        queue = new InboundCommandQueue(executor, lanes, new Observer<Command>() {
+            @Override
+            public void notify(Object sender, Command item) {
+                processed++;
+            }
+        }, 10, 2);
+
+        SignalCommand versioned = new SignalCommand(new Signal());
+        versioned.setVersion(new VersionMapEntry("/channel/1", 5L));
+
+        queue.notify(connection, versioned);
+        queue.notify(connection, PingPongCommand.getShortformInstance());
+
+        assertEquals(1, tasks.size());
+        assertEquals(1, laneTasks.size());
+        assertEquals(1, lanes.getLaneCount());
+        assertEquals(2, queue.getDepth());
+
+        // the lane runs the command, and it stops counting towards the watermarks
+        laneTasks.poll().run();
+
+        assertEquals(1, processed);
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    public void testSingleLaneKeepsTheOrderTheyCameIn() throws Exception {
+        final List<Command> observed = new ArrayList<Command>();
+
+        queue = new InboundCommandQueue(executor, VersionKeyLanes.singleLane(executor), new Observer<Command>() {
+            @Override
+            public void notify(Object sender, Command item) {
+                observed.add(item);
+            }
+        }, 10, 2);
+
+        SignalCommand first = new SignalCommand(new Signal());
+        first.setVersion(new VersionMapEntry("/channel/1", 5L));
+        Command ping = PingPongCommand.getShortformInstance();
+        SignalCommand second = new SignalCommand(new Signal());
+        second.setVersion(new VersionMapEntry("/channel/2", 7L));
+
+        queue.notify(connection, first);
+        queue.notify(connection, ping);
+        queue.notify(connection, second);
+
+        // 1 lane, so 1 task on the executor.
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+
+        assertEquals(Arrays.asList(first, ping, second), observed);
+        assertEquals(0, queue.getDepth());
+    }
+
+    private static class MockConnection implements ReadSuspendable {
+
+        boolean readable = true;
+        int suspends;
+
+        @Override
+        public void setReadable(boolean readable) {
+            if (!readable) {
+                suspends++;
+            }
+            this.readable = readable;
+        }
+    }
+}
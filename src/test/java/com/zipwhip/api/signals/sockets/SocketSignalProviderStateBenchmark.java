@@ -0,0 +1,104 @@
+package com.zipwhip.api.signals.sockets;
+
+import com.zipwhip.concurrent.TestUtil;
+import com.zipwhip.executors.SimpleExecutor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers isConnected() from several threads while another thread keeps taking the provider locks
+ * the way connect/disconnect/reconnect do. Before the snapshot every read had to queue up behind them.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SocketSignalProviderStateBenchmark {
+
+    private static final int READERS = 4;
+    private static final long DURATION_MILLIS = 2000;
+
+    // how long the "reconnect" holds the locks each time, and how long it lets go for.
+    private static final long HOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long RELEASE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Test
+    public void testIsConnectedUnderContention() throws Exception {
+        MockSignalConnection signalConnection = new MockSignalConnection(SimpleExecutor.getInstance());
+        SocketSignalProvider provider = new SocketSignalProvider(signalConnection, SimpleExecutor.getInstance(), null);
+
+        TestUtil.connect(provider);
+
+        try {
+            System.out.println(String.format("Quiet: %,d reads/s", read(provider, signalConnection, false)));
+            System.out.println(String.format("While reconnecting: %,d reads/s", read(provider, signalConnection, true)));
+        } finally {
+            provider.destroy();
+        }
+    }
+
+    private long read(final SocketSignalProvider provider, final MockSignalConnection signalConnection, boolean contended) throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(READERS);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < READERS; i++) {
+            threads.add(new Thread("reader-" + i) {
+                @Override
+                public void run() {
+                    long count = 0;
+                    while (running.get()) {
+                        provider.isConnected();
+                        count++;
+                    }
+                    reads.addAndGet(count);
+                    done.countDown();
+                }
+            });
+        }
+
+        if (contended) {
+            threads.add(new Thread("reconnect") {
+                @Override
+                public void run() {
+                    while (running.get()) {
+                        synchronized (provider) {
+                            synchronized (signalConnection) {
+                                synchronized (provider.PROVIDER_CONNECTION_HANDLE_LOCK) {
+                                    spin(HOLD_NANOS);
+                                }
+                            }
+                        }
+                        spin(RELEASE_NANOS);
+                    }
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+
+        done.await();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return reads.get() * 1000 / DURATION_MILLIS;
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            // busy, like real work under the lock
+        }
+    }
+}
@@ -364,6 +364,53 @@ public class SocketSignalProviderTest {
         assertTrue(signalCommandObserver.isSignalCommandReceived());
         assertEquals(3, signalObserver.signalReceivedCount);
         assertEquals(3, signalCommandObserver.signalCommandReceivedCount);
+
+        // filling the hole released 2 and 3 together, so they came in 1 list.
+        assertEquals(2, signalObserver.notifyCount);
+        assertEquals(2, signalCommandObserver.notifyCount);
+    }
+
+    @Test
+    public void testReleasedSignalsAreDeliveredInBatches() throws Exception {
+
+        signalConnection = new MockSignalConnection(SimpleExecutor.getInstance());
+        provider = new SocketSignalProvider(signalConnection, SimpleExecutor.getInstance(), null);
+        provider.setMaxSignalBatchSize(4);
+
+        provider.connect().await();
+
+        SignalObserver signalObserver = new SignalObserver();
+        provider.getSignalReceivedEvent().addObserver(signalObserver);
+
+        SignalCommandObserver signalCommandObserver = new SignalCommandObserver();
+        provider.getSignalCommandReceivedEvent().addObserver(signalCommandObserver);
+
+        final List<Long> versions = new ArrayList<Long>();
+        provider.getSignalCommandReceivedEvent().addObserver(new Observer<List<SignalCommand>>() {
+            @Override
+            public void notify(Object sender, List<SignalCommand> item) {
+                for (SignalCommand command : item) {
+                    versions.add(command.getVersion().getValue());
+                }
+            }
+        });
+
+        // 1 starts the window, then 3 through 11 are held back waiting for 2.
+        for (long version : new long[]{1, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2}) {
+            SignalCommand signalCommand = new SignalCommand(new Signal());
+            signalCommand.setVersion(new VersionMapEntry("key", version));
+            signalConnection.mockReceive(signalCommand);
+        }
+
+        assertEquals(11, signalObserver.signalReceivedCount);
+        assertEquals(11, signalCommandObserver.signalCommandReceivedCount);
+        // 1, then 4 + 4 + 2
+        assertEquals(4, signalObserver.notifyCount);
+        assertEquals(4, signalCommandObserver.notifyCount);
+
+        for (int i = 0; i < 11; i++) {
+            assertEquals(Long.valueOf(i + 1), versions.get(i));
+        }
     }
 
     @Test
@@ -812,6 +859,48 @@ public class SocketSignalProviderTest {
 
     }
 
+    @Test
+    public void testConnectionStateDoesNotBlockWhileLocked() throws Exception {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        Thread transition = new Thread("transition") {
+            @Override
+            public void run() {
+                synchronized (provider) {
+                    synchronized (signalConnection) {
+                        synchronized (provider.PROVIDER_CONNECTION_HANDLE_LOCK) {
+                            locked.countDown();
+                            try {
+                                release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                }
+            }
+        };
+        transition.start();
+
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            Future<ConnectionState> state = Executors.newSingleThreadExecutor().submit(new Callable<ConnectionState>() {
+                @Override
+                public ConnectionState call() throws Exception {
+                    provider.isConnected();
+                    return provider.getConnectionState();
+                }
+            });
+
+            assertEquals(ConnectionState.DISCONNECTED, state.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            transition.join();
+        }
+    }
+
     /**
      * Custom observer to register that a Signal Command was received
      *
@@ -820,14 +909,18 @@ public class SocketSignalProviderTest {
     private class SignalCommandObserver implements Observer<List<SignalCommand>> {
         boolean signalCommandReceived = false;
         int signalCommandReceivedCount;
+        int notifyCount;
 
         @Override
         public void notify(Object sender, List<SignalCommand> item) {
             assertNotNull(item);
             assertTrue(item.get(0) instanceof SignalCommand);
             signalCommandReceived = true;
-            signalCommandReceivedCount++;
-            System.out.println("Received signal version " + item.get(0).getVersion().getValue());
+            signalCommandReceivedCount += item.size();
+            notifyCount++;
+            for (SignalCommand command : item) {
+                System.out.println("Received signal version " + command.getVersion().getValue());
+            }
         }
 
         /**
@@ -847,6 +940,7 @@ public class SocketSignalProviderTest {
 
         boolean signalReceived = false;
         int signalReceivedCount;
+        int notifyCount;
 
         @Override
         public void notify(Object sender, List<Signal> item) {
@@ -854,7 +948,8 @@ public class SocketSignalProviderTest {
             assertNotNull(item);
             assertTrue(item.get(0).getClass().getSimpleName(), item.get(0) instanceof Signal);
             signalReceived = true;
-            signalReceivedCount++;
+            signalReceivedCount += item.size();
+            notifyCount++;
         }
 
         /**
@@ -0,0 +1,181 @@
+package com.zipwhip.api.signals.sockets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+public class VersionKeyLanesTest {
+
+    private ExecutorService executor;
+    private VersionKeyLanes lanes;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        lanes = new VersionKeyLanes(executor, 8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrderedPerKey() throws Exception {
+        final int keys = 10;
+        final int tasks = 1000;
+
+        final List<List<Integer>> results = new ArrayList<List<Integer>>();
+        for (int i = 0; i < keys; i++) {
+            results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+
+        final CountDownLatch latch = new CountDownLatch(keys * tasks);
+
+        for (int task = 0; task < tasks; task++) {
+            for (int key = 0; key < keys; key++) {
+                final List<Integer> result = results.get(key);
+                final int finalTask = task;
+
+                lanes.execute("/channel/" + key, new Runnable() {
+                    @Override
+                    public void run() {
+                        result.add(finalTask);
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        for (List<Integer> result : results) {
+            assertEquals(tasks, result.size());
+            for (int i = 0; i < tasks; i++) {
+                assertEquals(i, (int) result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testNeverConcurrentWithinAKey() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(500);
+
+        for (int i = 0; i < 500; i++) {
+            lanes.execute("/channel/1", new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.yield();
+                    running.decrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    public void testDifferentKeysRunInParallel() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        for (String key : new String[]{"/channel/1", "/channel/2"}) {
+            lanes.execute(key, new Runnable() {
+                @Override
+                public void run() {
+                    bothRunning.countDown();
+                    try {
+                        // would time out if the 2 keys shared a thread
+                        if (bothRunning.await(5, TimeUnit.SECONDS)) {
+                            done.countDown();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopTheLane() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        lanes.execute("/channel/1", new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("expected");
+            }
+        });
+        lanes.execute("/channel/1", new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testIdleLanesAreDropped() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(100);
+
+        for (int key = 0; key < 100; key++) {
+            lanes.execute("/channel/" + key, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertEquals(100, lanes.getLaneCount());
+
+        release.countDown();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lanes.getLaneCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, lanes.getLaneCount());
+
+        // and the key gets a new lane when it comes back.
+        final CountDownLatch again = new CountDownLatch(1);
+        lanes.execute("/channel/1", new Runnable() {
+            @Override
+            public void run() {
+                again.countDown();
+            }
+        });
+
+        assertTrue(again.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -18,6 +18,7 @@ import org.junit.Test;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.Arrays;
 
 /**
  * Created with IntelliJ IDEA.
@@ -103,6 +104,18 @@ public class NettyChannelHandlerTest {
         Assert.assertTrue(delegate.isConnected);
     }
 
+    @Test
+    public void testWriteRequestedBatchWithPing() throws Exception {
+
+        Object batch = Arrays.asList(new SignalCommand(new Signal()), PingPongCommand.getShortformInstance());
+
+        signalsChannelHandler.writeRequested(null, new DownstreamMessageEvent(mockChannel, new DefaultChannelFuture(null, false), batch, new InetSocketAddress(0)));
+
+        // the ping was coalesced with another write, but it still went out.
+        Assert.assertEquals(1, delegate.pingEventCount);
+        Assert.assertTrue(delegate.isConnected);
+    }
+
     @Test
     public void testChannelIdle_READER_IDLE() throws Exception {
 
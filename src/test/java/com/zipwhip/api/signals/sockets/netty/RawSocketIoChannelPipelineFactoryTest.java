@@ -1,11 +1,9 @@
 package com.zipwhip.api.signals.sockets.netty;
 
-import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoCommandDecoder;
 import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoCommandEncoder;
+import com.zipwhip.api.signals.sockets.netty.pipeline.SocketIoFrameDecoder;
 import junit.framework.Assert;
 import org.jboss.netty.channel.ChannelPipeline;
-import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
-import org.jboss.netty.handler.codec.string.StringDecoder;
 import org.jboss.netty.handler.codec.string.StringEncoder;
 import org.jboss.netty.handler.timeout.IdleStateHandler;
 import org.junit.Before;
@@ -29,10 +27,8 @@ public class RawSocketIoChannelPipelineFactoryTest {
     @Test
     public void testGetPipeline() throws Exception {
         ChannelPipeline pipeline = factory.getPipeline();
-        Assert.assertNotNull(pipeline.get(DelimiterBasedFrameDecoder.class));
-        Assert.assertNotNull(pipeline.get(StringDecoder.class));
+        Assert.assertNotNull(pipeline.get(SocketIoFrameDecoder.class));
         Assert.assertNotNull(pipeline.get(StringEncoder.class));
-        Assert.assertNotNull(pipeline.get(SocketIoCommandDecoder.class));
         Assert.assertNotNull(pipeline.get(SocketIoCommandEncoder.class));
         Assert.assertNotNull(pipeline.get(IdleStateHandler.class));
     }
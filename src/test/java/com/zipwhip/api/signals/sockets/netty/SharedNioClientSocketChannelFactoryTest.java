@@ -0,0 +1,235 @@
+package com.zipwhip.api.signals.sockets.netty;
+
+import com.zipwhip.api.signals.reconnect.DefaultReconnectStrategy;
+import com.zipwhip.api.signals.sockets.ConnectionHandle;
+import com.zipwhip.api.signals.sockets.ConnectionState;
+import com.zipwhip.concurrent.ObservableFuture;
+import com.zipwhip.concurrent.TestUtil;
+import com.zipwhip.executors.CommonExecutorFactory;
+import com.zipwhip.executors.CommonExecutorTypes;
+import com.zipwhip.executors.NamedThreadFactory;
+import com.zipwhip.timers.HashedWheelTimer;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Soak test for the NIO transport. Many {@code NettySignalConnection}s connect to a local stand-in server while
+ * sharing 1 {@code SharedNioClientSocketChannelFactory}. The number of threads must stay fixed no matter how many
+ * connections are open.
+ * <p/>
+ * The default of 50 connections fits in the unit test run. For a real soak, raise it with
+ * -Dzipwhip.soak.connections=2000 (each connection uses 2 file descriptors, so check ulimit -n first).
+ */
+public class SharedNioClientSocketChannelFactoryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedNioClientSocketChannelFactoryTest.class);
+
+    private static final int CONNECTIONS = Integer.getInteger("zipwhip.soak.connections", 50);
+    private static final int WORKER_COUNT = 4;
+
+    /**
+     * 1 nio boss + the nio workers + 1 events thread + 2 timers, with some slack for the JVM and the stand-in server.
+     */
+    private static final int THREAD_BUDGET = 1 + WORKER_COUNT + 1 + 2 + 16;
+
+    private ServerBootstrap server;
+    private Channel serverChannel;
+    private InetSocketAddress address;
+    private final AtomicInteger acceptedChannels = new AtomicInteger();
+
+    private ExecutorService events;
+    private SharedNioClientSocketChannelFactory channelFactory;
+    private RawSocketIoChannelPipelineFactory channelPipelineFactory;
+    private HashedWheelTimer reconnectTimer;
+    private CommonExecutorFactory executorFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        // the stand-in server just accepts the sockets and holds them open.
+        server = new ServerBootstrap(new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool(), 2));
+        server.setPipelineFactory(new ChannelPipelineFactory() {
+            @Override
+            public ChannelPipeline getPipeline() throws Exception {
+                return Channels.pipeline(new SimpleChannelUpstreamHandler() {
+                    @Override
+                    public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+                        acceptedChannels.incrementAndGet();
+                    }
+                });
+            }
+        });
+        serverChannel = server.bind(new InetSocketAddress("127.0.0.1", 0));
+        address = (InetSocketAddress) serverChannel.getLocalAddress();
+
+        events = Executors.newSingleThreadExecutor(new NamedThreadFactory("SoakTest-events-"));
+        executorFactory = new CommonExecutorFactory() {
+            @Override
+            public ExecutorService create(CommonExecutorTypes type, String name) {
+                switch (type) {
+                    case BOSS:
+                        return Executors.newFixedThreadPool(1, new NamedThreadFactory(name + "-boss-"));
+                    case WORKER:
+                        return Executors.newFixedThreadPool(WORKER_COUNT, new NamedThreadFactory(name + "-worker-"));
+                    case EVENTS:
+                        // every connection shares 1 events thread, the connections will try to shut it down.
+                        return new UnstoppableExecutorService(events);
+                }
+
+                throw new IllegalStateException("Not sure! " + type);
+            }
+
+            @Override
+            public ExecutorService create() {
+                return create(CommonExecutorTypes.EVENTS, "SoakTest");
+            }
+        };
+
+        channelFactory = new SharedNioClientSocketChannelFactory(executorFactory, WORKER_COUNT);
+        channelPipelineFactory = new RawSocketIoChannelPipelineFactory();
+        reconnectTimer = new HashedWheelTimer(new NamedThreadFactory("SoakTest-reconnect-"), 1, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channelFactory.destroy();
+        channelPipelineFactory.destroy();
+        reconnectTimer.stop();
+        events.shutdownNow();
+
+        serverChannel.close().awaitUninterruptibly();
+        server.releaseExternalResources();
+    }
+
+    @Test
+    public void testThousandsOfConnectionsOnFixedThreadBudget() throws Exception {
+        final int threadsBefore = Thread.activeCount();
+
+        List<NettySignalConnection> connections = new ArrayList<NettySignalConnection>(CONNECTIONS);
+        List<ObservableFuture<ConnectionHandle>> futures = new ArrayList<ObservableFuture<ConnectionHandle>>(CONNECTIONS);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            NettySignalConnection connection = newConnection();
+            connections.add(connection);
+            futures.add(connection.connect());
+        }
+
+        for (ObservableFuture<ConnectionHandle> future : futures) {
+            TestUtil.awaitAndAssertSuccess(future);
+        }
+
+        LOGGER.info(String.format("Connected %d connections in %dms", CONNECTIONS, System.currentTimeMillis() - start));
+
+        for (NettySignalConnection connection : connections) {
+            assertEquals(ConnectionState.CONNECTED, connection.getConnectionState());
+        }
+
+        final int threadsConnected = Thread.activeCount();
+        LOGGER.info(String.format("Threads before: %d, with %d connections: %d", threadsBefore, CONNECTIONS, threadsConnected));
+        assertTrue(String.format("Used %d threads for %d connections", threadsConnected - threadsBefore, CONNECTIONS),
+                threadsConnected - threadsBefore <= THREAD_BUDGET);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (acceptedChannels.get() < CONNECTIONS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(CONNECTIONS, acceptedChannels.get());
+
+        futures.clear();
+        for (NettySignalConnection connection : connections) {
+            futures.add(connection.disconnect());
+        }
+
+        for (ObservableFuture<ConnectionHandle> future : futures) {
+            TestUtil.awaitAndAssertSuccess(future);
+        }
+
+        for (NettySignalConnection connection : connections) {
+            connection.destroy();
+        }
+
+        assertTrue(Thread.activeCount() - threadsBefore <= THREAD_BUDGET);
+    }
+
+    @Test
+    public void testDestroyDoesNotReleaseSharedFactory() throws Exception {
+        NettySignalConnection connection1 = newConnection();
+        NettySignalConnection connection2 = newConnection();
+
+        TestUtil.awaitAndAssertSuccess(connection1.connect());
+        TestUtil.awaitAndAssertSuccess(connection1.disconnect());
+        connection1.destroy();
+
+        assertFalse(channelFactory.isDestroyed());
+
+        TestUtil.awaitAndAssertSuccess(connection2.connect());
+        assertEquals(ConnectionState.CONNECTED, connection2.getConnectionState());
+        TestUtil.awaitAndAssertSuccess(connection2.disconnect());
+        connection2.destroy();
+    }
+
+    private NettySignalConnection newConnection() {
+        NettySignalConnection connection = new NettySignalConnection(executorFactory,
+                new DefaultReconnectStrategy(reconnectTimer), channelPipelineFactory, channelFactory);
+        connection.setAddress(address);
+
+        return connection;
+    }
+
+    /**
+     * Lets many connections share 1 executor without letting any one of them shut it down.
+     */
+    private static class UnstoppableExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService executor;
+
+        private UnstoppableExecutorService(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            executor.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+}
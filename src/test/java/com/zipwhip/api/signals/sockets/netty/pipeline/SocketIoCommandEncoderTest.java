@@ -0,0 +1,97 @@
+package com.zipwhip.api.signals.sockets.netty.pipeline;
+
+import com.zipwhip.api.signals.commands.BackfillCommand;
+import com.zipwhip.api.signals.commands.ConnectCommand;
+import com.zipwhip.signals.server.protocol.SocketIoProtocol;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static junit.framework.Assert.*;
+
+public class SocketIoCommandEncoderTest {
+
+    private EncoderEmbedder<ChannelBuffer> embedder;
+
+    @Before
+    public void setUp() throws Exception {
+        embedder = new EncoderEmbedder<ChannelBuffer>(new SocketIoCommandEncoder());
+    }
+
+    @Test
+    public void testConnectCommand() throws Exception {
+        Map<String, Long> versions = new HashMap<String, Long>();
+        for (int i = 0; i < 500; i++) {
+            versions.put("/device/1234" + i + "/channel", (long) i);
+        }
+
+        ConnectCommand command = new ConnectCommand("1234567890123456789", versions);
+
+        embedder.offer(command);
+
+        assertEquals(SocketIoProtocol.connectMessageResponse(command.serialize(), command.getClientId()),
+                embedder.poll().toString(CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public void testMessageIdsIncrement() throws Exception {
+        List<Long> range = new ArrayList<Long>();
+        for (long i = 0; i < 1000; i++) {
+            range.add(i);
+        }
+
+        BackfillCommand first = new BackfillCommand(Arrays.asList(1l, 2l), "/device/12345");
+        BackfillCommand second = new BackfillCommand(range, "/device/12345");
+
+        embedder.offer(first);
+        embedder.offer(second);
+
+        assertEquals(SocketIoProtocol.jsonMessageResponse(0, first.serialize()), embedder.poll().toString(CharsetUtil.UTF_8));
+        assertEquals(SocketIoProtocol.jsonMessageResponse(1, second.serialize()), embedder.poll().toString(CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public void testBatchIsOneBuffer() throws Exception {
+        BackfillCommand first = new BackfillCommand(Arrays.asList(1l, 2l), "/device/12345");
+        BackfillCommand second = new BackfillCommand(Arrays.asList(5l), "/device/67890");
+
+        embedder.offer(Arrays.asList(first, second));
+
+        assertEquals(SocketIoProtocol.jsonMessageResponse(0, first.serialize()) + SocketIoProtocol.jsonMessageResponse(1, second.serialize()),
+                embedder.poll().toString(CharsetUtil.UTF_8));
+        assertNull(embedder.poll());
+    }
+
+    @Test
+    public void testWriteLong() throws Exception {
+        long[] values = {0, 7, 10, 1234567890123l, -1, -10, -987654321, Long.MAX_VALUE, Long.MIN_VALUE};
+
+        for (long value : values) {
+            ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1);
+            SocketIoCommandEncoder.writeLong(buffer, value);
+
+            assertEquals(Long.toString(value), buffer.toString(CharsetUtil.UTF_8));
+        }
+    }
+
+    @Test
+    public void testChannelBufferWriterEncodesUtf8() throws Exception {
+        String string = "a\u00e9\u20ac\ud83d\ude00z";
+
+        ChannelBufferWriter writer = new ChannelBufferWriter(ChannelBuffers.dynamicBuffer(1));
+        writer.write(string);
+        writer.close();
+
+        assertEquals(ChannelBuffers.copiedBuffer(string, CharsetUtil.UTF_8), writer.getBuffer());
+    }
+
+}
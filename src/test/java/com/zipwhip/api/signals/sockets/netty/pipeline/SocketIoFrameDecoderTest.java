@@ -0,0 +1,128 @@
+package com.zipwhip.api.signals.sockets.netty.pipeline;
+
+import com.zipwhip.api.signals.commands.Command;
+import com.zipwhip.api.signals.commands.ConnectCommand;
+import com.zipwhip.api.signals.commands.PingPongCommand;
+import com.zipwhip.signals.server.protocol.SocketIoProtocol;
+import com.zipwhip.util.Parser;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.*;
+
+public class SocketIoFrameDecoderTest {
+
+    private DecoderEmbedder<Object> embedder;
+
+    @Before
+    public void setUp() throws Exception {
+        embedder = new DecoderEmbedder<Object>(new SocketIoFrameDecoder());
+    }
+
+    @Test
+    public void testConnectCommand() throws Exception {
+        embedder.offer(buffer("123456789012345678:1600:1780:rawsocket,websocket,xhr-polling\n"));
+
+        ConnectCommand command = (ConnectCommand) embedder.poll();
+        assertEquals("123456789012345678", command.getClientId());
+    }
+
+    @Test
+    public void testJsonCommand() throws Exception {
+        String json = "{\"versions\":{\"heartbeat\":1600,\"disconnect\":1780},\"action\":\"CONNECT\",\"clientId\":\"1234567890123456789\"}";
+
+        embedder.offer(buffer(SocketIoProtocol.encode(1, json)));
+
+        ConnectCommand command = (ConnectCommand) embedder.poll();
+        assertEquals("1234567890123456789", command.getClientId());
+    }
+
+    @Test
+    public void testBadJsonIsDropped() throws Exception {
+        embedder.offer(buffer("4::{1234567890123456789:1600:1780:rawsocket,websocket,xhr-polling}\n"));
+
+        assertNull(embedder.poll());
+    }
+
+    @Test
+    public void testHeartBeat() throws Exception {
+        embedder.offer(buffer("2::\n3:::\r\n"));
+
+        assertSame(PingPongCommand.getShortformInstance(), embedder.poll());
+        assertSame(PingPongCommand.getShortformInstance(), embedder.poll());
+        assertNull(embedder.poll());
+    }
+
+    @Test
+    public void testPayloadSlice() throws Exception {
+        RecordingParser parser = new RecordingParser();
+        embedder = new DecoderEmbedder<Object>(new SocketIoFrameDecoder(parser));
+
+        // 2 frames and half of a third in the first read, the rest in the second.
+        embedder.offer(buffer("4:1::{\"a\":\"b:c\"}\r\n4:2:/endpoint:{}\n4:3::{\"unicode\":\"\u00e9"));
+        assertEquals(2, parser.payloads.size());
+
+        embedder.offer(buffer("\u00e8\"}\n"));
+
+        assertEquals(3, parser.payloads.size());
+        assertEquals("{\"a\":\"b:c\"}", parser.payloads.get(0));
+        assertEquals("{}", parser.payloads.get(1));
+        assertEquals("{\"unicode\":\"\u00e9\u00e8\"}", parser.payloads.get(2));
+    }
+
+    @Test
+    public void testEmptyLinesAndUnknownTypesAreSkipped() throws Exception {
+        RecordingParser parser = new RecordingParser();
+        embedder = new DecoderEmbedder<Object>(new SocketIoFrameDecoder(parser));
+
+        embedder.offer(buffer("\r\n\n1::\n8::\n0::\n4:::{}\n"));
+
+        assertEquals(1, parser.payloads.size());
+        assertEquals("{}", parser.payloads.get(0));
+    }
+
+    @Test
+    public void testTooLongFrame() throws Exception {
+        RecordingParser parser = new RecordingParser();
+        embedder = new DecoderEmbedder<Object>(new SocketIoFrameDecoder(parser, 16));
+
+        try {
+            embedder.offer(buffer("4:::{\"this frame is too long\""));
+            fail("Expected a TooLongFrameException");
+        } catch (CodecEmbedderException e) {
+            assertTrue(e.getCause() instanceof TooLongFrameException);
+        }
+
+        // the rest of the long frame is thrown away, the next one is fine.
+        embedder.offer(buffer(",\"still\":\"too long\"}\n4:::{}\n"));
+
+        assertEquals(1, parser.payloads.size());
+        assertEquals("{}", parser.payloads.get(0));
+    }
+
+    private static ChannelBuffer buffer(String string) {
+        return ChannelBuffers.copiedBuffer(string, CharsetUtil.UTF_8);
+    }
+
+    private static class RecordingParser implements Parser<String, Command<?>> {
+
+        private final List<String> payloads = new ArrayList<String>();
+
+        @Override
+        public Command<?> parse(String string) throws Exception {
+            payloads.add(string);
+
+            return null;
+        }
+    }
+
+}
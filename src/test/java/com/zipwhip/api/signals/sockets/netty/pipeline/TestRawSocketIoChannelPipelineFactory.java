@@ -16,6 +16,8 @@ import org.jboss.netty.handler.timeout.IdleStateHandler;
 import org.jboss.netty.util.HashedWheelTimer;
 import org.jboss.netty.util.Timer;
 
+import java.util.List;
+
 /**
  * The whole purpose of this class is to generate a pong timeout by intercepting a ping and dropping it.
  */
@@ -60,6 +62,23 @@ public class TestRawSocketIoChannelPipelineFactory extends DestroyableBase imple
         @Override
         protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
 
+            if (msg instanceof List) {
+                // a batch of coalesced writes from the ChannelWrapper
+                StringBuilder batch = new StringBuilder();
+                for (Object command : (List<?>) msg) {
+                    String message = encode(command);
+                    if (message != null) {
+                        batch.append(message);
+                    }
+                }
+                return batch.length() == 0 ? null : batch.toString();
+            }
+
+            return encode(msg);
+        }
+
+        private String encode(Object msg) {
+
             System.out.println("encoding...");
 
             String message = null;
@@ -0,0 +1,86 @@
+package com.zipwhip.concurrent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.*;
+
+public class HoleSetTest {
+
+    String key = "channel:/1234-5678-9012";
+
+    HoleSet holes;
+
+    @Before
+    public void setUp() throws Exception {
+        holes = new HoleSet();
+    }
+
+    @Test
+    public void testAddMergesTouchingRanges() throws Exception {
+        holes.addRange(1, 3);
+        holes.addRange(7, 9);
+        holes.add(5);
+
+        assertEquals(3, holes.getRangeCount());
+        assertEquals(7, holes.size());
+
+        holes.add(4);
+        holes.add(6);
+
+        assertEquals(1, holes.getRangeCount());
+        assertEquals(9, holes.size());
+        assertEquals(Arrays.asList(new HoleRange(key, 1, 9)), holes.getRanges(key));
+
+        assertFalse(holes.add(5));
+        holes.addRange(2, 8);
+        assertEquals(9, holes.size());
+    }
+
+    @Test
+    public void testRemoveSplitsRanges() throws Exception {
+        holes.addRange(1, 10);
+
+        assertTrue(holes.remove(5));
+        assertFalse(holes.remove(5));
+        assertEquals(Arrays.asList(new HoleRange(key, 1, 4), new HoleRange(key, 6, 10)), holes.getRanges(key));
+
+        holes.removeRange(3, 7);
+        assertEquals(Arrays.asList(new HoleRange(key, 1, 2), new HoleRange(key, 8, 10)), holes.getRanges(key));
+        assertEquals(5, holes.size());
+
+        holes.removeRange(0, 100);
+        assertTrue(holes.isEmpty());
+        assertEquals(0, holes.size());
+    }
+
+    @Test
+    public void testHugeRanges() throws Exception {
+        holes.addRange(2, 5000000);
+        holes.addRange(5000002, 5000003);
+
+        assertEquals(5000001, holes.size());
+        assertEquals(2, holes.getRangeCount());
+        assertEquals(2, holes.first());
+        assertTrue(holes.contains(4999999));
+        assertFalse(holes.contains(5000001));
+
+        assertEquals(Long.valueOf(3), holes.nextAfter(2));
+        assertEquals(Long.valueOf(5000002), holes.nextAfter(5000000));
+        assertNull(holes.nextAfter(5000003));
+    }
+
+    @Test
+    public void testIntersect() throws Exception {
+        holes.addRange(2, 4);
+        holes.addRange(7, 100);
+
+        List<HoleRange> existing = holes.intersect(key, Arrays.asList(new HoleRange(key, 3, 8), new HoleRange(key, 50, 200)));
+
+        assertEquals(Arrays.asList(new HoleRange(key, 3, 4), new HoleRange(key, 7, 8), new HoleRange(key, 50, 100)), existing);
+        assertTrue(holes.intersect(key, Arrays.asList(new HoleRange(key, 5, 6))).isEmpty());
+    }
+}
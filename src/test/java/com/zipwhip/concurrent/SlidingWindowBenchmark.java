@@ -0,0 +1,90 @@
+package com.zipwhip.concurrent;
+
+import com.zipwhip.timers.HashedWheelTimer;
+import com.zipwhip.util.FlexibleTimedEvictionMap;
+import com.zipwhip.util.MicroBenchmark;
+import com.zipwhip.util.SequenceRingBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Compares the window storage that SlidingWindow used to have (a FlexibleTimedEvictionMap and a TreeSet of holes)
+ * with the ring buffer and HoleSet it uses now, on the in-order path that nearly every signal takes.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SlidingWindowBenchmark {
+
+    private static final int PACKETS = 100000;
+    private static final Object PACKET = new Object();
+
+    @Test
+    public void testInOrderStorage() throws Exception {
+        MicroBenchmark.Result tree = MicroBenchmark.run("FlexibleTimedEvictionMap + TreeSet", PACKETS, new Runnable() {
+            @Override
+            public void run() {
+                FlexibleTimedEvictionMap<Long, Object> window = new FlexibleTimedEvictionMap<Long, Object>(100, 0);
+                Set<Long> holes = new TreeSet<Long>();
+
+                for (long sequence = 0; sequence < PACKETS; sequence++) {
+                    if (window.containsKey(sequence) || holes.contains(sequence)) {
+                        throw new IllegalStateException();
+                    }
+                    window.put(sequence, PACKET);
+                    window.shrink();
+                }
+            }
+        });
+
+        MicroBenchmark.Result ring = MicroBenchmark.run("SequenceRingBuffer + HoleSet", PACKETS, new Runnable() {
+            @Override
+            public void run() {
+                SequenceRingBuffer<Object> window = new SequenceRingBuffer<Object>(100, 0);
+                HoleSet holes = new HoleSet();
+
+                for (long sequence = 0; sequence < PACKETS; sequence++) {
+                    if (window.containsKey(sequence) || holes.contains(sequence)) {
+                        throw new IllegalStateException();
+                    }
+                    window.put(sequence, PACKET);
+                    window.shrink();
+                }
+            }
+        });
+
+        if (ring.allocatedBytes >= 0) {
+            assertTrue(ring.getBytesPerOperation() < tree.getBytesPerOperation());
+        }
+    }
+
+    @Test
+    public void testReceive() throws Exception {
+        final SlidingWindow<Object> window = new SlidingWindow<Object>(new HashedWheelTimer(), "benchmark", 100, 0);
+        final List<Object> results = new ArrayList<Object>();
+
+        MicroBenchmark.run("SlidingWindow.receive (every 10th late)", PACKETS, new Runnable() {
+            @Override
+            public void run() {
+                long base = window.getIndexSequence() + 1;
+
+                for (long i = 0; i < PACKETS; i += 10) {
+                    // 1 packet in 10 shows up after the one behind it, a positive hole and then a filled hole.
+                    window.receive(base + i + 1, PACKET, results);
+                    window.receive(base + i, PACKET, results);
+                    for (long j = 2; j < 10; j++) {
+                        window.receive(base + i + j, PACKET, results);
+                    }
+                    results.clear();
+                }
+            }
+        });
+
+        window.destroy();
+    }
+}
@@ -6,7 +6,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -293,6 +296,51 @@ public class SlidingWindowTest {
         Assert.assertEquals(new Long(4), packetsReleasedObserver.packets.get(0));
     }
 
+    @Test
+    public void testReleaseExecutor() throws Exception {
+        final ExecutorService releaseExecutor = Executors.newSingleThreadExecutor();
+        final Thread[] releasedOn = new Thread[1];
+        final long[] indexSequence = new long[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<Long> packets = new ArrayList<Long>();
+
+        window.setHoleTimeoutMillis(10);
+        window.setSize(4);
+        window.setReleaseExecutor(releaseExecutor);
+        window.onPacketsReleased(new Observer<List<Long>>() {
+            @Override
+            public void notify(Object sender, List<Long> items) {
+                releasedOn[0] = Thread.currentThread();
+                // the window has already moved past the hole.
+                indexSequence[0] = window.getIndexSequence();
+                packets.addAll(items);
+                latch.countDown();
+            }
+        });
+
+        try {
+            List<Long> results = new ArrayList<Long>();
+
+            Assert.assertEquals(SlidingWindow.ReceiveResult.EXPECTED_SEQUENCE, window.receive(1L, 1L, results));
+            Assert.assertEquals(SlidingWindow.ReceiveResult.POSITIVE_HOLE, window.receive(4L, 4L, results));
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+            Thread executorThread = releaseExecutor.submit(new Callable<Thread>() {
+                @Override
+                public Thread call() throws Exception {
+                    return Thread.currentThread();
+                }
+            }).get();
+
+            Assert.assertSame(executorThread, releasedOn[0]);
+            Assert.assertEquals(4L, indexSequence[0]);
+            Assert.assertEquals(Collections.singletonList(4L), packets);
+        } finally {
+            releaseExecutor.shutdownNow();
+        }
+    }
+
     @Test
     public void testLastValue() throws Exception {
         Long value = SlidingWindow.getNextValueAfter(Arrays.asList(0L, 1L, 2L, 3L, 4L).iterator(), 3);
@@ -756,6 +804,77 @@ public class SlidingWindowTest {
         Assert.assertEquals(4L, holes.get(0).end);
     }
 
+    @Test
+    public void testReceive_POSITIVE_HOLE_HugeJump() throws Exception {
+        HoleTimeoutObserver holeTimeoutObserver = new HoleTimeoutObserver();
+        PacketsReleasedObserver packetsReleasedObserver = new PacketsReleasedObserver();
+
+        window.setHoleTimeoutMillis(10);
+        window.onHoleTimeout(holeTimeoutObserver);
+        window.onPacketsReleased(packetsReleasedObserver);
+
+        List<Long> results = new ArrayList<Long>();
+
+        Assert.assertEquals(SlidingWindow.ReceiveResult.EXPECTED_SEQUENCE, window.receive(1L, 1L, results));
+        results.clear();
+
+        long start = System.currentTimeMillis();
+        Assert.assertEquals(SlidingWindow.ReceiveResult.POSITIVE_HOLE, window.receive(5000001L, 5000001L, results));
+        Assert.assertEquals(0, results.size());
+        // 5 million boxed Longs used to take seconds, this is 1 range.
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        assertEquals(1, window.holes.getRangeCount());
+        assertEquals(4999999, window.holes.size());
+        assertTrue(window.fillsAHole(2L));
+        assertTrue(window.fillsAHole(5000000L));
+        assertFalse(window.fillsAHole(5000001L));
+
+        assertTrue(holeTimeoutObserver.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(packetsReleasedObserver.latch.await(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals(2L, holeTimeoutObserver.hole.start);
+        Assert.assertEquals(5000000L, holeTimeoutObserver.hole.end);
+
+        Assert.assertEquals(1, packetsReleasedObserver.packets.size());
+        Assert.assertEquals(new Long(5000001), packetsReleasedObserver.packets.get(0));
+    }
+
+    @Test
+    public void testReceive_HOLE_FILLED_HugeJump() throws Exception {
+        List<Long> results = new ArrayList<Long>();
+
+        Assert.assertEquals(SlidingWindow.ReceiveResult.EXPECTED_SEQUENCE, window.receive(1L, 1L, results));
+        Assert.assertEquals(SlidingWindow.ReceiveResult.POSITIVE_HOLE, window.receive(3L, 3L, results));
+        Assert.assertEquals(SlidingWindow.ReceiveResult.POSITIVE_HOLE, window.receive(3000000L, 3000000L, results));
+        results.clear();
+
+        assertEquals(2, window.holes.getRangeCount());
+
+        // filling the middle of a huge hole splits it but releases nothing
+        Assert.assertEquals(SlidingWindow.ReceiveResult.HOLE_FILLED, window.receive(1500000L, 1500000L, results));
+        Assert.assertEquals(0, results.size());
+        assertEquals(3, window.holes.getRangeCount());
+
+        // filling the first hole releases up to the next hole
+        Assert.assertEquals(SlidingWindow.ReceiveResult.HOLE_FILLED, window.receive(2L, 2L, results));
+        Assert.assertEquals(Arrays.asList(2L, 3L), results);
+        Assert.assertEquals(3L, window.getIndexSequence());
+    }
+
+    @Test
+    public void testGetHolesBetweenHugeJump() throws Exception {
+        window.window.put(1L, 1L);
+        window.window.put(5L, 5L);
+        window.window.put(6L, 6L);
+
+        List<HoleRange> holes = window.getHolesBetween(1L, 10000000L);
+
+        assertEquals(2, holes.size());
+        assertEquals(new HoleRange(key, 2L, 4L), holes.get(0));
+        assertEquals(new HoleRange(key, 7L, 9999999L), holes.get(1));
+    }
+
     private class HoleTimeoutObserver implements Observer<HoleRange> {
 
         protected HoleRange hole;
@@ -0,0 +1,160 @@
+package com.zipwhip.executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+
+public class InstrumentedExecutorTest {
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testCountsQueueDepthAndWaitTime() throws Exception {
+        InstrumentedExecutor executor = new InstrumentedExecutor(pool, "test");
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 2; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(3, executor.getSubmittedCount());
+
+        Thread.sleep(20);
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(2, executor.getMaxQueueDepth());
+        assertEquals(3, executor.getCompletedCount());
+        assertEquals(3, executor.getWaitTime().getCount());
+        assertEquals(3, executor.getRunTime().getCount());
+        // the 2 that queued behind the blocked task waited at least the 20ms we slept.
+        assertTrue(executor.getWaitTime().getMaxMicros() >= 20000);
+        assertTrue(executor.getRunTime().getMaxMicros() >= 20000);
+    }
+
+    @Test
+    public void testFailedSlowAndRejectedTasks() throws Exception {
+        InstrumentedExecutor executor = new InstrumentedExecutor(SimpleExecutor.getInstance(), "test", 10, 0);
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException("expected");
+                }
+            });
+            fail("SimpleExecutor runs it on this thread, so we should have seen the exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(15);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertEquals(1, executor.getFailedCount());
+        assertEquals(2, executor.getCompletedCount());
+        assertEquals(1, executor.getSlowCount());
+
+        pool.shutdown();
+        InstrumentedExecutor rejecting = new InstrumentedExecutor(pool, "rejecting");
+        try {
+            rejecting.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail("Should have been rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        assertEquals(1, rejecting.getRejectedCount());
+        assertEquals(0, rejecting.getQueueDepth());
+    }
+
+    @Test
+    public void testHistogramFromManyThreads() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int threads = 4;
+        final int records = 100000;
+
+        List<Thread> list = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < records; i++) {
+                        // 99% take 1-2us, 1% take 1 second.
+                        histogram.record(i % 100 == 0 ? TimeUnit.SECONDS.toNanos(1) : 1500);
+                    }
+                }
+            });
+            thread.start();
+            list.add(thread);
+        }
+        for (Thread thread : list) {
+            thread.join();
+        }
+
+        assertEquals(threads * records, histogram.getCount());
+        assertEquals(1000000, histogram.getMaxMicros());
+        assertTrue(histogram.getPercentileMicros(50) <= 1);
+        assertTrue(histogram.getPercentileMicros(99) <= 1);
+        assertTrue(histogram.getPercentileMicros(99.9) >= 500000);
+    }
+}
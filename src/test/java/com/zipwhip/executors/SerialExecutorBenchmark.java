@@ -0,0 +1,102 @@
+package com.zipwhip.executors;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+
+/**
+ * Compares 10,000 single thread executors (what ThreadBoundary, ChannelWrapper and SignalConnectionBase used to
+ * create for themselves) with 10,000 SerialExecutor lanes on a small fixed pool.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SerialExecutorBenchmark {
+
+    private static final int LANES = 10000;
+    private static final int TASKS_PER_LANE = 100;
+    private static final int ROUNDS = 3;
+
+    private interface LaneFactory {
+        ExecutorService create(int index);
+    }
+
+    @Test
+    public void testTenThousandLanes() throws Exception {
+        double single = measure("newSingleThreadExecutor x " + LANES, new LaneFactory() {
+            @Override
+            public ExecutorService create(int index) {
+                return Executors.newSingleThreadExecutor();
+            }
+        });
+
+        final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        double serial;
+        try {
+            serial = measure("SerialExecutor x " + LANES, new LaneFactory() {
+                @Override
+                public ExecutorService create(int index) {
+                    return new SerialExecutor(pool, "lane-" + index);
+                }
+            });
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(serial > 0 && single > 0);
+    }
+
+    private double measure(String name, LaneFactory factory) throws Exception {
+        int threadsBefore = Thread.activeCount();
+
+        List<ExecutorService> lanes = new ArrayList<ExecutorService>(LANES);
+        for (int i = 0; i < LANES; i++) {
+            lanes.add(factory.create(i));
+        }
+
+        double best = 0;
+        int peakThreads = 0;
+
+        for (int round = 0; round < ROUNDS + 1; round++) {
+            final CountDownLatch latch = new CountDownLatch(LANES * TASKS_PER_LANE);
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            };
+
+            long start = System.nanoTime();
+            // round robin, so every lane always has something queued.
+            for (int i = 0; i < TASKS_PER_LANE; i++) {
+                for (ExecutorService lane : lanes) {
+                    lane.execute(task);
+                }
+            }
+
+            assertTrue(latch.await(5, TimeUnit.MINUTES));
+            long nanos = System.nanoTime() - start;
+
+            peakThreads = Math.max(peakThreads, Thread.activeCount() - threadsBefore);
+
+            // the first round is the warm up.
+            if (round > 0) {
+                best = Math.max(best, LANES * TASKS_PER_LANE * 1000000000d / nanos);
+            }
+        }
+
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+
+        System.out.println(String.format("%-40s %,14.0f tasks/s %,8d threads", name, best, peakThreads));
+
+        return best;
+    }
+}
@@ -0,0 +1,334 @@
+package com.zipwhip.executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.*;
+
+public class SerialExecutorTest {
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testRunsInOrderOneAtATime() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, "test", 8);
+
+        final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+
+        for (int i = 0; i < 1000; i++) {
+            final int finalI = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    results.add(finalI);
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, overlaps.get());
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) results.get(i));
+        }
+    }
+
+    @Test
+    public void testLanesShareThePool() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            new SerialExecutor(pool, "lane-" + i).execute(new Runnable() {
+                @Override
+                public void run() {
+                    bothRunning.countDown();
+                    try {
+                        // would time out if the 2 lanes weren't running in parallel
+                        if (bothRunning.await(5, TimeUnit.SECONDS)) {
+                            done.countDown();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testShutdownNowOnlyStopsTheLane() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        SerialExecutor executor = new SerialExecutor(pool, "test");
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                fail("Should have been dropped");
+            }
+        });
+
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        List<Runnable> dropped = executor.shutdownNow();
+        assertEquals(1, dropped.size());
+        assertTrue(executor.isShutdown());
+        assertFalse(executor.isTerminated());
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail("Should have been rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        release.countDown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // the shared pool is still fine
+        assertFalse(pool.isShutdown());
+        final CountDownLatch other = new CountDownLatch(1);
+        new SerialExecutor(pool, "other").execute(new Runnable() {
+            @Override
+            public void run() {
+                other.countDown();
+            }
+        });
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopTheLane() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool, "test");
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("expected");
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testManyProducersKeepTheirOwnOrder() throws Exception {
+        final SerialExecutor executor = new SerialExecutor(pool, "test", 8);
+
+        final int producers = 4;
+        final int tasks = 10000;
+        final int[] lastSeen = new int[producers];
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final AtomicInteger ran = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        // the tasks touch lastSeen without a lock, which is only safe because the lane runs them 1 at a time.
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            lastSeen[producer] = -1;
+
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+
+                    for (int i = 0; i < tasks; i++) {
+                        final int sequence = i;
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (lastSeen[producer] != sequence - 1) {
+                                    outOfOrder.incrementAndGet();
+                                }
+                                lastSeen[producer] = sequence;
+                                ran.incrementAndGet();
+                            }
+                        });
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(producers * tasks, ran.get());
+        assertEquals(0, outOfOrder.get());
+    }
+
+    @Test
+    public void testRejectedTaskNeverRuns() throws Exception {
+        final AtomicInteger ran = new AtomicInteger();
+        final ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+
+        SerialExecutor executor = new SerialExecutor(stopped, "test");
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ran.incrementAndGet();
+                }
+            });
+            fail("The shared executor should have rejected the lane");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        // the rejected task is not left behind in the lane.
+        assertEquals(0, ran.get());
+        assertTrue(executor.shutdownNow().isEmpty());
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void testRejectFailsTheTasksQueuedBehindIt() throws Exception {
+        final AtomicInteger ran = new AtomicInteger();
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        final List<Future<?>> queued = new ArrayList<Future<?>>();
+        final SerialExecutor[] lane = new SerialExecutor[1];
+
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                ran.incrementAndGet();
+            }
+        };
+
+        lane[0] = new SerialExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (reject.get()) {
+                    // another producer gets in while the lane is still scheduled.
+                    queued.add(lane[0].submit(task));
+                    throw new RejectedExecutionException("full");
+                }
+
+                command.run();
+            }
+        }, "test");
+
+        try {
+            lane[0].execute(task);
+            fail("The shared executor should have rejected the lane");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        assertEquals(1, queued.size());
+        assertTrue(queued.get(0).isCancelled());
+
+        // the lane went idle, so the next task schedules a drain of its own.
+        reject.set(false);
+        lane[0].execute(task);
+
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    public void testRejectedDrainFailsTheRestOfTheLane() throws Exception {
+        final List<Runnable> drains = new ArrayList<Runnable>();
+        final AtomicInteger ran = new AtomicInteger();
+
+        SerialExecutor executor = new SerialExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (!drains.isEmpty()) {
+                    throw new RejectedExecutionException("full");
+                }
+
+                drains.add(command);
+            }
+        }, "test", 1);
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                ran.incrementAndGet();
+            }
+        };
+
+        Future<?> first = executor.submit(task);
+        Future<?> second = executor.submit(task);
+        Future<?> third = executor.submit(task);
+
+        // runs one task, then can't get back in line.
+        drains.get(0).run();
+
+        assertEquals(1, ran.get());
+        assertTrue(first.isDone());
+        assertTrue(second.isCancelled());
+        assertTrue(third.isCancelled());
+        assertTrue(executor.shutdownNow().isEmpty());
+        assertTrue(executor.isTerminated());
+    }
+}
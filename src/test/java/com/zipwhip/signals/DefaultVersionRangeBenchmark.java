@@ -0,0 +1,90 @@
+package com.zipwhip.signals;
+
+import com.zipwhip.timers.HashedWheelTimer;
+import com.zipwhip.timers.Timer;
+import com.zipwhip.util.MicroBenchmark;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds 100k versions to a DefaultVersionRange in a few arrival orders.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class DefaultVersionRangeBenchmark {
+
+    private static final int VERSIONS = 100000;
+
+    private Timer timer;
+
+    @Before
+    public void setUp() throws Exception {
+        timer = new HashedWheelTimer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        timer.stop();
+    }
+
+    @Test
+    public void testInOrder() throws Exception {
+        run("in order", new long[0]);
+    }
+
+    @Test
+    public void testEveryTenthLate() throws Exception {
+        // 1 in 10 versions shows up 5 versions late
+        long[] order = new long[VERSIONS];
+        for (int i = 0; i < VERSIONS; i++) {
+            order[i] = i + 1;
+        }
+        for (int i = 0; i + 5 < VERSIONS; i += 10) {
+            long late = order[i];
+            System.arraycopy(order, i + 1, order, i, 5);
+            order[i + 5] = late;
+        }
+
+        run("every 10th 5 late", order);
+    }
+
+    @Test
+    public void testShuffledBlocks() throws Exception {
+        // shuffled inside blocks of 100, lots of holes open at once
+        long[] order = new long[VERSIONS];
+        for (int i = 0; i < VERSIONS; i++) {
+            order[i] = i + 1;
+        }
+
+        Random random = new Random(42);
+        for (int block = 0; block < VERSIONS; block += 100) {
+            for (int i = Math.min(VERSIONS, block + 100) - 1; i > block; i--) {
+                int j = block + random.nextInt(i - block + 1);
+                long swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+        }
+
+        run("shuffled in blocks of 100", order);
+    }
+
+    private void run(String name, final long[] order) {
+        MicroBenchmark.run("DefaultVersionRange " + name, 2, 3, VERSIONS, new Runnable() {
+            @Override
+            public void run() {
+                DefaultVersionRange range = new DefaultVersionRange(timer, 1, TimeUnit.HOURS);
+
+                for (int i = 0; i < VERSIONS; i++) {
+                    range.add(order.length == 0 ? i + 1 : order[i]);
+                }
+
+                range.takeHoles();
+            }
+        });
+    }
+}
@@ -245,7 +245,7 @@ public class DefaultVersionRangeTest {
             list.add(new DefaultVersionRange.Value(value));
         }
 
-        assertEquals(list, versionRange.list);
+        assertEquals(list, versionRange.getValues());
     }
 
     private void assertHoleCount(int holes) {
@@ -1,8 +1,14 @@
 package com.zipwhip.util;
 
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.Assert;
 
@@ -86,4 +92,78 @@ public class JsonDateUtilTest {
         Assert.assertEquals(c.get(Calendar.SECOND), 36);
 	}
 
+	@Test
+	public void testGetDateWithAZone() throws Exception {
+
+		Calendar c = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+		c.clear();
+		c.set(2011, Calendar.SEPTEMBER, 9, 22, 4, 44);
+
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2011-09-09T15:04:44-07:00"));
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2011-09-09T15:04:44-0700"));
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2011-09-10T03:34:44+05:30"));
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2011-09-09t22:04:44z"));
+
+		c.set(Calendar.MILLISECOND, 120);
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2011-09-09T22:04:44.12Z"));
+
+		c.clear();
+		c.set(2012, Calendar.FEBRUARY, 29, 0, 0, 0);
+		Assert.assertEquals(c.getTime(), JsonDateUtil.getDate("2012-02-29T00:00:00Z"));
+	}
+
+	@Test
+	public void testGetDateFromManyThreads() throws Exception {
+
+		final int threads = 8;
+		final int dates = 20000;
+		final String[] zones = {"Z", "-07:00", "+05:30", "-0800", "+01"};
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicReference<String> failure = new AtomicReference<String>();
+
+		for (int t = 0; t < threads; t++) {
+			final long seed = t;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Random random = new Random(seed);
+						SimpleDateFormat text = new SimpleDateFormat("MMM d, yyyy h:mm:ss aaa", Locale.US);
+						SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+
+						start.await();
+
+						for (int i = 0; i < dates && failure.get() == null; i++) {
+							// a few days around now, so the days repeat like they do in a response
+							long time = (1325376000L + random.nextInt(5 * 24 * 60 * 60)) * 1000;
+
+							String zone = zones[random.nextInt(zones.length)];
+							iso.setTimeZone(TimeZone.getTimeZone(zone.equals("Z") ? "GMT" : "GMT" + zone));
+							String isoDate = iso.format(new Date(time)) + zone;
+							if (JsonDateUtil.getDate(isoDate).getTime() != time) {
+								failure.compareAndSet(null, isoDate);
+							}
+
+							String textDate = text.format(new Date(time));
+							if (!text.parse(textDate).equals(JsonDateUtil.getDate(textDate))) {
+								failure.compareAndSet(null, textDate);
+							}
+						}
+					} catch (Exception e) {
+						failure.compareAndSet(null, e.toString());
+					} finally {
+						done.countDown();
+					}
+				}
+			}).start();
+		}
+
+		start.countDown();
+		done.await();
+
+		Assert.assertNull(failure.get());
+	}
+
 }
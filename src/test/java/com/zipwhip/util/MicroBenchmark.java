@@ -0,0 +1,111 @@
+package com.zipwhip.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * A tiny harness for the *Benchmark classes in the test tree. They are named so that surefire does not pick them up,
+ * run them from the IDE (they are plain JUnit tests) when you want numbers.
+ * <p/>
+ * Allocation is measured with the HotSpot {@code getThreadAllocatedBytes} if it is available, otherwise it's reported as -1.
+ */
+public class MicroBenchmark {
+
+    public static final int DEFAULT_WARMUPS = 5;
+    public static final int DEFAULT_ITERATIONS = 10;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findGetThreadAllocatedBytes();
+
+    public static class Result {
+
+        public final String name;
+        public final long operations;
+        public final long nanos;
+        public final long allocatedBytes;
+
+        Result(String name, long operations, long nanos, long allocatedBytes) {
+            this.name = name;
+            this.operations = operations;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public double getOperationsPerSecond() {
+            return operations * 1000000000d / Math.max(1, nanos);
+        }
+
+        public double getBytesPerOperation() {
+            return allocatedBytes < 0 ? -1 : (double) allocatedBytes / Math.max(1, operations);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %,14.0f ops/s %,10.1f bytes/op", name, getOperationsPerSecond(), getBytesPerOperation());
+        }
+    }
+
+    /**
+     * Run {@code operation} for warmups + iterations rounds and report the measured rounds.
+     *
+     * @param name                   What to print.
+     * @param operationsPerIteration How many operations 1 call to {@code operation.run()} does.
+     * @param operation              The thing to measure.
+     * @return The totals of the measured rounds.
+     */
+    public static Result run(String name, long operationsPerIteration, Runnable operation) {
+        return run(name, DEFAULT_WARMUPS, DEFAULT_ITERATIONS, operationsPerIteration, operation);
+    }
+
+    public static Result run(String name, int warmups, int iterations, long operationsPerIteration, Runnable operation) {
+        for (int i = 0; i < warmups; i++) {
+            operation.run();
+        }
+
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+
+        long nanos = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+
+        Result result = new Result(name, operationsPerIteration * iterations, nanos,
+                allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+
+        System.out.println(result);
+
+        return result;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if the JVM can't tell us.
+     */
+    public static long getAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static Method findGetThreadAllocatedBytes() {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(THREAD_MX_BEAN)) {
+                return null;
+            }
+
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.zipwhip.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import static junit.framework.Assert.*;
+
+public class SequenceRingBufferTest {
+
+    static final int DEFAULT_IDEAL_SIZE = 5;
+    static final long DEFAULT_MIN_EVICTION_AGE = 100;
+
+    SequenceRingBuffer<Long> buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = new SequenceRingBuffer<Long>(DEFAULT_IDEAL_SIZE, DEFAULT_MIN_EVICTION_AGE);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.isEmpty());
+        assertFalse(buffer.containsKey(0));
+        assertNull(buffer.get(0));
+
+        try {
+            buffer.firstKey();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+
+        try {
+            buffer.lastKey();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        buffer.put(10, 10L);
+        buffer.put(12, 12L);
+        buffer.put(9, 9L);
+
+        assertEquals(3, buffer.size());
+        assertEquals(9, buffer.firstKey());
+        assertEquals(12, buffer.lastKey());
+        assertEquals(Long.valueOf(12), buffer.get(12));
+        assertFalse(buffer.containsKey(11));
+        assertEquals(new TreeSet<Long>(Arrays.asList(9L, 10L, 12L)), buffer.keySet());
+
+        assertEquals(Long.valueOf(10), buffer.put(10, 100L));
+        assertEquals(3, buffer.size());
+        assertEquals(Long.valueOf(100), buffer.get(10));
+    }
+
+    @Test
+    public void testGrowsWhenSpanIsWiderThanCapacity() throws Exception {
+        for (long i = 0; i < 1000; i += 3) {
+            buffer.put(i, i);
+        }
+
+        assertEquals(334, buffer.size());
+        assertEquals(1024, buffer.getCapacity());
+
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i % 3 == 0, buffer.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testHugeJumpSpillsInsteadOfLosingValues() throws Exception {
+        buffer.put(1, 1L);
+        buffer.put(2, 2L);
+        buffer.put(5000000, 5000000L);
+        // below the ring, lands with the spilled values
+        buffer.put(3, 3L);
+
+        assertEquals(SequenceRingBuffer.MIN_CAPACITY, buffer.getCapacity());
+        assertEquals(4, buffer.size());
+        assertEquals(1, buffer.firstKey());
+        assertEquals(5000000, buffer.lastKey());
+        assertEquals(Long.valueOf(2), buffer.get(2));
+        assertEquals(Long.valueOf(3), buffer.get(3));
+        assertEquals(new TreeSet<Long>(Arrays.asList(1L, 2L, 3L, 5000000L)), buffer.keySet());
+
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertFalse(buffer.containsKey(1));
+    }
+
+    @Test
+    public void testTimedShrink() throws Exception {
+        for (long i = 0; i < 7; i++) {
+            buffer.put(i, i);
+        }
+
+        buffer.shrink();
+        assertEquals(7, buffer.size()); // 7 since we haven't expired
+
+        Thread.sleep(101);
+
+        buffer.shrink();
+        assertEquals(6, buffer.size());
+        assertEquals(1, buffer.firstKey());
+
+        buffer.shrink(5);
+        assertEquals(5, buffer.size());
+        assertEquals(2, buffer.firstKey());
+    }
+}
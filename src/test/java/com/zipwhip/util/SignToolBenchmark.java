@@ -0,0 +1,96 @@
+package com.zipwhip.util;
+
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.*;
+
+/**
+ * 32 threads signing urls at once. One Mac behind a lock (the only safe way to use the old SignTool from many
+ * threads) against the pooled SignTool.
+ * <p/>
+ * Not run by the build, run it from the IDE.
+ */
+public class SignToolBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int SIGNATURES_PER_THREAD = 20000;
+    private static final int ROUNDS = 3;
+
+    private static final String SECRET = "123456asdfasdf123456asdfasdf";
+    private static final String URL = "api/v1/message/send?contacts=2065551234&body=Hello+from+the+benchmark&session=1443-2436546745637-636578-74487745:12345&apiKey=123456&date=1325376000000";
+
+    private interface Signer {
+        String sign(String data) throws Exception;
+    }
+
+    @Test
+    public void testThirtyTwoThreads() throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(SECRET.getBytes("UTF8"), "HmacSHA1"));
+
+        double locked = measure("synchronized Mac x " + THREADS + " threads", new Signer() {
+            @Override
+            public String sign(String data) throws Exception {
+                synchronized (mac) {
+                    return Base64.encode(mac.doFinal(data.getBytes("UTF8")));
+                }
+            }
+        });
+
+        final SignTool tool = new SignTool("123456", SECRET);
+        double pooled = measure("SignTool x " + THREADS + " threads", new Signer() {
+            @Override
+            public String sign(String data) throws Exception {
+                return tool.sign(data);
+            }
+        });
+
+        assertTrue(pooled > locked);
+    }
+
+    private double measure(String name, final Signer signer) throws Exception {
+        double best = 0;
+
+        for (int round = 0; round < ROUNDS + 1; round++) {
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(THREADS);
+
+            for (int t = 0; t < THREADS; t++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (int i = 0; i < SIGNATURES_PER_THREAD; i++) {
+                                signer.sign(URL);
+                            }
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.MINUTES));
+            long nanos = System.nanoTime() - begin;
+
+            // the first round is the warm up.
+            if (round > 0) {
+                best = Math.max(best, THREADS * SIGNATURES_PER_THREAD * 1000000000d / nanos);
+            }
+        }
+
+        System.out.println(String.format("%-40s %,14.0f signatures/s", name, best));
+
+        return best;
+    }
+}
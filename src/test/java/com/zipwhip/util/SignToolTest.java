@@ -0,0 +1,158 @@
+package com.zipwhip.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static junit.framework.Assert.*;
+
+public class SignToolTest {
+
+    private static final String API_KEY = "123456";
+    private static final String SECRET = "123456asdfasdf123456asdfasdf";
+
+    private static final int THREADS = 32;
+    private static final int SIGNATURES_PER_THREAD = 2000;
+
+    SignTool authenticator;
+
+    @Before
+    public void setUp() throws Exception {
+        authenticator = new SignTool(API_KEY, SECRET);
+    }
+
+    @Test
+    public void testSign() throws Exception {
+        assertEquals("0nLKjJhbFKt0rpm8lrLU1QYJ4dg=", authenticator.sign("api/v1/user/verify?param1=hi&param2=mom"));
+        // and again, with the pooled Mac
+        assertEquals("0nLKjJhbFKt0rpm8lrLU1QYJ4dg=", authenticator.sign("api/v1/user/verify?param1=hi&param2=mom"));
+    }
+
+    @Test
+    public void testSignNotAscii() throws Exception {
+        String data = "api/v1/message/send?body=café&contacts=2063758020";
+        assertEquals(reference(data), authenticator.sign(data));
+    }
+
+    @Test
+    public void testSignLongerThanBuffer() throws Exception {
+        StringBuilder builder = new StringBuilder("api/v1/message/send?contacts=");
+        for (int i = 0; i < 200; i++) {
+            builder.append("206555").append(1000 + i).append("%2C");
+        }
+
+        assertEquals(reference(builder.toString()), authenticator.sign(builder.toString()));
+    }
+
+    @Test
+    public void testNotPrepared() throws Exception {
+        SignTool tool = new SignTool();
+        assertFalse(tool.prepared());
+        assertNull(tool.sign("api/v1/user/verify"));
+
+        tool.setSecret(SECRET);
+        assertTrue(tool.prepared());
+
+        tool.setSecret(null);
+        assertFalse(tool.prepared());
+        assertNull(tool.sign("api/v1/user/verify"));
+    }
+
+    @Test
+    public void testChangeSecret() throws Exception {
+        String data = "api/v1/user/verify?param1=hi&param2=mom";
+        String before = authenticator.sign(data);
+
+        authenticator.setSecret("another secret");
+        assertFalse(before.equals(authenticator.sign(data)));
+
+        authenticator.setSecret(SECRET);
+        assertEquals(before, authenticator.sign(data));
+    }
+
+    @Test
+    public void testEncodeBase64() throws Exception {
+        // RFC 4648
+        assertEquals("", Base64.encode("".getBytes("UTF8")));
+        assertEquals("Zg==", Base64.encode("f".getBytes("UTF8")));
+        assertEquals("Zm8=", Base64.encode("fo".getBytes("UTF8")));
+        assertEquals("Zm9v", Base64.encode("foo".getBytes("UTF8")));
+        assertEquals("Zm9vYg==", Base64.encode("foob".getBytes("UTF8")));
+        assertEquals("Zm9vYmE=", Base64.encode("fooba".getBytes("UTF8")));
+        assertEquals("Zm9vYmFy", Base64.encode("foobar".getBytes("UTF8")));
+
+        // BASE64Encoder wrapped at 76 characters, there must be no line breaks now
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        String encoded = Base64.encode(data);
+        assertEquals(Base64.getEncodedLength(data.length), encoded.length());
+        assertEquals(-1, encoded.indexOf('\n'));
+
+        StringBuilder builder = new StringBuilder("x");
+        Base64.encode(data, 0, data.length, builder);
+        assertEquals("x" + encoded, builder.toString());
+    }
+
+    @Test
+    public void testSignFromManyThreads() throws Exception {
+        final String[] data = new String[SIGNATURES_PER_THREAD];
+        final String[] expected = new String[SIGNATURES_PER_THREAD];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = "api/v1/message/send?contacts=206555" + i + "&body=hello+" + i + "&date=" + (1325376000000L + i);
+            expected[i] = reference(data[i]);
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        // every thread walks the same strings from a different place, so they are never in step
+                        for (int i = 0; i < SIGNATURES_PER_THREAD; i++) {
+                            int index = (i + offset * 61) % SIGNATURES_PER_THREAD;
+                            String signature = authenticator.sign(data[index]);
+                            if (!expected[index].equals(signature)) {
+                                throw new AssertionError(data[index] + " signed as " + signature + " not " + expected[index]);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "SignToolTest-" + t).start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(1, TimeUnit.MINUTES));
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    /**
+     * What the signature should be, with a fresh Mac that nothing else touches.
+     */
+    private static String reference(String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(SECRET.getBytes("UTF8"), "HmacSHA1"));
+
+        return Base64.encode(mac.doFinal(data.getBytes("UTF8")));
+    }
+
+}